@@ -0,0 +1,187 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+import com.microsoft.azure.storage.core.Base64;
+import com.microsoft.azure.storage.core.SR;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class Base64Tests {
+
+    @Test
+    public void testKnownVectors() throws UnsupportedEncodingException {
+        // RFC 4648 section 10
+        final String[] plain = { "", "f", "fo", "foo", "foob", "fooba", "foobar" };
+        final String[] encoded = { "", "Zg==", "Zm8=", "Zm9v", "Zm9vYg==", "Zm9vYmE=", "Zm9vYmFy" };
+
+        for (int i = 0; i < plain.length; i++) {
+            final byte[] bytes = plain[i].getBytes(Constants.UTF8_CHARSET);
+            assertEquals(encoded[i], Base64.encode(bytes));
+            assertArrayEquals(bytes, Base64.decode(encoded[i]));
+            assertTrue(Base64.validateIsBase64String(encoded[i]));
+        }
+
+        assertEquals("+/+/", Base64.encode(new byte[] { (byte) 0xFB, (byte) 0xFF, (byte) 0xBF }));
+        assertArrayEquals(new byte[] { (byte) 0xFB, (byte) 0xFF, (byte) 0xBF }, Base64.decode("+/+/"));
+    }
+
+    @Test
+    public void testRangeApisRoundTrip() throws UnsupportedEncodingException {
+        final Random random = new Random(46);
+        for (int length = 0; length < 200; length++) {
+            final byte[] data = new byte[length + 5];
+            random.nextBytes(data);
+            final byte[] expected = Arrays.copyOfRange(data, 3, 3 + length);
+            final String encoded = Base64.encode(expected);
+            final int encodedLength = Base64.encodedLength(length);
+            assertEquals(encodedLength, encoded.length());
+
+            final char[] chars = new char[encodedLength + 2];
+            assertEquals(encodedLength, Base64.encode(data, 3, length, chars, 1));
+            assertEquals(encoded, new String(chars, 1, encodedLength));
+
+            final byte[] ascii = new byte[encodedLength + 2];
+            assertEquals(encodedLength, Base64.encode(data, 3, length, ascii, 2));
+            assertEquals(encoded, new String(ascii, 2, encodedLength, "US-ASCII"));
+
+            assertEquals(length, Base64.decodedLength(encoded));
+            assertEquals(length, Base64.decodedLength(chars, 1, encodedLength));
+
+            byte[] decoded = new byte[length + 1];
+            assertEquals(length, Base64.decode(encoded, decoded, 1));
+            assertArrayEquals(expected, Arrays.copyOfRange(decoded, 1, length + 1));
+
+            decoded = new byte[length + 1];
+            assertEquals(length, Base64.decode(chars, 1, encodedLength, decoded, 1));
+            assertArrayEquals(expected, Arrays.copyOfRange(decoded, 1, length + 1));
+
+            final Byte[] boxed = Base64.decodeAsByteObjectArray(encoded);
+            assertEquals(encoded, Base64.encode(boxed));
+        }
+    }
+
+    @Test
+    public void testByteBufferRoundTrip() throws UnsupportedEncodingException {
+        final Random random = new Random(47);
+        for (int length = 0; length < 100; length++) {
+            final byte[] data = new byte[length];
+            random.nextBytes(data);
+            final String encoded = Base64.encode(data);
+
+            for (final boolean direct : new boolean[] { false, true }) {
+                final ByteBuffer source = allocate(length + 1, direct);
+                source.put((byte) 0).put(data).flip();
+                source.position(1);
+
+                final ByteBuffer ascii = allocate(encoded.length() + 3, direct);
+                ascii.position(3);
+                assertEquals(encoded.length(), Base64.encode(source, ascii));
+                assertFalse(source.hasRemaining());
+                assertFalse(ascii.hasRemaining());
+
+                ascii.position(3);
+                final byte[] asciiBytes = new byte[encoded.length()];
+                ascii.duplicate().get(asciiBytes);
+                assertEquals(encoded, new String(asciiBytes, "US-ASCII"));
+
+                final ByteBuffer decoded = allocate(length, direct);
+                assertEquals(length, Base64.decode(ascii, decoded));
+                assertFalse(ascii.hasRemaining());
+                decoded.flip();
+                final byte[] decodedBytes = new byte[length];
+                decoded.get(decodedBytes);
+                assertArrayEquals(data, decodedBytes);
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidInput() throws UnsupportedEncodingException {
+        final String[] invalid = { "A", "AB", "ABC", "AB=C", "A===", "====", "A=AA", "AA==AAAA", "AB*D", "ABéD",
+                "ABŁD" };
+        for (final String data : invalid) {
+            assertFalse(data, Base64.validateIsBase64String(data));
+            try {
+                Base64.decode(data);
+                fail(data);
+            }
+            catch (IllegalArgumentException e) {
+                assertEquals(SR.STRING_NOT_VALID, e.getMessage());
+            }
+
+            try {
+                Base64.decode(ByteBuffer.wrap(data.getBytes(Constants.UTF8_CHARSET)), ByteBuffer.allocate(16));
+                fail(data);
+            }
+            catch (IllegalArgumentException e) {
+                assertEquals(SR.STRING_NOT_VALID, e.getMessage());
+            }
+        }
+
+        assertFalse(Base64.validateIsBase64String(null));
+    }
+
+    @Test
+    public void testDestinationTooSmall() {
+        try {
+            Base64.decode("Zm9vYmFy", new byte[5], 0);
+            fail();
+        }
+        catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+
+        try {
+            Base64.decode(ByteBuffer.wrap(new byte[] { 'Z', 'm', '9', 'v' }), ByteBuffer.allocate(2));
+            fail();
+        }
+        catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+
+        try {
+            Base64.encode(new byte[3], 0, 3, new char[8], 5);
+            fail();
+        }
+        catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+
+        try {
+            Base64.encode(ByteBuffer.wrap(new byte[3]), ByteBuffer.allocate(3));
+            fail();
+        }
+        catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    private static ByteBuffer allocate(final int capacity, final boolean direct) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+import com.microsoft.azure.storage.blob.BlobRequestOptions;
+import com.microsoft.azure.storage.core.Base64;
+import com.microsoft.azure.storage.core.ByteBufferOutputStream;
+import com.microsoft.azure.storage.core.OutputStreamWriteChannel;
+import com.microsoft.azure.storage.core.RangeReadChannel;
+import com.microsoft.azure.storage.core.StreamMd5AndLength;
+import com.microsoft.azure.storage.core.Utility;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class ByteBufferTransferTests {
+
+    private static byte[] randomBytes(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+
+    private static void assertReadToBuffer(ByteBuffer buffer) throws Exception {
+        byte[] data = randomBytes(100 * 1024);
+        buffer.position(7);
+        ByteBufferOutputStream outputStream = new ByteBufferOutputStream(buffer);
+        StreamMd5AndLength descriptor = Utility.writeToOutputStream(new ByteArrayInputStream(data), outputStream, -1,
+                false /* rewindSourceStream */, true /* calculateMD5 */, null, new BlobRequestOptions());
+
+        assertEquals(data.length, outputStream.getPosition());
+        assertEquals(data.length, descriptor.getLength());
+        assertEquals(Base64.encode(MessageDigest.getInstance("MD5").digest(data)), descriptor.getMd5());
+
+        byte[] written = new byte[data.length];
+        buffer.position(7);
+        buffer.get(written);
+        assertArrayEquals(data, written);
+    }
+
+    @Test
+    public void testReadToHeapBuffer() throws Exception {
+        assertReadToBuffer(ByteBuffer.allocate(100 * 1024 + 10));
+    }
+
+    @Test
+    public void testReadToDirectBuffer() throws Exception {
+        assertReadToBuffer(ByteBuffer.allocateDirect(100 * 1024 + 10));
+    }
+
+    @Test
+    public void testReadToBufferOverflow() throws Exception {
+        try {
+            Utility.writeToOutputStream(new ByteArrayInputStream(new byte[100]), new ByteBufferOutputStream(
+                    ByteBuffer.allocate(99)), -1, false, false, null, new BlobRequestOptions());
+            fail();
+        }
+        catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static class MemoryReadChannel extends RangeReadChannel {
+        private final byte[] data;
+
+        private final List<Long> requests = new ArrayList<Long>();
+
+        private MemoryReadChannel(byte[] data, int minimumReadSize, int maximumReadSize) {
+            super(data.length, minimumReadSize, maximumReadSize);
+            this.data = data;
+        }
+
+        @Override
+        protected void downloadRange(long offset, long count, ByteBuffer target) {
+            this.requests.add(count);
+            target.put(this.data, (int) offset, (int) count);
+        }
+    }
+
+    @Test
+    public void testRangeReadChannel() throws Exception {
+        byte[] data = randomBytes(10000);
+        MemoryReadChannel channel = new MemoryReadChannel(data, 1000, 4000);
+
+        // Small reads are served from one read-ahead range.
+        ByteBuffer small = ByteBuffer.allocate(100);
+        assertEquals(100, channel.read(small));
+        small.clear();
+        assertEquals(100, channel.read(small));
+        assertEquals(Arrays.asList(1000L), channel.requests);
+
+        // A large read first drains the read-ahead range, then downloads directly, capped at the maximum read size.
+        ByteBuffer large = ByteBuffer.allocateDirect(9800);
+        assertEquals(800, channel.read(large));
+        assertEquals(4000, channel.read(large));
+        assertEquals(Arrays.asList(1000L, 4000L), channel.requests);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(data, 0, 200);
+        while (channel.read(large) != -1) {
+            // read to the end
+        }
+
+        assertEquals(10000, channel.getPosition());
+        large.flip();
+        byte[] rest = new byte[large.remaining()];
+        large.get(rest);
+        output.write(rest);
+        assertArrayEquals(data, output.toByteArray());
+
+        channel.close();
+        assertFalse(channel.isOpen());
+    }
+
+    @Test
+    public void testOutputStreamWriteChannel() throws Exception {
+        byte[] data = randomBytes(100 * 1024);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        OutputStreamWriteChannel channel = new OutputStreamWriteChannel(output);
+
+        ByteBuffer heap = ByteBuffer.wrap(data, 0, 1000);
+        assertEquals(1000, channel.write(heap));
+        assertFalse(heap.hasRemaining());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length - 1000);
+        direct.put(data, 1000, data.length - 1000).flip();
+        assertEquals(data.length - 1000, channel.write(direct));
+
+        channel.close();
+        assertArrayEquals(data, output.toByteArray());
+    }
+}
@@ -0,0 +1,243 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+import com.microsoft.azure.storage.core.DateCodec;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class DateCodecTests {
+
+    private static final String RFC1123_PATTERN = "EEE, dd MMM yyyy HH:mm:ss 'GMT'";
+
+    private static final String ISO8601_PATTERN = "yyyy-MM-dd'T'HH:mm:ss'Z'";
+
+    private static final String ISO8601_MILLIS_PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
+
+    /**
+     * 0001-01-01T00:00:00Z
+     */
+    private static final long MIN_TIME = -62135769600000L;
+
+    /**
+     * 9999-12-31T23:59:59.999Z
+     */
+    private static final long MAX_TIME = 253402300799999L;
+
+    @Test
+    public void testFormatMatchesSimpleDateFormat() {
+        final SimpleDateFormat rfc1123 = createFormat(RFC1123_PATTERN);
+        final SimpleDateFormat iso8601 = createFormat(ISO8601_PATTERN);
+        final SimpleDateFormat iso8601Millis = createFormat(ISO8601_MILLIS_PATTERN);
+
+        final Random random = new Random(41);
+        for (int i = 0; i < 100000; i++) {
+            final Date date = new Date(randomTime(random, i));
+            assertEquals(rfc1123.format(date), DateCodec.formatRFC1123(date));
+            assertEquals(iso8601.format(date), DateCodec.formatISO8601(date));
+            assertEquals(iso8601Millis.format(date), DateCodec.formatISO8601Millis(date));
+        }
+    }
+
+    @Test
+    public void testParseMatchesSimpleDateFormat() throws ParseException {
+        final SimpleDateFormat rfc1123 = createFormat(RFC1123_PATTERN);
+        final SimpleDateFormat iso8601 = createFormat(ISO8601_PATTERN);
+        final SimpleDateFormat iso8601Millis = createFormat(ISO8601_MILLIS_PATTERN);
+
+        final Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            final Date date = new Date(randomTime(random, i));
+            final String rfc1123String = rfc1123.format(date);
+            assertEquals(rfc1123.parse(rfc1123String), DateCodec.parseRFC1123(rfc1123String));
+
+            final String isoString = iso8601.format(date);
+            assertEquals(iso8601.parse(isoString), DateCodec.parseISO8601(isoString));
+
+            final String isoMillisString = iso8601Millis.format(date);
+            assertEquals(date, DateCodec.parseISO8601(isoMillisString));
+        }
+    }
+
+    @Test
+    public void testParseISO8601Precisions() throws ParseException {
+        final SimpleDateFormat withMillis = createFormat("yyyy-MM-dd'T'HH:mm:ss.SSS");
+        final SimpleDateFormat withSeconds = createFormat(ISO8601_PATTERN);
+        final SimpleDateFormat withMinutes = createFormat("yyyy-MM-dd'T'HH:mm'Z'");
+
+        assertEquals(withMinutes.parse("2012-01-04T23:21Z"), DateCodec.parseISO8601("2012-01-04T23:21Z"));
+        assertEquals(withSeconds.parse("2012-01-04T23:21:59Z"), DateCodec.parseISO8601("2012-01-04T23:21:59Z"));
+        assertEquals(withMillis.parse("2012-01-04T23:21:59.100"), DateCodec.parseISO8601("2012-01-04T23:21:59.1Z"));
+        assertEquals(withMillis.parse("2012-01-04T23:21:59.120"), DateCodec.parseISO8601("2012-01-04T23:21:59.12Z"));
+
+        final Date millis = withMillis.parse("2012-01-04T23:21:59.123");
+        assertEquals(millis, DateCodec.parseISO8601("2012-01-04T23:21:59.123Z"));
+        assertEquals(millis, DateCodec.parseISO8601("2012-01-04T23:21:59.1234Z"));
+        assertEquals(millis, DateCodec.parseISO8601("2012-01-04T23:21:59.12345Z"));
+        assertEquals(millis, DateCodec.parseISO8601("2012-01-04T23:21:59.123456Z"));
+        assertEquals(millis, DateCodec.parseISO8601("2012-01-04T23:21:59.1234567Z"));
+    }
+
+    @Test
+    public void testParseISO8601Range() {
+        final String buffer = "<Expiry>2015-08-09T18:52:40.9241789Z</Expiry>";
+        final int start = buffer.indexOf('>') + 1;
+        final int end = buffer.indexOf('<', start);
+        assertEquals(DateCodec.parseISO8601("2015-08-09T18:52:40.924Z").getTime(),
+                DateCodec.parseISO8601(buffer, start, end));
+    }
+
+    @Test
+    public void testParseISO8601Lenient() throws ParseException {
+        // As with a lenient SimpleDateFormat, out of range fields roll over.
+        final SimpleDateFormat iso8601 = createFormat(ISO8601_PATTERN);
+        for (String value : new String[] { "2012-02-30T24:00:00Z", "2012-13-01T00:60:61Z", "2012-00-00T00:00:00Z" }) {
+            assertEquals(iso8601.parse(value), DateCodec.parseISO8601(value));
+        }
+    }
+
+    @Test
+    public void testParseISO8601Invalid() {
+        for (String value : new String[] { "", "2012-01-04", "2012-01-04T23:21:59", "2012-01-04T23:21:59.Z",
+                "2012-01-04T23:21:59.12345678Z", "2012-01-04 23:21:59Z", "2012-01-04T23:21:5aZ",
+                "2012/01/04T23:21:59Z", "2012-01-04T23:21:59+0000", "2012-01-04T23:21:59.12x4Z" }) {
+            try {
+                DateCodec.parseISO8601(value);
+                fail(value);
+            }
+            catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testParseRFC1123Variants() throws ParseException {
+        final SimpleDateFormat rfc1123 = createFormat(RFC1123_PATTERN);
+        for (String value : new String[] { "Tue, 09 Aug 2011 18:52:40 GMT", "Tuesday, 9 August 2011 18:52:40 GMT",
+                "tue, 09 AUG 2011 18:52:40 GMT", "Mon, 09 Aug 2011 18:52:40 GMT", "Tue, 09 Aug 2011 8:2:4 GMT" }) {
+            assertEquals(value, rfc1123.parse(value), DateCodec.parseRFC1123(value));
+        }
+    }
+
+    @Test
+    public void testParseRFC1123Invalid() {
+        for (String value : new String[] { "", "Tue 09 Aug 2011 18:52:40 GMT", "Tue, 09 Agu 2011 18:52:40 GMT",
+                "Tue, 09 Aug 2011 18:52:40", "Tue, 09 Aug 2011 18:52:40 UTC", "Tux, 09 Aug 2011 18:52:40 GMT",
+                "Tue, 09-Aug-2011 18:52:40 GMT", "Tue, 09 Aug 2011 18:52 GMT" }) {
+            try {
+                DateCodec.parseRFC1123(value);
+                fail(value);
+            }
+            catch (ParseException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testParseRFC850MatchesSimpleDateFormat() throws ParseException {
+        final SimpleDateFormat logFormat = createFormat("E, dd-MMM-yy HH:mm:ss 'GMT'");
+        final SimpleDateFormat writer = createFormat("EEEE, dd-MMM-yy HH:mm:ss 'GMT'");
+
+        final Random random = new Random(43);
+        final long year = 365L * 24 * 60 * 60 * 1000;
+        final long start = System.currentTimeMillis() / 1000 * 1000 - 79 * year;
+        for (int i = 0; i < 10000; i++) {
+            // Two digit years resolve to the 100 years starting 80 years ago.
+            final long time = start + (long) (random.nextDouble() * 98 * year) / 1000 * 1000;
+            final String value = writer.format(new Date(time));
+            assertEquals(value, logFormat.parse(value), DateCodec.parseRFC850(value));
+            assertEquals(value, time, DateCodec.parseRFC850(value).getTime());
+        }
+
+        assertEquals(logFormat.parse("Tuesday, 09-Aug-2011 18:52:40 GMT"),
+                DateCodec.parseRFC850("Tuesday, 09-Aug-2011 18:52:40 GMT"));
+    }
+
+    @Test
+    public void testCodecIsThreadSafe() throws Exception {
+        final SimpleDateFormat rfc1123 = createFormat(RFC1123_PATTERN);
+        final Random random = new Random(44);
+        final Date[] dates = new Date[1000];
+        final String[] expected = new String[dates.length];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = new Date(randomTime(random, i));
+            expected[i] = rfc1123.format(dates[i]);
+        }
+
+        final Throwable[] failure = new Throwable[1];
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int n = 0; n < 20; n++) {
+                            for (int i = offset; i < dates.length; i++) {
+                                assertEquals(expected[i], DateCodec.formatRFC1123(dates[i]));
+                                assertEquals(expected[i], DateCodec.formatRFC1123(DateCodec.parseRFC1123(expected[i])));
+                            }
+                        }
+                    }
+                    catch (Throwable e) {
+                        synchronized (failure) {
+                            failure[0] = e;
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(failure[0]);
+    }
+
+    private static SimpleDateFormat createFormat(String pattern) {
+        final SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+
+    /**
+     * Alternates between times spread across years 1 to 9999 and times near the present.
+     */
+    private static long randomTime(Random random, int i) {
+        if (i % 2 == 0) {
+            return MIN_TIME + (long) (random.nextDouble() * (MAX_TIME - MIN_TIME));
+        }
+
+        return System.currentTimeMillis() + (long) ((random.nextDouble() - 0.5) * 100L * 365 * 24 * 60 * 60 * 1000);
+    }
+}
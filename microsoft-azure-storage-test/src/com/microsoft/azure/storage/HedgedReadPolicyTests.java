@@ -0,0 +1,155 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.*;
+
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class HedgedReadPolicyTests {
+
+    @Test
+    public void testHedgedReadPolicyUsesMaximumDelayUntilLearned() {
+        HedgedReadPolicy policy = new HedgedReadPolicy(0.9, 5, 500, 0.1);
+        assertEquals(500, policy.onRequestStarted("download/PRIMARY"));
+
+        for (int i = 0; i < HedgedReadPolicy.LatencyTracker.MINIMUM_SAMPLE_COUNT - 1; i++) {
+            policy.recordLatency("download/PRIMARY", 20);
+        }
+
+        assertEquals(500, policy.onRequestStarted("download/PRIMARY"));
+
+        policy.recordLatency("download/PRIMARY", 20);
+        assertEquals(20, policy.onRequestStarted("download/PRIMARY"));
+
+        // Operations are learned separately.
+        assertEquals(500, policy.onRequestStarted("download/SECONDARY"));
+        assertEquals(4, policy.getRequestCount());
+    }
+
+    @Test
+    public void testHedgedReadPolicyUsesPercentile() {
+        HedgedReadPolicy policy = new HedgedReadPolicy(0.9, 5, 500, 0.1);
+        for (int i = 1; i <= 100; i++) {
+            policy.recordLatency("list", i);
+        }
+
+        assertEquals(90, policy.onRequestStarted("list"));
+
+        // The delay is clamped.
+        for (int i = 0; i < HedgedReadPolicy.LatencyTracker.SAMPLE_COUNT; i++) {
+            policy.recordLatency("list", 1);
+            policy.recordLatency("peek", 10000);
+        }
+
+        assertEquals(5, policy.onRequestStarted("list"));
+        assertEquals(500, policy.onRequestStarted("peek"));
+    }
+
+    @Test
+    public void testLatencyTrackerKeepsRecentSamples() {
+        HedgedReadPolicy.LatencyTracker tracker = new HedgedReadPolicy.LatencyTracker();
+        assertEquals(-1, tracker.getPercentile(0.5));
+
+        for (int i = 0; i < HedgedReadPolicy.LatencyTracker.SAMPLE_COUNT; i++) {
+            tracker.add(1000);
+        }
+
+        for (int i = 0; i < HedgedReadPolicy.LatencyTracker.SAMPLE_COUNT; i++) {
+            tracker.add(10);
+        }
+
+        assertEquals(10, tracker.getPercentile(1));
+    }
+
+    @Test
+    public void testHedgedReadPolicyLimitsHedges() {
+        HedgedReadPolicy policy = new HedgedReadPolicy(0.9, 5, 500, 0.1);
+
+        // A few hedges are allowed up front.
+        int hedges = 0;
+        while (policy.tryHedge()) {
+            hedges++;
+        }
+
+        assertEquals(10, hedges);
+        assertEquals(10, policy.getHedgedRequestCount());
+
+        // Then one per ten requests.
+        for (int i = 0; i < 100; i++) {
+            policy.onRequestStarted("get");
+        }
+
+        hedges = 0;
+        while (policy.tryHedge()) {
+            hedges++;
+        }
+
+        assertEquals(10, hedges);
+
+        policy.onHedgeWon();
+        assertEquals(1, policy.getHedgeWinCount());
+    }
+
+    @Test
+    public void testHedgedReadPolicySettlingResponses() {
+        HedgedReadPolicy policy = new HedgedReadPolicy();
+
+        // Successes settle the read wherever they come from.
+        assertTrue(policy.isSettlingResponse(200, StorageLocation.PRIMARY));
+        assertTrue(policy.isSettlingResponse(206, StorageLocation.SECONDARY));
+
+        // Client errors are only authoritative from the primary location, which the secondary may lag behind.
+        assertTrue(policy.isSettlingResponse(404, StorageLocation.PRIMARY));
+        assertTrue(policy.isSettlingResponse(304, StorageLocation.PRIMARY));
+        assertFalse(policy.isSettlingResponse(404, StorageLocation.SECONDARY));
+        assertFalse(policy.isSettlingResponse(412, StorageLocation.SECONDARY));
+
+        // Server errors and timeouts never settle the read.
+        assertFalse(policy.isSettlingResponse(503, StorageLocation.PRIMARY));
+        assertFalse(policy.isSettlingResponse(500, StorageLocation.SECONDARY));
+        assertFalse(policy.isSettlingResponse(408, StorageLocation.PRIMARY));
+    }
+
+    @Test
+    public void testHedgedReadPolicyValidatesArguments() {
+        try {
+            new HedgedReadPolicy(0, 5, 500, 0.1);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+        }
+
+        try {
+            new HedgedReadPolicy(0.9, 500, 5, 0.1);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+        }
+
+        try {
+            new HedgedReadPolicy(0.9, 5, 500, 1.5);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+        }
+    }
+}
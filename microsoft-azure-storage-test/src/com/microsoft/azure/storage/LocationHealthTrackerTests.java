@@ -0,0 +1,160 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import com.microsoft.azure.storage.LocationHealthTracker.CircuitState;
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class LocationHealthTrackerTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testConsecutiveFailuresOpenCircuit() {
+        LocationHealthTracker tracker = new LocationHealthTracker(3, 1, 0, 10 * 1000);
+        long now = 0;
+
+        tracker.onRequestCompleted(StorageLocation.PRIMARY, 10, true, now);
+        tracker.onRequestCompleted(StorageLocation.PRIMARY, 10, true, now);
+        tracker.onRequestCompleted(StorageLocation.PRIMARY, 10, false, now);
+        tracker.onRequestCompleted(StorageLocation.PRIMARY, 10, true, now);
+        tracker.onRequestCompleted(StorageLocation.PRIMARY, 10, true, now);
+        assertEquals(CircuitState.CLOSED, tracker.getCircuitState(StorageLocation.PRIMARY));
+        assertEquals(StorageLocation.PRIMARY, tracker.selectLocation(StorageLocation.PRIMARY, now));
+
+        tracker.onRequestCompleted(StorageLocation.PRIMARY, 10, true, now);
+        assertEquals(CircuitState.OPEN, tracker.getCircuitState(StorageLocation.PRIMARY));
+        assertEquals(StorageLocation.SECONDARY, tracker.selectLocation(StorageLocation.PRIMARY, now));
+        assertEquals(StorageLocation.SECONDARY, tracker.selectLocation(StorageLocation.SECONDARY, now));
+        assertEquals(CircuitState.CLOSED, tracker.getCircuitState(StorageLocation.SECONDARY));
+    }
+
+    @Test
+    public void testCircuitProbesAfterCoolDown() {
+        LocationHealthTracker tracker = new LocationHealthTracker(1, 1, 0, 10 * 1000);
+        long now = 0;
+
+        tracker.onRequestCompleted(StorageLocation.PRIMARY, 10, true, now);
+        assertEquals(StorageLocation.SECONDARY, tracker.selectLocation(StorageLocation.PRIMARY, now));
+
+        // A single probe goes through after the cool-down.
+        now += 10 * SECOND;
+        assertEquals(StorageLocation.PRIMARY, tracker.selectLocation(StorageLocation.PRIMARY, now));
+        assertEquals(CircuitState.HALF_OPEN, tracker.getCircuitState(StorageLocation.PRIMARY));
+        assertEquals(StorageLocation.SECONDARY, tracker.selectLocation(StorageLocation.PRIMARY, now));
+
+        // A failed probe reopens the circuit.
+        tracker.onRequestCompleted(StorageLocation.PRIMARY, 10, true, now);
+        assertEquals(CircuitState.OPEN, tracker.getCircuitState(StorageLocation.PRIMARY));
+        now += 5 * SECOND;
+        assertEquals(StorageLocation.SECONDARY, tracker.selectLocation(StorageLocation.PRIMARY, now));
+
+        // A successful probe closes it.
+        now += 5 * SECOND;
+        assertEquals(StorageLocation.PRIMARY, tracker.selectLocation(StorageLocation.PRIMARY, now));
+        tracker.onRequestCompleted(StorageLocation.PRIMARY, 10, false, now);
+        assertEquals(CircuitState.CLOSED, tracker.getCircuitState(StorageLocation.PRIMARY));
+        assertEquals(StorageLocation.PRIMARY, tracker.selectLocation(StorageLocation.PRIMARY, now));
+    }
+
+    @Test
+    public void testLostProbeIsReplaced() {
+        LocationHealthTracker tracker = new LocationHealthTracker(1, 1, 0, 10 * 1000);
+        long now = 0;
+
+        tracker.onRequestCompleted(StorageLocation.PRIMARY, 10, true, now);
+        now += 10 * SECOND;
+        assertEquals(StorageLocation.PRIMARY, tracker.selectLocation(StorageLocation.PRIMARY, now));
+        assertEquals(StorageLocation.SECONDARY, tracker.selectLocation(StorageLocation.PRIMARY, now + SECOND));
+        assertEquals(StorageLocation.PRIMARY, tracker.selectLocation(StorageLocation.PRIMARY, now + 10 * SECOND));
+    }
+
+    @Test
+    public void testErrorRateOpensCircuit() {
+        LocationHealthTracker tracker = new LocationHealthTracker(100, 0.5, 0, 10 * 1000);
+        long now = 0;
+
+        for (int i = 0; i < LocationHealthTracker.MINIMUM_REQUEST_COUNT; i++) {
+            tracker.onRequestCompleted(StorageLocation.PRIMARY, 10, i % 4 == 0, now);
+        }
+
+        assertEquals(CircuitState.CLOSED, tracker.getCircuitState(StorageLocation.PRIMARY));
+
+        for (int i = 0; i < 10 && tracker.getCircuitState(StorageLocation.PRIMARY) == CircuitState.CLOSED; i++) {
+            tracker.onRequestCompleted(StorageLocation.PRIMARY, 10, i % 3 != 0, now);
+        }
+
+        assertEquals(CircuitState.OPEN, tracker.getCircuitState(StorageLocation.PRIMARY));
+        assertTrue(tracker.getErrorRate(StorageLocation.PRIMARY) >= 0.5);
+    }
+
+    @Test
+    public void testSlowLocationOpensCircuit() {
+        LocationHealthTracker tracker = new LocationHealthTracker(100, 1, 5, 10 * 1000);
+        long now = 0;
+
+        for (int i = 0; i < LocationHealthTracker.MINIMUM_REQUEST_COUNT; i++) {
+            tracker.onRequestCompleted(StorageLocation.SECONDARY, 40, false, now);
+            tracker.onRequestCompleted(StorageLocation.PRIMARY, 150, false, now);
+        }
+
+        // Slower, but not five times slower.
+        assertEquals(CircuitState.CLOSED, tracker.getCircuitState(StorageLocation.PRIMARY));
+        assertEquals(150, tracker.getLatencyInMs(StorageLocation.PRIMARY), 0.001);
+
+        for (int i = 0; i < 20; i++) {
+            tracker.onRequestCompleted(StorageLocation.PRIMARY, 2000, false, now);
+        }
+
+        assertEquals(CircuitState.OPEN, tracker.getCircuitState(StorageLocation.PRIMARY));
+        assertEquals(StorageLocation.SECONDARY, tracker.selectLocation(StorageLocation.PRIMARY, now));
+    }
+
+    @Test
+    public void testBothUnhealthyKeepsPreferredLocation() {
+        LocationHealthTracker tracker = new LocationHealthTracker(1, 1, 0, 10 * 1000);
+        tracker.onRequestCompleted(StorageLocation.PRIMARY, 10, true, 0);
+        tracker.onRequestCompleted(StorageLocation.SECONDARY, 10, true, 0);
+        assertEquals(StorageLocation.PRIMARY, tracker.selectLocation(StorageLocation.PRIMARY, 0));
+        assertEquals(StorageLocation.SECONDARY, tracker.selectLocation(StorageLocation.SECONDARY, 0));
+    }
+
+    @Test
+    public void testFailureClassification() {
+        RequestResult result = new RequestResult();
+        result.setStatusCode(200);
+        assertFalse(LocationHealthTracker.isFailure(result));
+        result.setStatusCode(404);
+        assertFalse(LocationHealthTracker.isFailure(result));
+        result.setStatusCode(408);
+        assertTrue(LocationHealthTracker.isFailure(result));
+        result.setStatusCode(503);
+        assertTrue(LocationHealthTracker.isFailure(result));
+        result.setStatusCode(306);
+        assertTrue(LocationHealthTracker.isFailure(result));
+        result.setStatusCode(-1);
+        assertTrue(LocationHealthTracker.isFailure(result));
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+import com.microsoft.azure.storage.core.PipelinedDigest;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.security.MessageDigest;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class PipelinedDigestTests {
+
+    @Test
+    public void testPipelinedDigestMatchesDigest() throws Exception {
+        final Random random = new Random(5);
+        final MessageDigest expected = MessageDigest.getInstance("MD5");
+        final PipelinedDigest pipeline = new PipelinedDigest(MessageDigest.getInstance("MD5"), 2);
+        for (int i = 0; i < 200; i++) {
+            final byte[] buffer = new byte[random.nextInt(64 * 1024)];
+            random.nextBytes(buffer);
+            expected.update(buffer);
+            pipeline.update(buffer);
+        }
+
+        assertArrayEquals(expected.digest(), pipeline.digest());
+    }
+
+    @Test
+    public void testPipelinedDigestOfNothing() throws Exception {
+        final PipelinedDigest pipeline = new PipelinedDigest(MessageDigest.getInstance("MD5"), 1);
+        assertArrayEquals(MessageDigest.getInstance("MD5").digest(), pipeline.digest());
+    }
+
+    @Test
+    public void testPipelinedDigestIsReusableAfterDigest() throws Exception {
+        final PipelinedDigest pipeline = new PipelinedDigest(MessageDigest.getInstance("MD5"), 1);
+        pipeline.update(new byte[] { 1, 2, 3 });
+        pipeline.digest();
+        pipeline.update(new byte[] { 4 });
+        assertArrayEquals(MessageDigest.getInstance("MD5").digest(new byte[] { 4 }), pipeline.digest());
+    }
+}
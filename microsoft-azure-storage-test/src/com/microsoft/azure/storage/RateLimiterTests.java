@@ -0,0 +1,166 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.net.HttpURLConnection;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class RateLimiterTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testRateLimiterBucketAllowsOneSecondBurst() {
+        RateLimiter.Bucket bucket = new RateLimiter.Bucket(10);
+        long now = 0;
+
+        // The first second's worth of permits is available immediately.
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, bucket.reserve(1, now));
+        }
+
+        // Then permits are spaced at the rate.
+        assertEquals(SECOND / 10, bucket.reserve(1, now));
+        assertEquals(2 * SECOND / 10, bucket.reserve(1, now));
+
+        // Idle time does not accumulate more than a burst.
+        now += 10 * SECOND;
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, bucket.reserve(1, now));
+        }
+
+        assertEquals(SECOND / 10, bucket.reserve(1, now));
+    }
+
+    @Test
+    public void testRateLimiterBucketChargesUsedPermits() {
+        RateLimiter.Bucket bucket = new RateLimiter.Bucket(1000);
+        bucket.charge(3000, 0);
+        assertEquals(2 * SECOND + SECOND / 1000, bucket.reserve(1, 0));
+    }
+
+    @Test
+    public void testRateLimiterBucketAdaptsRate() {
+        RateLimiter.Bucket bucket = new RateLimiter.Bucket(100);
+        long now = System.nanoTime();
+
+        bucket.decrease(now);
+        assertEquals(50, bucket.getRate(), 0.001);
+
+        // Only one decrease per second.
+        bucket.decrease(now + SECOND / 2);
+        assertEquals(50, bucket.getRate(), 0.001);
+        bucket.decrease(now + SECOND);
+        assertEquals(25, bucket.getRate(), 0.001);
+
+        // The rate never falls below a hundredth of the maximum.
+        for (int i = 2; i < 20; i++) {
+            bucket.decrease(now + i * SECOND);
+        }
+
+        assertEquals(1, bucket.getRate(), 0.001);
+
+        // Each second without throttling adds a twentieth of the maximum.
+        now += 19 * SECOND;
+        bucket.increase(now + SECOND / 2);
+        assertEquals(1, bucket.getRate(), 0.001);
+        bucket.increase(now + 2 * SECOND);
+        assertEquals(11, bucket.getRate(), 0.001);
+        bucket.increase(now + 100 * SECOND);
+        assertEquals(100, bucket.getRate(), 0.001);
+    }
+
+    @Test
+    public void testRateLimiterReactsToThrottling() {
+        RateLimiter limiter = new RateLimiter(200, 1000, 20);
+        assertEquals(200, limiter.getRequestsPerSecond(), 0.001);
+        assertEquals(1000, limiter.getBytesPerSecond(), 0.001);
+        assertEquals(20, limiter.getPartitionRequestsPerSecond("a"), 0.001);
+
+        limiter.onRequestCompleted("a", 0, createResult(HttpURLConnection.HTTP_OK));
+        assertEquals(0, limiter.getThrottledResponseCount());
+        limiter.onRequestCompleted("a", 0, createResult(HttpURLConnection.HTTP_UNAVAILABLE));
+        assertEquals(1, limiter.getThrottledResponseCount());
+        assertEquals(100, limiter.getRequestsPerSecond(), 0.001);
+        assertEquals(500, limiter.getBytesPerSecond(), 0.001);
+        assertEquals(10, limiter.getPartitionRequestsPerSecond("a"), 0.001);
+
+        // Other partitions keep their own rate.
+        assertEquals(20, limiter.getPartitionRequestsPerSecond("b"), 0.001);
+    }
+
+    @Test
+    public void testRateLimiterUnlimited() {
+        RateLimiter limiter = new RateLimiter(0, 0, 0);
+        for (int i = 0; i < 1000; i++) {
+            limiter.acquire("a");
+            limiter.acquireBytes(1024 * 1024);
+        }
+
+        limiter.onRequestCompleted("a", 100, createResult(HttpURLConnection.HTTP_UNAVAILABLE));
+        assertEquals(0, limiter.getRequestsPerSecond(), 0);
+        assertEquals(0, limiter.getPartitionRequestsPerSecond("a"), 0);
+        assertEquals(0, limiter.getWaitTimeInMs());
+    }
+
+    @Test
+    public void testRateLimiterQueuesRequests() {
+        RateLimiter limiter = new RateLimiter(100, 0, 0);
+        long start = System.nanoTime();
+        for (int i = 0; i < 120; i++) {
+            limiter.acquire(null);
+        }
+
+        // One hundred requests burst through, the last twenty wait for 200ms in total.
+        long elapsed = System.nanoTime() - start;
+        assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(150));
+        assertTrue(limiter.getWaitTimeInMs() >= 150);
+    }
+
+    @Test
+    public void testRateLimiterValidatesArguments() {
+        try {
+            new RateLimiter(-1, 0, 0);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        try {
+            new RateLimiter(0, 0, Double.NaN);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static RequestResult createResult(int statusCode) {
+        RequestResult result = new RequestResult();
+        result.setStatusCode(statusCode);
+        return result;
+    }
+}
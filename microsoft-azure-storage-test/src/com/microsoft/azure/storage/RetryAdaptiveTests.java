@@ -0,0 +1,147 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.net.HttpURLConnection;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class RetryAdaptiveTests {
+
+    @Test
+    public void testRetryAdaptiveIntervalsStayInBounds() {
+        RetryAdaptive factory = new RetryAdaptive(100, 2000, 5, new RetryBudget());
+        for (int i = 0; i < 100; i++) {
+            RetryAdaptive policy = (RetryAdaptive) factory.createInstance(new OperationContext());
+            long previous = 100;
+            for (int retry = 0; retry < 10; retry++) {
+                long interval = policy.nextInterval(false /* isThrottled */);
+                assertTrue(interval >= 100);
+                assertTrue(interval <= Math.min(2000, previous * 3));
+                previous = interval;
+            }
+        }
+    }
+
+    @Test
+    public void testRetryAdaptiveThrottledIntervalsDoNotShrink() {
+        RetryAdaptive factory = new RetryAdaptive(100, 2000, 5, new RetryBudget());
+        RetryAdaptive policy = (RetryAdaptive) factory.createInstance(new OperationContext());
+        long previous = policy.nextInterval(false /* isThrottled */);
+        for (int retry = 0; retry < 20; retry++) {
+            long interval = policy.nextInterval(true /* isThrottled */);
+            assertTrue(interval >= previous);
+            assertTrue(interval <= 2000);
+            previous = interval;
+        }
+    }
+
+    @Test
+    public void testRetryAdaptiveBudgetIsShared() {
+        RetryBudget budget = new RetryBudget(3, 0, 0);
+        RetryAdaptive factory = new RetryAdaptive(0, 0, 5, budget);
+
+        // Three tokens: one throttled retry costs two, one regular retry costs one.
+        assertNotNull(evaluate(factory, HttpURLConnection.HTTP_UNAVAILABLE));
+        assertNotNull(evaluate(factory, HttpURLConnection.HTTP_INTERNAL_ERROR));
+        assertNull(evaluate(factory, HttpURLConnection.HTTP_INTERNAL_ERROR));
+        assertEquals(2, budget.getRetriesGranted());
+        assertEquals(1, budget.getRetriesDenied());
+        assertEquals(1, budget.getThrottledResponseCount());
+        assertEquals(0, budget.getAvailableTokens(), 0.001);
+    }
+
+    @Test
+    public void testRetryBudgetDepositsPerOperation() {
+        RetryBudget budget = new RetryBudget(3, 0.5, 0);
+        RetryAdaptive factory = new RetryAdaptive(0, 0, 5, budget);
+        assertTrue(budget.tryAcquireRetry(3));
+
+        // Each new operation deposits half a token, and the bucket never exceeds its capacity.
+        factory.createInstance(new OperationContext());
+        factory.createInstance(new OperationContext());
+        assertEquals(1, budget.getAvailableTokens(), 0.001);
+        for (int i = 0; i < 10; i++) {
+            factory.createInstance(new OperationContext());
+        }
+
+        assertEquals(3, budget.getAvailableTokens(), 0.001);
+        assertEquals(12, budget.getOperationCount());
+    }
+
+    @Test
+    public void testRetryAdaptiveDoesNotSpendBudgetOnNonRetryableErrors() {
+        RetryBudget budget = new RetryBudget(1, 0, 0);
+        RetryAdaptive factory = new RetryAdaptive(0, 0, 5, budget);
+
+        assertNull(evaluate(factory, HttpURLConnection.HTTP_NOT_FOUND));
+        assertNull(evaluate(factory, HttpURLConnection.HTTP_NOT_IMPLEMENTED));
+        assertEquals(1, budget.getAvailableTokens(), 0.001);
+        assertEquals(0, budget.getRetriesDenied());
+    }
+
+    @Test
+    public void testRetryAdaptiveRespectsMaximumAttempts() {
+        RetryAdaptive factory = new RetryAdaptive(0, 0, 2, new RetryBudget());
+        RetryPolicy policy = factory.createInstance(new OperationContext());
+        assertNotNull(policy.evaluate(createRetryContext(0, HttpURLConnection.HTTP_INTERNAL_ERROR),
+                new OperationContext()));
+        assertNotNull(policy.evaluate(createRetryContext(1, HttpURLConnection.HTTP_INTERNAL_ERROR),
+                new OperationContext()));
+        assertNull(policy.evaluate(createRetryContext(2, HttpURLConnection.HTTP_INTERNAL_ERROR),
+                new OperationContext()));
+    }
+
+    @Test
+    public void testRetryBudgetValidatesArguments() {
+        try {
+            new RetryBudget(0, 0.1, 1);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        try {
+            new RetryBudget(10, -1, 1);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static RetryInfo evaluate(RetryAdaptive factory, int statusCode) {
+        OperationContext opContext = new OperationContext();
+        return factory.createInstance(opContext).evaluate(createRetryContext(0, statusCode), opContext);
+    }
+
+    private static RetryContext createRetryContext(int retryCount, int statusCode) {
+        RequestResult result = new RequestResult();
+        result.setStatusCode(statusCode);
+        result.setTargetLocation(StorageLocation.PRIMARY);
+        result.setStopDate(new Date());
+        return new RetryContext(retryCount, result, StorageLocation.PRIMARY, LocationMode.PRIMARY_ONLY);
+    }
+}
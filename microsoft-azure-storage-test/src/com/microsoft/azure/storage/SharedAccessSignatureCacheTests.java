@@ -0,0 +1,172 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+import com.microsoft.azure.storage.blob.CloudBlobClient;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.storage.blob.SharedAccessBlobHeaders;
+import com.microsoft.azure.storage.blob.SharedAccessBlobPermissions;
+import com.microsoft.azure.storage.blob.SharedAccessBlobPolicy;
+import com.microsoft.azure.storage.core.Base64;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.*;
+
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class SharedAccessSignatureCacheTests {
+
+    private static final byte[] KEY = new byte[64];
+
+    static {
+        for (int i = 0; i < KEY.length; i++) {
+            KEY[i] = (byte) i;
+        }
+    }
+
+    @Test
+    public void testCachedSignaturesAreIdentical() throws Exception {
+        StorageCredentialsAccountAndKey creds = new StorageCredentialsAccountAndKey("account", KEY);
+        CloudBlobClient client = new CloudBlobClient(new URI("http://account.blob.core.windows.net"), creds);
+        CloudBlockBlob blob = client.getContainerReference("container").getBlockBlobReference("blob");
+
+        SharedAccessBlobPolicy policy = new SharedAccessBlobPolicy();
+        policy.setPermissions(EnumSet.of(SharedAccessBlobPermissions.READ));
+        policy.setSharedAccessStartTime(new Date(1500000000000L));
+        policy.setSharedAccessExpiryTime(new Date(1500003600000L));
+        SharedAccessBlobHeaders headers = new SharedAccessBlobHeaders();
+        headers.setContentType("text/plain");
+
+        String expected = blob.generateSharedAccessSignature(policy, headers, null);
+
+        SharedAccessSignatureCache cache = new SharedAccessSignatureCache();
+        client.setSharedAccessSignatureCache(cache);
+        assertEquals(expected, blob.generateSharedAccessSignature(policy, headers, null));
+        assertEquals(expected, blob.generateSharedAccessSignature(policy, headers, null));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+
+        // The string to sign matches the documented format.
+        String stringToSign = "r\n2017-07-14T02:40:00Z\n2017-07-14T03:40:00Z\n/blob/account/container/blob\n\n\n\n"
+                + Constants.HeaderConstants.TARGET_STORAGE_VERSION + "\n\n\n\n\ntext/plain";
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(KEY, "HmacSHA256"));
+        String signature = Base64.encode(mac.doFinal(stringToSign.getBytes("UTF-8")));
+        assertTrue(expected.contains("sig=" + java.net.URLEncoder.encode(signature, "UTF-8")));
+
+        // Another policy is another signature.
+        policy.setPermissions(EnumSet.of(SharedAccessBlobPermissions.READ, SharedAccessBlobPermissions.WRITE));
+        assertFalse(expected.equals(blob.generateSharedAccessSignature(policy, headers, null)));
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testUpdatedKeyIsNotServedFromCache() throws Exception {
+        StorageCredentialsAccountAndKey creds = new StorageCredentialsAccountAndKey("account", KEY);
+        SharedAccessSignatureCache cache = new SharedAccessSignatureCache();
+
+        String first = cache.getSignature(creds, "string", null);
+        assertEquals(first, cache.getSignature(creds, "string", null));
+
+        byte[] otherKey = KEY.clone();
+        otherKey[0] = 42;
+        creds.updateKey(otherKey);
+        String second = cache.getSignature(creds, "string", null);
+        assertFalse(first.equals(second));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testCacheEvictsExpiredSignaturesFirst() throws Exception {
+        StorageCredentialsAccountAndKey creds = new StorageCredentialsAccountAndKey("account", KEY);
+        SharedAccessSignatureCache cache = new SharedAccessSignatureCache(8);
+
+        for (int i = 0; i < 8; i++) {
+            cache.getSignature(creds, "expiring" + i, new Date(1000), 0);
+        }
+
+        assertEquals(8, cache.size());
+
+        // Once the cache exceeds its capacity, the expired signatures are evicted.
+        cache.getSignature(creds, "kept", null, 2000);
+        assertEquals(1, cache.size());
+        cache.getSignature(creds, "kept", null, 2000);
+        assertEquals(1, cache.getHitCount());
+
+        // Without expired signatures, the cache still stays under its capacity.
+        for (int i = 0; i < 20; i++) {
+            cache.getSignature(creds, "other" + i, null, 2000);
+            assertTrue(cache.size() <= 8);
+        }
+    }
+
+    @Test
+    public void testConcurrentSigning() throws Exception {
+        final StorageCredentialsAccountAndKey creds = new StorageCredentialsAccountAndKey("account", KEY);
+        final Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(KEY, "HmacSHA256"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 8; i++) {
+                final int thread = i;
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        for (int j = 0; j < 500; j++) {
+                            byte[] data = ("data" + thread + "-" + j).getBytes("UTF-8");
+                            byte[] expected;
+                            synchronized (mac) {
+                                expected = mac.doFinal(data);
+                            }
+
+                            if (!java.util.Arrays.equals(expected, creds.computeHmac256(data))) {
+                                return false;
+                            }
+                        }
+
+                        return true;
+                    }
+                }));
+            }
+
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
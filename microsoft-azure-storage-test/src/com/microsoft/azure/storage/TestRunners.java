@@ -17,7 +17,12 @@ package com.microsoft.azure.storage;
 //import com.microsoft.azure.storage.analytics.CloudAnalyticsClientTests;
 
 import com.microsoft.azure.storage.analytics.CloudAnalyticsClientTests;
+import com.microsoft.azure.storage.analytics.LogRecordViewTests;
+import com.microsoft.azure.storage.analytics.MetricsReaderTests;
+import com.microsoft.azure.storage.analytics.ParallelLogRecordIteratorTests;
 import com.microsoft.azure.storage.blob.BlobOutputStreamTests;
+import com.microsoft.azure.storage.blob.BulkBlobOperationTests;
+import com.microsoft.azure.storage.blob.BulkCopyOrchestratorTests;
 import com.microsoft.azure.storage.blob.CloudAppendBlobTests;
 import com.microsoft.azure.storage.blob.CloudBlobClientTests;
 import com.microsoft.azure.storage.blob.CloudBlobContainerTests;
@@ -25,8 +30,13 @@ import com.microsoft.azure.storage.blob.CloudBlobDirectoryTests;
 import com.microsoft.azure.storage.blob.CloudBlobServerEncryptionTests;
 import com.microsoft.azure.storage.blob.CloudBlockBlobTests;
 import com.microsoft.azure.storage.blob.CloudPageBlobTests;
+import com.microsoft.azure.storage.blob.ContentDefinedChunkerTests;
+import com.microsoft.azure.storage.blob.LeaseManagerSchedulingTests;
+import com.microsoft.azure.storage.blob.LeaseManagerTests;
 import com.microsoft.azure.storage.blob.LeaseTests;
+import com.microsoft.azure.storage.blob.ResumableUploadCheckpointTests;
 import com.microsoft.azure.storage.blob.SasTests;
+import com.microsoft.azure.storage.blob.StreamingListingTests;
 import com.microsoft.azure.storage.file.CloudFileClientTests;
 import com.microsoft.azure.storage.file.CloudFileDirectoryTests;
 import com.microsoft.azure.storage.file.CloudFileShareTests;
@@ -34,11 +44,14 @@ import com.microsoft.azure.storage.file.CloudFileTests;
 import com.microsoft.azure.storage.file.FileSasTests;
 import com.microsoft.azure.storage.queue.CloudQueueClientGB18030Test;
 import com.microsoft.azure.storage.queue.CloudQueueClientTests;
+import com.microsoft.azure.storage.queue.CloudQueueMessageTests;
 import com.microsoft.azure.storage.queue.CloudQueueTests;
+import com.microsoft.azure.storage.table.MimeHelperTests;
 import com.microsoft.azure.storage.table.TableBatchOperationTests;
 import com.microsoft.azure.storage.table.TableClientTests;
 import com.microsoft.azure.storage.table.TableDateTests;
 import com.microsoft.azure.storage.table.TableEscapingTests;
+import com.microsoft.azure.storage.table.TableJsonCodecTests;
 import com.microsoft.azure.storage.table.TableODataTests;
 import com.microsoft.azure.storage.table.TableOperationTests;
 import com.microsoft.azure.storage.table.TableQueryTests;
@@ -109,27 +122,35 @@ public class TestRunners {
 
     // Test suites
     @RunWith(Suite.class)
-    @SuiteClasses({AccountSasTests.class, EventFiringTests.class, GenericTests.class, MaximumExecutionTimeTests.class,
-            SecondaryTests.class, ServicePropertiesTests.class, StorageAccountTests.class,
-            StorageUriTests.class})
+    @SuiteClasses({AccountSasTests.class, Base64Tests.class, ByteBufferTransferTests.class, DateCodecTests.class,
+            EventFiringTests.class, GenericTests.class, HedgedReadPolicyTests.class, LocationHealthTrackerTests.class,
+            MaximumExecutionTimeTests.class, PipelinedDigestTests.class, RateLimiterTests.class,
+            RetryAdaptiveTests.class, SecondaryTests.class, ServicePropertiesTests.class,
+            SharedAccessSignatureCacheTests.class, StorageAccountTests.class, StorageUriTests.class,
+            TransferSchedulerTests.class})
     public static class CoreTestSuite {
     }
 
     @RunWith(Suite.class)
-    @SuiteClasses({BlobOutputStreamTests.class, CloudBlobClientTests.class, CloudBlobContainerTests.class,
-            CloudBlobDirectoryTests.class, CloudAppendBlobTests.class, CloudBlockBlobTests.class, CloudPageBlobTests.class,
-            LeaseTests.class, SasTests.class, PremiumBlobTests.class})
+    @SuiteClasses({BlobOutputStreamTests.class, BulkBlobOperationTests.class, BulkCopyOrchestratorTests.class,
+            CloudAppendBlobTests.class, CloudBlobClientTests.class, CloudBlobContainerTests.class,
+            CloudBlobDirectoryTests.class, CloudBlockBlobTests.class, CloudPageBlobTests.class,
+            ContentDefinedChunkerTests.class, LeaseManagerSchedulingTests.class, LeaseManagerTests.class,
+            LeaseTests.class, ResumableUploadCheckpointTests.class, SasTests.class, StreamingListingTests.class,
+            PremiumBlobTests.class})
     public static class BlobTestSuite {
     }
 
     @RunWith(Suite.class)
-    @SuiteClasses({CloudQueueClientGB18030Test.class, CloudQueueClientTests.class, CloudQueueTests.class})
+    @SuiteClasses({CloudQueueClientGB18030Test.class, CloudQueueClientTests.class, CloudQueueMessageTests.class,
+            CloudQueueTests.class})
     public static class QueueTestSuite {
     }
 
     @RunWith(Suite.class)
-    @SuiteClasses({TableBatchOperationTests.class, TableClientTests.class, TableDateTests.class, TableEscapingTests.class,
-            TableODataTests.class, TableOperationTests.class, TableQueryTests.class, TableSerializerTests.class, TableTests.class})
+    @SuiteClasses({MimeHelperTests.class, TableBatchOperationTests.class, TableClientTests.class, TableDateTests.class,
+            TableEscapingTests.class, TableJsonCodecTests.class, TableODataTests.class, TableOperationTests.class,
+            TableQueryTests.class, TableSerializerTests.class, TableTests.class})
     public static class TableTestSuite {
     }
 
@@ -140,7 +161,8 @@ public class TestRunners {
     }
 
     @RunWith(Suite.class)
-    @SuiteClasses({CloudAnalyticsClientTests.class})
+    @SuiteClasses({CloudAnalyticsClientTests.class, LogRecordViewTests.class, ParallelLogRecordIteratorTests.class,
+            MetricsReaderTests.class})
     public static class AnalyticsTestSuite {
     }
 
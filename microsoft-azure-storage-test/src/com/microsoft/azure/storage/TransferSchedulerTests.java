@@ -0,0 +1,213 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class TransferSchedulerTests {
+
+    @Test
+    public void testTransferSchedulerIsFairAcrossSessions() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler(1, Long.MAX_VALUE);
+        final CountDownLatch gate = new CountDownLatch(1);
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+
+        TransferScheduler.Session busy = scheduler.openSession(4);
+        TransferScheduler.Session quiet = scheduler.openSession(4);
+
+        // Hold the only thread while both sessions queue work.
+        busy.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                gate.await();
+                return null;
+            }
+        }, 1);
+
+        for (int i = 0; i < 4; i++) {
+            busy.submit(record(order, "busy"), 1);
+        }
+
+        quiet.submit(record(order, "quiet"), 1);
+        quiet.submit(record(order, "quiet"), 1);
+
+        gate.countDown();
+        busy.awaitOutstandingBelow(1);
+        quiet.awaitOutstandingBelow(1);
+
+        assertEquals("[busy, quiet, busy, quiet, busy, busy]", order.toString());
+    }
+
+    @Test
+    public void testTransferSchedulerLimitsSessionConcurrency() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler(8, Long.MAX_VALUE);
+        TransferScheduler.Session session = scheduler.openSession(2);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximum = new AtomicInteger();
+
+        for (int i = 0; i < 20; i++) {
+            session.submit(track(running, maximum), 1);
+        }
+
+        session.awaitOutstandingBelow(1);
+        assertEquals(2, maximum.get());
+        assertEquals(0, session.getOutstandingCount());
+        assertEquals(0, scheduler.getRunningCount());
+    }
+
+    @Test
+    public void testTransferSchedulerLimitsInFlightBytes() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler(8, 100);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximum = new AtomicInteger();
+
+        List<TransferScheduler.Session> sessions = new ArrayList<TransferScheduler.Session>();
+        for (int i = 0; i < 4; i++) {
+            TransferScheduler.Session session = scheduler.openSession(4);
+            sessions.add(session);
+            for (int j = 0; j < 5; j++) {
+                session.submit(track(running, maximum), 40);
+            }
+        }
+
+        // A task larger than the cap still runs, alone.
+        TransferScheduler.Session large = scheduler.openSession(1);
+        Future<Void> largeTask = large.submit(track(running, maximum), 1000);
+
+        for (TransferScheduler.Session session : sessions) {
+            session.awaitOutstandingBelow(1);
+        }
+
+        largeTask.get(10, TimeUnit.SECONDS);
+        assertEquals(2, maximum.get());
+
+        // The bytes of a task are released before its future completes.
+        assertEquals(0, scheduler.getInFlightBytes());
+        assertEquals(0, scheduler.getRunningCount());
+    }
+
+    @Test
+    public void testTransferSchedulerReservesCapacityForWaitingTask() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler(8, 100);
+        final CountDownLatch gate = new CountDownLatch(1);
+        TransferScheduler.Session small = scheduler.openSession(8);
+        TransferScheduler.Session large = scheduler.openSession(1);
+
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        futures.add(small.submit(await(gate), 40));
+        futures.add(small.submit(await(gate), 40));
+        assertEquals(80, scheduler.getInFlightBytes());
+
+        // The large task does not fit and reserves its bytes, so a small task which would fit under the cap waits.
+        Future<Void> largeTask = large.submit(await(gate), 60);
+        futures.add(small.submit(await(gate), 10));
+        assertEquals(2, scheduler.getRunningCount());
+        assertEquals(80, scheduler.getInFlightBytes());
+
+        // A task larger than the cap reserves all of it.
+        TransferScheduler.Session oversized = scheduler.openSession(1);
+        Future<Void> oversizedTask = oversized.submit(await(gate), 1000);
+        futures.add(small.submit(await(gate), 1));
+        assertEquals(2, scheduler.getRunningCount());
+
+        gate.countDown();
+        largeTask.get(10, TimeUnit.SECONDS);
+        oversizedTask.get(10, TimeUnit.SECONDS);
+        for (Future<Void> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(0, scheduler.getInFlightBytes());
+        assertEquals(0, scheduler.getRunningCount());
+    }
+
+    @Test
+    public void testTransferSchedulerCancelsPendingTasks() throws Exception {
+        TransferScheduler scheduler = new TransferScheduler(1, Long.MAX_VALUE);
+        final CountDownLatch gate = new CountDownLatch(1);
+        TransferScheduler.Session session = scheduler.openSession(1);
+
+        Future<Void> running = session.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                gate.await();
+                return null;
+            }
+        }, 1);
+        Future<Void> pending = session.submit(record(new ArrayList<String>(), "pending"), 1);
+
+        assertEquals(1, session.cancelPending().size());
+        assertTrue(pending.isCancelled());
+        assertEquals(1, session.getOutstandingCount());
+
+        gate.countDown();
+        running.get(10, TimeUnit.SECONDS);
+        session.awaitOutstandingBelow(1);
+        assertFalse(running.isCancelled());
+    }
+
+    private static Callable<Void> await(final CountDownLatch gate) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() throws InterruptedException {
+                gate.await();
+                return null;
+            }
+        };
+    }
+
+    private static Callable<Void> record(final List<String> order, final String name) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() {
+                order.add(name);
+                return null;
+            }
+        };
+    }
+
+    private static Callable<Void> track(final AtomicInteger running, final AtomicInteger maximum) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() throws InterruptedException {
+                int current = running.incrementAndGet();
+                synchronized (maximum) {
+                    maximum.set(Math.max(maximum.get(), current));
+                }
+
+                Thread.sleep(10);
+                running.decrementAndGet();
+                return null;
+            }
+        };
+    }
+}
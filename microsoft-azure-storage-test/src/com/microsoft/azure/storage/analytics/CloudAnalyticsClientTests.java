@@ -23,6 +23,8 @@ import com.microsoft.azure.storage.TestRunners.DevStoreTests;
 import com.microsoft.azure.storage.blob.CloudBlobContainer;
 import com.microsoft.azure.storage.blob.CloudBlockBlob;
 import com.microsoft.azure.storage.blob.ListBlobItem;
+import com.microsoft.azure.storage.core.DateCodec;
+import com.microsoft.azure.storage.core.Utility;
 import com.microsoft.azure.storage.table.CloudTable;
 
 import org.junit.After;
@@ -230,7 +232,7 @@ public class CloudAnalyticsClientTests {
 
         LogRecord expectedItemOne = new LogRecord();
         expectedItemOne.setVersionNumber("1.0");
-        expectedItemOne.setRequestStartTime(LogRecord.REQUEST_START_TIME_FORMAT.parse("2011-08-09T18:52:40.9241789Z"));
+        expectedItemOne.setRequestStartTime(Utility.parseDate("2011-08-09T18:52:40.9241789Z"));
         expectedItemOne.setOperationType("GetBlob");
         expectedItemOne.setRequestStatus("AnonymousSuccess");
         expectedItemOne.setHttpStatusCode("200");
@@ -255,8 +257,7 @@ public class CloudAnalyticsClientTests {
         expectedItemOne.setRequestMD5(null);
         expectedItemOne.setServerMD5(null);
         expectedItemOne.setETagIdentifier("0x8CE1B6EA95033D5");
-        expectedItemOne.setLastModifiedTime(LogRecord.LAST_MODIFIED_TIME_FORMAT
-                .parse("Tuesday, 09-Aug-11 18:52:40 GMT"));
+        expectedItemOne.setLastModifiedTime(DateCodec.parseRFC850("Tuesday, 09-Aug-11 18:52:40 GMT"));
         expectedItemOne.setConditionsUsed(null);
         expectedItemOne.setUserAgentHeader(null);
         expectedItemOne.setReferrerHeader(null);
@@ -264,7 +265,7 @@ public class CloudAnalyticsClientTests {
 
         LogRecord expectedItemTwo = new LogRecord();
         expectedItemTwo.setVersionNumber("1.0");
-        expectedItemTwo.setRequestStartTime(LogRecord.REQUEST_START_TIME_FORMAT.parse("2011-08-09T18:02:40.6271789Z"));
+        expectedItemTwo.setRequestStartTime(Utility.parseDate("2011-08-09T18:02:40.6271789Z"));
         expectedItemTwo.setOperationType("PutBlob");
         expectedItemTwo.setRequestStatus("Success");
         expectedItemTwo.setHttpStatusCode("201");
@@ -289,8 +290,7 @@ public class CloudAnalyticsClientTests {
         expectedItemTwo.setRequestMD5(null);
         expectedItemTwo.setServerMD5("66CbMXKirxDeTr82SXBKbg==");
         expectedItemTwo.setETagIdentifier("0x8CE1B67AD25AA05");
-        expectedItemTwo.setLastModifiedTime(LogRecord.LAST_MODIFIED_TIME_FORMAT
-                .parse("Tuesday, 09-Aug-11 18:02:40 GMT"));
+        expectedItemTwo.setLastModifiedTime(DateCodec.parseRFC850("Tuesday, 09-Aug-11 18:02:40 GMT"));
         expectedItemTwo.setConditionsUsed(null);
         expectedItemTwo.setUserAgentHeader(null);
         expectedItemTwo.setReferrerHeader(null);
@@ -0,0 +1,299 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.analytics;
+
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+import com.microsoft.azure.storage.blob.ListBlobItem;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.GregorianCalendar;
+import java.util.NoSuchElementException;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Log Record View Tests
+ */
+@Category({DevFabricTests.class, DevStoreTests.class, CloudTests.class})
+public class LogRecordViewTests {
+
+    private static final String RECORD_1 = "1.0;2011-08-09T18:52:40.9241789Z;GetBlob;AnonymousSuccess;200;18;10;"
+            + "anonymous;;myaccount;blob;\"https://myaccount.blob.core.windows.net/thumbnails/lake.jpg?timeout=30000\";"
+            + "\"/myaccount/thumbnails/lake.jpg\";a84aa705-8a85-48c5-b064-b43bd22979c1;0;123.100.2.10;2009-09-19;252;"
+            + "0;265;100;0;;;\"0x8CE1B6EA95033D5\";Tuesday, 09-Aug-11 18:52:40 GMT;;;;"
+            + "\"8/9/2011 6:52:40 PM ba98eb12-700b-4d53-9230-33a3330571fc\"\n";
+
+    private static final String RECORD_2 = "1.0;2014-01-31T23:59:59.0001234Z;PutBlob;Success;201;1024;1000;authenticated;"
+            + "myaccount;myaccount;blob;\"https://myaccount.blob.core.windows.net/c/b;x?comp=a&amp;b=c\";"
+            + "\"/myaccount/c/b;x\";00000000-0000-0000-ffff-FFFFFFFFFFFF;0;10.0.0.1:5000;2015-04-05;512;4096;220;0;"
+            + "3584;\"rcSGlM3SfX9pfuXqi9bWOQ==\";\"rcSGlM3SfX9pfuXqi9bWOQ==\";\"0x8D0EC3A2B3B5A3B\";;"
+            + "\"If-Match=0x8D0EC3A2B3B5A3B\";\"Azure-Storage/1.0.0 (JavaJRE 1.7.0_51; WindowsServer2012 6.2)\";;"
+            + "\"b1f7ccd6-1b5d-4b4d-a4c6-1bd8dd2dc2ea\"\n";
+
+    private static final String LOG = RECORD_1 + RECORD_2;
+
+    /**
+     * Checks that every field of a view matches the record parsed by the character based reader.
+     */
+    @Test
+    public void testLogRecordViewMatchesLogRecord() throws Exception {
+        LogRecordStreamReader reader = new LogRecordStreamReader(toStream(LOG));
+        LogRecordByteScanner scanner = new LogRecordByteScanner(toStream(LOG));
+        LogRecordView view = new LogRecordView(null);
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(scanner.nextRecord());
+            view.moveTo(scanner);
+            LogRecord expected = new LogRecord(reader);
+            assertRecordEquals(expected, view.toLogRecord());
+        }
+
+        assertTrue(reader.isEndOfFile());
+        assertFalse(scanner.nextRecord());
+    }
+
+    /**
+     * Checks records which span or exceed the read buffer.
+     */
+    @Test
+    public void testLogRecordViewSmallBuffer() throws Exception {
+        for (int bufferSize = 1; bufferSize < 64; bufferSize += 7) {
+            LogRecordByteScanner scanner = new LogRecordByteScanner(toStream(LOG + LOG), bufferSize);
+            LogRecordView view = new LogRecordView(null);
+            int count = 0;
+            while (scanner.nextRecord()) {
+                view.moveTo(scanner);
+                assertEquals(count % 2 == 0 ? "GetBlob" : "PutBlob", view.getOperationType());
+                assertEquals(count % 2 == 0 ? "/myaccount/thumbnails/lake.jpg" : "/myaccount/c/b;x",
+                        view.getRequestedObjectKey());
+                count++;
+            }
+
+            assertEquals(4, count);
+        }
+    }
+
+    /**
+     * Checks the decoding of typed fields.
+     */
+    @Test
+    public void testLogRecordViewTypedFields() throws Exception {
+        LogRecordByteScanner scanner = new LogRecordByteScanner(toStream(LOG));
+        LogRecordView view = new LogRecordView(null);
+
+        assertTrue(scanner.nextRecord());
+        view.moveTo(scanner);
+        Calendar expected = new GregorianCalendar(TimeZone.getTimeZone("GMT"));
+        expected.clear();
+        expected.set(2011, Calendar.AUGUST, 9, 18, 52, 40);
+        expected.set(Calendar.MILLISECOND, 924);
+        assertEquals(expected.getTime(), view.getRequestStartTime());
+        assertEquals(Integer.valueOf(18), view.getEndToEndLatencyInMS());
+        assertEquals(Long.valueOf(265), view.getResponseHeaderSize());
+        assertNull(view.getRequestMD5());
+        assertNull(view.getRequesterAccountName());
+        assertEquals("a84aa705-8a85-48c5-b064-b43bd22979c1", view.getRequestIdHeader().toString());
+
+        // Values are cached per record and replaced when the view moves on.
+        assertSame(view.getRequestIdHeader(), view.getRequestIdHeader());
+        assertTrue(scanner.nextRecord());
+        view.moveTo(scanner);
+        expected.set(2014, Calendar.JANUARY, 31, 23, 59, 59);
+        expected.set(Calendar.MILLISECOND, 0);
+        assertEquals(expected.getTime(), view.getRequestStartTime());
+        assertEquals("00000000-0000-0000-ffff-ffffffffffff", view.getRequestIdHeader().toString());
+        assertEquals("https://myaccount.blob.core.windows.net/c/b;x?comp=a&b=c", view.getRequestUrl().toString());
+        assertNull(view.getLastModifiedTime());
+    }
+
+    /**
+     * Checks that only selected fields may be read.
+     */
+    @Test
+    public void testLogRecordViewProjection() throws Exception {
+        LogRecordByteScanner scanner = new LogRecordByteScanner(toStream(LOG));
+        LogRecordView view = new LogRecordView(EnumSet.of(LogRecordField.OPERATION_TYPE,
+                LogRecordField.REQUEST_PACKET_SIZE));
+
+        assertTrue(scanner.nextRecord());
+        view.moveTo(scanner);
+        assertEquals("GetBlob", view.getOperationType());
+        assertEquals(Long.valueOf(0), view.getRequestPacketSize());
+        assertEquals("0", view.getFieldAsString(LogRecordField.REQUEST_PACKET_SIZE));
+        try {
+            view.getRequestUrl();
+            fail();
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+
+        LogRecord record = view.toLogRecord();
+        assertEquals("GetBlob", record.getOperationType());
+        assertNull(record.getRequestUrl());
+    }
+
+    /**
+     * Checks malformed input.
+     */
+    @Test
+    public void testLogRecordViewInvalidInput() throws Exception {
+        LogRecordByteScanner scanner = new LogRecordByteScanner(toStream(RECORD_1.substring(0, 40)));
+        try {
+            scanner.nextRecord();
+            fail();
+        }
+        catch (EOFException e) {
+            // expected
+        }
+
+        scanner = new LogRecordByteScanner(toStream("1.0;a\"b;c\n"));
+        try {
+            scanner.nextRecord();
+            fail();
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+
+        scanner = new LogRecordByteScanner(toStream(RECORD_1.replace("1.0;", "2.0;")));
+        assertTrue(scanner.nextRecord());
+        try {
+            new LogRecordView(null).moveTo(scanner);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        scanner = new LogRecordByteScanner(toStream("1.0;a;b\n"));
+        assertTrue(scanner.nextRecord());
+        try {
+            new LogRecordView(null).moveTo(scanner);
+            fail();
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Checks that integer fields out of the range of an int are rejected rather than truncated.
+     */
+    @Test
+    public void testLogRecordViewIntegerOverflow() throws Exception {
+        LogRecordByteScanner scanner = new LogRecordByteScanner(toStream(RECORD_1.replace(";18;10;",
+                ";4294967314;10;")));
+        LogRecordView view = new LogRecordView(null);
+        assertTrue(scanner.nextRecord());
+        view.moveTo(scanner);
+        assertEquals(Integer.valueOf(10), view.getServerLatencyInMS());
+        try {
+            view.getEndToEndLatencyInMS();
+            fail();
+        }
+        catch (NumberFormatException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Checks that the iterator reports malformed records as the end of the enumeration.
+     */
+    @Test
+    public void testLogRecordViewIteratorMalformedRecord() throws Exception {
+        LogRecordViewIterator iterator = createIterator(RECORD_1 + "1.0;a\"b;c\n");
+        assertTrue(iterator.hasNext());
+        assertEquals("GetBlob", iterator.next().getOperationType());
+        try {
+            iterator.hasNext();
+            fail();
+        }
+        catch (NoSuchElementException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        iterator = createIterator(RECORD_1.replace("1.0;", "2.0;"));
+        try {
+            iterator.next();
+            fail();
+        }
+        catch (NoSuchElementException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    private static LogRecordViewIterator createIterator(final String log) {
+        return new LogRecordViewIterator(Collections.<ListBlobItem> singletonList(null).iterator(), null) {
+            @Override
+            InputStream openLogBlob(ListBlobItem logBlob) {
+                try {
+                    return toStream(log);
+                }
+                catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            }
+        };
+    }
+
+    private static InputStream toStream(String log) throws Exception {
+        return new ByteArrayInputStream(log.getBytes("UTF-8"));
+    }
+
+    private static void assertRecordEquals(LogRecord expected, LogRecord actual) {
+        assertEquals(expected.getVersionNumber(), actual.getVersionNumber());
+        assertEquals(expected.getRequestStartTime(), actual.getRequestStartTime());
+        assertEquals(expected.getOperationType(), actual.getOperationType());
+        assertEquals(expected.getRequestStatus(), actual.getRequestStatus());
+        assertEquals(expected.getHttpStatusCode(), actual.getHttpStatusCode());
+        assertEquals(expected.getEndToEndLatencyInMS(), actual.getEndToEndLatencyInMS());
+        assertEquals(expected.getServerLatencyInMS(), actual.getServerLatencyInMS());
+        assertEquals(expected.getAuthenticationType(), actual.getAuthenticationType());
+        assertEquals(expected.getRequesterAccountName(), actual.getRequesterAccountName());
+        assertEquals(expected.getOwnerAccountName(), actual.getOwnerAccountName());
+        assertEquals(expected.getServiceType(), actual.getServiceType());
+        assertEquals(expected.getRequestUrl(), actual.getRequestUrl());
+        assertEquals(expected.getRequestedObjectKey(), actual.getRequestedObjectKey());
+        assertEquals(expected.getRequestIdHeader(), actual.getRequestIdHeader());
+        assertEquals(expected.getOperationCount(), actual.getOperationCount());
+        assertEquals(expected.getRequesterIPAddress(), actual.getRequesterIPAddress());
+        assertEquals(expected.getRequestVersionHeader(), actual.getRequestVersionHeader());
+        assertEquals(expected.getRequestHeaderSize(), actual.getRequestHeaderSize());
+        assertEquals(expected.getRequestPacketSize(), actual.getRequestPacketSize());
+        assertEquals(expected.getResponseHeaderSize(), actual.getResponseHeaderSize());
+        assertEquals(expected.getResponsePacketSize(), actual.getResponsePacketSize());
+        assertEquals(expected.getRequestContentLength(), actual.getRequestContentLength());
+        assertEquals(expected.getRequestMD5(), actual.getRequestMD5());
+        assertEquals(expected.getServerMD5(), actual.getServerMD5());
+        assertEquals(expected.getETagIdentifier(), actual.getETagIdentifier());
+        assertEquals(expected.getLastModifiedTime(), actual.getLastModifiedTime());
+        assertEquals(expected.getConditionsUsed(), actual.getConditionsUsed());
+        assertEquals(expected.getUserAgentHeader(), actual.getUserAgentHeader());
+        assertEquals(expected.getReferrerHeader(), actual.getReferrerHeader());
+        assertEquals(expected.getClientRequestId(), actual.getClientRequestId());
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.analytics;
+
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+import com.microsoft.azure.storage.table.TableRequestOptions;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Metrics Reader Tests
+ */
+@Category({DevFabricTests.class, DevStoreTests.class, CloudTests.class})
+public class MetricsReaderTests {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private static final long DAY = 24 * HOUR;
+
+    // 2014-01-01T00:00Z
+    private static final long ORIGIN = 1388534400000L;
+
+    @Test
+    public void testMetricsReaderGroupsByIntervalAndApi() throws StorageException {
+        FakeMetricsReader reader = new FakeMetricsReader();
+        reader.setAggregationIntervalInMs(DAY);
+
+        List<MetricsAggregate> aggregates = reader.aggregate(new Date(ORIGIN), new Date(ORIGIN + 2 * DAY),
+                MetricsGrouping.API_AND_INTERVAL, "TotalRequests", "Missing");
+
+        // Two days, two APIs each.
+        assertEquals(4, aggregates.size());
+        assertEquals(2, reader.queries.size() / 2);
+        for (int i = 0; i < aggregates.size(); i++) {
+            MetricsAggregate aggregate = aggregates.get(i);
+            assertEquals(ORIGIN + (i / 2) * DAY, aggregate.getIntervalStart().getTime());
+            assertEquals(i % 2 == 0 ? "user;GetBlob" : "user;PutBlob", aggregate.getApi());
+            assertEquals(24, aggregate.getRowCount());
+            assertEquals(24, aggregate.getCount("TotalRequests"));
+            assertEquals(0, aggregate.getCount("Missing"));
+            assertEquals(1.0, aggregate.getMinimum("TotalRequests"), 0);
+            assertEquals(24.0, aggregate.getMaximum("TotalRequests"), 0);
+            assertEquals(300.0, aggregate.getSum("TotalRequests"), 0);
+            assertEquals(12.5, aggregate.getAverage("TotalRequests"), 0);
+            assertEquals(1.0, aggregate.getPercentile("TotalRequests", 0), 0);
+            assertEquals(12.0, aggregate.getPercentile("TotalRequests", 50), 0);
+            assertEquals(23.0, aggregate.getPercentile("TotalRequests", 95), 0);
+            assertEquals(24.0, aggregate.getPercentile("TotalRequests", 100), 0);
+            assertTrue(Double.isNaN(aggregate.getPercentile("Missing", 99)));
+        }
+
+        try {
+            aggregates.get(0).getPercentile("TotalRequests", 101);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        try {
+            aggregates.get(0).getSum("Other");
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testMetricsReaderSplitsPartialWindows() throws StorageException {
+        FakeMetricsReader reader = new FakeMetricsReader();
+
+        List<MetricsAggregate> aggregates = reader.aggregate(new Date(ORIGIN + 20 * HOUR + 1),
+                new Date(ORIGIN + DAY + 2 * HOUR), MetricsGrouping.NONE, "TotalRequests");
+
+        // The start is aligned down to the hour, the end is exclusive.
+        assertEquals(Arrays.asList(ORIGIN + 20 * HOUR, ORIGIN + DAY, ORIGIN + DAY, ORIGIN + DAY + 2 * HOUR),
+                reader.queries);
+        assertEquals(1, aggregates.size());
+        assertNull(aggregates.get(0).getIntervalStart());
+        assertNull(aggregates.get(0).getApi());
+        assertEquals(12, aggregates.get(0).getRowCount());
+        assertEquals(2 * (21 + 22 + 23 + 24 + 1 + 2), aggregates.get(0).getSum("TotalRequests"), 0);
+    }
+
+    @Test
+    public void testMetricsReaderCachesClosedWindows() throws StorageException {
+        FakeMetricsReader reader = new FakeMetricsReader();
+        reader.setConcurrentRequestCount(2);
+        long today = System.currentTimeMillis() / DAY * DAY;
+
+        reader.aggregate(new Date(today - 3 * DAY), new Date(today + DAY), MetricsGrouping.API, "TotalRequests");
+        assertEquals(4, reader.queries.size() / 2);
+
+        // The closed days are served from the cache, the current day is queried again.
+        reader.queries.clear();
+        List<MetricsAggregate> aggregates = reader.aggregate(new Date(today - 3 * DAY), new Date(today + DAY),
+                MetricsGrouping.API, "TotalRequests");
+        assertEquals(Arrays.asList(today, today + DAY), reader.queries);
+        assertEquals(2, aggregates.size());
+        assertEquals(4 * 24, aggregates.get(0).getRowCount());
+
+        // Different columns are cached separately.
+        reader.queries.clear();
+        reader.aggregate(new Date(today - 3 * DAY), new Date(today - 2 * DAY), MetricsGrouping.API, "Other");
+        assertEquals(1, reader.queries.size() / 2);
+
+        reader.clearCache();
+        reader.queries.clear();
+        reader.aggregate(new Date(today - 3 * DAY), new Date(today - 2 * DAY), MetricsGrouping.API, "TotalRequests");
+        assertEquals(1, reader.queries.size() / 2);
+    }
+
+    @Test
+    public void testMetricsReaderSettings() {
+        FakeMetricsReader reader = new FakeMetricsReader();
+        assertEquals(HOUR, reader.getAggregationIntervalInMs());
+        assertEquals(MetricsReader.DEFAULT_CONCURRENT_REQUEST_COUNT, reader.getConcurrentRequestCount());
+
+        for (long interval : new long[] { 0, -HOUR, HOUR + 1 }) {
+            try {
+                reader.setAggregationIntervalInMs(interval);
+                fail();
+            }
+            catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+
+        try {
+            reader.setConcurrentRequestCount(0);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testMetricsReaderParsePartitionKey() {
+        assertEquals(ORIGIN + DAY + 13 * HOUR + 5 * 60 * 1000L, MetricsReader.parsePartitionKey("20140102T1305"));
+
+        for (String key : new String[] { "20140102", "20140102X1305", "2014010AT1305" }) {
+            try {
+                MetricsReader.parsePartitionKey(key);
+                fail();
+            }
+            catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * Serves two rows an hour, for <code>user;GetBlob</code> and <code>user;PutBlob</code>, whose first column is
+     * the hour of the day counted from 1. Records the start and end of each queried window.
+     */
+    private static class FakeMetricsReader extends MetricsReader {
+
+        final List<Long> queries = Collections.synchronizedList(new ArrayList<Long>());
+
+        FakeMetricsReader() {
+            super(null /* table */, HOUR, DAY);
+        }
+
+        @Override
+        List<MetricsRow> queryWindow(long windowStart, long windowEnd, String[] columns, String apisFilter,
+                TableRequestOptions options, OperationContext opContext) {
+            synchronized (this.queries) {
+                this.queries.add(windowStart);
+                this.queries.add(windowEnd);
+            }
+
+            List<MetricsRow> rows = new ArrayList<MetricsRow>();
+            for (long time = windowStart; time < windowEnd; time += HOUR) {
+                for (String api : new String[] { "user;PutBlob", "user;GetBlob" }) {
+                    double[] values = new double[columns.length];
+                    Arrays.fill(values, Double.NaN);
+                    if (columns[0].equals("TotalRequests")) {
+                        values[0] = (time % DAY) / HOUR + 1;
+                    }
+
+                    rows.add(new MetricsRow(time, api, values));
+                }
+            }
+
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.analytics;
+
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.storage.blob.ListBlobItem;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Parallel Log Record Ingestion Tests
+ */
+@Category({DevFabricTests.class, DevStoreTests.class, CloudTests.class})
+public class ParallelLogRecordIteratorTests {
+
+    private static final int HOURS = 3;
+
+    private static final int BLOBS_PER_HOUR = 3;
+
+    private static final int RECORDS_PER_BLOB = ParallelLogRecordIterator.BATCH_SIZE * 2 + 17;
+
+    @Test
+    public void testParallelLogRecordsBlobOrdering() throws Exception {
+        List<String> expected = new ArrayList<String>();
+        for (ListBlobItem blob : createLogBlobs()) {
+            for (int i = 0; i < RECORDS_PER_BLOB; i++) {
+                expected.add(getClientRequestId(((CloudBlob) blob).getName(), i));
+            }
+        }
+
+        List<String> actual = new ArrayList<String>();
+        for (LogRecord record : createIterable(LogRecordOrdering.BLOB, null, null, 2)) {
+            actual.add(record.getClientRequestId());
+        }
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testParallelLogRecordsHourOrdering() throws Exception {
+        Set<String> seen = new HashSet<String>();
+        String lastHour = "";
+        for (LogRecord record : createIterable(LogRecordOrdering.HOUR, null, null, 4)) {
+            String hour = record.getClientRequestId().substring(0, "blob/1970/01/01/0000".length());
+            assertTrue(hour.compareTo(lastHour) >= 0);
+            lastHour = hour;
+            assertTrue(seen.add(record.getClientRequestId()));
+        }
+
+        assertEquals(HOURS * BLOBS_PER_HOUR * RECORDS_PER_BLOB, seen.size());
+    }
+
+    @Test
+    public void testParallelLogRecordsUnordered() throws Exception {
+        Set<String> seen = new HashSet<String>();
+        for (LogRecord record : createIterable(LogRecordOrdering.NONE, null, null, 3)) {
+            assertTrue(seen.add(record.getClientRequestId()));
+            assertEquals("GetBlob", record.getOperationType());
+        }
+
+        assertEquals(HOURS * BLOBS_PER_HOUR * RECORDS_PER_BLOB, seen.size());
+    }
+
+    @Test
+    public void testParallelLogRecordsTimeFilter() throws Exception {
+        // Only the blobs of the second hour overlap the range.
+        Date startTime = new Date(3600 * 1000L + 10);
+        Date endTime = new Date(2 * 3600 * 1000L - 10);
+        int count = 0;
+        for (LogRecord record : createIterable(LogRecordOrdering.NONE, startTime, endTime, 2)) {
+            assertTrue(record.getClientRequestId().startsWith("blob/1970/01/01/0100/"));
+            count++;
+        }
+
+        assertEquals(BLOBS_PER_HOUR * RECORDS_PER_BLOB, count);
+    }
+
+    @Test
+    public void testParallelLogRecordsRepeatedEnumeration() throws Exception {
+        ParallelLogRecordIterable iterable = createIterable(LogRecordOrdering.NONE, null, null, 2);
+        for (int i = 0; i < 2; i++) {
+            int count = 0;
+            for (LogRecord record : iterable) {
+                assertNotNull(record.getClientRequestId());
+                count++;
+            }
+
+            assertEquals(HOURS * BLOBS_PER_HOUR * RECORDS_PER_BLOB, count);
+
+            // Exhausted enumerations are forgotten.
+            assertEquals(0, iterable.getOpenIteratorCount());
+        }
+
+        iterable.close();
+    }
+
+    @Test
+    public void testParallelLogRecordsCloseWakesConsumer() throws Exception {
+        final CountDownLatch opened = new CountDownLatch(1);
+        final ParallelLogRecordIterable iterable = new ParallelLogRecordIterable(createLogBlobs(), null, null,
+                createOptions(LogRecordOrdering.BLOB, 2)) {
+            @Override
+            ParallelLogRecordIterator createIterator(Iterator<ListBlobItem> logBlobIterator, Date startTime,
+                    Date endTime, LogIngestionOptions ingestionOptions) {
+                return new ParallelLogRecordIterator(logBlobIterator, startTime, endTime, ingestionOptions) {
+                    @Override
+                    InputStream openLogBlob(ListBlobItem logBlob) {
+                        // A download which never completes until the worker is interrupted.
+                        opened.countDown();
+                        return new InputStream() {
+                            @Override
+                            public int read() throws IOException {
+                                try {
+                                    new CountDownLatch(1).await();
+                                }
+                                catch (InterruptedException e) {
+                                    throw new InterruptedIOException();
+                                }
+
+                                return -1;
+                            }
+                        };
+                    }
+                };
+            }
+        };
+
+        final Iterator<LogRecord> iterator = iterable.iterator();
+        assertEquals(1, iterable.getOpenIteratorCount());
+        final AtomicReference<Object> result = new AtomicReference<Object>();
+        final Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    result.set(iterator.hasNext());
+                }
+                catch (RuntimeException e) {
+                    result.set(e);
+                }
+            }
+        };
+
+        consumer.start();
+        assertTrue(opened.await(10, TimeUnit.SECONDS));
+        iterable.close();
+        consumer.join(10000);
+        assertFalse(consumer.isAlive());
+        assertEquals(Boolean.FALSE, result.get());
+        assertEquals(0, iterable.getOpenIteratorCount());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testParallelLogRecordsError() throws Exception {
+        ParallelLogRecordIterable iterable = createIterable(LogRecordOrdering.BLOB, null, null, 2);
+        iterable.close();
+        assertFalse(iterable.iterator().hasNext());
+
+        final List<ListBlobItem> blobs = createLogBlobs();
+        ParallelLogRecordIterator iterator = new ParallelLogRecordIterator(blobs.iterator(), null, null,
+                createOptions(LogRecordOrdering.BLOB, 2)) {
+            @Override
+            InputStream openLogBlob(ListBlobItem logBlob) throws StorageException {
+                if (logBlob == blobs.get(1)) {
+                    return new ByteArrayInputStream("1.0;truncated".getBytes());
+                }
+
+                return generateLogContent(((CloudBlob) logBlob).getName());
+            }
+        };
+
+        try {
+            while (iterator.hasNext()) {
+                iterator.next();
+            }
+
+            fail();
+        }
+        catch (NoSuchElementException e) {
+            assertNotNull(e.getCause());
+        }
+    }
+
+    private static ParallelLogRecordIterable createIterable(LogRecordOrdering ordering, Date startTime, Date endTime,
+            int concurrency) throws Exception {
+        // Generate the blob content locally instead of downloading it.
+        LogIngestionOptions options = createOptions(ordering, concurrency);
+        return new ParallelLogRecordIterable(createLogBlobs(), startTime, endTime, options) {
+            @Override
+            ParallelLogRecordIterator createIterator(Iterator<ListBlobItem> logBlobIterator, Date startTime,
+                    Date endTime, LogIngestionOptions ingestionOptions) {
+                return new ParallelLogRecordIterator(logBlobIterator, startTime, endTime, ingestionOptions) {
+                    @Override
+                    InputStream openLogBlob(ListBlobItem logBlob) {
+                        return generateLogContent(((CloudBlob) logBlob).getName());
+                    }
+                };
+            }
+        };
+    }
+
+    private static LogIngestionOptions createOptions(LogRecordOrdering ordering, int concurrency) {
+        LogIngestionOptions options = new LogIngestionOptions();
+        options.setOrdering(ordering);
+        options.setConcurrentBlobCount(concurrency);
+        options.setMaximumBufferedRecords(ParallelLogRecordIterator.BATCH_SIZE * 2);
+        return options;
+    }
+
+    private static List<ListBlobItem> createLogBlobs() throws Exception {
+        List<ListBlobItem> blobs = new ArrayList<ListBlobItem>();
+        for (int hour = 0; hour < HOURS; hour++) {
+            for (int i = 0; i < BLOBS_PER_HOUR; i++) {
+                CloudBlockBlob blob = new CloudBlockBlob(new URI(String.format(
+                        "http://myaccount.blob.core.windows.net/$logs/blob/1970/01/01/%02d00/%06d.log", hour, i)));
+                blob.getMetadata().put("StartTime", String.format("1970-01-01T%02d:00:00.0000000Z", hour));
+                blob.getMetadata().put("EndTime", String.format("1970-01-01T%02d:59:59.0000000Z", hour));
+                blobs.add(blob);
+            }
+        }
+
+        return blobs;
+    }
+
+    private static String getClientRequestId(String blobName, int index) {
+        return blobName + "/" + index;
+    }
+
+    private static InputStream generateLogContent(String blobName) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < RECORDS_PER_BLOB; i++) {
+            builder.append("1.0;1970-01-01T00:00:00.0000000Z;GetBlob;Success;200;1;1;authenticated;a;a;blob;")
+                    .append("\"https://a.blob.core.windows.net/c/b\";\"/a/c/b\";")
+                    .append("a84aa705-8a85-48c5-b064-b43bd22979c1;0;10.0.0.1;2015-04-05;1;1;1;1;0;;;;;;;;\"")
+                    .append(getClientRequestId(blobName, i)).append("\"\n");
+        }
+
+        return new ByteArrayInputStream(builder.toString().getBytes());
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.RetryAdaptive;
+import com.microsoft.azure.storage.RetryBudget;
+import com.microsoft.azure.storage.StorageCredentialsAccountAndKey;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class BulkBlobOperationTests {
+
+    private CloudBlobContainer container;
+
+    @Before
+    public void bulkBlobOperationTestMethodSetUp() throws Exception {
+        CloudBlobClient client = new CloudBlobClient(new URI("http://account.blob.core.windows.net"),
+                new StorageCredentialsAccountAndKey("account", new byte[32]));
+        this.container = client.getContainerReference("container");
+    }
+
+    private static List<String> names(int count) {
+        List<String> names = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            names.add("blob" + i);
+        }
+
+        return names;
+    }
+
+    @Test
+    public void testOperationsRunWithBoundedParallelism() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximum = new AtomicInteger();
+        final Set<String> visited = Collections.synchronizedSet(new HashSet<String>());
+
+        BulkOperationOptions bulkOptions = new BulkOperationOptions();
+        bulkOptions.setConcurrentOperationCount(4);
+        BulkOperationResult result = new BulkBlobOperation() {
+            @Override
+            void execute(CloudBlob blob, BlobRequestOptions options, OperationContext opContext) {
+                int current = running.incrementAndGet();
+                synchronized (maximum) {
+                    maximum.set(Math.max(maximum.get(), current));
+                }
+
+                try {
+                    Thread.sleep(2);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                visited.add(blob.getName());
+                running.decrementAndGet();
+            }
+        }.run(this.container, names(100), bulkOptions, new BlobRequestOptions(), new OperationContext());
+
+        assertEquals(100, result.getSucceededCount());
+        assertEquals(0, result.getFailedCount());
+        assertEquals(100, visited.size());
+        assertTrue(maximum.get() <= 4);
+        assertTrue(maximum.get() > 1);
+    }
+
+    @Test
+    public void testFailuresDoNotStopTheBatch() throws Exception {
+        BulkOperationResult result = new BulkBlobOperation() {
+            @Override
+            void execute(CloudBlob blob, BlobRequestOptions options, OperationContext opContext)
+                    throws StorageException {
+                if (blob.getName().equals("blob3")) {
+                    throw new StorageException("BlobNotFound", "not found", 404, null, null);
+                }
+                else if (blob.getName().equals("blob7")) {
+                    throw new IllegalStateException();
+                }
+            }
+        }.run(this.container, names(10), new BulkOperationOptions(), new BlobRequestOptions(), new OperationContext());
+
+        assertEquals(8, result.getSucceededCount());
+        assertEquals(2, result.getFailedCount());
+        assertEquals(404, result.getFailures().get("blob3").getHttpStatusCode());
+        assertTrue(result.getFailures().get("blob7").getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testRetryBudgetIsShared() throws Exception {
+        final RetryBudget budget = new RetryBudget();
+        final Set<Object> factories = Collections.synchronizedSet(new HashSet<Object>());
+
+        BulkOperationOptions bulkOptions = new BulkOperationOptions();
+        bulkOptions.setRetryBudget(budget);
+        BlobRequestOptions options = new BlobRequestOptions();
+        new BulkBlobOperation() {
+            @Override
+            void execute(CloudBlob blob, BlobRequestOptions options, OperationContext opContext) {
+                RetryAdaptive retryPolicy = (RetryAdaptive) options.getRetryPolicyFactory();
+                assertSame(budget, retryPolicy.getBudget());
+                factories.add(retryPolicy);
+            }
+        }.run(this.container, names(20), bulkOptions, options, new OperationContext());
+
+        // All the blob operations share one factory, and the caller's options are not modified.
+        assertEquals(1, factories.size());
+        assertNull(options.getRetryPolicyFactory());
+    }
+
+    @Test
+    public void testBlobReferenceCanBeResolvedByTheOperation() throws Exception {
+        final Set<String> visited = Collections.synchronizedSet(new HashSet<String>());
+        BulkOperationResult result = new BulkBlobOperation() {
+            @Override
+            CloudBlob getBlobReference(CloudBlobContainer container, String blobName, BlobRequestOptions options,
+                    OperationContext opContext) throws StorageException, URISyntaxException {
+                return container.getPageBlobReference(blobName);
+            }
+
+            @Override
+            void execute(CloudBlob blob, BlobRequestOptions options, OperationContext opContext) {
+                assertTrue(blob instanceof CloudPageBlob);
+                visited.add(blob.getName());
+            }
+        }.run(this.container, names(10), new BulkOperationOptions(), new BlobRequestOptions(), new OperationContext());
+
+        assertEquals(10, result.getSucceededCount());
+        assertEquals(10, visited.size());
+    }
+
+    @Test
+    public void testListBlobNamesIsLazy() {
+        // No request is made until the names are enumerated.
+        Iterable<String> names = this.container.listBlobNames("prefix", null, null);
+        assertNotNull(names);
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import com.microsoft.azure.storage.StorageCredentialsAccountAndKey;
+import com.microsoft.azure.storage.StorageEvent;
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class BulkCopyOrchestratorTests {
+
+    @Test
+    public void testPollIntervalFollowsRemainingTime() {
+        // 1000 bytes left at 1 byte per ms are polled again after half the remaining time.
+        assertEquals(500, BulkCopyOrchestrator.computePollInterval(1000, 2000, 1, 1000, 100, 10000));
+
+        // The interval is bounded by the minimum and the maximum.
+        assertEquals(100, BulkCopyOrchestrator.computePollInterval(1990, 2000, 1, 1000, 100, 10000));
+        assertEquals(10000, BulkCopyOrchestrator.computePollInterval(0, 1000000, 1, 1000, 100, 10000));
+    }
+
+    @Test
+    public void testPollIntervalBacksOffWithoutRate() {
+        assertEquals(2000, BulkCopyOrchestrator.computePollInterval(-1, -1, 0, 1000, 100, 10000));
+        assertEquals(2000, BulkCopyOrchestrator.computePollInterval(500, 1000, 0, 1000, 100, 10000));
+        assertEquals(10000, BulkCopyOrchestrator.computePollInterval(500, 1000, 0, 8000, 100, 10000));
+        assertEquals(10000, BulkCopyOrchestrator.computePollInterval(500, 1000, 0, Long.MAX_VALUE, 100, 10000));
+    }
+
+    @Test
+    public void testCommonPrefix() {
+        assertEquals("logs/2017/", BulkCopyOrchestrator.commonPrefix("logs/2017/a", "logs/2017/b"));
+        assertEquals("", BulkCopyOrchestrator.commonPrefix("a", "b"));
+        assertEquals("ab", BulkCopyOrchestrator.commonPrefix("ab", "abc"));
+    }
+
+    @Test
+    public void testProgressThroughput() {
+        BulkCopyProgress progress = new BulkCopyProgress(10, 6, 1, 2, 1, 4096, 8192, 2000);
+        assertEquals(3, progress.getPendingCount());
+        assertEquals(2048, progress.getThroughputInBytesPerSecond(), 0);
+        assertEquals(0, new BulkCopyProgress(0, 0, 0, 0, 0, 0, 0, 0).getThroughputInBytesPerSecond(), 0);
+    }
+
+    @Test
+    public void testOptionsValidation() {
+        BulkCopyOptions options = new BulkCopyOptions();
+        assertEquals(BulkCopyOptions.DEFAULT_CONCURRENT_COPY_COUNT, options.getConcurrentCopyCount());
+        try {
+            options.setConcurrentCopyCount(0);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        try {
+            options.setMaximumAttempts(0);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCopyWithoutBlobsCompletes() throws Exception {
+        CloudBlobClient client = new CloudBlobClient(new URI("http://account.blob.core.windows.net"),
+                new StorageCredentialsAccountAndKey("account", new byte[32]));
+        CloudBlobContainer container = client.getContainerReference("destination");
+
+        final List<BulkCopyProgress> events = new ArrayList<BulkCopyProgress>();
+        BulkCopyOptions options = new BulkCopyOptions();
+        options.getProgressEventHandler().addListener(new StorageEvent<BulkCopyProgressEvent>() {
+            @Override
+            public void eventOccurred(BulkCopyProgressEvent eventArg) {
+                events.add(eventArg.getProgress());
+            }
+        });
+
+        // Directories are skipped without any request.
+        List<ListBlobItem> sources = Arrays.<ListBlobItem> asList(client.getContainerReference("source")
+                .getDirectoryReference("directory"));
+        BulkCopyResult result = container.copyBlobsFrom(sources, options, null, null);
+        assertEquals(0, result.getProgress().getCopyCount());
+        assertTrue(result.getFailedCopies().isEmpty());
+        assertEquals(1, events.size());
+    }
+}
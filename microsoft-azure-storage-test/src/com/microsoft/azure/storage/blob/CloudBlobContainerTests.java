@@ -838,6 +838,43 @@ public class CloudBlobContainerTests {
         assertTrue(incrementalCopyFound);
     }
 
+    /**
+     * Update the properties of blobs of every type listed by name.
+     *
+     * @throws StorageException
+     * @throws URISyntaxException
+     * @throws IOException
+     */
+    @Test
+    @Category({ DevFabricTests.class, DevStoreTests.class })
+    public void testCloudBlobContainerUploadBlobsPropertiesAllBlobTypes() throws StorageException,
+            URISyntaxException, IOException {
+        this.container.create();
+        CloudBlockBlob blockBlob = this.container.getBlockBlobReference("bulk-block");
+        blockBlob.uploadText("block");
+        CloudPageBlob pageBlob = this.container.getPageBlobReference("bulk-page");
+        pageBlob.create(512);
+        CloudAppendBlob appendBlob = this.container.getAppendBlobReference("bulk-append");
+        appendBlob.createOrReplace();
+
+        BlobProperties properties = new BlobProperties();
+        properties.setContentType("text/x-bulk");
+        properties.setCacheControl("no-cache");
+        BulkOperationResult result = this.container.uploadBlobsProperties(
+                this.container.listBlobNames("bulk-", null, null), properties, null, null, null);
+        assertEquals(3, result.getSucceededCount());
+        assertEquals(0, result.getFailedCount());
+
+        for (ListBlobItem item : this.container.listBlobs("bulk-", true)) {
+            CloudBlob blob = (CloudBlob) item;
+            blob.downloadAttributes();
+            assertEquals("text/x-bulk", blob.getProperties().getContentType());
+            assertEquals("no-cache", blob.getProperties().getCacheControl());
+        }
+
+        assertEquals(512, this.container.getBlobReferenceFromServer("bulk-page").getProperties().getLength());
+    }
+
     // Helper Method
     private static void assertPermissionsEqual(BlobContainerPermissions expected, BlobContainerPermissions actual) {
         assertEquals(expected.getPublicAccess(), actual.getPublicAccess());
@@ -18,6 +18,7 @@ import com.microsoft.azure.storage.AccessCondition;
 import com.microsoft.azure.storage.Constants;
 import com.microsoft.azure.storage.NameValidator;
 import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.RequestCompletedEvent;
 import com.microsoft.azure.storage.RetryNoRetry;
 import com.microsoft.azure.storage.SendingRequestEvent;
 import com.microsoft.azure.storage.StorageCredentialsAnonymous;
@@ -45,6 +46,7 @@ import org.junit.experimental.categories.Category;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -54,6 +56,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.InvalidKeyException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.EnumSet;
@@ -62,6 +65,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -1284,6 +1288,147 @@ public class CloudBlockBlobTests {
 
     }
 
+    @Test
+    public void testSeekableBlobReader() throws URISyntaxException, StorageException, IOException {
+        final int blockSize = 64 * 1024;
+        final int blobLength = 10 * blockSize + 100;
+        String blobName = BlobTestHelper.generateRandomBlobNameWithPrefix("testblob");
+        final CloudBlockBlob blobRef = this.container.getBlockBlobReference(blobName);
+        final byte[] buff = BlobTestHelper.getRandomBuffer(blobLength);
+        blobRef.uploadFromByteArray(buff, 0, blobLength);
+
+        final AtomicInteger requests = new AtomicInteger();
+        final OperationContext operationContext = new OperationContext();
+        operationContext.getRequestCompletedEventHandler().addListener(new StorageEvent<RequestCompletedEvent>() {
+            @Override
+            public void eventOccurred(RequestCompletedEvent eventArg) {
+                requests.incrementAndGet();
+            }
+        });
+
+        final SeekableBlobReader reader = blobRef.openSeekableReader(blockSize, 4, null, null, operationContext);
+        assertEquals(blobLength, reader.getLength());
+
+        // the footer spans the last two blocks and is downloaded with one request
+        requests.set(0);
+        reader.pin(blobLength - 1000, 1000);
+        assertEquals(1, requests.get());
+
+        // four consecutive missing blocks are downloaded with one request
+        byte[] result = new byte[2 * blockSize + 10];
+        assertEquals(result.length, reader.read(blockSize - 5, result, 0, result.length));
+        assertArrayEquals(Arrays.copyOfRange(buff, blockSize - 5, blockSize - 5 + result.length), result);
+        assertEquals(2, requests.get());
+
+        // reads of cached blocks do not download
+        reader.readFully(blockSize + 7, result, 0, 100);
+        assertArrayEquals(Arrays.copyOfRange(buff, blockSize + 7, blockSize + 107), Arrays.copyOf(result, 100));
+        assertEquals(2, requests.get());
+
+        // reading the whole blob evicts unpinned blocks but keeps the footer
+        result = new byte[blobLength];
+        assertEquals(blobLength, reader.read(0, result, 0, blobLength));
+        assertArrayEquals(buff, result);
+        assertEquals(6, reader.getCachedBlockCount());
+        requests.set(0);
+        assertEquals(1000, reader.read(blobLength - 1000, result, 0, 1000));
+        assertEquals(0, requests.get());
+
+        assertEquals(-1, reader.read(blobLength, result, 0, 1));
+        assertEquals(100, reader.read(blobLength - 100, result, 0, 1000));
+        try {
+            reader.readFully(blobLength - 100, result, 0, 1000);
+            fail("Did not throw expected exception on read past the end of the blob");
+        }
+        catch (EOFException ex) {
+        }
+
+        reader.close();
+        blobRef.delete();
+    }
+
+    @Test
+    public void testBlobDiskCache() throws URISyntaxException, StorageException, IOException {
+        final int blobLength = 128 * 1024;
+        String blobName = BlobTestHelper.generateRandomBlobNameWithPrefix("testblob");
+        final CloudBlockBlob blobRef = this.container.getBlockBlobReference(blobName);
+        final byte[] buff = BlobTestHelper.getRandomBuffer(blobLength);
+        blobRef.getProperties().setContentType("image/png");
+        blobRef.getMetadata().put("color", "blue");
+        blobRef.uploadFromByteArray(buff, 0, blobLength);
+
+        final File directory = File.createTempFile("blobcache", "");
+        directory.delete();
+        final BlobDiskCache diskCache = new BlobDiskCache(directory, 10 * blobLength);
+
+        final List<Integer> statusCodes = new ArrayList<Integer>();
+        final OperationContext operationContext = new OperationContext();
+        operationContext.getRequestCompletedEventHandler().addListener(new StorageEvent<RequestCompletedEvent>() {
+            @Override
+            public void eventOccurred(RequestCompletedEvent eventArg) {
+                statusCodes.add(eventArg.getRequestResult().getStatusCode());
+            }
+        });
+
+        blobRef.getServiceClient().setDiskCache(diskCache);
+        try {
+            // the first download fills the cache
+            ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+            blobRef.download(outStream, null, null, operationContext);
+            assertArrayEquals(buff, outStream.toByteArray());
+            assertEquals(1, diskCache.getEntryCount());
+            assertEquals(HttpURLConnection.HTTP_OK, statusCodes.get(statusCodes.size() - 1).intValue());
+
+            // later downloads read the copy when the blob is not modified
+            outStream = new ByteArrayOutputStream();
+            blobRef.download(outStream, null, null, operationContext);
+            assertArrayEquals(buff, outStream.toByteArray());
+            assertEquals(HttpURLConnection.HTTP_NOT_MODIFIED, statusCodes.get(statusCodes.size() - 1).intValue());
+
+            // the properties and metadata kept with the copy are restored
+            final CloudBlockBlob freshRef = this.container.getBlockBlobReference(blobName);
+            outStream = new ByteArrayOutputStream();
+            freshRef.download(outStream, null, null, operationContext);
+            assertEquals(HttpURLConnection.HTTP_NOT_MODIFIED, statusCodes.get(statusCodes.size() - 1).intValue());
+            assertEquals(blobRef.getProperties().getEtag(), freshRef.getProperties().getEtag());
+            assertEquals(blobLength, freshRef.getProperties().getLength());
+            assertEquals("image/png", freshRef.getProperties().getContentType());
+            assertEquals(blobRef.getProperties().getLastModified(), freshRef.getProperties().getLastModified());
+            assertEquals("blue", freshRef.getMetadata().get("color"));
+
+            final byte[] result = new byte[blobLength];
+            assertEquals(blobLength, blobRef.downloadToByteArray(result, 0, null, null, operationContext));
+            assertArrayEquals(buff, result);
+            assertEquals(HttpURLConnection.HTTP_NOT_MODIFIED, statusCodes.get(statusCodes.size() - 1).intValue());
+
+            final BlobInputStream inputStream = blobRef.openInputStream(null, null, operationContext);
+            statusCodes.clear();
+            Arrays.fill(result, (byte) 0);
+            assertEquals(blobLength, inputStream.read(result, 0, blobLength));
+            assertArrayEquals(buff, result);
+            assertEquals(0, statusCodes.size());
+            inputStream.close();
+
+            // a modified blob replaces the copy
+            final byte[] modified = BlobTestHelper.getRandomBuffer(blobLength / 2);
+            blobRef.uploadFromByteArray(modified, 0, modified.length);
+            assertEquals(modified.length, blobRef.downloadToByteArray(result, 0, null, null, operationContext));
+            assertArrayEquals(modified, Arrays.copyOf(result, modified.length));
+            assertEquals(HttpURLConnection.HTTP_OK, statusCodes.get(statusCodes.size() - 1).intValue());
+            assertEquals(1, diskCache.getEntryCount());
+
+            // a cache opened on the directory finds the copy
+            assertEquals(1, new BlobDiskCache(directory, 10 * blobLength).getEntryCount());
+        }
+        finally {
+            blobRef.getServiceClient().setDiskCache(null);
+            diskCache.clear();
+            directory.delete();
+        }
+
+        blobRef.delete();
+    }
+
     /**
      * @throws URISyntaxException
      * @throws StorageException
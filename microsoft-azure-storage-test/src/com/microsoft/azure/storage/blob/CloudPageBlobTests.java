@@ -798,6 +798,76 @@ public class CloudPageBlobTests {
         }
     }
 
+    @Test
+    public void testPageBlobWriterScatteredWrites() throws URISyntaxException, StorageException, IOException {
+        int blobLengthToUse = 12 * Constants.MB;
+        String blobName = BlobTestHelper.generateRandomBlobNameWithPrefix("testblob");
+        final CloudPageBlob blobRef = this.container.getPageBlobReference(blobName);
+        blobRef.create(blobLengthToUse);
+
+        BlobRequestOptions options = new BlobRequestOptions();
+        options.setConcurrentRequestCount(4);
+        PageBlobWriter writer = blobRef.openPageWriter(null, options, null);
+
+        // overlapping writes of up to 6 MB, so ranges are split at 4 MB and later writes replace earlier ones
+        byte[] expected = new byte[blobLengthToUse];
+        Random random = new Random(48);
+        for (int i = 0; i < 200; i++) {
+            int pages = i % 20 == 0 ? 1 + random.nextInt(12 * 1024) : 1 + random.nextInt(16);
+            int offset = random.nextInt(blobLengthToUse / 512 - pages + 1) * 512;
+            byte[] buffer = BlobTestHelper.getRandomBuffer(pages * 512);
+            writer.write(offset, buffer);
+            System.arraycopy(buffer, 0, expected, offset, buffer.length);
+
+            if (i == 100) {
+                writer.flush();
+                assertEquals(0, writer.getBufferedBytes());
+            }
+        }
+
+        writer.close();
+
+        byte[] result = new byte[blobLengthToUse];
+        blobRef.downloadToByteArray(result, 0);
+        assertArrayEquals(expected, result);
+
+        try {
+            writer.write(0, new byte[512]);
+            fail("Did not throw expected exception on write to closed writer");
+        }
+        catch (IOException ex) {
+            assertEquals(SR.STREAM_CLOSED, ex.getMessage());
+        }
+
+        writer = blobRef.openPageWriter();
+        try {
+            writer.write(256, new byte[512]);
+            fail("Did not throw expected exception on non-512-byte-aligned offset");
+        }
+        catch (IllegalArgumentException ex) {
+            assertEquals(SR.INVALID_PAGE_START_OFFSET, ex.getMessage());
+        }
+
+        try {
+            writer.write(0, new byte[256]);
+            fail("Did not throw expected exception on non-512-byte-aligned length");
+        }
+        catch (IllegalArgumentException ex) {
+            assertEquals(SR.INVALID_PAGE_BLOB_LENGTH, ex.getMessage());
+        }
+
+        try {
+            writer.write(blobLengthToUse, new byte[512]);
+            fail("Did not throw expected exception on write past the end of the blob");
+        }
+        catch (IllegalArgumentException ex) {
+            assertEquals(String.format(SR.ARGUMENT_OUT_OF_RANGE_ERROR, "blobOffset", blobLengthToUse),
+                    ex.getMessage());
+        }
+
+        writer.close();
+    }
+
     @Test
     public void testClearPages() throws URISyntaxException, StorageException, IOException {
         int blobLengthToUse = 8 * 512;
@@ -0,0 +1,135 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Content Defined Chunker Tests
+ */
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class ContentDefinedChunkerTests {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    @Test
+    public void testChunkSizes() throws IOException {
+        final byte[] data = randomBytes(2 * 1024 * 1024 + 123, 1);
+        final List<byte[]> chunks = split(new ByteArrayInputStream(data));
+
+        final ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (int i = 0; i < chunks.size(); i++) {
+            final byte[] chunk = chunks.get(i);
+            assertTrue(chunk.length <= BLOCK_SIZE);
+            if (i < chunks.size() - 1) {
+                assertTrue(chunk.length > BLOCK_SIZE / 8);
+            }
+
+            joined.write(chunk);
+        }
+
+        assertArrayEquals(data, joined.toByteArray());
+
+        // The average chunk is about three eighths of the block size.
+        final int average = data.length / chunks.size();
+        assertTrue(average > BLOCK_SIZE / 4);
+        assertTrue(average < BLOCK_SIZE / 2);
+    }
+
+    @Test
+    public void testChunksIgnoreReadSizes() throws IOException {
+        final byte[] data = randomBytes(512 * 1024, 2);
+        final List<byte[]> expected = split(new ByteArrayInputStream(data));
+        final List<byte[]> actual = split(new ByteArrayInputStream(data) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1000));
+            }
+        });
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void testChunksSurviveInsertion() throws IOException {
+        final byte[] data = randomBytes(2 * 1024 * 1024, 3);
+        final byte[] modified = new byte[data.length + 100];
+        System.arraycopy(data, 0, modified, 0, data.length / 2);
+        System.arraycopy(randomBytes(100, 4), 0, modified, data.length / 2, 100);
+        System.arraycopy(data, data.length / 2, modified, data.length / 2 + 100, data.length - data.length / 2);
+
+        final Set<String> original = new HashSet<String>();
+        for (byte[] chunk : split(new ByteArrayInputStream(data))) {
+            original.add(Arrays.toString(chunk));
+        }
+
+        final List<byte[]> chunks = split(new ByteArrayInputStream(modified));
+        int changed = 0;
+        for (byte[] chunk : chunks) {
+            if (!original.contains(Arrays.toString(chunk))) {
+                changed++;
+            }
+        }
+
+        assertTrue(changed >= 1);
+        assertTrue(changed <= 2);
+    }
+
+    @Test
+    public void testEmptyAndShortStreams() throws IOException {
+        assertEquals(0, split(new ByteArrayInputStream(new byte[0])).size());
+
+        final List<byte[]> chunks = split(new ByteArrayInputStream(new byte[10]));
+        assertEquals(1, chunks.size());
+        assertEquals(10, chunks.get(0).length);
+    }
+
+    private static List<byte[]> split(final InputStream stream) throws IOException {
+        final ContentDefinedChunker chunker = ContentDefinedChunker.forBlockSize(stream, BLOCK_SIZE);
+        final List<byte[]> chunks = new ArrayList<byte[]>();
+        for (byte[] chunk = chunker.next(); chunk != null; chunk = chunker.next()) {
+            chunks.add(chunk);
+        }
+
+        return chunks;
+    }
+
+    private static byte[] randomBytes(final int length, final long seed) {
+        final byte[] data = new byte[length];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.StorageErrorCodeStrings;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+import com.microsoft.azure.storage.blob.LeaseManager.LeaseListener;
+import com.microsoft.azure.storage.blob.LeaseManager.ManagedLease;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the renewal scheduling of {@link LeaseManager} with leases whose renewals do not reach the service.
+ */
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class LeaseManagerSchedulingTests {
+
+    @Test
+    public void testDueLeasesAreRenewedConcurrently() throws InterruptedException {
+        final LeaseManager manager = new LeaseManager(0, 1000, 2);
+        final CountDownLatch paired = new CountDownLatch(2);
+        final CountDownLatch renewed = new CountDownLatch(4);
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maximumActive = new AtomicInteger();
+        final Renewal renewal = new Renewal() {
+            @Override
+            void renew() {
+                final int count = active.incrementAndGet();
+                synchronized (maximumActive) {
+                    maximumActive.set(Math.max(maximumActive.get(), count));
+                }
+
+                try {
+                    // a serial renewal never lets a second lease reach the latch
+                    paired.countDown();
+                    paired.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                active.decrementAndGet();
+                renewed.countDown();
+            }
+        };
+
+        final List<ManagedLease> leases = new ArrayList<ManagedLease>();
+        for (int i = 0; i < 4; i++) {
+            leases.add(manage(manager, null, renewal));
+        }
+
+        assertTrue(renewed.await(10, TimeUnit.SECONDS));
+        assertEquals(0, paired.getCount());
+        assertEquals(2, maximumActive.get());
+        assertEquals(4, manager.getManagedCount());
+        for (final ManagedLease lease : leases) {
+            assertTrue(lease.isHeld());
+            lease.stop();
+        }
+
+        assertEquals(0, manager.getManagedCount());
+    }
+
+    @Test
+    public void testLostLeaseIsReported() throws InterruptedException {
+        final LeaseManager manager = new LeaseManager();
+        final StorageException conflict = new StorageException(
+                StorageErrorCodeStrings.LEASE_ID_MISMATCH_WITH_LEASE_OPERATION, "lease lost",
+                HttpURLConnection.HTTP_CONFLICT, null, null);
+        final CountDownLatch lost = new CountDownLatch(1);
+        final AtomicReference<StorageException> cause = new AtomicReference<StorageException>();
+        final ManagedLease lease = manage(manager, new LeaseListener() {
+            @Override
+            public void leaseLost(ManagedLease lease, StorageException exception) {
+                cause.set(exception);
+                lost.countDown();
+            }
+        }, new Renewal() {
+            @Override
+            void renew() throws StorageException {
+                throw conflict;
+            }
+        });
+
+        assertTrue(lost.await(10, TimeUnit.SECONDS));
+        assertSame(conflict, cause.get());
+        assertFalse(lease.isHeld());
+        assertEquals(0, manager.getManagedCount());
+    }
+
+    @Test
+    public void testTransientFailureIsRetried() throws InterruptedException {
+        final LeaseManager manager = new LeaseManager();
+        final CountDownLatch renewed = new CountDownLatch(2);
+        final ManagedLease lease = manage(manager, null, new Renewal() {
+            @Override
+            void renew() throws StorageException {
+                renewed.countDown();
+                if (renewed.getCount() == 1) {
+                    throw new StorageException(StorageErrorCodeStrings.SERVER_BUSY, "busy",
+                            HttpURLConnection.HTTP_UNAVAILABLE, null, null);
+                }
+            }
+        });
+
+        assertTrue(renewed.await(10, TimeUnit.SECONDS));
+        assertTrue(lease.isHeld());
+        assertEquals(1, manager.getManagedCount());
+        lease.stop();
+    }
+
+    private static ManagedLease manage(final LeaseManager manager, final LeaseListener listener,
+            final Renewal renewal) {
+        return manager.manage(manager.new ManagedLease(15, listener, null) {
+            @Override
+            String acquire(String proposedLeaseId, BlobRequestOptions requestOptions, OperationContext opContext) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            void renew(BlobRequestOptions requestOptions, OperationContext opContext) throws StorageException {
+                renewal.renew();
+            }
+
+            @Override
+            String change(String proposedLeaseId, BlobRequestOptions requestOptions, OperationContext opContext) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            void release(BlobRequestOptions requestOptions, OperationContext opContext) {
+                throw new UnsupportedOperationException();
+            }
+        }, UUID.randomUUID().toString());
+    }
+
+    private abstract static class Renewal {
+        abstract void renew() throws StorageException;
+    }
+}
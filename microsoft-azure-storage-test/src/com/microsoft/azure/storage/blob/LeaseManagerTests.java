@@ -0,0 +1,150 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import com.microsoft.azure.storage.StorageErrorCodeStrings;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+import com.microsoft.azure.storage.TestRunners.SlowTests;
+import com.microsoft.azure.storage.blob.LeaseManager.LeaseListener;
+import com.microsoft.azure.storage.blob.LeaseManager.ManagedLease;
+import com.microsoft.azure.storage.core.SR;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class LeaseManagerTests {
+
+    protected CloudBlobContainer container;
+
+    @Before
+    public void leaseManagerTestMethodSetUp() throws StorageException, URISyntaxException {
+        this.container = BlobTestHelper.getRandomContainerReference();
+        this.container.create();
+    }
+
+    @After
+    public void leaseManagerTestMethodTearDown() throws StorageException {
+        this.container.deleteIfExists();
+    }
+
+    @Test
+    public void testLeaseManagerInvalidParams() {
+        final LeaseManager manager = this.container.getServiceClient().getLeaseManager();
+        try {
+            manager.manage(this.container, UUID.randomUUID().toString(), 100, null, null);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+            assertEquals("The value of the parameter 'leaseTimeInSeconds' should be between 15 and 60.",
+                    ex.getMessage());
+        }
+
+        assertEquals(0, manager.getManagedCount());
+        assertSame(manager, this.container.getServiceClient().getLeaseManager());
+    }
+
+    @Test
+    @Category(SlowTests.class)
+    public void testManagedBlobLeaseOutlivesDuration() throws StorageException, IOException,
+            URISyntaxException, InterruptedException {
+        final CloudBlockBlob blob = (CloudBlockBlob) BlobTestHelper.uploadNewBlob(this.container,
+                BlobType.BLOCK_BLOB, "lease", 0, null);
+        final LeaseManager manager = new LeaseManager();
+        final ManagedLease lease = manager.acquire(blob, 15, null, null, null, null);
+        assertEquals(1, manager.getManagedCount());
+
+        Thread.sleep(25000);
+        assertTrue(lease.isHeld());
+        blob.downloadAttributes();
+        assertEquals(LeaseState.LEASED, blob.getProperties().getLeaseState());
+
+        final String proposedLeaseId = UUID.randomUUID().toString();
+        assertEquals(proposedLeaseId, lease.changeLease(proposedLeaseId, null));
+        assertEquals(proposedLeaseId, lease.getLeaseId());
+
+        lease.release(null);
+        assertFalse(lease.isHeld());
+        assertEquals(0, manager.getManagedCount());
+        blob.downloadAttributes();
+        assertEquals(LeaseState.AVAILABLE, blob.getProperties().getLeaseState());
+
+        try {
+            lease.release(null);
+            fail();
+        }
+        catch (IllegalStateException ex) {
+            assertEquals(SR.LEASE_NOT_MANAGED, ex.getMessage());
+        }
+    }
+
+    @Test
+    @Category(SlowTests.class)
+    public void testManagedContainerLeaseLossIsReported() throws StorageException, InterruptedException {
+        final CountDownLatch lost = new CountDownLatch(1);
+        final AtomicReference<StorageException> cause = new AtomicReference<StorageException>();
+        final LeaseManager manager = new LeaseManager();
+        final ManagedLease lease = manager.acquire(this.container, 15, null, new LeaseListener() {
+            @Override
+            public void leaseLost(ManagedLease lease, StorageException exception) {
+                cause.set(exception);
+                lost.countDown();
+            }
+        }, null, null);
+
+        this.container.breakLease(0);
+        assertTrue(lost.await(30, TimeUnit.SECONDS));
+        assertFalse(lease.isHeld());
+        assertEquals(0, manager.getManagedCount());
+        assertEquals(HttpURLConnection.HTTP_CONFLICT, cause.get().getHttpStatusCode());
+        assertEquals(StorageErrorCodeStrings.LEASE_IS_BROKEN_AND_CANNOT_BE_RENEWED, cause.get().getErrorCode());
+    }
+
+    @Test
+    public void testStoppedLeaseIsNotRenewed() throws StorageException {
+        final LeaseManager manager = new LeaseManager();
+        final ManagedLease lease = manager.acquire(this.container, 60, UUID.randomUUID().toString(), null, null,
+                null);
+        lease.stop();
+        assertEquals(0, manager.getManagedCount());
+        assertTrue(lease.isHeld());
+        assertTrue(lease.getRemainingTimeInMs() > 0);
+
+        try {
+            lease.changeLease(UUID.randomUUID().toString(), null);
+            fail();
+        }
+        catch (IllegalStateException ex) {
+            assertEquals(SR.LEASE_NOT_MANAGED, ex.getMessage());
+        }
+
+        this.container.breakLease(0);
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+import com.microsoft.azure.storage.core.Base64;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Resumable Upload Checkpoint Tests
+ */
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class ResumableUploadCheckpointTests {
+
+    private static final String BLOB_URI = "http://account.blob.core.windows.net/container/blob";
+
+    private File source;
+
+    private File journal;
+
+    @Before
+    public void resumableUploadCheckpointTestMethodSetUp() throws IOException {
+        this.source = File.createTempFile("source", ".tmp");
+        this.journal = File.createTempFile("journal", ".tmp");
+        this.journal.delete();
+
+        FileOutputStream stream = new FileOutputStream(this.source);
+        stream.write(new byte[10 * 1024 + 17]);
+        stream.close();
+    }
+
+    @After
+    public void resumableUploadCheckpointTestMethodTearDown() {
+        this.source.delete();
+        this.journal.delete();
+    }
+
+    @Test
+    public void testResumableUploadCheckpointBlocks() throws IOException {
+        ResumableUploadCheckpoint checkpoint = ResumableUploadCheckpoint.open(this.journal, BLOB_URI, this.source,
+                1024);
+        assertTrue(this.journal.exists());
+        assertEquals(11, checkpoint.getBlockCount());
+        assertEquals(1024, checkpoint.getBlockLength(0));
+        assertEquals(17, checkpoint.getBlockLength(10));
+        assertEquals(10 * 1024, checkpoint.getBlockOffset(10));
+
+        Set<String> ids = new HashSet<String>();
+        int idLength = checkpoint.getBlockId(0).length();
+        for (int i = 0; i < checkpoint.getBlockCount(); i++) {
+            String id = checkpoint.getBlockId(checkpoint.getBlockOffset(i));
+            assertEquals(idLength, id.length());
+            assertTrue(Base64.validateIsBase64String(id));
+            assertTrue(ids.add(id));
+        }
+    }
+
+    @Test
+    public void testResumableUploadCheckpointResumes() throws IOException {
+        ResumableUploadCheckpoint checkpoint = ResumableUploadCheckpoint.open(this.journal, BLOB_URI, this.source,
+                1024);
+        String firstId = checkpoint.getBlockId(0);
+        String lastId = checkpoint.getBlockId(checkpoint.getBlockOffset(10));
+
+        ResumableUploadCheckpoint resumed = ResumableUploadCheckpoint.open(this.journal, BLOB_URI, this.source, 1024);
+        assertEquals(firstId, resumed.getBlockId(0));
+        assertEquals(lastId, resumed.getBlockId(resumed.getBlockOffset(10)));
+        resumed.delete();
+        assertFalse(this.journal.exists());
+    }
+
+    @Test
+    public void testResumableUploadCheckpointRestartsForDifferentUpload() throws IOException {
+        ResumableUploadCheckpoint checkpoint = ResumableUploadCheckpoint.open(this.journal, BLOB_URI, this.source,
+                1024);
+        String firstId = checkpoint.getBlockId(0);
+
+        // Another block size.
+        ResumableUploadCheckpoint other = ResumableUploadCheckpoint.open(this.journal, BLOB_URI, this.source, 2048);
+        String otherId = other.getBlockId(0);
+        assertFalse(firstId.equals(otherId));
+
+        // Another blob.
+        other = ResumableUploadCheckpoint.open(this.journal, BLOB_URI + "2", this.source, 2048);
+        assertFalse(otherId.equals(other.getBlockId(0)));
+        otherId = other.getBlockId(0);
+
+        // The source file changed.
+        RandomAccessFile file = new RandomAccessFile(this.source, "rw");
+        file.setLength(5);
+        file.close();
+        other = ResumableUploadCheckpoint.open(this.journal, BLOB_URI + "2", this.source, 2048);
+        assertFalse(otherId.equals(other.getBlockId(0)));
+        assertEquals(1, other.getBlockCount());
+        assertEquals(5, other.getBlockLength(0));
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import com.microsoft.azure.storage.ResultConsumer;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+import com.microsoft.azure.storage.core.ListingSink;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.xml.sax.SAXException;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class StreamingListingTests {
+
+    private static final String LISTING = "<?xml version=\"1.0\" encoding=\"utf-8\"?>"
+            + "<EnumerationResults ContainerName=\"http://myaccount.blob.core.windows.net/mycontainer\">"
+            + "<Blobs>"
+            + "<Blob><Name>a</Name><Properties><Content-Length>1</Content-Length><BlobType>BlockBlob</BlobType>"
+            + "<Etag>0x1</Etag></Properties><Metadata><k>v</k></Metadata></Blob>"
+            + "<Blob><Name>b</Name><Snapshot>2011-03-09T01:42:34.9360000Z</Snapshot><Properties>"
+            + "<Content-Length>2</Content-Length><BlobType>PageBlob</BlobType><Etag>0x2</Etag></Properties></Blob>"
+            + "<BlobPrefix><Name>c/</Name></BlobPrefix>"
+            + "</Blobs><NextMarker>marker</NextMarker></EnumerationResults>";
+
+    private static CloudBlobContainer getContainer() throws Exception {
+        return new CloudBlobContainer(new URI("http://myaccount.blob.core.windows.net/mycontainer"));
+    }
+
+    private static ByteArrayInputStream getStream() throws Exception {
+        return new ByteArrayInputStream(LISTING.getBytes("UTF-8"));
+    }
+
+    @Test
+    public void testStreamingListingDeliversItems() throws Exception {
+        final List<ListBlobItem> items = new ArrayList<ListBlobItem>();
+        ListingSink<ListBlobItem> sink = new ListingSink<ListBlobItem>(new ResultConsumer<ListBlobItem>() {
+            @Override
+            public boolean accept(ListBlobItem result) {
+                items.add(result);
+                return true;
+            }
+        });
+
+        ListBlobsResponse response = BlobListHandler.getBlobList(getStream(), getContainer(), sink, null);
+        assertEquals("marker", response.getNextMarker());
+        assertEquals(0, response.getResults().size());
+        assertFalse(sink.isStopped());
+
+        assertEquals(3, items.size());
+        CloudBlockBlob a = (CloudBlockBlob) items.get(0);
+        assertEquals("a", a.getName());
+        assertEquals(1, a.getProperties().getLength());
+        assertEquals("v", a.getMetadata().get("k"));
+        CloudPageBlob b = (CloudPageBlob) items.get(1);
+        assertEquals("b", b.getName());
+        assertNotNull(b.getSnapshotID());
+        assertEquals("c/", ((CloudBlobDirectory) items.get(2)).getPrefix());
+    }
+
+    @Test
+    public void testStreamingListingEntries() throws Exception {
+        final List<String> names = new ArrayList<String>();
+        final List<Long> lengths = new ArrayList<Long>();
+        final List<BlobType> types = new ArrayList<BlobType>();
+        ListingSink<BlobListingEntry> sink = new ListingSink<BlobListingEntry>(
+                new ResultConsumer<BlobListingEntry>() {
+                    @Override
+                    public boolean accept(BlobListingEntry result) {
+                        names.add(result.getName());
+                        lengths.add(result.getLength());
+                        types.add(result.getBlobType());
+                        if (result.isDirectory()) {
+                            assertNull(result.getSnapshotID());
+                        }
+                        return true;
+                    }
+                });
+
+        BlobListHandler.getBlobList(getStream(), getContainer(), null, sink);
+        assertEquals("[a, b, c/]", names.toString());
+        assertEquals(Long.valueOf(1), lengths.get(0));
+        assertEquals(Long.valueOf(2), lengths.get(1));
+        assertEquals(BlobType.BLOCK_BLOB, types.get(0));
+        assertEquals(BlobType.PAGE_BLOB, types.get(1));
+    }
+
+    @Test
+    public void testStreamingListingRetrySkipsDeliveredItems() throws Exception {
+        final List<String> names = new ArrayList<String>();
+        ListingSink<BlobListingEntry> sink = new ListingSink<BlobListingEntry>(
+                new ResultConsumer<BlobListingEntry>() {
+                    @Override
+                    public boolean accept(BlobListingEntry result) {
+                        names.add(result.getName());
+                        return true;
+                    }
+                });
+
+        // A truncated response delivers the first blob before the parse fails.
+        String truncated = LISTING.substring(0, LISTING.indexOf("<Blob><Name>b"));
+        try {
+            BlobListHandler.getBlobList(new ByteArrayInputStream(truncated.getBytes("UTF-8")), getContainer(), null,
+                    sink);
+            fail();
+        }
+        catch (SAXException e) {
+            // expected
+        }
+
+        assertEquals("[a]", names.toString());
+
+        // The retried segment delivers only the remaining items.
+        BlobListHandler.getBlobList(getStream(), getContainer(), null, sink);
+        assertEquals("[a, b, c/]", names.toString());
+
+        // The next segment starts over.
+        BlobListHandler.getBlobList(getStream(), getContainer(), null, sink);
+        assertEquals("[a, b, c/, a, b, c/]", names.toString());
+    }
+
+    @Test
+    public void testStreamingListingStops() throws Exception {
+        final List<String> names = new ArrayList<String>();
+        ListingSink<BlobListingEntry> sink = new ListingSink<BlobListingEntry>(
+                new ResultConsumer<BlobListingEntry>() {
+                    @Override
+                    public boolean accept(BlobListingEntry result) {
+                        names.add(result.getName());
+                        return false;
+                    }
+                });
+
+        BlobListHandler.getBlobList(getStream(), getContainer(), null, sink);
+        assertEquals("[a]", names.toString());
+        assertTrue(sink.isStopped());
+    }
+
+    @Test
+    public void testStreamingListingConsumerFailure() throws Exception {
+        final IllegalStateException failure = new IllegalStateException();
+        ListingSink<ListBlobItem> sink = new ListingSink<ListBlobItem>(new ResultConsumer<ListBlobItem>() {
+            @Override
+            public boolean accept(ListBlobItem result) {
+                throw failure;
+            }
+        });
+
+        try {
+            BlobListHandler.getBlobList(getStream(), getContainer(), sink, null);
+            fail();
+        }
+        catch (StorageException e) {
+            assertSame(failure, e.getCause());
+            assertEquals(306, e.getHttpStatusCode());
+        }
+
+        assertTrue(sink.isStopped());
+    }
+
+    @Test
+    public void testStreamingListingNestedParse() throws Exception {
+        final List<String> names = new ArrayList<String>();
+        ListingSink<ListBlobItem> sink = new ListingSink<ListBlobItem>(new ResultConsumer<ListBlobItem>() {
+            @Override
+            public boolean accept(ListBlobItem result) {
+                try {
+                    // A consumer may parse another listing on the same thread.
+                    ListBlobsResponse nested = BlobListHandler.getBlobList(getStream(), getContainer());
+                    names.add(nested.getResults().size() + "");
+                }
+                catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+                return true;
+            }
+        });
+
+        BlobListHandler.getBlobList(getStream(), getContainer(), sink, null);
+        assertEquals("[3, 3, 3]", names.toString());
+
+        // The per-thread parser remains usable afterwards.
+        assertEquals(3, BlobListHandler.getBlobList(getStream(), getContainer()).getResults().size());
+    }
+}
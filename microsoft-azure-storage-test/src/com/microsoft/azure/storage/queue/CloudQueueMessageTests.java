@@ -0,0 +1,151 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.queue;
+
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+import com.microsoft.azure.storage.core.Base64;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class CloudQueueMessageTests {
+
+    private static CloudQueueMessage roundTrip(CloudQueueMessage message, boolean shouldEncodeMessage)
+            throws Exception {
+        // The returned message element has the same shape as the request body.
+        byte[] body = message.getMessageRequestBody(shouldEncodeMessage);
+        String xml = "<?xml version=\"1.0\" encoding=\"utf-8\"?><QueueMessagesList>"
+                + new String(body, "UTF-8").substring(new String(body, "UTF-8").indexOf("<QueueMessage>"))
+                + "</QueueMessagesList>";
+        return QueueMessageHandler.readMessages(new ByteArrayInputStream(xml.getBytes("UTF-8")),
+                shouldEncodeMessage).get(0);
+    }
+
+    @Test
+    public void testBinaryMessageRoundTrip() throws Exception {
+        Random rand = new Random();
+        for (int length = 0; length < 100; length++) {
+            byte[] buffer = new byte[length + 10];
+            rand.nextBytes(buffer);
+
+            CloudQueueMessage message = new CloudQueueMessage(new byte[0]);
+            message.setMessageContent(buffer, 5, length);
+            assertEquals(length, message.getMessageContentLength());
+
+            CloudQueueMessage received = roundTrip(message, true);
+            assertEquals(length, received.getMessageContentLength());
+
+            byte[] output = new byte[length + 3];
+            assertEquals(length, received.getMessageContentAsByte(output, 3));
+            assertArrayEquals(Arrays.copyOfRange(buffer, 5, 5 + length), Arrays.copyOfRange(output, 3, 3 + length));
+            assertArrayEquals(message.getMessageContentAsByte(), received.getMessageContentAsByte());
+        }
+    }
+
+    @Test
+    public void testBinaryMessageMatchesStringEncoding() throws Exception {
+        byte[] content = "binary é content".getBytes("UTF-8");
+        CloudQueueMessage message = new CloudQueueMessage(content);
+
+        // The byte setter copies its argument.
+        content[0] = 'X';
+        assertEquals("binary é content", message.getMessageContentAsString());
+        assertEquals(Base64.encode("binary é content".getBytes("UTF-8")),
+                message.getMessageContentForTransfer(false));
+
+        // A string message encoded for transfer takes the binary path and yields the same body.
+        CloudQueueMessage stringMessage = new CloudQueueMessage("binary é content");
+        assertArrayEquals(message.getMessageRequestBody(true), stringMessage.getMessageRequestBody(true));
+        assertEquals("binary é content", roundTrip(stringMessage, true).getMessageContentAsString());
+
+        // Unencoded string messages still go through the XML serializer.
+        CloudQueueMessage rawMessage = new CloudQueueMessage("a < b & c");
+        assertEquals("a < b & c", roundTrip(rawMessage, false).getMessageContentAsString());
+    }
+
+    @Test
+    public void testBinaryMessageLimits() throws Exception {
+        int maxLength = (int) QueueConstants.MAX_MESSAGE_SIZE / 4 * 3;
+        CloudQueueMessage message = new CloudQueueMessage(new byte[0]);
+        message.setMessageContent(new byte[maxLength], 0, maxLength);
+        message.getMessageRequestBody(true);
+
+        message.setMessageContent(new byte[maxLength + 1], 0, maxLength + 1);
+        try {
+            message.getMessageRequestBody(true);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        try {
+            message.setMessageContent(new byte[4], 2, 3);
+            fail();
+        }
+        catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+
+        message.setMessageContent(new byte[] { 1, 2, 3 });
+        try {
+            message.getMessageContentAsByte(new byte[3], 1);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testBase64Ranges() throws StorageException {
+        Random rand = new Random();
+        for (int length = 0; length < 50; length++) {
+            byte[] data = new byte[length];
+            rand.nextBytes(data);
+            String expected = Base64.encode(data);
+
+            byte[] encoded = new byte[Base64.encodedLength(length) + 2];
+            assertEquals(expected.length(), Base64.encode(data, 0, length, encoded, 1));
+            String actual = new String(encoded, 1, expected.length());
+            assertEquals(expected, actual);
+
+            byte[] decoded = new byte[length + 1];
+            assertEquals(length, Base64.decodedLength(actual));
+            assertEquals(length, Base64.decode(new StringBuilder(actual), decoded, 1));
+            assertArrayEquals(data, Arrays.copyOfRange(decoded, 1, length + 1));
+        }
+
+        for (String invalid : new String[] { "A", "AB=C", "A===", "AB==AAAA", "ABé=" }) {
+            try {
+                Base64.decode(invalid, new byte[8], 0);
+                fail(invalid);
+            }
+            catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+}
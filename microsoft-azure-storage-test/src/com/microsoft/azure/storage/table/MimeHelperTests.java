@@ -0,0 +1,177 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.table;
+
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * MIME batch encoding and decoding tests
+ */
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class MimeHelperTests {
+
+    private static final String CHANGESET_RESPONSE = "--batchresponse_1\r\n"
+            + "Content-Type: multipart/mixed; boundary=changesetresponse_2\r\n"
+            + "\r\n"
+            + "--changesetresponse_2\r\n"
+            + "Content-Type: application/http\r\n"
+            + "Content-Transfer-Encoding: binary\r\n"
+            + "\r\n"
+            + "HTTP/1.1 201 Created\r\n"
+            + "Content-Type: application/json;odata=nometadata;streaming=true;charset=utf-8\r\n"
+            + "ETag: W/\"datetime'2015-01-01T00%3A00%3A00Z'\"\r\n"
+            + "\r\n"
+            + "{\"PartitionKey\":\"p\",\"RowKey\":\"r\",\n\"Name\":\"été\"}\r\n"
+            + "--changesetresponse_2\r\n"
+            + "Content-Type: application/http\r\n"
+            + "Content-Transfer-Encoding: binary\r\n"
+            + "\r\n"
+            + "HTTP/1.1 204 No Content\r\n"
+            + "ETag: W/\"2\"\r\n"
+            + "\r\n"
+            + "\r\n"
+            + "--changesetresponse_2--\r\n"
+            + "--batchresponse_1--\r\n";
+
+    private static final String QUERY_RESPONSE = "--batchresponse_1\r\n"
+            + "Content-Type: application/http\r\n"
+            + "Content-Transfer-Encoding: binary\r\n"
+            + "\r\n"
+            + "HTTP/1.1 200 OK\r\n"
+            + "Content-Type: application/json\r\n"
+            + "\r\n"
+            + "{\"RowKey\":\"r\"}\r\n"
+            + "--batchresponse_1--\r\n";
+
+    private static ArrayList<MimePart> read(String response, String boundary) throws Exception {
+        return MimeHelper.readBatchResponseStream(new ByteArrayInputStream(response.getBytes("UTF-8")), boundary,
+                null, TablePayloadFormat.JsonNoMetadata);
+    }
+
+    private static String payload(MimePart part) throws Exception {
+        return new String(part.payload, part.payloadOffset, part.payloadLength, "UTF-8");
+    }
+
+    @Test
+    public void testReadChangesetResponse() throws Exception {
+        ArrayList<MimePart> parts = read(CHANGESET_RESPONSE, "batchresponse_1");
+        assertEquals(2, parts.size());
+
+        MimePart created = parts.get(0);
+        assertEquals(201, created.httpStatusCode);
+        assertEquals("Created", created.httpStatusMessage);
+        assertEquals("W/\"datetime'2015-01-01T00%3A00%3A00Z'\"", created.headers.get("ETag"));
+        assertEquals("{\"PartitionKey\":\"p\",\"RowKey\":\"r\",\n\"Name\":\"été\"}", payload(created));
+
+        MimePart noContent = parts.get(1);
+        assertEquals(204, noContent.httpStatusCode);
+        assertEquals("No Content", noContent.httpStatusMessage);
+        assertEquals(0, noContent.payloadLength);
+        assertEquals(-1, noContent.getPayloadStream().read());
+    }
+
+    @Test
+    public void testReadQueryResponse() throws Exception {
+        ArrayList<MimePart> parts = read(QUERY_RESPONSE, "batchresponse_1");
+        assertEquals(1, parts.size());
+        assertEquals(200, parts.get(0).httpStatusCode);
+        assertEquals("{\"RowKey\":\"r\"}", payload(parts.get(0)));
+    }
+
+    @Test
+    public void testReadInvalidResponse() throws Exception {
+        try {
+            read(CHANGESET_RESPONSE, "batchresponse_other");
+            fail();
+        }
+        catch (StorageException e) {
+            assertEquals(306, e.getHttpStatusCode());
+        }
+
+        try {
+            read(CHANGESET_RESPONSE.substring(0, CHANGESET_RESPONSE.indexOf("\"Name\"")), "batchresponse_1");
+            fail();
+        }
+        catch (StorageException e) {
+            assertEquals(306, e.getHttpStatusCode());
+        }
+
+        try {
+            read(QUERY_RESPONSE.replace("HTTP/1.1 200 OK", "HTTP/1.1 abc OK"), "batchresponse_1");
+            fail();
+        }
+        catch (StorageException e) {
+            assertEquals(306, e.getHttpStatusCode());
+        }
+    }
+
+    @Test
+    public void testWriteBatch() throws Exception {
+        TableBatchOperation batch = new TableBatchOperation();
+        DynamicTableEntity inserted = new DynamicTableEntity("p", "r1");
+        inserted.getProperties().put("Name", new EntityProperty("été"));
+        batch.insert(inserted);
+        DynamicTableEntity merged = new DynamicTableEntity("p", "r2");
+        merged.setEtag("W/\"1\"");
+        batch.merge(merged);
+        batch.delete(new DynamicTableEntity("p", "r3", "*", null));
+
+        MimeBuffer buffer = new MimeBuffer(16);
+        MimeHelper.writeBatchToStream(buffer, new TableRequestOptions(), "table",
+                new URI("http://myaccount.table.core.windows.net"), batch, "batch_1", "changeset_2", null);
+        String request = new String(buffer.getBuffer(), 0, buffer.size(), "UTF-8");
+
+        assertTrue(request.startsWith("--batch_1\r\nContent-Type: multipart/mixed; boundary=changeset_2\r\n\r\n"));
+        assertTrue(request.endsWith("--changeset_2--\r\n--batch_1--\r\n"));
+        assertTrue(request.contains("POST http://myaccount.table.core.windows.net/table() HTTP/1.1\r\n"));
+        assertTrue(request.contains("MERGE http://myaccount.table.core.windows.net/table(PartitionKey='p',RowKey='r2')"
+                + " HTTP/1.1\r\n"));
+        assertTrue(request.contains("DELETE http://myaccount.table.core.windows.net/table(PartitionKey='p',RowKey='r3')"
+                + " HTTP/1.1\r\n"));
+        assertTrue(request.contains("If-Match: W/\"1\"\r\n"));
+
+        // Each Content-Length counts the UTF-8 bytes of the entity that follows the part headers.
+        byte[] bytes = buffer.toByteArray();
+        int parts = 0;
+        for (int index = request.indexOf("Content-Length: "); index >= 0; index = request.indexOf(
+                "Content-Length: ", index + 1)) {
+            int length = Integer.parseInt(request.substring(index + 16, request.indexOf("\r\n", index)));
+            int bodyStart = utf8Length(request.substring(0, request.indexOf("\r\n\r\n", index) + 4));
+            String body = new String(bytes, bodyStart, length, "UTF-8");
+            assertTrue(body, body.startsWith("{") && body.endsWith("}\r\n"));
+            assertTrue(new String(bytes, bodyStart + length, 15, "UTF-8").startsWith("--changeset_2"));
+            parts++;
+        }
+
+        assertEquals(2, parts);
+        assertEquals(3, request.split("--changeset_2\r\n").length - 1);
+    }
+
+    private static int utf8Length(String value) throws Exception {
+        return value.getBytes("UTF-8").length;
+    }
+}
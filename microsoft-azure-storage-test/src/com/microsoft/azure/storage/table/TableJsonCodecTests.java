@@ -0,0 +1,104 @@
+/**
+ * Copyright Microsoft Corporation
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.table;
+
+import com.microsoft.azure.storage.TestRunners.CloudTests;
+import com.microsoft.azure.storage.TestRunners.DevFabricTests;
+import com.microsoft.azure.storage.TestRunners.DevStoreTests;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+/**
+ * Table Json codec tests
+ */
+@Category({ DevFabricTests.class, DevStoreTests.class, CloudTests.class })
+public class TableJsonCodecTests {
+
+    private static TableRequestOptions getOptions(TablePayloadFormat format) {
+        final TableRequestOptions options = new TableRequestOptions();
+        options.setTablePayloadFormat(format);
+        options.setDateBackwardCompatibility(false);
+        return options;
+    }
+
+    @Test
+    public void testSerializeAndParseEntities() throws Exception {
+        final TableRequestOptions options = getOptions(TablePayloadFormat.Json);
+
+        for (int i = 0; i < 100; i++) {
+            DynamicTableEntity entity = new DynamicTableEntity("p", "r" + i);
+            entity.getProperties().put("Name", new EntityProperty("été " + i));
+            entity.getProperties().put("Count", new EntityProperty(i));
+            entity.getProperties().put("Ratio", new EntityProperty(i == 0 ? Double.NaN : 1.0 / i));
+            entity.getProperties().put("Created", new EntityProperty(new Date(1000L * i)));
+
+            ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+            TableEntitySerializer.writeSingleEntity(outStream, entity, false, null);
+
+            // The stream is left open and holds UTF-8.
+            outStream.write('\n');
+            String json = new String(outStream.toByteArray(), "UTF-8");
+            assertTrue(json, json.contains("\"été " + i + "\""));
+            assertTrue(json.endsWith("}\n"));
+
+            TableResult result = TableDeserializer.parseSingleOpResponse(
+                    new ByteArrayInputStream(outStream.toByteArray()), options, 201, DynamicTableEntity.class, null,
+                    null);
+            DynamicTableEntity parsed = result.getResultAsType();
+            assertEquals("r" + i, parsed.getRowKey());
+            assertEquals("été " + i, parsed.getProperties().get("Name").getValueAsString());
+            assertEquals(i, parsed.getProperties().get("Count").getValueAsInteger());
+            assertEquals(i == 0 ? Double.NaN : 1.0 / i, parsed.getProperties().get("Ratio").getValueAsDouble(), 0);
+            assertEquals(new Date(1000L * i), parsed.getProperties().get("Created").getValueAsDate());
+        }
+    }
+
+    @Test
+    public void testParseEtagMetadata() throws Exception {
+        final TableRequestOptions options = getOptions(TablePayloadFormat.JsonFullMetadata);
+
+        String json = "{\"odata.metadata\":\"m\",\"odata.etag\":\"W/\\\"1\\\"\","
+                + "\"PartitionKey\":\"p\",\"RowKey\":\"r\"}";
+        TableResult result = TableDeserializer.parseSingleOpResponse(new ByteArrayInputStream(json.getBytes("UTF-8")),
+                options, 200, DynamicTableEntity.class, null, null);
+        assertEquals("W/\"1\"", result.getEtag());
+        assertEquals("W/\"1\"", ((DynamicTableEntity) result.getResultAsType()).getEtag());
+    }
+
+    @Test
+    public void testParserLeavesStreamOpen() throws Exception {
+        final boolean[] closed = new boolean[1];
+        byte[] json = "{\"PartitionKey\":\"p\",\"RowKey\":\"r\"}".getBytes("UTF-8");
+        InputStream inStream = new ByteArrayInputStream(json) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+            }
+        };
+
+        TableDeserializer.parseSingleOpResponse(inStream, getOptions(TablePayloadFormat.Json), 200,
+                DynamicTableEntity.class, null, null);
+        assertFalse(closed[0]);
+    }
+}
@@ -98,6 +98,16 @@ public final class Constants {
          */
         public static final String LOGGING_ELEMENT = "Logging";
 
+        /**
+         * The metadata key holding the time of the last entry in a log blob.
+         */
+        public static final String LOG_END_TIME_METADATA = "EndTime";
+
+        /**
+         * The metadata key holding the time of the first entry in a log blob.
+         */
+        public static final String LOG_START_TIME_METADATA = "StartTime";
+
         /**
          * The XML element for the CORS Rule MaxAgeInSeconds
          */
@@ -0,0 +1,386 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.net.HttpURLConnection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.microsoft.azure.storage.core.SR;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * Represents a policy which hedges slow reads of a read-access geo-redundant account: if one location has not
+ * answered a read within the time most reads of the same operation take, the same read is sent to the other
+ * location, and the first response is used.
+ * <p>
+ * Hedging applies to requests which can be served from either location (such as downloads, attribute and property
+ * reads, listings, table queries and queue peeks) when the location mode of the request is
+ * {@link LocationMode#PRIMARY_THEN_SECONDARY} or {@link LocationMode#SECONDARY_THEN_PRIMARY}. The policy learns the
+ * time to the response headers of each operation and location, and hedges a request once it has waited longer than
+ * the configured percentile of that time, clamped between a minimum and a maximum delay. The request which loses is
+ * disconnected. To bound the extra load, at most a given fraction of requests are hedged.
+ * <p>
+ * Only a response which settles the read wins: a success from either location, or a client error from the primary
+ * location. A secondary location may lag behind the primary, so its failures, and server errors from either location,
+ * only win when the other request fails as well.
+ * <p>
+ * Set a policy on a service client with {@link ServiceClient#setHedgedReadPolicy(HedgedReadPolicy)}.
+ * <p>
+ * This class is thread safe.
+ */
+public final class HedgedReadPolicy {
+
+    /**
+     * Represents the default latency percentile after which a request is hedged.
+     */
+    public static final double DEFAULT_PERCENTILE = 0.95;
+
+    /**
+     * Represents the default minimum delay before hedging a request, in milliseconds.
+     */
+    public static final int DEFAULT_MINIMUM_DELAY_IN_MS = 10;
+
+    /**
+     * Represents the default maximum delay before hedging a request, in milliseconds. Requests are hedged after this
+     * delay until enough latencies are known.
+     */
+    public static final int DEFAULT_MAXIMUM_DELAY_IN_MS = 1000;
+
+    /**
+     * Represents the default maximum fraction of requests which are hedged.
+     */
+    public static final double DEFAULT_MAXIMUM_HEDGE_RATIO = 0.1;
+
+    /**
+     * Holds the number of operations whose latencies are tracked.
+     */
+    private static final int OPERATION_CAPACITY = 256;
+
+    /**
+     * Holds the number of hedges allowed beyond the maximum fraction, so that the first slow requests can be hedged.
+     */
+    private static final int HEDGE_BURST = 10;
+
+    private final double percentile;
+
+    private final int minimumDelayInMs;
+
+    private final int maximumDelayInMs;
+
+    private final double maximumHedgeRatio;
+
+    /**
+     * Holds the latencies of the most recently used operations, guarded by itself.
+     */
+    private final LinkedHashMap<String, LatencyTracker> operations = new LinkedHashMap<String, LatencyTracker>(16,
+            0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LatencyTracker> eldest) {
+            return this.size() > OPERATION_CAPACITY;
+        }
+    };
+
+    /**
+     * Holds the threads waiting for the responses of requests which may be hedged.
+     */
+    private final ThreadPoolExecutor threadExecutor;
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private final AtomicLong hedgedRequestCount = new AtomicLong();
+
+    private final AtomicLong hedgeWinCount = new AtomicLong();
+
+    /**
+     * Creates an instance of the <code>HedgedReadPolicy</code> class using the default percentile, delays and hedge
+     * ratio.
+     */
+    public HedgedReadPolicy() {
+        this(DEFAULT_PERCENTILE, DEFAULT_MINIMUM_DELAY_IN_MS, DEFAULT_MAXIMUM_DELAY_IN_MS, DEFAULT_MAXIMUM_HEDGE_RATIO);
+    }
+
+    /**
+     * Creates an instance of the <code>HedgedReadPolicy</code> class using the specified percentile, delays and hedge
+     * ratio.
+     * 
+     * @param percentile
+     *            The latency percentile, between 0 and 1, after which a request is hedged.
+     * @param minimumDelayInMs
+     *            The minimum delay before hedging a request, in milliseconds.
+     * @param maximumDelayInMs
+     *            The maximum delay before hedging a request, in milliseconds.
+     * @param maximumHedgeRatio
+     *            The maximum fraction, between 0 and 1, of requests which are hedged.
+     */
+    public HedgedReadPolicy(final double percentile, final int minimumDelayInMs, final int maximumDelayInMs,
+            final double maximumHedgeRatio) {
+        if (!(percentile > 0 && percentile <= 1)) {
+            throw new IllegalArgumentException(String.format(SR.ARGUMENT_OUT_OF_RANGE_ERROR, "percentile",
+                    percentile));
+        }
+
+        if (!(maximumHedgeRatio >= 0 && maximumHedgeRatio <= 1)) {
+            throw new IllegalArgumentException(String.format(SR.ARGUMENT_OUT_OF_RANGE_ERROR, "maximumHedgeRatio",
+                    maximumHedgeRatio));
+        }
+
+        Utility.assertGreaterThanOrEqual("minimumDelayInMs", minimumDelayInMs, 0);
+        Utility.assertGreaterThanOrEqual("maximumDelayInMs", maximumDelayInMs, minimumDelayInMs);
+
+        this.percentile = percentile;
+        this.minimumDelayInMs = minimumDelayInMs;
+        this.maximumDelayInMs = maximumDelayInMs;
+        this.maximumHedgeRatio = maximumHedgeRatio;
+        this.threadExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        final Thread thread = new Thread(r, "azure-storage-hedged-read");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+
+    /**
+     * Gets the latency percentile after which a request is hedged.
+     * 
+     * @return the percentile.
+     */
+    public double getPercentile() {
+        return this.percentile;
+    }
+
+    /**
+     * Gets the minimum delay before hedging a request.
+     * 
+     * @return the minimum delay, in milliseconds.
+     */
+    public int getMinimumDelayInMs() {
+        return this.minimumDelayInMs;
+    }
+
+    /**
+     * Gets the maximum delay before hedging a request.
+     * 
+     * @return the maximum delay, in milliseconds.
+     */
+    public int getMaximumDelayInMs() {
+        return this.maximumDelayInMs;
+    }
+
+    /**
+     * Gets the maximum fraction of requests which are hedged.
+     * 
+     * @return the maximum hedge ratio.
+     */
+    public double getMaximumHedgeRatio() {
+        return this.maximumHedgeRatio;
+    }
+
+    /**
+     * Gets the number of requests which could have been hedged.
+     * 
+     * @return the number of requests.
+     */
+    public long getRequestCount() {
+        return this.requestCount.get();
+    }
+
+    /**
+     * Gets the number of requests which were hedged.
+     * 
+     * @return the number of hedged requests.
+     */
+    public long getHedgedRequestCount() {
+        return this.hedgedRequestCount.get();
+    }
+
+    /**
+     * Gets the number of hedged requests for which the hedge answered first.
+     * 
+     * @return the number of hedges used.
+     */
+    public long getHedgeWinCount() {
+        return this.hedgeWinCount.get();
+    }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Gets the executor running the requests which may be hedged.
+     * 
+     * @return the executor.
+     */
+    public Executor getExecutor() {
+        return this.threadExecutor;
+    }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Records that a request which may be hedged starts, and gets how long to wait for its
+     * response before hedging it.
+     * 
+     * @param operation
+     *            The name of the operation and location of the request.
+     * @return the delay, in milliseconds.
+     */
+    public long onRequestStarted(final String operation) {
+        this.requestCount.incrementAndGet();
+
+        final LatencyTracker tracker;
+        synchronized (this.operations) {
+            tracker = this.operations.get(operation);
+        }
+
+        final long latency = tracker == null ? -1 : tracker.getPercentile(this.percentile);
+        if (latency < 0) {
+            return this.maximumDelayInMs;
+        }
+
+        return Math.min(Math.max(latency, this.minimumDelayInMs), this.maximumDelayInMs);
+    }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Records the time a request took to get its response headers.
+     * 
+     * @param operation
+     *            The name of the operation and location of the request.
+     * @param latencyInMs
+     *            The time to the response headers, in milliseconds. If the request was hedged and lost, the time until
+     *            the hedge answered.
+     */
+    public void recordLatency(final String operation, final long latencyInMs) {
+        LatencyTracker tracker;
+        synchronized (this.operations) {
+            tracker = this.operations.get(operation);
+            if (tracker == null) {
+                tracker = new LatencyTracker();
+                this.operations.put(operation, tracker);
+            }
+        }
+
+        tracker.add(latencyInMs);
+    }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Attempts to hedge a request, which fails if too many requests were already hedged.
+     * 
+     * @return <code>true</code> if the request may be hedged; otherwise, <code>false</code>.
+     */
+    public boolean tryHedge() {
+        while (true) {
+            final long hedged = this.hedgedRequestCount.get();
+            if (hedged >= this.requestCount.get() * this.maximumHedgeRatio + HEDGE_BURST) {
+                return false;
+            }
+
+            if (this.hedgedRequestCount.compareAndSet(hedged, hedged + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Determines whether a response settles a hedged read, so the other request can be
+     * abandoned.
+     * 
+     * @param statusCode
+     *            The HTTP status code of the response.
+     * @param location
+     *            The location which sent the response.
+     * @return <code>true</code> if the response is used without waiting for the other request.
+     */
+    public boolean isSettlingResponse(final int statusCode, final StorageLocation location) {
+        if (statusCode >= 200 && statusCode < 300) {
+            return true;
+        }
+
+        // The primary location is authoritative, unless it failed or timed out.
+        return location == StorageLocation.PRIMARY && statusCode < 500
+                && statusCode != HttpURLConnection.HTTP_CLIENT_TIMEOUT;
+    }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Records that the hedge of a request answered first.
+     */
+    public void onHedgeWon() {
+        this.hedgeWinCount.incrementAndGet();
+    }
+
+    /**
+     * Represents the recent latencies of an operation.
+     */
+    static final class LatencyTracker {
+
+        /**
+         * Holds the number of latencies kept.
+         */
+        static final int SAMPLE_COUNT = 128;
+
+        /**
+         * Holds the number of latencies needed before the percentile is used.
+         */
+        static final int MINIMUM_SAMPLE_COUNT = 16;
+
+        /**
+         * Holds the number of latencies added between computations of the percentile.
+         */
+        private static final int REFRESH_INTERVAL = 16;
+
+        private final long[] samples = new long[SAMPLE_COUNT];
+
+        private long count;
+
+        private double cachedPercentile = Double.NaN;
+
+        private long cachedValue = -1;
+
+        private long cachedCount;
+
+        synchronized void add(final long latencyInMs) {
+            this.samples[(int) (this.count % SAMPLE_COUNT)] = latencyInMs;
+            this.count++;
+        }
+
+        /**
+         * Gets the specified percentile of the recent latencies, or -1 if too few are known.
+         */
+        synchronized long getPercentile(final double percentile) {
+            if (this.count < MINIMUM_SAMPLE_COUNT) {
+                return -1;
+            }
+
+            if (percentile != this.cachedPercentile || this.count - this.cachedCount >= REFRESH_INTERVAL) {
+                final int length = (int) Math.min(this.count, SAMPLE_COUNT);
+                final long[] sorted = Arrays.copyOf(this.samples, length);
+                Arrays.sort(sorted);
+                this.cachedValue = sorted[Math.max(0, Math.min(length - 1,
+                        (int) Math.ceil(percentile * length) - 1))];
+                this.cachedPercentile = percentile;
+                this.cachedCount = this.count;
+            }
+
+            return this.cachedValue;
+        }
+    }
+}
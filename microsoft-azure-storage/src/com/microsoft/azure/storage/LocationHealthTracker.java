@@ -0,0 +1,363 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import java.net.HttpURLConnection;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.azure.storage.core.SR;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * Represents a tracker of the health of the primary and secondary locations of a service client, used to send reads
+ * to the healthy location without first failing on the unhealthy one.
+ * <p>
+ * For each location, the tracker keeps an exponentially weighted moving average of the request latency and of the
+ * error rate, and a circuit breaker. The circuit of a location opens after a number of consecutive failures, when its
+ * error rate exceeds a threshold, or when its latency is many times the latency of the other location. Failures are
+ * network errors, timeouts and server errors (<code>5xx</code>). While the circuit of a location is open, operations
+ * which may be served from either location and whose location mode is {@link LocationMode#PRIMARY_THEN_SECONDARY}
+ * or {@link LocationMode#SECONDARY_THEN_PRIMARY} start on the other location. After a cool-down period, a single
+ * request is let through to probe the location, and its outcome closes or reopens the circuit.
+ * <p>
+ * Set a tracker on a service client with {@link ServiceClient#setLocationHealthTracker(LocationHealthTracker)}.
+ * <p>
+ * This class is thread safe.
+ */
+public final class LocationHealthTracker {
+
+    /**
+     * Represents the state of the circuit breaker of a location.
+     */
+    public enum CircuitState {
+        /**
+         * The location is healthy and receives requests.
+         */
+        CLOSED,
+
+        /**
+         * The location is unhealthy and is avoided until the cool-down period ends.
+         */
+        OPEN,
+
+        /**
+         * The cool-down period ended and a request is probing the location.
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * Represents the default number of consecutive failures which open a circuit.
+     */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+    /**
+     * Represents the default error rate which opens a circuit.
+     */
+    public static final double DEFAULT_ERROR_RATE_THRESHOLD = 0.5;
+
+    /**
+     * Represents the default factor by which the latency of a location must exceed the latency of the other location
+     * to open its circuit.
+     */
+    public static final double DEFAULT_LATENCY_FACTOR = 5;
+
+    /**
+     * Represents the default time an open circuit stays open, in milliseconds.
+     */
+    public static final int DEFAULT_COOL_DOWN_IN_MS = 30 * 1000;
+
+    /**
+     * Represents the weight of a new sample in the moving averages.
+     */
+    static final double SMOOTHING_FACTOR = 0.2;
+
+    /**
+     * Represents the number of requests to a location before its error rate and latency may open its circuit.
+     */
+    static final int MINIMUM_REQUEST_COUNT = 20;
+
+    /**
+     * Represents the latency under which a location is never considered slow, in milliseconds.
+     */
+    static final double MINIMUM_SLOW_LATENCY_IN_MS = 100;
+
+    private final int failureThreshold;
+
+    private final double errorRateThreshold;
+
+    private final double latencyFactor;
+
+    private final long coolDownInNanos;
+
+    private final LocationHealth primary = new LocationHealth();
+
+    private final LocationHealth secondary = new LocationHealth();
+
+    /**
+     * Creates an instance of the <code>LocationHealthTracker</code> class using the default thresholds and cool-down
+     * period.
+     */
+    public LocationHealthTracker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_ERROR_RATE_THRESHOLD, DEFAULT_LATENCY_FACTOR, DEFAULT_COOL_DOWN_IN_MS);
+    }
+
+    /**
+     * Creates an instance of the <code>LocationHealthTracker</code> class using the specified thresholds and cool-down
+     * period.
+     * 
+     * @param failureThreshold
+     *            The number of consecutive failures which open the circuit of a location.
+     * @param errorRateThreshold
+     *            The error rate, between 0 and 1, which opens the circuit of a location.
+     * @param latencyFactor
+     *            The factor by which the latency of a location must exceed the latency of the other location to open
+     *            its circuit, or 0 to ignore latency.
+     * @param coolDownInMs
+     *            The time an open circuit stays open, in milliseconds.
+     */
+    public LocationHealthTracker(final int failureThreshold, final double errorRateThreshold,
+            final double latencyFactor, final int coolDownInMs) {
+        Utility.assertGreaterThanOrEqual("failureThreshold", failureThreshold, 1);
+        Utility.assertGreaterThanOrEqual("coolDownInMs", coolDownInMs, 0);
+        if (!(errorRateThreshold > 0 && errorRateThreshold <= 1)) {
+            throw new IllegalArgumentException(String.format(SR.ARGUMENT_OUT_OF_RANGE_ERROR, "errorRateThreshold",
+                    errorRateThreshold));
+        }
+
+        if (!(latencyFactor == 0 || latencyFactor > 1)) {
+            throw new IllegalArgumentException(String.format(SR.ARGUMENT_OUT_OF_RANGE_ERROR, "latencyFactor",
+                    latencyFactor));
+        }
+
+        this.failureThreshold = failureThreshold;
+        this.errorRateThreshold = errorRateThreshold;
+        this.latencyFactor = latencyFactor;
+        this.coolDownInNanos = TimeUnit.MILLISECONDS.toNanos(coolDownInMs);
+    }
+
+    /**
+     * Gets the state of the circuit breaker of the specified location.
+     * 
+     * @param location
+     *            The location.
+     * @return the state of the circuit.
+     */
+    public CircuitState getCircuitState(final StorageLocation location) {
+        return this.getHealth(location).getState();
+    }
+
+    /**
+     * Gets the moving average of the latency of the requests to the specified location.
+     * 
+     * @param location
+     *            The location.
+     * @return the latency, in milliseconds, or 0 if no request completed.
+     */
+    public double getLatencyInMs(final StorageLocation location) {
+        return this.getHealth(location).getLatencyInMs();
+    }
+
+    /**
+     * Gets the moving average of the error rate of the requests to the specified location.
+     * 
+     * @param location
+     *            The location.
+     * @return the error rate, between 0 and 1.
+     */
+    public double getErrorRate(final StorageLocation location) {
+        return this.getHealth(location).getErrorRate();
+    }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Selects the location an operation which may be served from either location starts
+     * with.
+     * 
+     * @param preferredLocation
+     *            The location the location mode of the operation starts with.
+     * @return the preferred location if it is healthy or if the other location is not healthy either; otherwise, the
+     *         other location.
+     */
+    public StorageLocation selectLocation(final StorageLocation preferredLocation) {
+        return this.selectLocation(preferredLocation, System.nanoTime());
+    }
+
+    /**
+     * Selects the location an operation starts with at the specified time.
+     */
+    StorageLocation selectLocation(final StorageLocation preferredLocation, final long now) {
+        final StorageLocation otherLocation = getOtherLocation(preferredLocation);
+        if (this.getHealth(preferredLocation).tryAcquire(now, this.coolDownInNanos)
+                || !this.getHealth(otherLocation).tryAcquire(now, this.coolDownInNanos)) {
+            return preferredLocation;
+        }
+
+        return otherLocation;
+    }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Records the outcome of a request.
+     * 
+     * @param location
+     *            The location the request was sent to.
+     * @param latencyInMs
+     *            The time the request took, in milliseconds.
+     * @param result
+     *            The {@link RequestResult} of the request.
+     */
+    public void onRequestCompleted(final StorageLocation location, final long latencyInMs, final RequestResult result) {
+        this.onRequestCompleted(location, latencyInMs, isFailure(result), System.nanoTime());
+    }
+
+    /**
+     * Records the outcome of a request at the specified time.
+     */
+    void onRequestCompleted(final StorageLocation location, final long latencyInMs, final boolean isFailure,
+            final long now) {
+        if (location == null) {
+            return;
+        }
+
+        final double otherLatency = this.getHealth(getOtherLocation(location)).getLatencyInMs();
+        final double slowLatency = this.latencyFactor == 0 || otherLatency == 0 ? Double.MAX_VALUE : Math.max(
+                otherLatency * this.latencyFactor, MINIMUM_SLOW_LATENCY_IN_MS);
+        this.getHealth(location).onRequestCompleted(latencyInMs, isFailure, now, this.failureThreshold,
+                this.errorRateThreshold, slowLatency);
+    }
+
+    /**
+     * Determines whether the result of a request indicates that the location is unhealthy: the request failed without
+     * a response, timed out, or got a server error.
+     */
+    static boolean isFailure(final RequestResult result) {
+        final int statusCode = result.getStatusCode();
+        return statusCode < 100 || statusCode == Constants.HeaderConstants.HTTP_UNUSED_306
+                || statusCode == HttpURLConnection.HTTP_CLIENT_TIMEOUT
+                || statusCode >= HttpURLConnection.HTTP_INTERNAL_ERROR;
+    }
+
+    private LocationHealth getHealth(final StorageLocation location) {
+        return location == StorageLocation.SECONDARY ? this.secondary : this.primary;
+    }
+
+    private static StorageLocation getOtherLocation(final StorageLocation location) {
+        return location == StorageLocation.SECONDARY ? StorageLocation.PRIMARY : StorageLocation.SECONDARY;
+    }
+
+    /**
+     * Represents the health and circuit breaker of a location.
+     */
+    static final class LocationHealth {
+
+        private CircuitState state = CircuitState.CLOSED;
+
+        private long openedTime;
+
+        private boolean isProbing;
+
+        private long probeTime;
+
+        private long requestCount;
+
+        private int consecutiveFailureCount;
+
+        private double latencyInMs;
+
+        private double errorRate;
+
+        synchronized CircuitState getState() {
+            return this.state;
+        }
+
+        synchronized double getLatencyInMs() {
+            return this.latencyInMs;
+        }
+
+        synchronized double getErrorRate() {
+            return this.errorRate;
+        }
+
+        /**
+         * Determines whether a request may be sent to the location, letting a single probe through once the cool-down
+         * period of an open circuit ends. A probe whose outcome is not recorded within another cool-down period is
+         * replaced.
+         */
+        synchronized boolean tryAcquire(final long now, final long coolDownInNanos) {
+            switch (this.state) {
+                case OPEN:
+                    if (now - this.openedTime < coolDownInNanos) {
+                        return false;
+                    }
+
+                    this.state = CircuitState.HALF_OPEN;
+                    this.isProbing = true;
+                    this.probeTime = now;
+                    return true;
+
+                case HALF_OPEN:
+                    if (this.isProbing && now - this.probeTime < coolDownInNanos) {
+                        return false;
+                    }
+
+                    this.isProbing = true;
+                    this.probeTime = now;
+                    return true;
+
+                default:
+                    return true;
+            }
+        }
+
+        synchronized void onRequestCompleted(final long latencyInMs, final boolean isFailure, final long now,
+                final int failureThreshold, final double errorRateThreshold, final double slowLatencyInMs) {
+            this.requestCount++;
+            this.consecutiveFailureCount = isFailure ? this.consecutiveFailureCount + 1 : 0;
+
+            if (this.state == CircuitState.HALF_OPEN) {
+                this.isProbing = false;
+                if (isFailure || latencyInMs >= slowLatencyInMs) {
+                    this.open(now);
+                }
+                else {
+                    // Start over from the probe, the averages describe the location before it recovered.
+                    this.state = CircuitState.CLOSED;
+                    this.latencyInMs = latencyInMs;
+                    this.errorRate = 0;
+                }
+
+                return;
+            }
+
+            if (!isFailure) {
+                this.latencyInMs = this.latencyInMs == 0 ? latencyInMs : this.latencyInMs + SMOOTHING_FACTOR
+                        * (latencyInMs - this.latencyInMs);
+            }
+
+            this.errorRate += SMOOTHING_FACTOR * ((isFailure ? 1 : 0) - this.errorRate);
+
+            final boolean isDegraded = this.requestCount >= MINIMUM_REQUEST_COUNT
+                    && (this.errorRate >= errorRateThreshold || this.latencyInMs >= slowLatencyInMs);
+            if (this.state == CircuitState.CLOSED
+                    && (this.consecutiveFailureCount >= failureThreshold || isDegraded)) {
+                this.open(now);
+            }
+        }
+
+        private void open(final long now) {
+            this.state = CircuitState.OPEN;
+            this.openedTime = now;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.microsoft.azure.storage.core.SR;
+
+/**
+ * Represents a client-side rate limiter which keeps requests under a target rate instead of relying on throttling
+ * responses from the service.
+ * <p>
+ * The limiter caps the requests and bytes per second of a service client, and the requests per second of each table
+ * partition. Requests over the rate wait for their turn before they are sent, rather than failing and spending
+ * retries. Each rate adapts to the service: a throttling response (<code>503 (Server Busy)</code>) halves it, at most
+ * once per second, and every second without throttling raises it again by a twentieth of its maximum.
+ * <p>
+ * Set a limiter on a service client with {@link ServiceClient#setRateLimiter(RateLimiter)}. Share the same limiter
+ * between clients of the same account to limit the account as a whole.
+ * <p>
+ * This class is thread safe.
+ */
+public final class RateLimiter {
+
+    /**
+     * Represents the factor a rate is multiplied by after a throttling response.
+     */
+    public static final double DECREASE_FACTOR = 0.5;
+
+    /**
+     * Represents the fraction of the maximum rate a rate is raised by per second without throttling.
+     */
+    public static final double INCREASE_FRACTION = 0.05;
+
+    /**
+     * Represents the fraction of the maximum rate below which a rate is never decreased.
+     */
+    public static final double MINIMUM_FRACTION = 0.01;
+
+    /**
+     * Holds the number of partitions whose rates are tracked.
+     */
+    private static final int PARTITION_CAPACITY = 1024;
+
+    private static final long ONE_SECOND_IN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Holds the rate of requests, or null if not limited.
+     */
+    private final Bucket requests;
+
+    /**
+     * Holds the rate of bytes, or null if not limited.
+     */
+    private final Bucket bytes;
+
+    /**
+     * Holds the maximum rate of requests per partition, or 0 if not limited.
+     */
+    private final double partitionRequestsPerSecond;
+
+    /**
+     * Holds the rates of the most recently used partitions, guarded by itself.
+     */
+    private final LinkedHashMap<String, Bucket> partitions = new LinkedHashMap<String, Bucket>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return this.size() > PARTITION_CAPACITY;
+        }
+    };
+
+    private final AtomicLong throttledResponseCount = new AtomicLong();
+
+    private final AtomicLong waitTimeInNanos = new AtomicLong();
+
+    /**
+     * Creates an instance of the <code>RateLimiter</code> class using the specified maximum rates. A rate of 0 is not
+     * limited.
+     * 
+     * @param requestsPerSecond
+     *            The maximum number of requests per second.
+     * @param bytesPerSecond
+     *            The maximum number of bytes sent and received per second.
+     * @param partitionRequestsPerSecond
+     *            The maximum number of requests per second to a single table partition.
+     */
+    public RateLimiter(final double requestsPerSecond, final long bytesPerSecond,
+            final double partitionRequestsPerSecond) {
+        assertRate("requestsPerSecond", requestsPerSecond);
+        assertRate("bytesPerSecond", bytesPerSecond);
+        assertRate("partitionRequestsPerSecond", partitionRequestsPerSecond);
+
+        this.requests = requestsPerSecond > 0 ? new Bucket(requestsPerSecond) : null;
+        this.bytes = bytesPerSecond > 0 ? new Bucket(bytesPerSecond) : null;
+        this.partitionRequestsPerSecond = partitionRequestsPerSecond;
+    }
+
+    /**
+     * Gets the current rate of requests per second.
+     * 
+     * @return the current rate, or 0 if requests are not limited.
+     */
+    public double getRequestsPerSecond() {
+        return this.requests == null ? 0 : this.requests.getRate();
+    }
+
+    /**
+     * Gets the current rate of bytes per second.
+     * 
+     * @return the current rate, or 0 if bytes are not limited.
+     */
+    public double getBytesPerSecond() {
+        return this.bytes == null ? 0 : this.bytes.getRate();
+    }
+
+    /**
+     * Gets the current rate of requests per second to a table partition.
+     * 
+     * @param partitionKey
+     *            The partition key.
+     * @return the current rate, or 0 if partitions are not limited.
+     */
+    public double getPartitionRequestsPerSecond(final String partitionKey) {
+        final Bucket partition = this.getPartition(partitionKey);
+        return partition == null ? 0 : partition.getRate();
+    }
+
+    /**
+     * Gets the number of throttling responses the limiter has reacted to.
+     * 
+     * @return the number of throttling responses.
+     */
+    public long getThrottledResponseCount() {
+        return this.throttledResponseCount.get();
+    }
+
+    /**
+     * Gets the total time requests have waited for their turn.
+     * 
+     * @return the total wait time, in milliseconds.
+     */
+    public long getWaitTimeInMs() {
+        return TimeUnit.NANOSECONDS.toMillis(this.waitTimeInNanos.get());
+    }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Waits until a request may be sent.
+     * 
+     * @param partitionKey
+     *            The table partition the request targets, or <code>null</code>.
+     */
+    public void acquire(final String partitionKey) {
+        final long now = System.nanoTime();
+        long wait = 0;
+        if (this.requests != null) {
+            wait = this.requests.reserve(1, now);
+        }
+
+        final Bucket partition = this.getPartition(partitionKey);
+        if (partition != null) {
+            wait = Math.max(wait, partition.reserve(1, now));
+        }
+
+        this.await(wait);
+    }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Waits until the body of a request may be sent.
+     * 
+     * @param length
+     *            The number of bytes the request sends.
+     */
+    public void acquireBytes(final long length) {
+        if (this.bytes != null && length > 0) {
+            this.await(this.bytes.reserve(length, System.nanoTime()));
+        }
+    }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Records the outcome of a request and adapts the rates.
+     * 
+     * @param partitionKey
+     *            The table partition the request targeted, or <code>null</code>.
+     * @param receivedLength
+     *            The number of bytes the request received, which are charged to the following requests.
+     * @param result
+     *            The {@link RequestResult} of the request.
+     */
+    public void onRequestCompleted(final String partitionKey, final long receivedLength, final RequestResult result) {
+        final long now = System.nanoTime();
+        final Bucket partition = this.getPartition(partitionKey);
+        if (this.bytes != null && receivedLength > 0) {
+            this.bytes.charge(receivedLength, now);
+        }
+
+        if (RetryAdaptive.isThrottled(result)) {
+            this.throttledResponseCount.incrementAndGet();
+            if (this.requests != null) {
+                this.requests.decrease(now);
+            }
+
+            if (this.bytes != null) {
+                this.bytes.decrease(now);
+            }
+
+            if (partition != null) {
+                partition.decrease(now);
+            }
+        }
+        else {
+            if (this.requests != null) {
+                this.requests.increase(now);
+            }
+
+            if (this.bytes != null) {
+                this.bytes.increase(now);
+            }
+
+            if (partition != null) {
+                partition.increase(now);
+            }
+        }
+    }
+
+    private void await(final long wait) {
+        if (wait > 0) {
+            this.waitTimeInNanos.addAndGet(wait);
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            catch (final InterruptedException e) {
+                // Restore the interrupted status
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Gets the rate of a partition, creating it if needed.
+     */
+    private Bucket getPartition(final String partitionKey) {
+        if (partitionKey == null || this.partitionRequestsPerSecond <= 0) {
+            return null;
+        }
+
+        synchronized (this.partitions) {
+            Bucket partition = this.partitions.get(partitionKey);
+            if (partition == null) {
+                partition = new Bucket(this.partitionRequestsPerSecond);
+                this.partitions.put(partitionKey, partition);
+            }
+
+            return partition;
+        }
+    }
+
+    private static void assertRate(final String name, final double rate) {
+        if (rate < 0 || Double.isNaN(rate) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException(String.format(SR.ARGUMENT_OUT_OF_RANGE_ERROR, name, rate));
+        }
+    }
+
+    /**
+     * Schedules permits at an adaptive rate. Up to a second's worth of unused permits may be used in a burst.
+     */
+    static final class Bucket {
+
+        private final double maxRate;
+
+        private final double minRate;
+
+        /**
+         * Holds the current rate, in permits per second.
+         */
+        private double rate;
+
+        /**
+         * Holds the time at which all the permits reserved so far would have been used at the current rate.
+         */
+        private long theoreticalArrivalTime = Long.MIN_VALUE;
+
+        /**
+         * Holds the time the rate was last changed.
+         */
+        private long lastAdjustmentTime;
+
+        Bucket(final double maxRate) {
+            this.maxRate = maxRate;
+            this.minRate = maxRate * MINIMUM_FRACTION;
+            this.rate = maxRate;
+            this.lastAdjustmentTime = System.nanoTime();
+        }
+
+        synchronized double getRate() {
+            return this.rate;
+        }
+
+        /**
+         * Reserves permits and returns how long to wait before using them, in nanoseconds.
+         */
+        synchronized long reserve(final double permits, final long now) {
+            final long start = this.theoreticalArrivalTime == Long.MIN_VALUE ? now : Math.max(
+                    this.theoreticalArrivalTime, now);
+            this.theoreticalArrivalTime = start + (long) (permits * ONE_SECOND_IN_NANOS / this.rate);
+            return Math.max(0, this.theoreticalArrivalTime - ONE_SECOND_IN_NANOS - now);
+        }
+
+        /**
+         * Charges permits which have already been used.
+         */
+        synchronized void charge(final double permits, final long now) {
+            this.reserve(permits, now);
+        }
+
+        synchronized void decrease(final long now) {
+            if (now - this.lastAdjustmentTime >= ONE_SECOND_IN_NANOS || this.rate == this.maxRate) {
+                this.rate = Math.max(this.minRate, this.rate * DECREASE_FACTOR);
+                this.lastAdjustmentTime = now;
+            }
+        }
+
+        synchronized void increase(final long now) {
+            final long elapsed = now - this.lastAdjustmentTime;
+            if (elapsed >= ONE_SECOND_IN_NANOS && this.rate < this.maxRate) {
+                this.rate = Math.min(this.maxRate, this.rate + this.maxRate * INCREASE_FRACTION * elapsed
+                        / ONE_SECOND_IN_NANOS);
+                this.lastAdjustmentTime = now;
+            }
+        }
+    }
+}
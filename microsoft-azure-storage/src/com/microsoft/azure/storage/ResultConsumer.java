@@ -0,0 +1,39 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+/**
+ * An interface which receives the results of a streaming listing operation. Each result is passed to the consumer as
+ * soon as it has been parsed from the service response, so a listing of any size can be processed without holding
+ * a full result segment in memory.
+ * <p>
+ * Results are delivered on the thread which started the listing. If a request is retried after some of its results
+ * were delivered, those results are skipped rather than delivered again. An exception thrown by the consumer ends
+ * the listing and is reported as the cause of a {@link StorageException}.
+ * 
+ * @param <T>
+ *            The type of the results.
+ */
+public interface ResultConsumer<T> {
+    /**
+     * Accepts the next result of the listing.
+     * 
+     * @param result
+     *            The result.
+     * @return <code>true</code> to continue the listing; <code>false</code> to stop it without requesting or
+     *         delivering any further results.
+     */
+    boolean accept(T result);
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import java.net.HttpURLConnection;
+import java.util.Random;
+
+import com.microsoft.azure.storage.core.LogConstants;
+import com.microsoft.azure.storage.core.Logger;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * Represents a retry policy that bounds retries with a {@link RetryBudget} shared by every operation created from the
+ * same factory, and uses decorrelated jitter to determine the interval between retries.
+ * <p>
+ * Each interval is drawn uniformly between the minimum backoff and three times the previous interval, capped at the
+ * maximum backoff, so that concurrent operations spread their retries instead of retrying in lock step. After a
+ * throttling response (<code>503 (Server Busy)</code>), the interval does not shrink and the retry costs more of the
+ * budget. Once the budget is exhausted, failed operations are not retried until it refills.
+ * <p>
+ * Set an instance as the retry policy factory of a service client's default request options to share its budget
+ * across all the operations of that client.
+ * 
+ * This class extends the {@link RetryPolicy} class and implements the {@link RetryPolicyFactory} interface.
+ */
+public final class RetryAdaptive extends RetryPolicy implements RetryPolicyFactory {
+
+    /**
+     * Represents the number of budget tokens withdrawn by a retry.
+     */
+    public static final double RETRY_COST = 1;
+
+    /**
+     * Represents the number of budget tokens withdrawn by a retry after a throttling response.
+     */
+    public static final double THROTTLED_RETRY_COST = 2;
+
+    /**
+     * Holds the budget shared by the operations created from the same factory.
+     */
+    private final RetryBudget budget;
+
+    /**
+     * Holds the random number generator shared by the operations created from the same factory.
+     */
+    private final Random randRef;
+
+    /**
+     * Holds the minimum backoff interval to enforce.
+     */
+    private final int resolvedMinBackoff;
+
+    /**
+     * Holds the maximum backoff interval to enforce.
+     */
+    private final int resolvedMaxBackoff;
+
+    /**
+     * Holds the previous backoff interval of this operation.
+     */
+    private long previousInterval;
+
+    /**
+     * Creates an instance of the <code>RetryAdaptive</code> class with a new budget.
+     */
+    public RetryAdaptive() {
+        this(RetryPolicy.DEFAULT_MIN_BACKOFF, RetryPolicy.DEFAULT_MAX_BACKOFF,
+                RetryPolicy.DEFAULT_CLIENT_RETRY_COUNT, new RetryBudget());
+    }
+
+    /**
+     * Creates an instance of the <code>RetryAdaptive</code> class using the specified minimum and maximum backoff,
+     * maximum number of retry attempts and budget.
+     * 
+     * @param minBackoff
+     *            The minimum backoff interval, in milliseconds, between retries.
+     * @param maxBackoff
+     *            The maximum backoff interval, in milliseconds, between retries.
+     * @param maxAttempts
+     *            The maximum number of retry attempts.
+     * @param budget
+     *            The {@link RetryBudget} bounding the retries of all the operations using this factory.
+     */
+    public RetryAdaptive(final int minBackoff, final int maxBackoff, final int maxAttempts, final RetryBudget budget) {
+        this(minBackoff, maxBackoff, maxAttempts, budget, new Random());
+    }
+
+    /**
+     * Creates an instance of the <code>RetryAdaptive</code> class sharing the specified budget and random number
+     * generator.
+     */
+    private RetryAdaptive(final int minBackoff, final int maxBackoff, final int maxAttempts,
+            final RetryBudget budget, final Random random) {
+        super(minBackoff, maxAttempts);
+        Utility.assertNotNull("budget", budget);
+        Utility.assertGreaterThanOrEqual("minBackoff", minBackoff, 0);
+        Utility.assertGreaterThanOrEqual("maxBackoff", maxBackoff, minBackoff);
+
+        this.resolvedMinBackoff = minBackoff;
+        this.resolvedMaxBackoff = maxBackoff;
+        this.budget = budget;
+        this.randRef = random;
+        this.previousInterval = minBackoff;
+    }
+
+    /**
+     * Gets the budget shared by the operations created from this factory.
+     * 
+     * @return A {@link RetryBudget} object.
+     */
+    public RetryBudget getBudget() {
+        return this.budget;
+    }
+
+    /**
+     * Generates a new retry policy for the current request attempt, sharing the budget of this factory.
+     * 
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * 
+     * @return A {@link RetryPolicy} object that represents the retry policy for the current request attempt.
+     */
+    @Override
+    public RetryPolicy createInstance(final OperationContext opContext) {
+        this.budget.onOperationStarted();
+        return new RetryAdaptive(this.resolvedMinBackoff, this.resolvedMaxBackoff, this.maximumAttempts,
+                this.budget, this.randRef);
+    }
+
+    /**
+     * Determines whether the operation should be retried and specifies the interval until the next retry.
+     * 
+     * @param retryContext
+     *            A {@link RetryContext} object that indicates the number of retries, last request's results, whether
+     *            the next retry should happen in the primary or secondary location, and specifies the location mode.
+     * @param operationContext
+     *            An {@link OperationContext} object for tracking the current operation.
+     * @return
+     *         A {@link RetryInfo} object that indicates whether the next retry will happen in the primary or secondary
+     *         location, and specifies the location mode. If <code>null</code>, the operation will not be retried.
+     */
+    @Override
+    public RetryInfo evaluate(RetryContext retryContext, OperationContext operationContext) {
+
+        boolean secondaryNotFound = this.evaluateLastAttemptAndSecondaryNotFound(retryContext);
+
+        final boolean isThrottled = isThrottled(retryContext.getLastRequestResult());
+        if (isThrottled) {
+            this.budget.onThrottled();
+        }
+
+        if (retryContext.getCurrentRetryCount() < this.maximumAttempts) {
+
+            // If this method is called after a successful response, it means
+            // we failed during the response body download. So, we should not
+            // check for success codes here.
+            int statusCode = retryContext.getLastRequestResult().getStatusCode();
+            if ((!secondaryNotFound && statusCode >= 300 && statusCode < 500 && statusCode != 408)
+                    || statusCode == HttpURLConnection.HTTP_NOT_IMPLEMENTED
+                    || statusCode == HttpURLConnection.HTTP_VERSION) {
+                return null;
+            }
+
+            if (!this.budget.tryAcquireRetry(isThrottled ? THROTTLED_RETRY_COST : RETRY_COST)) {
+                Logger.warn(operationContext, LogConstants.RETRY_BUDGET_EXHAUSTED, this.budget);
+                return null;
+            }
+
+            final long retryInterval = this.nextInterval(isThrottled);
+            return this.evaluateRetryInfo(retryContext, secondaryNotFound, retryInterval);
+        }
+
+        return null;
+    }
+
+    /**
+     * Draws the next backoff interval using decorrelated jitter. After throttling, the interval does not shrink.
+     */
+    long nextInterval(final boolean isThrottled) {
+        final long lowerBound = isThrottled ? this.previousInterval : this.resolvedMinBackoff;
+        final long upperBound = Math.max(lowerBound, Math.min(this.previousInterval * 3, this.resolvedMaxBackoff));
+        final long interval = Math.min(this.resolvedMaxBackoff,
+                lowerBound + (long) (this.randRef.nextDouble() * (upperBound - lowerBound)));
+        this.previousInterval = Math.max(interval, 1);
+        return interval;
+    }
+
+    /**
+     * Determines whether a request failed because the service is throttling the account or partition.
+     */
+    static boolean isThrottled(final RequestResult result) {
+        if (result.getStatusCode() == HttpURLConnection.HTTP_UNAVAILABLE) {
+            return true;
+        }
+
+        return result.getException() instanceof StorageException
+                && StorageErrorCodeStrings.SERVER_BUSY.equals(((StorageException) result.getException())
+                        .getErrorCode());
+    }
+}
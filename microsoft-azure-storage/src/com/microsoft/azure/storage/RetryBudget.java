@@ -0,0 +1,236 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.microsoft.azure.storage.core.SR;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * Represents a token bucket which limits the number of retries across all the operations sharing it.
+ * <p>
+ * Each operation deposits a fraction of a token when it starts, and each retry withdraws one token, or more for a
+ * retry after throttling. The bucket also refills at a fixed rate so that a client with little traffic can still
+ * retry. When the bucket is empty, failed operations are not retried, which keeps retries from multiplying the load
+ * on a service which is already overloaded.
+ * <p>
+ * A budget is shared by every operation using the same {@link RetryAdaptive} factory, for example all the operations
+ * of a service client whose default request options use it. Pass the same budget to several factories to share it
+ * across service clients.
+ * <p>
+ * This class is thread safe.
+ */
+public final class RetryBudget {
+
+    /**
+     * Represents the default maximum number of tokens held.
+     */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    /**
+     * Represents the default number of tokens deposited per operation, which allows one retry every ten operations.
+     */
+    public static final double DEFAULT_DEPOSIT_PER_OPERATION = 0.1;
+
+    /**
+     * Represents the default number of tokens added per second regardless of traffic.
+     */
+    public static final double DEFAULT_REFILL_PER_SECOND = 1;
+
+    /**
+     * Holds the maximum number of tokens.
+     */
+    private final double capacity;
+
+    /**
+     * Holds the number of tokens deposited per operation.
+     */
+    private final double depositPerOperation;
+
+    /**
+     * Holds the number of tokens added per millisecond.
+     */
+    private final double refillPerMs;
+
+    /**
+     * Holds the number of tokens available, guarded by this.
+     */
+    private double tokens;
+
+    /**
+     * Holds the time of the last refill, guarded by this.
+     */
+    private long lastRefillTime;
+
+    private final AtomicLong operationCount = new AtomicLong();
+
+    private final AtomicLong retriesGranted = new AtomicLong();
+
+    private final AtomicLong retriesDenied = new AtomicLong();
+
+    private final AtomicLong throttledResponseCount = new AtomicLong();
+
+    /**
+     * Creates an instance of the <code>RetryBudget</code> class using the default capacity, deposit and refill rate.
+     */
+    public RetryBudget() {
+        this(DEFAULT_CAPACITY, DEFAULT_DEPOSIT_PER_OPERATION, DEFAULT_REFILL_PER_SECOND);
+    }
+
+    /**
+     * Creates an instance of the <code>RetryBudget</code> class using the specified capacity, deposit and refill
+     * rate. The bucket starts full.
+     * 
+     * @param capacity
+     *            The maximum number of tokens held, which bounds the size of a burst of retries.
+     * @param depositPerOperation
+     *            The number of tokens deposited when an operation starts.
+     * @param refillPerSecond
+     *            The number of tokens added per second regardless of traffic.
+     */
+    public RetryBudget(final int capacity, final double depositPerOperation, final double refillPerSecond) {
+        Utility.assertGreaterThanOrEqual("capacity", capacity, 1);
+        if (depositPerOperation < 0 || Double.isNaN(depositPerOperation)) {
+            throw new IllegalArgumentException(String.format(SR.ARGUMENT_OUT_OF_RANGE_ERROR, "depositPerOperation",
+                    depositPerOperation));
+        }
+
+        if (refillPerSecond < 0 || Double.isNaN(refillPerSecond)) {
+            throw new IllegalArgumentException(String.format(SR.ARGUMENT_OUT_OF_RANGE_ERROR, "refillPerSecond",
+                    refillPerSecond));
+        }
+
+        this.capacity = capacity;
+        this.depositPerOperation = depositPerOperation;
+        this.refillPerMs = refillPerSecond / 1000;
+        this.tokens = capacity;
+        this.lastRefillTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the number of tokens currently available.
+     * 
+     * @return the number of tokens available.
+     */
+    public synchronized double getAvailableTokens() {
+        this.refill();
+        return this.tokens;
+    }
+
+    /**
+     * Gets the maximum number of tokens held.
+     * 
+     * @return the capacity of the bucket.
+     */
+    public int getCapacity() {
+        return (int) this.capacity;
+    }
+
+    /**
+     * Gets the number of operations which have started using this budget.
+     * 
+     * @return the number of operations.
+     */
+    public long getOperationCount() {
+        return this.operationCount.get();
+    }
+
+    /**
+     * Gets the number of retries this budget has allowed.
+     * 
+     * @return the number of retries granted.
+     */
+    public long getRetriesGranted() {
+        return this.retriesGranted.get();
+    }
+
+    /**
+     * Gets the number of retries this budget has refused because it was exhausted.
+     * 
+     * @return the number of retries denied.
+     */
+    public long getRetriesDenied() {
+        return this.retriesDenied.get();
+    }
+
+    /**
+     * Gets the number of throttling responses, such as <code>503 (Server Busy)</code>, seen by operations using this
+     * budget.
+     * 
+     * @return the number of throttling responses.
+     */
+    public long getThrottledResponseCount() {
+        return this.throttledResponseCount.get();
+    }
+
+    /**
+     * Deposits the share of an operation which is starting.
+     */
+    synchronized void onOperationStarted() {
+        this.operationCount.incrementAndGet();
+        this.refill();
+        this.tokens = Math.min(this.capacity, this.tokens + this.depositPerOperation);
+    }
+
+    /**
+     * Records a throttling response.
+     */
+    void onThrottled() {
+        this.throttledResponseCount.incrementAndGet();
+    }
+
+    /**
+     * Withdraws the cost of a retry if enough tokens are available.
+     * 
+     * @param cost
+     *            the number of tokens the retry costs.
+     * @return <code>true</code> if the retry is allowed; otherwise, <code>false</code>.
+     */
+    synchronized boolean tryAcquireRetry(final double cost) {
+        this.refill();
+        if (this.tokens >= cost) {
+            this.tokens -= cost;
+            this.retriesGranted.incrementAndGet();
+            return true;
+        }
+
+        this.retriesDenied.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Adds the tokens accrued since the last refill. Must be called while holding the lock.
+     */
+    private void refill() {
+        final long now = System.currentTimeMillis();
+        if (now > this.lastRefillTime) {
+            this.tokens = Math.min(this.capacity, this.tokens + (now - this.lastRefillTime) * this.refillPerMs);
+        }
+
+        this.lastRefillTime = now;
+    }
+
+    /**
+     * Returns a string describing the state of the budget.
+     */
+    @Override
+    public String toString() {
+        return String.format(Utility.LOCALE_US,
+                "Tokens = %.2f/%d, Operations = %d, RetriesGranted = %d, RetriesDenied = %d, Throttled = %d",
+                this.getAvailableTokens(), this.getCapacity(), this.getOperationCount(), this.getRetriesGranted(),
+                this.getRetriesDenied(), this.getThrottledResponseCount());
+    }
+}
@@ -46,6 +46,26 @@ public abstract class ServiceClient {
      */
     private boolean usePathStyleUris;
 
+    /**
+     * Holds the rate limiter applied to the requests of this client, or null.
+     */
+    private volatile RateLimiter rateLimiter;
+
+    /**
+     * Holds the policy hedging the reads of this client, or null.
+     */
+    private volatile HedgedReadPolicy hedgedReadPolicy;
+
+    /**
+     * Holds the tracker of the health of the locations of this client, or null.
+     */
+    private volatile LocationHealthTracker locationHealthTracker;
+
+    /**
+     * Holds the cache of the shared access signatures generated by this client, or null.
+     */
+    private volatile SharedAccessSignatureCache sharedAccessSignatureCache;
+
     /**
      * Creates an instance of the <code>ServiceClient</code> class using the specified service endpoint and account
      * credentials.
@@ -187,6 +207,43 @@ public abstract class ServiceClient {
         return this.storageUri;
     }
 
+    /**
+     * Returns the policy hedging the reads of this service client.
+     * 
+     * @return A {@link HedgedReadPolicy} object, or <code>null</code> if reads are not hedged.
+     */
+    public final HedgedReadPolicy getHedgedReadPolicy() {
+        return this.hedgedReadPolicy;
+    }
+
+    /**
+     * Returns the tracker of the health of the locations of this service client.
+     * 
+     * @return A {@link LocationHealthTracker} object, or <code>null</code> if the health of the locations is not
+     *         tracked.
+     */
+    public final LocationHealthTracker getLocationHealthTracker() {
+        return this.locationHealthTracker;
+    }
+
+    /**
+     * Returns the rate limiter applied to the requests of this service client.
+     * 
+     * @return A {@link RateLimiter} object, or <code>null</code> if requests are not rate limited.
+     */
+    public final RateLimiter getRateLimiter() {
+        return this.rateLimiter;
+    }
+
+    /**
+     * Returns the cache of the shared access signatures generated by this service client.
+     * 
+     * @return A {@link SharedAccessSignatureCache} object, or <code>null</code> if signatures are not cached.
+     */
+    public final SharedAccessSignatureCache getSharedAccessSignatureCache() {
+        return this.sharedAccessSignatureCache;
+    }
+
     /**
      * @return <code>true</code> if path-style URIs are used; otherwise, <code>false</code>.
      */
@@ -205,6 +262,51 @@ public abstract class ServiceClient {
         this.credentials = credentials;
     }
 
+    /**
+     * Sets the policy hedging the reads of this service client. Reads which may be served from either location are
+     * sent to the other location as well when the first one is slow to answer.
+     * 
+     * @param hedgedReadPolicy
+     *            A {@link HedgedReadPolicy} object, or <code>null</code> to not hedge reads.
+     */
+    public final void setHedgedReadPolicy(final HedgedReadPolicy hedgedReadPolicy) {
+        this.hedgedReadPolicy = hedgedReadPolicy;
+    }
+
+    /**
+     * Sets the tracker of the health of the locations of this service client. Operations which may be served from
+     * either location start on the other location while the location they would start on is unhealthy.
+     * 
+     * @param locationHealthTracker
+     *            A {@link LocationHealthTracker} object, or <code>null</code> to not track the health of the
+     *            locations.
+     */
+    public final void setLocationHealthTracker(final LocationHealthTracker locationHealthTracker) {
+        this.locationHealthTracker = locationHealthTracker;
+    }
+
+    /**
+     * Sets the rate limiter applied to the requests of this service client. Requests wait before being sent to keep
+     * under the limiter's rates.
+     * 
+     * @param rateLimiter
+     *            A {@link RateLimiter} object, or <code>null</code> to not rate limit requests.
+     */
+    public final void setRateLimiter(final RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Sets the cache of the shared access signatures generated by this service client and its blobs, files,
+     * containers, shares, queues and tables.
+     * 
+     * @param sharedAccessSignatureCache
+     *            A {@link SharedAccessSignatureCache} object, or <code>null</code> to not cache signatures.
+     */
+    public final void setSharedAccessSignatureCache(final SharedAccessSignatureCache sharedAccessSignatureCache) {
+        this.sharedAccessSignatureCache = sharedAccessSignatureCache;
+    }
+
     /**
      * Sets the list of URIs for all locations.
      * 
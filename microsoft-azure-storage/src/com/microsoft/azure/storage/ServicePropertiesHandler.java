@@ -23,7 +23,6 @@ import java.util.Stack;
 import java.util.StringTokenizer;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -56,9 +55,8 @@ final class ServicePropertiesHandler extends DefaultHandler {
      */
     public static ServiceProperties readServicePropertiesFromStream(final InputStream stream) throws SAXException,
             IOException, ParserConfigurationException {
-        SAXParser saxParser = Utility.getSAXParser();
         ServicePropertiesHandler handler = new ServicePropertiesHandler();
-        saxParser.parse(stream, handler);
+        Utility.parseXml(stream, handler);
 
         return handler.props;
     }
@@ -20,7 +20,6 @@ import java.text.ParseException;
 import java.util.Stack;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -68,9 +67,8 @@ final class ServiceStatsHandler extends DefaultHandler {
      */
     public static ServiceStats readServiceStatsFromStream(final InputStream inStream)
             throws ParserConfigurationException, SAXException, IOException {
-        SAXParser saxParser = Utility.getSAXParser();
         ServiceStatsHandler handler = new ServiceStatsHandler();
-        saxParser.parse(inStream, handler);
+        Utility.parseXml(inStream, handler);
 
         return handler.stats;
     }
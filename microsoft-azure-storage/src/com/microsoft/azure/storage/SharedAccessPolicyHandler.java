@@ -21,7 +21,6 @@ import java.util.HashMap;
 import java.util.Stack;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -64,9 +63,8 @@ public class SharedAccessPolicyHandler<T extends SharedAccessPolicy> extends Def
      */
     public static <T extends SharedAccessPolicy> HashMap<String, T> getAccessIdentifiers(final InputStream stream,
             final Class<T> cls) throws ParserConfigurationException, SAXException, IOException {
-        SAXParser saxParser = Utility.getSAXParser();
         SharedAccessPolicyHandler<T> handler = new SharedAccessPolicyHandler<T>(cls);
-        saxParser.parse(stream, handler);
+        Utility.parseXml(stream, handler);
 
         return handler.policies;
     }
@@ -0,0 +1,216 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import java.security.InvalidKeyException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.microsoft.azure.storage.core.StorageCredentialsHelper;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * Represents a cache of shared access signature hashes, which avoids recomputing the signature of a shared access
+ * signature generated again for the same resource and policy.
+ * <p>
+ * Signatures are cached by their string-to-sign, which covers the resource, the permissions, the start and expiry
+ * times and every other signed field, so a cached signature is identical to a newly computed one. Generating many
+ * signatures for the same resources is most effective when the start and expiry times of the policies are aligned to
+ * a common interval, for example to the minute. Cached signatures are evicted once their expiry time has passed, or
+ * when the cache exceeds its capacity. Signatures computed with a key which has since been updated are not used.
+ * <p>
+ * Set a cache on a service client with
+ * {@link ServiceClient#setSharedAccessSignatureCache(SharedAccessSignatureCache)}; the same cache can be shared by
+ * several clients.
+ * <p>
+ * This class is thread safe.
+ */
+public final class SharedAccessSignatureCache {
+
+    /**
+     * Represents the default maximum number of cached signatures.
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private final int capacity;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    /**
+     * Indicates whether a thread is evicting entries.
+     */
+    private final AtomicBoolean isEvicting = new AtomicBoolean();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Creates an instance of the <code>SharedAccessSignatureCache</code> class using the default capacity.
+     */
+    public SharedAccessSignatureCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an instance of the <code>SharedAccessSignatureCache</code> class using the specified capacity.
+     * 
+     * @param capacity
+     *            The maximum number of cached signatures.
+     */
+    public SharedAccessSignatureCache(final int capacity) {
+        Utility.assertGreaterThanOrEqual("capacity", capacity, 1);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the maximum number of cached signatures.
+     * 
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Gets the number of cached signatures.
+     * 
+     * @return the number of cached signatures.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Gets the number of signatures found in the cache.
+     * 
+     * @return the number of hits.
+     */
+    public long getHitCount() {
+        return this.hitCount.get();
+    }
+
+    /**
+     * Gets the number of signatures computed because they were not in the cache.
+     * 
+     * @return the number of misses.
+     */
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+
+    /**
+     * Removes all the cached signatures.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Gets the signature of the specified string, computing and caching it if needed.
+     * 
+     * @param creds
+     *            The {@link StorageCredentials} to sign with.
+     * @param stringToSign
+     *            The string to sign.
+     * @param expiryTime
+     *            The expiry time of the shared access signature, or <code>null</code> if it is not known.
+     * @return the signature.
+     * 
+     * @throws InvalidKeyException
+     *             If the key is not a valid storage key.
+     */
+    public String getSignature(final StorageCredentials creds, final String stringToSign, final Date expiryTime)
+            throws InvalidKeyException {
+        return this.getSignature(creds, stringToSign, expiryTime, System.currentTimeMillis());
+    }
+
+    /**
+     * Gets the signature of the specified string at the specified time.
+     */
+    String getSignature(final StorageCredentials creds, final String stringToSign, final Date expiryTime,
+            final long now) throws InvalidKeyException {
+        if (!(creds instanceof StorageCredentialsAccountAndKey)) {
+            return StorageCredentialsHelper.computeHmac256(creds, stringToSign);
+        }
+
+        final Object keyIdentity = ((StorageCredentialsAccountAndKey) creds).getKeyIdentity();
+        final Entry entry = this.entries.get(stringToSign);
+        if (entry != null && entry.keyIdentity == keyIdentity) {
+            this.hitCount.incrementAndGet();
+            return entry.signature;
+        }
+
+        this.missCount.incrementAndGet();
+        final String signature = StorageCredentialsHelper.computeHmac256(creds, stringToSign);
+        this.entries.put(stringToSign, new Entry(keyIdentity, signature, expiryTime == null ? Long.MAX_VALUE
+                : expiryTime.getTime()));
+
+        if (this.entries.size() > this.capacity) {
+            this.evict(now);
+        }
+
+        return signature;
+    }
+
+    /**
+     * Removes the expired signatures, and then as many others as needed to get back under three quarters of the
+     * capacity.
+     */
+    private void evict(final long now) {
+        if (!this.isEvicting.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            for (final Iterator<Entry> iterator = this.entries.values().iterator(); iterator.hasNext();) {
+                if (iterator.next().expiryTime <= now) {
+                    iterator.remove();
+                }
+            }
+
+            final int targetSize = this.capacity / 4 * 3;
+            for (final Iterator<Map.Entry<String, Entry>> iterator = this.entries.entrySet().iterator(); iterator
+                    .hasNext() && this.entries.size() > targetSize;) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        finally {
+            this.isEvicting.set(false);
+        }
+    }
+
+    /**
+     * Represents a cached signature.
+     */
+    private static final class Entry {
+        final Object keyIdentity;
+
+        final String signature;
+
+        final long expiryTime;
+
+        Entry(final Object keyIdentity, final String signature, final long expiryTime) {
+            this.keyIdentity = keyIdentity;
+            this.signature = signature;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
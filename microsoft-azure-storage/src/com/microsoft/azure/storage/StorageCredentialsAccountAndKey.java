@@ -17,6 +17,7 @@ package com.microsoft.azure.storage;
 import java.net.URI;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
@@ -46,6 +47,11 @@ public final class StorageCredentialsAccountAndKey extends StorageCredentials {
      */
     private byte[] key;
 
+    /**
+     * Stores the HmacSha256 Macs initialized with the key which are not in use. Replaced when the key changes.
+     */
+    private volatile ConcurrentLinkedQueue<Mac> idleHmacs = new ConcurrentLinkedQueue<Mac>();
+
     /**
      * Creates an instance of the <code>StorageCredentialsAccountAndKey</code> class, using the specified storage
      * account name and access key; the specified access key is in the form of a byte array.
@@ -143,6 +149,7 @@ public final class StorageCredentialsAccountAndKey extends StorageCredentials {
 
         this.key = key;
         this.hmacSha256 = null;
+        this.idleHmacs = new ConcurrentLinkedQueue<Mac>();
     }
 
     /**
@@ -191,4 +198,46 @@ public final class StorageCredentialsAccountAndKey extends StorageCredentials {
         }
         return this.hmacSha256;
     }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Computes the HmacSha256 of the specified data with the account key. Unlike the
+     * <code>Mac</code> returned by {@link #getHmac256()}, this method may be called by several threads at once.
+     * 
+     * @param data
+     *            The data to sign.
+     * @return The HmacSha256 of the data.
+     * 
+     * @throws InvalidKeyException
+     *             If the key is not a valid storage key.
+     */
+    public byte[] computeHmac256(final byte[] data) throws InvalidKeyException {
+        final ConcurrentLinkedQueue<Mac> hmacs = this.idleHmacs;
+        Mac hmac = hmacs.poll();
+        if (hmac == null) {
+            try {
+                hmac = Mac.getInstance("HmacSHA256");
+            }
+            catch (final NoSuchAlgorithmException e) {
+                throw new IllegalArgumentException();
+            }
+
+            hmac.init(new SecretKeySpec(this.key, "HmacSHA256"));
+        }
+
+        try {
+            return hmac.doFinal(data);
+        }
+        finally {
+            hmacs.offer(hmac);
+        }
+    }
+
+    /**
+     * Gets an object which identifies the current key, and changes whenever the key is updated.
+     * 
+     * @return the identity of the key.
+     */
+    Object getKeyIdentity() {
+        return this.idleHmacs;
+    }
 }
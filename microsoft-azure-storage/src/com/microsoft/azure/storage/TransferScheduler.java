@@ -0,0 +1,399 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * Represents a scheduler which runs the uploads of all the output streams of a service client on a shared set of
+ * threads.
+ * <p>
+ * Each stream opens a {@link Session} and submits its block, page, append block or range uploads to it. The scheduler
+ * starts the pending work of the sessions in turn, so a stream with many buffered writes cannot starve the others,
+ * while no session runs more tasks at once than its own concurrency. The total number of bytes being uploaded at once
+ * is capped; a task larger than the cap only runs when nothing else is in flight. A task which does not fit reserves
+ * the capacity it needs: other tasks only start while they leave room for it, so smaller tasks cannot keep starting
+ * ahead of it.
+ * <p>
+ * A task's bytes are released before its <code>Future</code> completes, so a caller woken by the future no longer
+ * sees them in flight.
+ * <p>
+ * Threads are created on demand and stop after being idle for ten seconds, so an idle scheduler holds no threads.
+ * <p>
+ * This class is thread safe.
+ */
+public class TransferScheduler {
+
+    /**
+     * Represents the default maximum number of threads.
+     */
+    public static final int DEFAULT_THREAD_COUNT = 16;
+
+    /**
+     * Represents the default maximum number of bytes uploaded at once, 256 MB.
+     */
+    public static final long DEFAULT_MAXIMUM_IN_FLIGHT_BYTES = 256 * Constants.MB;
+
+    /**
+     * Holds the maximum number of tasks running at once.
+     */
+    private final int threadCount;
+
+    /**
+     * Holds the maximum number of bytes uploaded at once.
+     */
+    private final long maximumInFlightBytes;
+
+    /**
+     * Holds the threads running the tasks.
+     */
+    private final ThreadPoolExecutor threadExecutor;
+
+    /**
+     * Holds the sessions with pending tasks in the order they are served, guarded by this.
+     */
+    private final LinkedList<Session> readySessions = new LinkedList<Session>();
+
+    /**
+     * Holds the number of tasks running, guarded by this.
+     */
+    private int runningCount;
+
+    /**
+     * Holds the number of bytes of the tasks running, guarded by this.
+     */
+    private long inFlightBytes;
+
+    /**
+     * Creates an instance of the <code>TransferScheduler</code> class using the default thread count and in-flight
+     * bytes cap.
+     */
+    public TransferScheduler() {
+        this(DEFAULT_THREAD_COUNT, DEFAULT_MAXIMUM_IN_FLIGHT_BYTES);
+    }
+
+    /**
+     * Creates an instance of the <code>TransferScheduler</code> class using the specified thread count and in-flight
+     * bytes cap.
+     * 
+     * @param threadCount
+     *            The maximum number of uploads running at once across all streams.
+     * @param maximumInFlightBytes
+     *            The maximum number of bytes uploaded at once across all streams.
+     */
+    public TransferScheduler(final int threadCount, final long maximumInFlightBytes) {
+        Utility.assertGreaterThanOrEqual("threadCount", threadCount, 1);
+        Utility.assertGreaterThanOrEqual("maximumInFlightBytes", maximumInFlightBytes, 1);
+
+        this.threadCount = threadCount;
+        this.maximumInFlightBytes = maximumInFlightBytes;
+        this.threadExecutor = new ThreadPoolExecutor(threadCount, threadCount, 10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        final Thread thread = new Thread(r, "azure-storage-transfer");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        this.threadExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Gets the maximum number of uploads running at once.
+     * 
+     * @return the thread count.
+     */
+    public int getThreadCount() {
+        return this.threadCount;
+    }
+
+    /**
+     * Gets the maximum number of bytes uploaded at once.
+     * 
+     * @return the in-flight bytes cap.
+     */
+    public long getMaximumInFlightBytes() {
+        return this.maximumInFlightBytes;
+    }
+
+    /**
+     * Gets the number of bytes currently being uploaded.
+     * 
+     * @return the in-flight bytes.
+     */
+    public synchronized long getInFlightBytes() {
+        return this.inFlightBytes;
+    }
+
+    /**
+     * Gets the number of uploads currently running.
+     * 
+     * @return the number of running tasks.
+     */
+    public synchronized int getRunningCount() {
+        return this.runningCount;
+    }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Opens a session for a stream.
+     * 
+     * @param concurrentRequestCount
+     *            The maximum number of tasks of the session running at once.
+     * @return A {@link Session} object.
+     */
+    public Session openSession(final int concurrentRequestCount) {
+        Utility.assertGreaterThanOrEqual("concurrentRequestCount", concurrentRequestCount, 1);
+        return new Session(concurrentRequestCount);
+    }
+
+    /**
+     * Starts as many pending tasks as the thread count, the sessions' concurrency and the in-flight bytes cap allow,
+     * taking one task from each session in turn. The first task which does not fit under the cap reserves its bytes, so
+     * the tasks after it only start if they leave room for it. Must be called while holding the lock.
+     */
+    private void dispatch() {
+        while (this.runningCount < this.threadCount && !this.readySessions.isEmpty()) {
+            Task task = null;
+            Task reserved = null;
+            for (int i = 0; i < this.readySessions.size(); i++) {
+                final Session session = this.readySessions.get(i);
+                if (session.runningCount >= session.concurrentRequestCount) {
+                    continue;
+                }
+
+                final Task next = session.pendingTasks.peek();
+                final long requiredBytes = reserved == null ? next.length : reserved.length + next.length;
+                if (this.inFlightBytes + requiredBytes <= this.maximumInFlightBytes
+                        || (reserved == null && this.runningCount == 0)) {
+                    task = session.pendingTasks.poll();
+                    this.readySessions.remove(i);
+                    if (!session.pendingTasks.isEmpty()) {
+                        this.readySessions.addLast(session);
+                    }
+
+                    break;
+                }
+
+                if (reserved == null) {
+                    reserved = next;
+                }
+            }
+
+            if (task == null) {
+                return;
+            }
+
+            task.session.runningCount++;
+            this.runningCount++;
+            this.inFlightBytes += task.length;
+            this.threadExecutor.execute(task);
+        }
+    }
+
+    /**
+     * Releases the resources of a task which has completed.
+     */
+    private synchronized void onTaskCompleted(final Task task) {
+        task.session.runningCount--;
+        task.session.outstandingCount--;
+        this.runningCount--;
+        this.inFlightBytes -= task.length;
+        this.dispatch();
+        this.notifyAll();
+    }
+
+    /**
+     * A task of a session.
+     */
+    private final class Task extends FutureTask<Void> {
+
+        private final Session session;
+
+        private final long length;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Task(final Session session, final Callable<Void> callable, final long length) {
+            this(session, new ReleasingCallable(callable), length);
+        }
+
+        private Task(final Session session, final ReleasingCallable callable, final long length) {
+            super(callable);
+            this.session = session;
+            this.length = length;
+            callable.task = this;
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            }
+            finally {
+                // The work was not run if the task was cancelled before it started.
+                this.release();
+            }
+        }
+
+        /**
+         * Releases the resources of the task, once.
+         */
+        void release() {
+            if (this.released.compareAndSet(false, true)) {
+                TransferScheduler.this.onTaskCompleted(this);
+            }
+        }
+    }
+
+    /**
+     * Runs the work of a task and releases the task's resources before the task's <code>Future</code> completes.
+     */
+    private static final class ReleasingCallable implements Callable<Void> {
+
+        private final Callable<Void> callable;
+
+        private Task task;
+
+        ReleasingCallable(final Callable<Void> callable) {
+            this.callable = callable;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            try {
+                return this.callable.call();
+            }
+            finally {
+                this.task.release();
+            }
+        }
+    }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Represents the uploads of one stream.
+     */
+    public final class Session {
+
+        /**
+         * Holds the maximum number of tasks running at once.
+         */
+        private final int concurrentRequestCount;
+
+        /**
+         * Holds the tasks not yet started, guarded by the scheduler.
+         */
+        private final LinkedList<Task> pendingTasks = new LinkedList<Task>();
+
+        /**
+         * Holds the number of tasks running, guarded by the scheduler.
+         */
+        private int runningCount;
+
+        /**
+         * Holds the number of tasks submitted and not completed, guarded by the scheduler.
+         */
+        private int outstandingCount;
+
+        private Session(final int concurrentRequestCount) {
+            this.concurrentRequestCount = concurrentRequestCount;
+        }
+
+        /**
+         * Submits a task.
+         * 
+         * @param callable
+         *            The work to run.
+         * @param length
+         *            The number of bytes the task uploads.
+         * @return A <code>Future</code> which completes with the task.
+         */
+        public Future<Void> submit(final Callable<Void> callable, final long length) {
+            final Task task = new Task(this, callable, length);
+            synchronized (TransferScheduler.this) {
+                if (this.pendingTasks.isEmpty()) {
+                    TransferScheduler.this.readySessions.addLast(this);
+                }
+
+                this.pendingTasks.add(task);
+                this.outstandingCount++;
+                TransferScheduler.this.dispatch();
+            }
+
+            return task;
+        }
+
+        /**
+         * Gets the number of tasks submitted and not completed.
+         * 
+         * @return the number of outstanding tasks.
+         */
+        public int getOutstandingCount() {
+            synchronized (TransferScheduler.this) {
+                return this.outstandingCount;
+            }
+        }
+
+        /**
+         * Waits until fewer than the specified number of tasks are outstanding.
+         * 
+         * @param maximumOutstandingCount
+         *            The number of outstanding tasks to wait below; 1 waits for all tasks to complete.
+         * @throws InterruptedException
+         *             If the thread is interrupted while waiting.
+         */
+        public void awaitOutstandingBelow(final int maximumOutstandingCount) throws InterruptedException {
+            synchronized (TransferScheduler.this) {
+                while (this.outstandingCount >= maximumOutstandingCount) {
+                    TransferScheduler.this.wait();
+                }
+            }
+        }
+
+        /**
+         * Cancels the tasks which have not started. Tasks already running complete.
+         * 
+         * @return the cancelled tasks' futures.
+         */
+        public List<Future<Void>> cancelPending() {
+            final List<Future<Void>> cancelled = new ArrayList<Future<Void>>();
+            synchronized (TransferScheduler.this) {
+                for (Task task : this.pendingTasks) {
+                    task.cancel(false);
+                    cancelled.add(task);
+                }
+
+                this.outstandingCount -= this.pendingTasks.size();
+                this.pendingTasks.clear();
+                TransferScheduler.this.readySessions.remove(this);
+                TransferScheduler.this.notifyAll();
+            }
+
+            return cancelled;
+        }
+    }
+}
@@ -18,6 +18,7 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Locale;
 
@@ -47,6 +48,12 @@ import com.microsoft.azure.storage.table.CloudTableClient;
  */
 public class CloudAnalyticsClient {
 
+    private static final long MINUTE_IN_MS = 60 * 1000L;
+
+    private static final long HOUR_IN_MS = 60 * MINUTE_IN_MS;
+
+    private static final long DAY_IN_MS = 24 * HOUR_IN_MS;
+
     /**
      * The blob client for logging features.
      */
@@ -57,6 +64,11 @@ public class CloudAnalyticsClient {
      */
     protected final CloudTableClient tableClient;
 
+    /**
+     * Holds the metrics readers handed out by this client, by table name.
+     */
+    private final HashMap<String, MetricsReader> metricsReaders = new HashMap<String, MetricsReader>();
+
     /**
      * The container in which to look for logs.
      */
@@ -263,6 +275,96 @@ public class CloudAnalyticsClient {
         return this.tableClient.getTableReference(Constants.AnalyticsConstants.METRICS_CAPACITY_BLOB);
     }
 
+    /**
+     * Gets a reader which aggregates the hour metrics of a specific storage service. The same reader, and so its
+     * cache of closed hours, is returned for the same table.
+     * 
+     * @param service
+     *            A {@link StorageService} enumeration value that indicates which storage service to use.
+     * @return
+     *         A {@link MetricsReader} object.
+     * @throws URISyntaxException
+     * @throws StorageException
+     */
+    public MetricsReader getHourMetricsReader(StorageService service) throws URISyntaxException, StorageException {
+        return this.getHourMetricsReader(service, null);
+    }
+
+    /**
+     * Gets a reader which aggregates the hour metrics of a specific storage service. The same reader, and so its
+     * cache of closed hours, is returned for the same table.
+     * 
+     * @param service
+     *            A {@link StorageService} enumeration value that indicates which storage service to use.
+     * @param location
+     *            A {@link StorageLocation} enumeration value that indicates which storage location to use.
+     * @return
+     *         A {@link MetricsReader} object.
+     * @throws URISyntaxException
+     * @throws StorageException
+     */
+    public MetricsReader getHourMetricsReader(StorageService service, StorageLocation location)
+            throws URISyntaxException, StorageException {
+        return this.getMetricsReader(this.getHourMetricsTable(service, location), HOUR_IN_MS, DAY_IN_MS);
+    }
+
+    /**
+     * Gets a reader which aggregates the minute metrics of a specific storage service. The same reader, and so its
+     * cache of closed hours, is returned for the same table.
+     * 
+     * @param service
+     *            A {@link StorageService} enumeration value that indicates which storage service to use.
+     * @return
+     *         A {@link MetricsReader} object.
+     * @throws URISyntaxException
+     * @throws StorageException
+     */
+    public MetricsReader getMinuteMetricsReader(StorageService service) throws URISyntaxException, StorageException {
+        return this.getMinuteMetricsReader(service, null);
+    }
+
+    /**
+     * Gets a reader which aggregates the minute metrics of a specific storage service. The same reader, and so its
+     * cache of closed hours, is returned for the same table.
+     * 
+     * @param service
+     *            A {@link StorageService} enumeration value that indicates which storage service to use.
+     * @param location
+     *            A {@link StorageLocation} enumeration value that indicates which storage location to use.
+     * @return
+     *         A {@link MetricsReader} object.
+     * @throws URISyntaxException
+     * @throws StorageException
+     */
+    public MetricsReader getMinuteMetricsReader(StorageService service, StorageLocation location)
+            throws URISyntaxException, StorageException {
+        return this.getMetricsReader(this.getMinuteMetricsTable(service, location), MINUTE_IN_MS, HOUR_IN_MS);
+    }
+
+    /**
+     * Gets a reader which aggregates the capacity metrics of the blob service.
+     * 
+     * @return
+     *         A {@link MetricsReader} object.
+     * @throws URISyntaxException
+     * @throws StorageException
+     */
+    public MetricsReader getCapacityMetricsReader() throws URISyntaxException, StorageException {
+        return this.getMetricsReader(this.getCapacityTable(), DAY_IN_MS, 30 * DAY_IN_MS);
+    }
+
+    private MetricsReader getMetricsReader(CloudTable table, long partitionLengthInMs, long windowLengthInMs) {
+        synchronized (this.metricsReaders) {
+            MetricsReader reader = this.metricsReaders.get(table.getName());
+            if (reader == null) {
+                reader = new MetricsReader(table, partitionLengthInMs, windowLengthInMs);
+                this.metricsReaders.put(table.getName(), reader);
+            }
+
+            return reader;
+        }
+    }
+
     /**
      * Returns an enumerable collection of log blobs, retrieved lazily.
      * 
@@ -379,6 +481,126 @@ public class CloudAnalyticsClient {
         return new LogRecordIterable(blobIterator);
     }
 
+    /**
+     * Returns an enumerable collection of log records which are downloaded and parsed in parallel. Several log blobs
+     * are processed concurrently on a worker pool and the parsed records are returned through a bounded buffer, in
+     * the order specified by the ingestion options.
+     * <p>
+     * When a time range or a subset of operations is specified, the log blob metadata is used to skip blobs which
+     * cannot contain matching records before they are downloaded.
+     * 
+     * @param service
+     *            A {@link StorageService} enumeration value that indicates which storage service to use.
+     * @param startTime
+     *            A <code>java.util.Date</code> object representing the start of the time range for which logs should
+     *            be retrieved.
+     * @param endTime
+     *            A <code>java.util.Date</code> object representing the end of the time range for which logs should
+     *            be retrieved.
+     * @param operations
+     *            A {@link LoggingOperations} enumeration set that indicates which log types to return, or null for
+     *            all log types.
+     * @param ingestionOptions
+     *            A {@link LogIngestionOptions} object that specifies the concurrency, buffering and ordering of the
+     *            enumeration, or null to use the defaults.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies additional options for the request.
+     * @param operationContext
+     *            An {@link OperationContext} object that represents the context for the current operation.
+     * @return
+     *         A {@link ParallelLogRecordIterable} object which enumerates the log records.
+     * @throws StorageException
+     * @throws URISyntaxException
+     */
+    public ParallelLogRecordIterable listLogRecords(StorageService service, Date startTime, Date endTime,
+            EnumSet<LoggingOperations> operations, LogIngestionOptions ingestionOptions, BlobRequestOptions options,
+            OperationContext operationContext) throws StorageException, URISyntaxException {
+        Utility.assertNotNull("service", service);
+        if (operations == null) {
+            operations = EnumSet.allOf(LoggingOperations.class);
+        }
+
+        if (operations.equals(EnumSet.noneOf(LoggingOperations.class))) {
+            throw new IllegalArgumentException(SR.INVALID_LOGGING_LEVEL);
+        }
+
+        if (ingestionOptions == null) {
+            ingestionOptions = new LogIngestionOptions();
+        }
+
+        EnumSet<BlobListingDetails> metadataDetails;
+        if (startTime != null || endTime != null || !operations.equals(EnumSet.allOf(LoggingOperations.class))) {
+            // The metadata holds the log type and time range of each blob.
+            metadataDetails = EnumSet.of(BlobListingDetails.METADATA);
+        }
+        else {
+            metadataDetails = EnumSet.noneOf(BlobListingDetails.class);
+        }
+
+        Iterable<ListBlobItem> logBlobs = new LogBlobIterable(this.getLogDirectory(service), startTime, endTime,
+                operations, metadataDetails, options, operationContext);
+
+        return new ParallelLogRecordIterable(logBlobs, startTime, endTime, ingestionOptions);
+    }
+
+    /**
+     * Returns an enumerable collection of log record views, retrieved lazily. Each record is exposed through the same
+     * {@link LogRecordView} instance and its fields are only decoded when read, which is considerably cheaper than
+     * {@link #listLogRecords} when few fields are needed.
+     * 
+     * @param service
+     *            A {@link StorageService} enumeration value that indicates which storage service to use.
+     * @param fields
+     *            A {@link LogRecordField} enumeration set that indicates which fields the views may read, or null to
+     *            allow all fields.
+     * @return
+     *         An enumerable collection of {@link LogRecordView} objects that are retrieved lazily.
+     * @throws URISyntaxException
+     * @throws StorageException
+     */
+    public Iterable<LogRecordView> listLogRecordViews(StorageService service, EnumSet<LogRecordField> fields)
+            throws URISyntaxException, StorageException {
+        return this.listLogRecordViews(service, null /* startTime */, null /* endTime */, fields, null /* options */,
+                null /* operationContext */);
+    }
+
+    /**
+     * Returns an enumerable collection of log record views, retrieved lazily. Each record is exposed through the same
+     * {@link LogRecordView} instance and its fields are only decoded when read, which is considerably cheaper than
+     * {@link #listLogRecords} when few fields are needed.
+     * 
+     * @param service
+     *            A {@link StorageService} enumeration value that indicates which storage service to use.
+     * @param startTime
+     *            A <code>java.util.Date</code> object representing the start of the time range for which logs should
+     *            be retrieved.
+     * @param endTime
+     *            A <code>java.util.Date</code> object representing the end of the time range for which logs should
+     *            be retrieved.
+     * @param fields
+     *            A {@link LogRecordField} enumeration set that indicates which fields the views may read, or null to
+     *            allow all fields.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies additional options for the request.
+     * @param operationContext
+     *            An {@link OperationContext} object that represents the context for the current operation.
+     * @return
+     *         An enumerable collection of {@link LogRecordView} objects that are retrieved lazily.
+     * @throws StorageException
+     * @throws URISyntaxException
+     */
+    public Iterable<LogRecordView> listLogRecordViews(StorageService service, Date startTime, Date endTime,
+            EnumSet<LogRecordField> fields, BlobRequestOptions options, OperationContext operationContext)
+            throws StorageException, URISyntaxException {
+        Utility.assertNotNull("service", service);
+        EnumSet<LoggingOperations> operations = EnumSet.allOf(LoggingOperations.class);
+        EnumSet<BlobListingDetails> metadataDetails = EnumSet.noneOf(BlobListingDetails.class);
+        Iterator<ListBlobItem> blobIterator = new LogBlobIterable(this.getLogDirectory(service), startTime, endTime,
+                operations, metadataDetails, options, operationContext).iterator();
+
+        return new LogRecordViewIterable(blobIterator, fields);
+    }
+
     /**
      * Returns an enumerable collection of log records, retrieved lazily.
      * 
@@ -412,4 +634,22 @@ public class CloudAnalyticsClient {
 
         return new LogRecordIterable(blobWrapper.iterator());
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns an enumerable collection of log record views, retrieved lazily.
+     * 
+     * @param logBlobs
+     *            An {@link Iterable} of blobs to parse log records from.
+     * @param fields
+     *            A {@link LogRecordField} enumeration set that indicates which fields the views may read, or null to
+     *            allow all fields.
+     * @return
+     *         An enumerable collection of {@link LogRecordView} objects that are retrieved lazily.
+     */
+    public static Iterable<LogRecordView> parseLogBlobsAsViews(Iterable<ListBlobItem> logBlobs,
+            EnumSet<LogRecordField> fields) {
+        Utility.assertNotNull("logBlobs", logBlobs);
+
+        return new LogRecordViewIterable(logBlobs.iterator(), fields);
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.analytics;
+
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * Represents a set of options that control how log blobs are downloaded and parsed in parallel by
+ * {@link CloudAnalyticsClient#listLogRecords(StorageService, java.util.Date, java.util.Date, java.util.EnumSet,
+ * LogIngestionOptions, com.microsoft.azure.storage.blob.BlobRequestOptions,
+ * com.microsoft.azure.storage.OperationContext)}.
+ */
+public final class LogIngestionOptions {
+
+    /**
+     * Represents the default number of log blobs downloaded and parsed concurrently.
+     */
+    public static final int DEFAULT_CONCURRENT_BLOB_COUNT = 4;
+
+    /**
+     * Represents the default number of parsed records that may be buffered ahead of the caller.
+     */
+    public static final int DEFAULT_MAXIMUM_BUFFERED_RECORDS = 16 * 1024;
+
+    /**
+     * Holds the number of log blobs downloaded and parsed concurrently.
+     */
+    private int concurrentBlobCount = DEFAULT_CONCURRENT_BLOB_COUNT;
+
+    /**
+     * Holds the number of parsed records that may be buffered ahead of the caller.
+     */
+    private int maximumBufferedRecords = DEFAULT_MAXIMUM_BUFFERED_RECORDS;
+
+    /**
+     * Holds the order in which records are returned.
+     */
+    private LogRecordOrdering ordering = LogRecordOrdering.NONE;
+
+    /**
+     * Creates an instance of the <code>LogIngestionOptions</code> class using the default values.
+     */
+    public LogIngestionOptions() {
+        // Empty Default Ctor
+    }
+
+    /**
+     * Gets the number of log blobs downloaded and parsed concurrently.
+     * 
+     * @return the number of log blobs processed concurrently.
+     */
+    public int getConcurrentBlobCount() {
+        return this.concurrentBlobCount;
+    }
+
+    /**
+     * Gets the number of parsed records that may be buffered ahead of the caller. Workers wait once this many records
+     * are pending.
+     * 
+     * @return the maximum number of buffered records.
+     */
+    public int getMaximumBufferedRecords() {
+        return this.maximumBufferedRecords;
+    }
+
+    /**
+     * Gets the order in which records are returned.
+     * 
+     * @return A {@link LogRecordOrdering} value.
+     */
+    public LogRecordOrdering getOrdering() {
+        return this.ordering;
+    }
+
+    /**
+     * Sets the number of log blobs downloaded and parsed concurrently.
+     * 
+     * @param concurrentBlobCount
+     *            the number of log blobs processed concurrently; must be at least 1.
+     */
+    public void setConcurrentBlobCount(int concurrentBlobCount) {
+        Utility.assertGreaterThanOrEqual("concurrentBlobCount", concurrentBlobCount, 1);
+        this.concurrentBlobCount = concurrentBlobCount;
+    }
+
+    /**
+     * Sets the number of parsed records that may be buffered ahead of the caller.
+     * 
+     * @param maximumBufferedRecords
+     *            the maximum number of buffered records; must be at least 1.
+     */
+    public void setMaximumBufferedRecords(int maximumBufferedRecords) {
+        Utility.assertGreaterThanOrEqual("maximumBufferedRecords", maximumBufferedRecords, 1);
+        this.maximumBufferedRecords = maximumBufferedRecords;
+    }
+
+    /**
+     * Sets the order in which records are returned.
+     * 
+     * @param ordering
+     *            A {@link LogRecordOrdering} value.
+     */
+    public void setOrdering(LogRecordOrdering ordering) {
+        Utility.assertNotNull("ordering", ordering);
+        this.ordering = ordering;
+    }
+}
@@ -33,16 +33,27 @@ public class LogRecord {
 
     /**
      * Holds the date format for the RequestStartTime field.
+     * 
+     * @deprecated no longer used to parse log records; {@link SimpleDateFormat} is not safe for concurrent use.
      */
+    @Deprecated
     protected static final SimpleDateFormat REQUEST_START_TIME_FORMAT = new SimpleDateFormat(
             "yyyy-MM-dd'T'HH:mm:ss.SSSSSSS'Z'");
 
     /**
      * Holds the date format for the LastModifiedTime field.
+     * 
+     * @deprecated no longer used to parse log records; {@link SimpleDateFormat} is not safe for concurrent use.
      */
+    @Deprecated
     protected static final SimpleDateFormat LAST_MODIFIED_TIME_FORMAT = new SimpleDateFormat(
             "E, dd-MMM-yy HH:mm:ss 'GMT'");
 
+    static {
+        LAST_MODIFIED_TIME_FORMAT.setTimeZone(TimeZone.getTimeZone("GMT"));
+        REQUEST_START_TIME_FORMAT.setTimeZone(TimeZone.getTimeZone("GMT"));
+    }
+
     private String versionNumber;
 
     private Date requestStartTime;
@@ -119,9 +130,6 @@ public class LogRecord {
      * @throws URISyntaxException
      */
     protected LogRecord(LogRecordStreamReader reader) throws IOException, ParseException, URISyntaxException {
-        LAST_MODIFIED_TIME_FORMAT.setTimeZone(TimeZone.getTimeZone("GMT"));
-        REQUEST_START_TIME_FORMAT.setTimeZone(TimeZone.getTimeZone("GMT"));
-        
     	Utility.assertNotNull("reader", reader);
         this.versionNumber = reader.readString();
         Utility.assertNotNullOrEmpty("versionNumber", this.versionNumber);
@@ -145,7 +153,7 @@ public class LogRecord {
      */
     private void populateVersion1Log(LogRecordStreamReader reader) throws IOException, ParseException,
             URISyntaxException {
-        this.requestStartTime = reader.readDate(LogRecord.REQUEST_START_TIME_FORMAT);
+        this.requestStartTime = reader.readISO8601Date();
         this.operationType = reader.readString();
         this.requestStatus = reader.readString();
         this.httpStatusCode = reader.readString();
@@ -169,7 +177,7 @@ public class LogRecord {
         this.requestMD5 = reader.readQuotedString();
         this.serverMD5 = reader.readQuotedString();
         this.eTagIdentifier = reader.readQuotedString();
-        this.lastModifiedTime = reader.readDate(LogRecord.LAST_MODIFIED_TIME_FORMAT);
+        this.lastModifiedTime = reader.readRFC850Date();
         this.conditionsUsed = reader.readQuotedString();
         this.userAgentHeader = reader.readQuotedString();
         this.referrerHeader = reader.readQuotedString();
@@ -0,0 +1,287 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.analytics;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.microsoft.azure.storage.Constants;
+import com.microsoft.azure.storage.core.SR;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * RESERVED FOR INTERNAL USE. Splits a stream of log records into records and fields directly on a byte buffer. Only
+ * the field boundaries of the current record are recorded; decoding the field values is left to
+ * {@link LogRecordView}.
+ */
+class LogRecordByteScanner implements Closeable {
+
+    /**
+     * Holds the number of fields in a version 1.0 log record.
+     */
+    static final int FIELD_COUNT = LogRecordField.values().length;
+
+    /**
+     * Holds the default size of the read buffer.
+     */
+    static final int DEFAULT_BUFFER_SIZE = 64 * Constants.KB;
+
+    /**
+     * Holds the stream the records are read from.
+     */
+    private final InputStream stream;
+
+    /**
+     * Holds the read buffer. The buffer grows if a single record does not fit in it.
+     */
+    private byte[] buffer;
+
+    /**
+     * Holds the index of the first byte in the buffer that has not been consumed.
+     */
+    private int position;
+
+    /**
+     * Holds the index one past the last valid byte in the buffer.
+     */
+    private int limit;
+
+    /**
+     * Flag that indicates whether the underlying stream has been exhausted.
+     */
+    private boolean endOfStream;
+
+    /**
+     * Holds the start index of each field in the current record.
+     */
+    private final int[] fieldStarts = new int[FIELD_COUNT];
+
+    /**
+     * Holds the end index (exclusive) of each field in the current record.
+     */
+    private final int[] fieldEnds = new int[FIELD_COUNT];
+
+    /**
+     * Holds the number of fields in the current record.
+     */
+    private int fieldCount;
+
+    /**
+     * Constructs a new LogRecordByteScanner to read the stream given.
+     * 
+     * @param stream
+     *            the stream to read records from.
+     */
+    public LogRecordByteScanner(InputStream stream) {
+        this(stream, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a new LogRecordByteScanner to read the stream given using a buffer of the specified initial size.
+     * 
+     * @param stream
+     *            the stream to read records from.
+     * @param bufferSize
+     *            the initial size of the read buffer.
+     */
+    LogRecordByteScanner(InputStream stream, int bufferSize) {
+        Utility.assertNotNull("stream", stream);
+        Utility.assertGreaterThanOrEqual("bufferSize", bufferSize, 1);
+        this.stream = stream;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Advances to the next record in the stream. The field boundaries of the previous record are no longer valid once
+     * this method is called.
+     * 
+     * @return
+     *         true if a record was read, false if the end of the stream was reached.
+     * @throws IOException
+     */
+    public boolean nextRecord() throws IOException {
+        if (this.position == this.limit && !this.fill()) {
+            return false;
+        }
+
+        while (true) {
+            int end = this.scanRecord(this.position);
+            if (end != -1) {
+                this.position = end;
+                return true;
+            }
+
+            if (!this.fill()) {
+                // The stream ended in the middle of a record.
+                throw new EOFException(SR.LOG_STREAM_END_ERROR);
+            }
+        }
+    }
+
+    /**
+     * Gets the buffer holding the current record.
+     * 
+     * @return
+     *         the buffer.
+     */
+    byte[] getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * Gets the number of fields in the current record.
+     * 
+     * @return
+     *         the number of fields.
+     */
+    int getFieldCount() {
+        return this.fieldCount;
+    }
+
+    /**
+     * Gets the start index in the buffer of the specified field of the current record.
+     * 
+     * @param field
+     *            the index of the field.
+     * @return
+     *         the start index of the field.
+     */
+    int getFieldStart(int field) {
+        return this.fieldStarts[field];
+    }
+
+    /**
+     * Gets the end index (exclusive) in the buffer of the specified field of the current record.
+     * 
+     * @param field
+     *            the index of the field.
+     * @return
+     *         the end index of the field.
+     */
+    int getFieldEnd(int field) {
+        return this.fieldEnds[field];
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.stream.close();
+    }
+
+    /**
+     * Records the field boundaries of the record starting at the specified index.
+     * 
+     * @param from
+     *            the index at which the record starts.
+     * @return
+     *         the index following the record delimiter, or -1 if the buffer does not hold the complete record.
+     */
+    private int scanRecord(int from) {
+        final byte[] buf = this.buffer;
+        final int max = this.limit;
+        int i = from;
+        int field = 0;
+
+        while (true) {
+            if (field == FIELD_COUNT) {
+                throw new IllegalStateException(SR.LOG_STREAM_DELIMITER_ERROR);
+            }
+
+            this.fieldStarts[field] = i;
+            if (i < max && buf[i] == LogRecordStreamReader.QUOTE_CHAR) {
+                // Quoted strings may contain delimiters, so only the closing quote ends the field. Quotes are never
+                // nested since the service controls the format.
+                i++;
+                while (i < max && buf[i] != LogRecordStreamReader.QUOTE_CHAR) {
+                    i++;
+                }
+
+                if (++i >= max) {
+                    return -1;
+                }
+
+                if (buf[i] != LogRecordStreamReader.FIELD_DELIMITER && buf[i] != LogRecordStreamReader.RECORD_DELIMITER) {
+                    throw new IllegalStateException(SR.LOG_STREAM_QUOTE_ERROR);
+                }
+            }
+            else {
+                while (i < max) {
+                    final byte b = buf[i];
+                    if (b == LogRecordStreamReader.FIELD_DELIMITER || b == LogRecordStreamReader.RECORD_DELIMITER) {
+                        break;
+                    }
+                    else if (b == LogRecordStreamReader.QUOTE_CHAR) {
+                        throw new IllegalStateException(SR.LOG_STREAM_QUOTE_ERROR);
+                    }
+
+                    i++;
+                }
+
+                if (i >= max) {
+                    return -1;
+                }
+            }
+
+            this.fieldEnds[field++] = i;
+            if (buf[i] == LogRecordStreamReader.RECORD_DELIMITER) {
+                this.fieldCount = field;
+                return i + 1;
+            }
+
+            i++;
+        }
+    }
+
+    /**
+     * Moves any unconsumed bytes to the front of the buffer, growing it if it is full, and reads more data from the
+     * stream.
+     * 
+     * @return
+     *         true if more data was read, false if the end of the stream was reached.
+     * @throws IOException
+     */
+    private boolean fill() throws IOException {
+        if (this.endOfStream) {
+            return false;
+        }
+
+        final int remaining = this.limit - this.position;
+        if (this.position > 0) {
+            System.arraycopy(this.buffer, this.position, this.buffer, 0, remaining);
+        }
+        else if (remaining == this.buffer.length) {
+            final byte[] grown = new byte[this.buffer.length * 2];
+            System.arraycopy(this.buffer, 0, grown, 0, remaining);
+            this.buffer = grown;
+        }
+
+        this.position = 0;
+        this.limit = remaining;
+
+        int count = 0;
+        while (count == 0) {
+            count = this.stream.read(this.buffer, this.limit, this.buffer.length - this.limit);
+        }
+
+        if (count == -1) {
+            this.endOfStream = true;
+            return false;
+        }
+
+        this.limit += count;
+        return true;
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.analytics;
+
+/**
+ * Represents the fields of a Storage Analytics log record, in the order in which they appear in a version 1.0 log
+ * entry. Used to select the fields a {@link LogRecordView} should decode.
+ */
+public enum LogRecordField {
+    /**
+     * The version of Storage Analytics Logging used to record the entry.
+     */
+    VERSION_NUMBER(false),
+
+    /**
+     * The time in UTC when the request was received by Storage Analytics.
+     */
+    REQUEST_START_TIME(false),
+
+    /**
+     * The type of REST operation performed.
+     */
+    OPERATION_TYPE(false),
+
+    /**
+     * The status of the requested operation.
+     */
+    REQUEST_STATUS(false),
+
+    /**
+     * The HTTP status code for the request.
+     */
+    HTTP_STATUS_CODE(false),
+
+    /**
+     * The total time in milliseconds to perform the requested operation.
+     */
+    END_TO_END_LATENCY_IN_MS(false),
+
+    /**
+     * The time in milliseconds to perform the requested operation, excluding network latency.
+     */
+    SERVER_LATENCY_IN_MS(false),
+
+    /**
+     * Whether the request was authenticated, anonymous, or used Shared Access Signature (SAS).
+     */
+    AUTHENTICATION_TYPE(false),
+
+    /**
+     * The account name making the request.
+     */
+    REQUESTER_ACCOUNT_NAME(false),
+
+    /**
+     * The account name of the service owner.
+     */
+    OWNER_ACCOUNT_NAME(false),
+
+    /**
+     * The requested storage service.
+     */
+    SERVICE_TYPE(false),
+
+    /**
+     * The complete URL of the request.
+     */
+    REQUEST_URL(true),
+
+    /**
+     * The key of the requested object as an encoded string.
+     */
+    REQUESTED_OBJECT_KEY(true),
+
+    /**
+     * The request ID assigned by the storage service.
+     */
+    REQUEST_ID_HEADER(false),
+
+    /**
+     * The number of each logged operation for a request, using an index of zero.
+     */
+    OPERATION_COUNT(false),
+
+    /**
+     * The IP address and port of the requester.
+     */
+    REQUESTER_IP_ADDRESS(false),
+
+    /**
+     * The storage service version specified when the request was made.
+     */
+    REQUEST_VERSION_HEADER(false),
+
+    /**
+     * The size of the request header, in bytes.
+     */
+    REQUEST_HEADER_SIZE(false),
+
+    /**
+     * The size of the request packets read by the storage service, in bytes.
+     */
+    REQUEST_PACKET_SIZE(false),
+
+    /**
+     * The size of the response header, in bytes.
+     */
+    RESPONSE_HEADER_SIZE(false),
+
+    /**
+     * The size of the response packets written by the storage service, in bytes.
+     */
+    RESPONSE_PACKET_SIZE(false),
+
+    /**
+     * The value of the Content-Length header for the request.
+     */
+    REQUEST_CONTENT_LENGTH(false),
+
+    /**
+     * The value of either the Content-MD5 header or the x-ms-content-md5 header in the request.
+     */
+    REQUEST_MD5(true),
+
+    /**
+     * The value of the MD5 hash calculated by the storage service.
+     */
+    SERVER_MD5(true),
+
+    /**
+     * The ETag identifier for the returned object.
+     */
+    ETAG_IDENTIFIER(true),
+
+    /**
+     * The Last Modified Time (LMT) for the returned object.
+     */
+    LAST_MODIFIED_TIME(false),
+
+    /**
+     * The conditions used, as a semicolon-separated list in the form of ConditionName=value.
+     */
+    CONDITIONS_USED(true),
+
+    /**
+     * The User-Agent header value.
+     */
+    USER_AGENT_HEADER(true),
+
+    /**
+     * The Referrer header value.
+     */
+    REFERRER_HEADER(true),
+
+    /**
+     * The x-ms-client-request-id header value included in the request.
+     */
+    CLIENT_REQUEST_ID(true);
+
+    /**
+     * Indicates whether the field is written as a quoted string.
+     */
+    private final boolean quoted;
+
+    private LogRecordField(boolean quoted) {
+        this.quoted = quoted;
+    }
+
+    /**
+     * Gets whether the field is written as a quoted string.
+     * 
+     * @return <code>true</code> if the field is quoted; otherwise, <code>false</code>.
+     */
+    boolean isQuoted() {
+        return this.quoted;
+    }
+}
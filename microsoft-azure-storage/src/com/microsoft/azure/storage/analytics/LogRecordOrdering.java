@@ -0,0 +1,36 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.analytics;
+
+/**
+ * Specifies the order in which log records are returned when log blobs are ingested in parallel.
+ */
+public enum LogRecordOrdering {
+    /**
+     * Records are returned as soon as they are parsed. Records from different log blobs may be interleaved.
+     */
+    NONE,
+
+    /**
+     * All records logged in one hour are returned before any record of a later hour. Records from log blobs of the
+     * same hour may be interleaved.
+     */
+    HOUR,
+
+    /**
+     * Records are returned in the same order as a sequential enumeration: blob by blob, in listing order.
+     */
+    BLOB;
+}
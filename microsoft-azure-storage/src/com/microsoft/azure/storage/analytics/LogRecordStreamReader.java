@@ -20,13 +20,13 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.text.DateFormat;
 import java.text.ParseException;
 import java.util.Date;
 import java.util.UUID;
 
 import android.text.Html;
 
+import com.microsoft.azure.storage.core.DateCodec;
 import com.microsoft.azure.storage.core.SR;
 import com.microsoft.azure.storage.core.Utility;
 
@@ -148,23 +148,47 @@ class LogRecordStreamReader extends InputStreamReader {
     }
 
     /**
-     * Read a Date from the stream.
+     * Read an ISO 8601 UTC Date, such as a RequestStartTime, from the stream. Fractional seconds beyond millisecond
+     * precision are truncated.
      * 
-     * @param format
-     *            the format in which the date is stored, for parsing purposes.
      * @return
      *         the Date read.
      * @throws IOException
      * @throws ParseException
      */
-    public Date readDate(DateFormat format) throws IOException, ParseException {
+    public Date readISO8601Date() throws IOException, ParseException {
+        String temp = this.readField(false /* isQuotedString */);
+
+        if (Utility.isNullOrEmpty(temp)) {
+            return null;
+        }
+
+        try {
+            return DateCodec.parseISO8601(temp);
+        }
+        catch (IllegalArgumentException e) {
+            final ParseException parseException = new ParseException(temp, 0);
+            parseException.initCause(e);
+            throw parseException;
+        }
+    }
+
+    /**
+     * Read an RFC 850 GMT Date, such as a LastModifiedTime, from the stream.
+     * 
+     * @return
+     *         the Date read.
+     * @throws IOException
+     * @throws ParseException
+     */
+    public Date readRFC850Date() throws IOException, ParseException {
         String temp = this.readField(false /* isQuotedString */);
 
         if (Utility.isNullOrEmpty(temp)) {
             return null;
         }
         else {
-            return format.parse(temp);
+            return DateCodec.parseRFC850(temp);
         }
     }
 
@@ -0,0 +1,731 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.analytics;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.text.ParseException;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.UUID;
+
+import android.text.Html;
+
+import com.microsoft.azure.storage.Constants;
+import com.microsoft.azure.storage.core.DateCodec;
+import com.microsoft.azure.storage.core.SR;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * Represents a read-only view over the current Storage Analytics log record of an enumeration. Unlike
+ * {@link LogRecord}, a view does not parse the record up front: each field is decoded from the underlying buffer the
+ * first time its getter is called, and only the fields selected when the enumeration was created may be read.
+ * <p>
+ * A view is a flyweight. The enumeration returns the same instance for every record and its values change when the
+ * enumeration advances; use {@link #toLogRecord()} to keep a copy of a record.
+ */
+public final class LogRecordView {
+
+    /**
+     * Holds the charset used to decode string fields.
+     */
+    private static final Charset UTF8 = Charset.forName(Constants.UTF8_CHARSET);
+
+    /**
+     * Holds the fields in ordinal order.
+     */
+    private static final LogRecordField[] FIELDS = LogRecordField.values();
+
+    /**
+     * Holds the version string of the only supported log format.
+     */
+    private static final byte[] VERSION_1 = { '1', '.', '0' };
+
+    /**
+     * Holds which fields may be decoded, indexed by ordinal.
+     */
+    private final boolean[] selected = new boolean[FIELDS.length];
+
+    /**
+     * Holds the decoded field values of the current record, indexed by ordinal.
+     */
+    private final Object[] values = new Object[FIELDS.length];
+
+    /**
+     * Holds the record generation in which each value was decoded, indexed by ordinal.
+     */
+    private final int[] decodedGeneration = new int[FIELDS.length];
+
+    /**
+     * Holds the generation of the current record. Incremented every time the view moves to a new record so cached
+     * values do not have to be cleared.
+     */
+    private int generation;
+
+    /**
+     * Holds the scanner positioned on the current record.
+     */
+    private LogRecordByteScanner scanner;
+
+    /**
+     * Initializes a new instance of the LogRecordView class which may read the specified fields.
+     * 
+     * @param fields
+     *            the fields that may be read, or null to allow all fields.
+     */
+    LogRecordView(EnumSet<LogRecordField> fields) {
+        for (LogRecordField field : fields == null ? EnumSet.allOf(LogRecordField.class) : fields) {
+            this.selected[field.ordinal()] = true;
+        }
+    }
+
+    /**
+     * Points the view at the current record of the specified scanner, validating the record version and layout.
+     * 
+     * @param scanner
+     *            the scanner positioned on a record.
+     */
+    void moveTo(LogRecordByteScanner scanner) {
+        final byte[] buffer = scanner.getBuffer();
+        final int start = scanner.getFieldStart(0);
+        final int end = scanner.getFieldEnd(0);
+        if (end - start != VERSION_1.length || buffer[start] != VERSION_1[0] || buffer[start + 1] != VERSION_1[1]
+                || buffer[start + 2] != VERSION_1[2]) {
+            throw new IllegalArgumentException(String.format(SR.LOG_VERSION_UNSUPPORTED,
+                    new String(buffer, start, end - start, UTF8)));
+        }
+
+        if (scanner.getFieldCount() != FIELDS.length) {
+            throw new IllegalStateException(SR.LOG_STREAM_DELIMITER_ERROR);
+        }
+
+        this.scanner = scanner;
+        this.generation++;
+    }
+
+    /**
+     * Gets the version of Storage Analytics Logging used to record the entry.
+     * 
+     * @return
+     *         a <code>String</code> containing the VersionNumber value
+     */
+    public String getVersionNumber() {
+        return (String) this.getValue(LogRecordField.VERSION_NUMBER);
+    }
+
+    /**
+     * Gets the time in UTC when the request was received by Storage Analytics.
+     * 
+     * @return
+     *         a <code>Date</code> containing the RequestStartTime value
+     */
+    public Date getRequestStartTime() {
+        return (Date) this.getValue(LogRecordField.REQUEST_START_TIME);
+    }
+
+    /**
+     * Gets the type of REST operation performed.
+     * 
+     * @return
+     *         a <code>String</code> containing the OperationType value
+     */
+    public String getOperationType() {
+        return (String) this.getValue(LogRecordField.OPERATION_TYPE);
+    }
+
+    /**
+     * Gets the status of the requested operation.
+     * 
+     * @return
+     *         a <code>String</code> containing the RequestStatus value
+     */
+    public String getRequestStatus() {
+        return (String) this.getValue(LogRecordField.REQUEST_STATUS);
+    }
+
+    /**
+     * Gets the HTTP status code for the request. If the request is interrupted, this value may be set to Unknown.
+     * 
+     * @return
+     *         a <code>String</code> containing the HttpStatusCode value
+     */
+    public String getHttpStatusCode() {
+        return (String) this.getValue(LogRecordField.HTTP_STATUS_CODE);
+    }
+
+    /**
+     * Gets the total time in milliseconds to perform the requested operation.
+     * 
+     * @return
+     *         an <code>Integer</code> containing the EndToEndLatencyInMS value
+     */
+    public Integer getEndToEndLatencyInMS() {
+        return (Integer) this.getValue(LogRecordField.END_TO_END_LATENCY_IN_MS);
+    }
+
+    /**
+     * Gets the total time in milliseconds to perform the requested operation, excluding network latency.
+     * 
+     * @return
+     *         an <code>Integer</code> containing the ServerLatencyInMS value
+     */
+    public Integer getServerLatencyInMS() {
+        return (Integer) this.getValue(LogRecordField.SERVER_LATENCY_IN_MS);
+    }
+
+    /**
+     * Gets whether the request was authenticated, anonymous, or used Shared Access Signature (SAS).
+     * 
+     * @return
+     *         a <code>String</code> containing the AuthenticationType value
+     */
+    public String getAuthenticationType() {
+        return (String) this.getValue(LogRecordField.AUTHENTICATION_TYPE);
+    }
+
+    /**
+     * Gets the account name making the request, if the request is authenticated.
+     * 
+     * @return
+     *         a <code>String</code> containing the RequesterAccountName value
+     */
+    public String getRequesterAccountName() {
+        return (String) this.getValue(LogRecordField.REQUESTER_ACCOUNT_NAME);
+    }
+
+    /**
+     * Gets the account name of the service owner.
+     * 
+     * @return
+     *         a <code>String</code> containing the OwnerAccountName value
+     */
+    public String getOwnerAccountName() {
+        return (String) this.getValue(LogRecordField.OWNER_ACCOUNT_NAME);
+    }
+
+    /**
+     * Gets the requested storage service: blob, table, or queue.
+     * 
+     * @return
+     *         a <code>String</code> containing the ServiceType value
+     */
+    public String getServiceType() {
+        return (String) this.getValue(LogRecordField.SERVICE_TYPE);
+    }
+
+    /**
+     * Gets the complete URL of the request.
+     * 
+     * @return
+     *         a <code>URI</code> containing the RequestUrl value
+     */
+    public URI getRequestUrl() {
+        return (URI) this.getValue(LogRecordField.REQUEST_URL);
+    }
+
+    /**
+     * Gets the key of the requested object as an encoded string.
+     * 
+     * @return
+     *         a <code>String</code> containing the RequestedObjectKey value
+     */
+    public String getRequestedObjectKey() {
+        return (String) this.getValue(LogRecordField.REQUESTED_OBJECT_KEY);
+    }
+
+    /**
+     * Gets the request ID assigned by the storage service.
+     * 
+     * @return
+     *         a <code>UUID</code> containing the RequestIdHeader value
+     */
+    public UUID getRequestIdHeader() {
+        return (UUID) this.getValue(LogRecordField.REQUEST_ID_HEADER);
+    }
+
+    /**
+     * Gets the number of each logged operation for a request, using an index of zero.
+     * 
+     * @return
+     *         an <code>Integer</code> containing the OperationCount value
+     */
+    public Integer getOperationCount() {
+        return (Integer) this.getValue(LogRecordField.OPERATION_COUNT);
+    }
+
+    /**
+     * Gets the IP address and port of the requester.
+     * 
+     * @return
+     *         a <code>String</code> containing the RequesterIPAddress value
+     */
+    public String getRequesterIPAddress() {
+        return (String) this.getValue(LogRecordField.REQUESTER_IP_ADDRESS);
+    }
+
+    /**
+     * Gets the storage service version specified when the request was made.
+     * 
+     * @return
+     *         a <code>String</code> containing the RequestVersionHeader value
+     */
+    public String getRequestVersionHeader() {
+        return (String) this.getValue(LogRecordField.REQUEST_VERSION_HEADER);
+    }
+
+    /**
+     * Gets the size of the request header, in bytes.
+     * 
+     * @return
+     *         a <code>Long</code> containing the RequestHeaderSize value
+     */
+    public Long getRequestHeaderSize() {
+        return (Long) this.getValue(LogRecordField.REQUEST_HEADER_SIZE);
+    }
+
+    /**
+     * Gets the size of the request packets read by the storage service, in bytes.
+     * 
+     * @return
+     *         a <code>Long</code> containing the RequestPacketSize value
+     */
+    public Long getRequestPacketSize() {
+        return (Long) this.getValue(LogRecordField.REQUEST_PACKET_SIZE);
+    }
+
+    /**
+     * Gets the size of the response header, in bytes.
+     * 
+     * @return
+     *         a <code>Long</code> containing the ResponseHeaderSize value
+     */
+    public Long getResponseHeaderSize() {
+        return (Long) this.getValue(LogRecordField.RESPONSE_HEADER_SIZE);
+    }
+
+    /**
+     * Gets the size of the response packets written by the storage service, in bytes.
+     * 
+     * @return
+     *         a <code>Long</code> containing the ResponsePacketSize value
+     */
+    public Long getResponsePacketSize() {
+        return (Long) this.getValue(LogRecordField.RESPONSE_PACKET_SIZE);
+    }
+
+    /**
+     * Gets the value of the Content-Length header for the request sent to the storage service.
+     * 
+     * @return
+     *         a <code>Long</code> containing the RequestContentLength value
+     */
+    public Long getRequestContentLength() {
+        return (Long) this.getValue(LogRecordField.REQUEST_CONTENT_LENGTH);
+    }
+
+    /**
+     * Gets the value of either the Content-MD5 header or the x-ms-content-md5 header in the request.
+     * 
+     * @return
+     *         an encoded <code>String</code> containing the RequestMD5 value
+     */
+    public String getRequestMD5() {
+        return (String) this.getValue(LogRecordField.REQUEST_MD5);
+    }
+
+    /**
+     * Gets the value of the MD5 hash calculated by the storage service.
+     * 
+     * @return
+     *         an encoded <code>String</code> containing the ServerMD5 value
+     */
+    public String getServerMD5() {
+        return (String) this.getValue(LogRecordField.SERVER_MD5);
+    }
+
+    /**
+     * Gets the ETag identifier for the returned object.
+     * 
+     * @return
+     *         an encoded <code>String</code> containing the ETagIdentifier value
+     */
+    public String getETagIdentifier() {
+        return (String) this.getValue(LogRecordField.ETAG_IDENTIFIER);
+    }
+
+    /**
+     * Gets the Last Modified Time (LMT) for the returned object.
+     * 
+     * @return
+     *         a <code>Date</code> containing the LastModifiedTime value
+     */
+    public Date getLastModifiedTime() {
+        return (Date) this.getValue(LogRecordField.LAST_MODIFIED_TIME);
+    }
+
+    /**
+     * Gets the conditions used, as a semicolon-separated list in the form of ConditionName=value.
+     * 
+     * @return
+     *         an encoded <code>String</code> containing the ConditionsUsed value
+     */
+    public String getConditionsUsed() {
+        return (String) this.getValue(LogRecordField.CONDITIONS_USED);
+    }
+
+    /**
+     * Gets the User-Agent header value.
+     * 
+     * @return
+     *         an encoded <code>String</code> containing the UserAgentHeader value
+     */
+    public String getUserAgentHeader() {
+        return (String) this.getValue(LogRecordField.USER_AGENT_HEADER);
+    }
+
+    /**
+     * Gets the Referrer header value.
+     * 
+     * @return
+     *         an encoded <code>String</code> containing the ReferrerHeader value
+     */
+    public String getReferrerHeader() {
+        return (String) this.getValue(LogRecordField.REFERRER_HEADER);
+    }
+
+    /**
+     * Gets the x-ms-client-request-id header value included in the request.
+     * 
+     * @return
+     *         an encoded <code>String</code> containing the ClientRequestId value
+     */
+    public String getClientRequestId() {
+        return (String) this.getValue(LogRecordField.CLIENT_REQUEST_ID);
+    }
+
+    /**
+     * Gets the raw text of the specified field, without decoding it into its typed value. Quotes around quoted
+     * strings are removed.
+     * 
+     * @param field
+     *            A {@link LogRecordField} value that indicates which field to read.
+     * @return
+     *         a <code>String</code> containing the field text, or null if the field is empty.
+     */
+    public String getFieldAsString(LogRecordField field) {
+        Utility.assertNotNull("field", field);
+        this.assertSelected(field);
+        return this.decodeString(field);
+    }
+
+    /**
+     * Copies the selected fields of the current record into a new {@link LogRecord}. Fields that were not selected
+     * are left null.
+     * 
+     * @return
+     *         a {@link LogRecord} object.
+     */
+    public LogRecord toLogRecord() {
+        final LogRecord record = new LogRecord();
+        record.setVersionNumber(this.isSelected(LogRecordField.VERSION_NUMBER) ? this.getVersionNumber() : null);
+        record.setRequestStartTime(this.isSelected(LogRecordField.REQUEST_START_TIME) ? this.getRequestStartTime() : null);
+        record.setOperationType(this.isSelected(LogRecordField.OPERATION_TYPE) ? this.getOperationType() : null);
+        record.setRequestStatus(this.isSelected(LogRecordField.REQUEST_STATUS) ? this.getRequestStatus() : null);
+        record.setHttpStatusCode(this.isSelected(LogRecordField.HTTP_STATUS_CODE) ? this.getHttpStatusCode() : null);
+        record.setEndToEndLatencyInMS(this.isSelected(LogRecordField.END_TO_END_LATENCY_IN_MS) ? this
+                .getEndToEndLatencyInMS() : null);
+        record.setServerLatencyInMS(this.isSelected(LogRecordField.SERVER_LATENCY_IN_MS) ? this.getServerLatencyInMS()
+                : null);
+        record.setAuthenticationType(this.isSelected(LogRecordField.AUTHENTICATION_TYPE) ? this.getAuthenticationType()
+                : null);
+        record.setRequesterAccountName(this.isSelected(LogRecordField.REQUESTER_ACCOUNT_NAME) ? this
+                .getRequesterAccountName() : null);
+        record.setOwnerAccountName(this.isSelected(LogRecordField.OWNER_ACCOUNT_NAME) ? this.getOwnerAccountName()
+                : null);
+        record.setServiceType(this.isSelected(LogRecordField.SERVICE_TYPE) ? this.getServiceType() : null);
+        record.setRequestUrl(this.isSelected(LogRecordField.REQUEST_URL) ? this.getRequestUrl() : null);
+        record.setRequestedObjectKey(this.isSelected(LogRecordField.REQUESTED_OBJECT_KEY) ? this
+                .getRequestedObjectKey() : null);
+        record.setRequestIdHeader(this.isSelected(LogRecordField.REQUEST_ID_HEADER) ? this.getRequestIdHeader() : null);
+        record.setOperationCount(this.isSelected(LogRecordField.OPERATION_COUNT) ? this.getOperationCount() : null);
+        record.setRequesterIPAddress(this.isSelected(LogRecordField.REQUESTER_IP_ADDRESS) ? this
+                .getRequesterIPAddress() : null);
+        record.setRequestVersionHeader(this.isSelected(LogRecordField.REQUEST_VERSION_HEADER) ? this
+                .getRequestVersionHeader() : null);
+        record.setRequestHeaderSize(this.isSelected(LogRecordField.REQUEST_HEADER_SIZE) ? this.getRequestHeaderSize()
+                : null);
+        record.setRequestPacketSize(this.isSelected(LogRecordField.REQUEST_PACKET_SIZE) ? this.getRequestPacketSize()
+                : null);
+        record.setResponseHeaderSize(this.isSelected(LogRecordField.RESPONSE_HEADER_SIZE) ? this
+                .getResponseHeaderSize() : null);
+        record.setResponsePacketSize(this.isSelected(LogRecordField.RESPONSE_PACKET_SIZE) ? this
+                .getResponsePacketSize() : null);
+        record.setRequestContentLength(this.isSelected(LogRecordField.REQUEST_CONTENT_LENGTH) ? this
+                .getRequestContentLength() : null);
+        record.setRequestMD5(this.isSelected(LogRecordField.REQUEST_MD5) ? this.getRequestMD5() : null);
+        record.setServerMD5(this.isSelected(LogRecordField.SERVER_MD5) ? this.getServerMD5() : null);
+        record.setETagIdentifier(this.isSelected(LogRecordField.ETAG_IDENTIFIER) ? this.getETagIdentifier() : null);
+        record.setLastModifiedTime(this.isSelected(LogRecordField.LAST_MODIFIED_TIME) ? this.getLastModifiedTime()
+                : null);
+        record.setConditionsUsed(this.isSelected(LogRecordField.CONDITIONS_USED) ? this.getConditionsUsed() : null);
+        record.setUserAgentHeader(this.isSelected(LogRecordField.USER_AGENT_HEADER) ? this.getUserAgentHeader() : null);
+        record.setReferrerHeader(this.isSelected(LogRecordField.REFERRER_HEADER) ? this.getReferrerHeader() : null);
+        record.setClientRequestId(this.isSelected(LogRecordField.CLIENT_REQUEST_ID) ? this.getClientRequestId() : null);
+        return record;
+    }
+
+    /**
+     * Checks whether the specified field was selected for this view.
+     * 
+     * @param field
+     *            A {@link LogRecordField} value.
+     * @return
+     *         true if the field may be read, false otherwise.
+     */
+    public boolean isSelected(LogRecordField field) {
+        return this.selected[field.ordinal()];
+    }
+
+    /**
+     * Gets the decoded value of a field, decoding and caching it if this is the first access for the current record.
+     */
+    private Object getValue(LogRecordField field) {
+        this.assertSelected(field);
+
+        final int index = field.ordinal();
+        if (this.decodedGeneration[index] != this.generation) {
+            this.values[index] = this.decode(field);
+            this.decodedGeneration[index] = this.generation;
+        }
+
+        return this.values[index];
+    }
+
+    private void assertSelected(LogRecordField field) {
+        if (!this.selected[field.ordinal()]) {
+            throw new IllegalStateException(String.format(SR.LOG_FIELD_NOT_SELECTED, field));
+        }
+
+        if (this.scanner == null) {
+            throw new IllegalStateException(SR.ITERATOR_EMPTY);
+        }
+    }
+
+    private Object decode(LogRecordField field) {
+        final int index = field.ordinal();
+        final int start = this.scanner.getFieldStart(index);
+        final int end = this.scanner.getFieldEnd(index);
+        if (start == end) {
+            return null;
+        }
+
+        switch (field) {
+            case REQUEST_START_TIME:
+                return this.decodeRequestStartTime(field, start, end);
+
+            case LAST_MODIFIED_TIME:
+                return this.decodeLastModifiedTime(field);
+
+            case END_TO_END_LATENCY_IN_MS:
+            case SERVER_LATENCY_IN_MS:
+            case OPERATION_COUNT:
+                return this.decodeInt(field, start, end);
+
+            case REQUEST_HEADER_SIZE:
+            case REQUEST_PACKET_SIZE:
+            case RESPONSE_HEADER_SIZE:
+            case RESPONSE_PACKET_SIZE:
+            case REQUEST_CONTENT_LENGTH:
+                return this.decodeLong(field, start, end);
+
+            case REQUEST_ID_HEADER:
+                return this.decodeUuid(field, start, end);
+
+            case REQUEST_URL:
+                try {
+                    return new URI(Html.fromHtml(this.decodeString(field)).toString());
+                }
+                catch (URISyntaxException e) {
+                    throw this.generateParseException(field, e);
+                }
+
+            default:
+                return this.decodeString(field);
+        }
+    }
+
+    /**
+     * Decodes a field as a string, removing the surrounding quotes of a quoted string.
+     */
+    private String decodeString(LogRecordField field) {
+        final int index = field.ordinal();
+        int start = this.scanner.getFieldStart(index);
+        int end = this.scanner.getFieldEnd(index);
+        final byte[] buffer = this.scanner.getBuffer();
+        if (end - start >= 2 && buffer[start] == LogRecordStreamReader.QUOTE_CHAR) {
+            start++;
+            end--;
+        }
+
+        return start == end ? null : new String(buffer, start, end - start, UTF8);
+    }
+
+    /**
+     * Decodes a decimal integer field which must fit in an <code>int</code>, as <code>Integer.parseInt</code> would.
+     */
+    private int decodeInt(LogRecordField field, int start, int end) {
+        final long value = this.decodeLong(field, start, end);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException(new String(this.scanner.getBuffer(), start, end - start, UTF8));
+        }
+
+        return (int) value;
+    }
+
+    /**
+     * Decodes a decimal integer field without allocating an intermediate string.
+     */
+    private long decodeLong(LogRecordField field, int start, int end) {
+        final byte[] buffer = this.scanner.getBuffer();
+        final boolean negative = buffer[start] == '-';
+        int i = negative ? start + 1 : start;
+        if (i == end || end - i > 18) {
+            throw new NumberFormatException(new String(buffer, start, end - start, UTF8));
+        }
+
+        long value = 0;
+        for (; i < end; i++) {
+            final int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException(new String(buffer, start, end - start, UTF8));
+            }
+
+            value = value * 10 + digit;
+        }
+
+        return negative ? -value : value;
+    }
+
+    /**
+     * Decodes a UUID field in its canonical 8-4-4-4-12 hexadecimal form.
+     */
+    private UUID decodeUuid(LogRecordField field, int start, int end) {
+        final byte[] buffer = this.scanner.getBuffer();
+        if (end - start != 36 || buffer[start + 8] != '-' || buffer[start + 13] != '-' || buffer[start + 18] != '-'
+                || buffer[start + 23] != '-') {
+            // Not the canonical form, let UUID report or accept it.
+            return UUID.fromString(new String(buffer, start, end - start, UTF8));
+        }
+
+        long most = 0;
+        long least = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            if (buffer[i] == '-') {
+                continue;
+            }
+
+            final int nibble = Character.digit(buffer[i], 16);
+            if (nibble < 0) {
+                throw new NumberFormatException(new String(buffer, start, end - start, UTF8));
+            }
+
+            if (digits++ < 16) {
+                most = (most << 4) | nibble;
+            }
+            else {
+                least = (least << 4) | nibble;
+            }
+        }
+
+        return new UUID(most, least);
+    }
+
+    /**
+     * Decodes a RequestStartTime value of the form <code>yyyy-MM-ddTHH:mm:ss.fffffffZ</code>. Fractional digits
+     * beyond milliseconds are truncated.
+     */
+    private Date decodeRequestStartTime(LogRecordField field, int start, int end) {
+        final byte[] buffer = this.scanner.getBuffer();
+        if (end - start < 20 || buffer[start + 4] != '-' || buffer[start + 7] != '-' || buffer[start + 10] != 'T'
+                || buffer[start + 13] != ':' || buffer[start + 16] != ':' || buffer[end - 1] != 'Z') {
+            throw this.generateParseException(field, null);
+        }
+
+        final int year = this.decodeDigits(field, start, 4);
+        final int month = this.decodeDigits(field, start + 5, 2);
+        final int day = this.decodeDigits(field, start + 8, 2);
+        final int hour = this.decodeDigits(field, start + 11, 2);
+        final int minute = this.decodeDigits(field, start + 14, 2);
+        final int second = this.decodeDigits(field, start + 17, 2);
+
+        int millis = 0;
+        if (end - start > 20) {
+            if (buffer[start + 19] != '.') {
+                throw this.generateParseException(field, null);
+            }
+
+            final int fractionDigits = Math.min(end - start - 21, 3);
+            millis = fractionDigits == 0 ? 0 : this.decodeDigits(field, start + 20, fractionDigits);
+            for (int i = fractionDigits; i < 3; i++) {
+                millis *= 10;
+            }
+        }
+
+        if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 59) {
+            throw this.generateParseException(field, null);
+        }
+
+        return new Date(DateCodec.toEpochMillis(year, month, day, hour, minute, second, millis));
+    }
+
+    /**
+     * Decodes a LastModifiedTime value, which uses the RFC 850 format.
+     */
+    private Date decodeLastModifiedTime(LogRecordField field) {
+        try {
+            return DateCodec.parseRFC850(this.decodeString(field));
+        }
+        catch (ParseException e) {
+            throw this.generateParseException(field, e);
+        }
+    }
+
+    private int decodeDigits(LogRecordField field, int start, int count) {
+        final byte[] buffer = this.scanner.getBuffer();
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            final int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw this.generateParseException(field, null);
+            }
+
+            value = value * 10 + digit;
+        }
+
+        return value;
+    }
+
+    private IllegalArgumentException generateParseException(LogRecordField field, Exception cause) {
+        final IllegalArgumentException ex = new IllegalArgumentException(String.format(SR.LOG_FIELD_PARSE_ERROR,
+                field));
+        if (cause != null) {
+            ex.initCause(cause);
+        }
+
+        return ex;
+    }
+}
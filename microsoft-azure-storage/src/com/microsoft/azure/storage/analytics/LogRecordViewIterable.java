@@ -0,0 +1,48 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.analytics;
+
+import java.util.EnumSet;
+import java.util.Iterator;
+
+import com.microsoft.azure.storage.blob.ListBlobItem;
+
+/**
+ * RESERVED FOR INTERNAL USE. Provides an overlay on the LogBlobIterable class for enumerating Storage Analytics
+ * log records as {@link LogRecordView} flyweights. This handles the logic for the listLogRecordViews() methods found
+ * in the <code>CloudAnalyticsClient<code> class.
+ */
+class LogRecordViewIterable implements Iterable<LogRecordView> {
+
+    /**
+     * Holds the iterator from which we get log blobs.
+     */
+    private final Iterator<ListBlobItem> logBlobIterator;
+
+    /**
+     * Holds the fields the views may read.
+     */
+    private final EnumSet<LogRecordField> fields;
+
+    public LogRecordViewIterable(Iterator<ListBlobItem> logBlobIterator, EnumSet<LogRecordField> fields) {
+        this.logBlobIterator = logBlobIterator;
+        this.fields = fields;
+    }
+
+    @Override
+    public Iterator<LogRecordView> iterator() {
+        return new LogRecordViewIterator(this.logBlobIterator, this.fields);
+    }
+}
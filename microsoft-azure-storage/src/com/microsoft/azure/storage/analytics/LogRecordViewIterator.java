@@ -0,0 +1,148 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.analytics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.storage.blob.ListBlobItem;
+import com.microsoft.azure.storage.core.SR;
+
+/**
+ * RESERVED FOR INTERNAL USE. Provides an overlay on the LogBlobIterator class for enumerating Storage Analytics
+ * log records as {@link LogRecordView} flyweights. This handles the logic for the listLogRecordViews() methods found
+ * in the <code>CloudAnalyticsClient<code> class.
+ */
+class LogRecordViewIterator implements Iterator<LogRecordView> {
+
+    /**
+     * Holds the iterator from which we get log blobs.
+     */
+    private final Iterator<ListBlobItem> logBlobIterator;
+
+    /**
+     * Holds the view returned for every record.
+     */
+    private final LogRecordView view;
+
+    /**
+     * Holds the scanner for the current blob.
+     */
+    private LogRecordByteScanner scanner;
+
+    /**
+     * Flag to indicate whether there's a current record pending.
+     */
+    private boolean isLogRecordPending = false;
+
+    /**
+     * Constructs a new iterator using an underlying LogBlobIterator.
+     * 
+     * @param logBlobIterator
+     * @param fields
+     *            the fields the returned views may read, or null for all fields.
+     */
+    public LogRecordViewIterator(final Iterator<ListBlobItem> logBlobIterator, final EnumSet<LogRecordField> fields) {
+        this.logBlobIterator = logBlobIterator;
+        this.view = new LogRecordView(fields);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.isLogRecordPending) {
+            // Already positioned on a log record.
+            return true;
+        }
+
+        try {
+            while (true) {
+                if (this.scanner != null) {
+                    if (this.scanner.nextRecord()) {
+                        this.view.moveTo(this.scanner);
+                        this.isLogRecordPending = true;
+                        return true;
+                    }
+
+                    // This $logs blob is exhausted, clean up its scanner.
+                    this.scanner.close();
+                    this.scanner = null;
+                }
+
+                if (!this.logBlobIterator.hasNext()) {
+                    // We are out of $logs blobs altogether.
+                    return false;
+                }
+
+                this.scanner = new LogRecordByteScanner(this.openLogBlob(this.logBlobIterator.next()));
+            }
+        }
+        catch (IOException e) {
+            final NoSuchElementException ex = new NoSuchElementException(SR.ENUMERATION_ERROR);
+            ex.initCause(e);
+            throw ex;
+        }
+        catch (StorageException e) {
+            final NoSuchElementException ex = new NoSuchElementException(SR.ENUMERATION_ERROR);
+            ex.initCause(e);
+            throw ex;
+        }
+        catch (IllegalStateException e) {
+            // Malformed record.
+            final NoSuchElementException ex = new NoSuchElementException(SR.ENUMERATION_ERROR);
+            ex.initCause(e);
+            throw ex;
+        }
+        catch (IllegalArgumentException e) {
+            // Unsupported log version.
+            final NoSuchElementException ex = new NoSuchElementException(SR.ENUMERATION_ERROR);
+            ex.initCause(e);
+            throw ex;
+        }
+    }
+
+    @Override
+    public LogRecordView next() {
+        if (this.hasNext()) {
+            this.isLogRecordPending = false;
+            return this.view;
+        }
+        else {
+            throw new NoSuchElementException(SR.ITERATOR_EMPTY);
+        }
+    }
+
+    @Override
+    public void remove() {
+        // Remove not supported.
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Opens the content of a log blob.
+     * 
+     * @param logBlob
+     *            the log blob to open.
+     * @return an <code>InputStream</code> on the content of the blob.
+     * @throws StorageException
+     */
+    InputStream openLogBlob(final ListBlobItem logBlob) throws StorageException {
+        return ((CloudBlockBlob) logBlob).openInputStream();
+    }
+}
@@ -0,0 +1,251 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.analytics;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import com.microsoft.azure.storage.core.SR;
+
+/**
+ * Represents the aggregated values of a group of metrics table rows, as returned by a {@link MetricsReader}.
+ * <p>
+ * For each column the aggregate tracks the number of rows holding a value, and their sum, minimum and maximum. The
+ * values themselves are kept as well so percentiles, such as the 99th percentile peak, can be read.
+ * Columns which hold averages or percentages, such as AverageE2ELatency or Availability, are averaged per row and
+ * are not weighted by the request count.
+ */
+public final class MetricsAggregate {
+
+    /**
+     * Holds the start of the aggregation interval, or null if the rows were not grouped by interval.
+     */
+    private final Date intervalStart;
+
+    /**
+     * Holds the API (RowKey), or null if the rows were not grouped by API.
+     */
+    private final String api;
+
+    /**
+     * Holds the aggregated column names.
+     */
+    private final String[] columns;
+
+    /**
+     * Holds the number of rows folded into the aggregate.
+     */
+    private int rowCount;
+
+    private final int[] counts;
+
+    private final double[] sums;
+
+    private final double[] minimums;
+
+    private final double[] maximums;
+
+    private final double[][] values;
+
+    /**
+     * Initializes a new instance of the MetricsAggregate class.
+     * 
+     * @param intervalStart
+     *            the start of the aggregation interval, or null.
+     * @param api
+     *            the API, or null.
+     * @param columns
+     *            the aggregated column names.
+     */
+    MetricsAggregate(Date intervalStart, String api, String[] columns) {
+        this.intervalStart = intervalStart;
+        this.api = api;
+        this.columns = columns;
+        this.counts = new int[columns.length];
+        this.sums = new double[columns.length];
+        this.minimums = new double[columns.length];
+        this.maximums = new double[columns.length];
+        this.values = new double[columns.length][];
+    }
+
+    /**
+     * Folds the values of one row into the aggregate.
+     * 
+     * @param values
+     *            the column values of the row, in column order, with <code>NaN</code> for missing values.
+     */
+    void add(double[] values) {
+        this.rowCount++;
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (Double.isNaN(value)) {
+                continue;
+            }
+
+            if (this.counts[i]++ == 0) {
+                this.minimums[i] = value;
+                this.maximums[i] = value;
+            }
+            else {
+                this.minimums[i] = Math.min(this.minimums[i], value);
+                this.maximums[i] = Math.max(this.maximums[i], value);
+            }
+
+            this.sums[i] += value;
+
+            final int count = this.counts[i];
+            if (this.values[i] == null) {
+                this.values[i] = new double[8];
+            }
+            else if (count > this.values[i].length) {
+                this.values[i] = Arrays.copyOf(this.values[i], this.values[i].length * 2);
+            }
+
+            this.values[i][count - 1] = value;
+        }
+    }
+
+    /**
+     * Gets the start of the aggregation interval.
+     * 
+     * @return
+     *         a <code>Date</code> containing the start of the interval, or null if the rows were not grouped by
+     *         interval.
+     */
+    public Date getIntervalStart() {
+        return this.intervalStart;
+    }
+
+    /**
+     * Gets the API the rows were recorded for, as stored in the RowKey (for example <code>user;GetBlob</code>).
+     * 
+     * @return
+     *         a <code>String</code> containing the API, or null if the rows were not grouped by API.
+     */
+    public String getApi() {
+        return this.api;
+    }
+
+    /**
+     * Gets the number of rows folded into the aggregate.
+     * 
+     * @return
+     *         the number of rows.
+     */
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * Gets the number of rows which held a value for the specified column.
+     * 
+     * @param column
+     *            the column name.
+     * @return
+     *         the number of values.
+     */
+    public int getCount(String column) {
+        return this.counts[this.indexOf(column)];
+    }
+
+    /**
+     * Gets the sum of the values of the specified column.
+     * 
+     * @param column
+     *            the column name.
+     * @return
+     *         the sum, or 0 if no row held a value.
+     */
+    public double getSum(String column) {
+        return this.sums[this.indexOf(column)];
+    }
+
+    /**
+     * Gets the average of the values of the specified column.
+     * 
+     * @param column
+     *            the column name.
+     * @return
+     *         the average, or <code>NaN</code> if no row held a value.
+     */
+    public double getAverage(String column) {
+        final int index = this.indexOf(column);
+        return this.counts[index] == 0 ? Double.NaN : this.sums[index] / this.counts[index];
+    }
+
+    /**
+     * Gets the smallest value of the specified column.
+     * 
+     * @param column
+     *            the column name.
+     * @return
+     *         the minimum, or <code>NaN</code> if no row held a value.
+     */
+    public double getMinimum(String column) {
+        final int index = this.indexOf(column);
+        return this.counts[index] == 0 ? Double.NaN : this.minimums[index];
+    }
+
+    /**
+     * Gets the largest value of the specified column.
+     * 
+     * @param column
+     *            the column name.
+     * @return
+     *         the maximum, or <code>NaN</code> if no row held a value.
+     */
+    public double getMaximum(String column) {
+        final int index = this.indexOf(column);
+        return this.counts[index] == 0 ? Double.NaN : this.maximums[index];
+    }
+
+    /**
+     * Gets a percentile of the values of the specified column, using the nearest-rank method: the smallest value which
+     * is greater than or equal to the specified percentage of the values. The 100th percentile is the maximum.
+     * 
+     * @param column
+     *            the column name.
+     * @param percentile
+     *            the percentile, between 0 and 100.
+     * @return
+     *         the percentile, or <code>NaN</code> if no row held a value.
+     */
+    public double getPercentile(String column, double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException(String.format(SR.PARAMETER_NOT_IN_RANGE, "percentile", 0, 100));
+        }
+
+        final int index = this.indexOf(column);
+        final int count = this.counts[index];
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        final double[] sorted = Arrays.copyOf(this.values[index], count);
+        Arrays.sort(sorted);
+        final int rank = (int) Math.ceil(percentile / 100 * count);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private int indexOf(String column) {
+        for (int i = 0; i < this.columns.length; i++) {
+            if (this.columns[i].equals(column)) {
+                return i;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format(SR.METRICS_COLUMN_NOT_AGGREGATED, column));
+    }
+}
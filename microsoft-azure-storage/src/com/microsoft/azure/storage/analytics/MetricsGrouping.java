@@ -0,0 +1,40 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.analytics;
+
+/**
+ * Specifies how metrics rows are grouped when they are aggregated by a {@link MetricsReader}.
+ */
+public enum MetricsGrouping {
+    /**
+     * All rows are folded into a single aggregate.
+     */
+    NONE,
+
+    /**
+     * Rows are grouped by API, that is by RowKey, across all intervals.
+     */
+    API,
+
+    /**
+     * Rows are grouped by aggregation interval across all APIs.
+     */
+    INTERVAL,
+
+    /**
+     * Rows are grouped by API and aggregation interval.
+     */
+    API_AND_INTERVAL;
+}
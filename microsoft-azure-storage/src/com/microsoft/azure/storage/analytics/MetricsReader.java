@@ -0,0 +1,539 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.analytics;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.azure.storage.Constants;
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.core.SR;
+import com.microsoft.azure.storage.core.Utility;
+import com.microsoft.azure.storage.table.CloudTable;
+import com.microsoft.azure.storage.table.DynamicTableEntity;
+import com.microsoft.azure.storage.table.EdmType;
+import com.microsoft.azure.storage.table.EntityProperty;
+import com.microsoft.azure.storage.table.EntityResolver;
+import com.microsoft.azure.storage.table.TableQuery;
+import com.microsoft.azure.storage.table.TableQuery.Operators;
+import com.microsoft.azure.storage.table.TableQuery.QueryComparisons;
+import com.microsoft.azure.storage.table.TableRequestOptions;
+
+/**
+ * Reads and aggregates the rows of a Storage Analytics metrics table. Use
+ * {@link CloudAnalyticsClient#getHourMetricsReader}, {@link CloudAnalyticsClient#getMinuteMetricsReader} or
+ * {@link CloudAnalyticsClient#getCapacityMetricsReader} to get an instance.
+ * <p>
+ * A time range is split into windows which are queried in parallel. Each query filters on the PartitionKey, which
+ * holds the time of the row, and only requests the aggregated columns. The rows of windows which are complete and
+ * old enough not to change any more are cached, so repeatedly aggregating a sliding range only queries the newest
+ * windows.
+ * <p>
+ * This class is thread safe.
+ */
+public class MetricsReader {
+
+    /**
+     * Represents the default number of windows queried concurrently.
+     */
+    public static final int DEFAULT_CONCURRENT_REQUEST_COUNT = 4;
+
+    /**
+     * Holds how long after its end a window is considered closed. Metrics are written some time after the period
+     * they describe.
+     */
+    static final long CLOSED_WINDOW_DELAY_IN_MS = 60 * 60 * 1000L;
+
+    /**
+     * Holds the number of windows kept in the cache.
+     */
+    private static final int CACHE_CAPACITY = 512;
+
+    /**
+     * Holds the format of the PartitionKey of metrics rows.
+     */
+    private static final String PARTITION_KEY_FORMAT = "yyyyMMdd'T'HHmm";
+
+    private static final String PARTITION_KEY = "PartitionKey";
+
+    private static final String ROW_KEY = "RowKey";
+
+    /**
+     * Holds the metrics table.
+     */
+    private final CloudTable table;
+
+    /**
+     * Holds the time period described by one metrics row.
+     */
+    private final long partitionLengthInMs;
+
+    /**
+     * Holds the time period covered by one query.
+     */
+    private final long windowLengthInMs;
+
+    /**
+     * Holds the rows of closed windows, in access order.
+     */
+    private final LinkedHashMap<String, List<MetricsRow>> cache = new LinkedHashMap<String, List<MetricsRow>>(16,
+            0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<MetricsRow>> eldest) {
+            return this.size() > CACHE_CAPACITY;
+        }
+    };
+
+    /**
+     * Holds the number of windows queried concurrently.
+     */
+    private volatile int concurrentRequestCount = DEFAULT_CONCURRENT_REQUEST_COUNT;
+
+    /**
+     * Holds the length of the intervals rows are grouped by.
+     */
+    private volatile long aggregationIntervalInMs;
+
+    /**
+     * Initializes a new instance of the MetricsReader class.
+     * 
+     * @param table
+     *            the metrics table.
+     * @param partitionLengthInMs
+     *            the time period described by one metrics row.
+     * @param windowLengthInMs
+     *            the time period covered by one query; a multiple of <code>partitionLengthInMs</code>.
+     */
+    MetricsReader(CloudTable table, long partitionLengthInMs, long windowLengthInMs) {
+        this.table = table;
+        this.partitionLengthInMs = partitionLengthInMs;
+        this.windowLengthInMs = windowLengthInMs;
+        this.aggregationIntervalInMs = partitionLengthInMs;
+    }
+
+    /**
+     * Gets the metrics table this reader queries.
+     * 
+     * @return
+     *         A {@link CloudTable} object.
+     */
+    public CloudTable getTable() {
+        return this.table;
+    }
+
+    /**
+     * Gets the number of windows queried concurrently.
+     * 
+     * @return
+     *         the number of concurrent queries.
+     */
+    public int getConcurrentRequestCount() {
+        return this.concurrentRequestCount;
+    }
+
+    /**
+     * Gets the length of the intervals rows are grouped by when grouping by interval. Defaults to the period
+     * described by one row: an hour for hour metrics, a minute for minute metrics and a day for capacity metrics.
+     * 
+     * @return
+     *         the length of the aggregation interval, in milliseconds.
+     */
+    public long getAggregationIntervalInMs() {
+        return this.aggregationIntervalInMs;
+    }
+
+    /**
+     * Sets the number of windows queried concurrently.
+     * 
+     * @param concurrentRequestCount
+     *            the number of concurrent queries; must be at least 1.
+     */
+    public void setConcurrentRequestCount(int concurrentRequestCount) {
+        Utility.assertGreaterThanOrEqual("concurrentRequestCount", concurrentRequestCount, 1);
+        this.concurrentRequestCount = concurrentRequestCount;
+    }
+
+    /**
+     * Sets the length of the intervals rows are grouped by when grouping by interval. For example, set a day to roll
+     * hour metrics up into daily aggregates.
+     * 
+     * @param aggregationIntervalInMs
+     *            the length of the aggregation interval, in milliseconds; a positive multiple of the period described
+     *            by one row.
+     */
+    public void setAggregationIntervalInMs(long aggregationIntervalInMs) {
+        if (aggregationIntervalInMs <= 0 || aggregationIntervalInMs % this.partitionLengthInMs != 0) {
+            throw new IllegalArgumentException(String.format(SR.METRICS_INTERVAL_INVALID, this.partitionLengthInMs));
+        }
+
+        this.aggregationIntervalInMs = aggregationIntervalInMs;
+    }
+
+    /**
+     * Aggregates the specified columns of the rows recorded in a time range.
+     * 
+     * @param startTime
+     *            A <code>java.util.Date</code> object representing the start of the time range, inclusive.
+     * @param endTime
+     *            A <code>java.util.Date</code> object representing the end of the time range, exclusive.
+     * @param grouping
+     *            A {@link MetricsGrouping} value that indicates how rows are grouped.
+     * @param columns
+     *            The names of the columns to aggregate, for example <code>TotalRequests</code>.
+     * @return
+     *         A <code>List</code> of {@link MetricsAggregate} objects, ordered by interval and then by API.
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    public List<MetricsAggregate> aggregate(Date startTime, Date endTime, MetricsGrouping grouping, String... columns)
+            throws StorageException {
+        return this.aggregate(startTime, endTime, grouping, columns, null /* apis */, null /* options */,
+                null /* opContext */);
+    }
+
+    /**
+     * Aggregates the specified columns of the rows recorded in a time range for the specified APIs.
+     * 
+     * @param startTime
+     *            A <code>java.util.Date</code> object representing the start of the time range, inclusive.
+     * @param endTime
+     *            A <code>java.util.Date</code> object representing the end of the time range, exclusive.
+     * @param grouping
+     *            A {@link MetricsGrouping} value that indicates how rows are grouped.
+     * @param columns
+     *            The names of the columns to aggregate, for example <code>TotalRequests</code>.
+     * @param apis
+     *            The RowKey values of the rows to aggregate, for example <code>user;GetBlob</code>, or null for all
+     *            rows. Note that the <code>All</code> rows summarize the other rows of their interval.
+     * @param options
+     *            A {@link TableRequestOptions} object that specifies additional options for the request.
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation.
+     * @return
+     *         A <code>List</code> of {@link MetricsAggregate} objects, ordered by interval and then by API.
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    public List<MetricsAggregate> aggregate(Date startTime, Date endTime, MetricsGrouping grouping, String[] columns,
+            Collection<String> apis, final TableRequestOptions options, final OperationContext opContext)
+            throws StorageException {
+        Utility.assertNotNull("startTime", startTime);
+        Utility.assertNotNull("endTime", endTime);
+        Utility.assertNotNull("grouping", grouping);
+        Utility.assertNotNull("columns", columns);
+
+        final long start = floor(startTime.getTime(), this.partitionLengthInMs);
+        final long end = endTime.getTime();
+        final String[] selectedColumns = columns.clone();
+        final String apisFilter = generateApisFilter(apis);
+        final String cacheKeySuffix = Arrays.toString(selectedColumns) + apisFilter;
+        final long closedBefore = System.currentTimeMillis() - CLOSED_WINDOW_DELAY_IN_MS;
+
+        // Rows of each window in time order, either from the cache or from a pending query.
+        final List<Object> windows = new ArrayList<Object>();
+        final List<Callable<List<MetricsRow>>> queries = new ArrayList<Callable<List<MetricsRow>>>();
+        for (long window = floor(start, this.windowLengthInMs); window < end; window += this.windowLengthInMs) {
+            final long windowStart = Math.max(window, start);
+            final long windowEnd = Math.min(window + this.windowLengthInMs, end);
+            final boolean isCacheable = windowStart == window && windowEnd == window + this.windowLengthInMs
+                    && windowEnd <= closedBefore;
+            final String cacheKey = window + cacheKeySuffix;
+
+            List<MetricsRow> rows = null;
+            if (isCacheable) {
+                synchronized (this.cache) {
+                    rows = this.cache.get(cacheKey);
+                }
+            }
+
+            if (rows != null) {
+                windows.add(rows);
+            }
+            else {
+                final Callable<List<MetricsRow>> query = new Callable<List<MetricsRow>>() {
+                    @Override
+                    public List<MetricsRow> call() throws StorageException {
+                        final List<MetricsRow> result = MetricsReader.this.queryWindow(windowStart, windowEnd,
+                                selectedColumns, apisFilter, options, opContext);
+                        if (isCacheable) {
+                            synchronized (MetricsReader.this.cache) {
+                                MetricsReader.this.cache.put(cacheKey, result);
+                            }
+                        }
+
+                        return result;
+                    }
+                };
+                windows.add(query);
+                queries.add(query);
+            }
+        }
+
+        final Map<Callable<List<MetricsRow>>, List<MetricsRow>> results = this.runQueries(queries);
+
+        // Fold the rows into the requested groups.
+        final boolean byInterval = grouping == MetricsGrouping.INTERVAL || grouping == MetricsGrouping.API_AND_INTERVAL;
+        final boolean byApi = grouping == MetricsGrouping.API || grouping == MetricsGrouping.API_AND_INTERVAL;
+        final long interval = this.aggregationIntervalInMs;
+        final TreeMap<Long, TreeMap<String, MetricsAggregate>> groups = new TreeMap<Long, TreeMap<String, MetricsAggregate>>();
+        for (Object window : windows) {
+            @SuppressWarnings("unchecked")
+            final List<MetricsRow> rows = window instanceof List ? (List<MetricsRow>) window : results.get(window);
+            for (MetricsRow row : rows) {
+                final Long intervalKey = byInterval ? floor(row.time, interval) : Long.MIN_VALUE;
+                final String apiKey = byApi ? row.api : Constants.EMPTY_STRING;
+                TreeMap<String, MetricsAggregate> intervalGroups = groups.get(intervalKey);
+                if (intervalGroups == null) {
+                    intervalGroups = new TreeMap<String, MetricsAggregate>();
+                    groups.put(intervalKey, intervalGroups);
+                }
+
+                MetricsAggregate aggregate = intervalGroups.get(apiKey);
+                if (aggregate == null) {
+                    aggregate = new MetricsAggregate(byInterval ? new Date(intervalKey) : null, byApi ? apiKey : null,
+                            selectedColumns);
+                    intervalGroups.put(apiKey, aggregate);
+                }
+
+                aggregate.add(row.values);
+            }
+        }
+
+        final List<MetricsAggregate> aggregates = new ArrayList<MetricsAggregate>();
+        for (TreeMap<String, MetricsAggregate> intervalGroups : groups.values()) {
+            aggregates.addAll(intervalGroups.values());
+        }
+
+        return aggregates;
+    }
+
+    /**
+     * Clears the cached rows of closed windows.
+     */
+    public void clearCache() {
+        synchronized (this.cache) {
+            this.cache.clear();
+        }
+    }
+
+    /**
+     * Queries the rows of one window. Overridden by tests.
+     * 
+     * @param windowStart
+     *            the start of the window, inclusive.
+     * @param windowEnd
+     *            the end of the window, exclusive.
+     * @param columns
+     *            the columns to retrieve.
+     * @param apisFilter
+     *            the filter on the RowKey, or null.
+     * @param options
+     *            the request options.
+     * @param opContext
+     *            the operation context.
+     * @return
+     *         the rows of the window.
+     * @throws StorageException
+     */
+    List<MetricsRow> queryWindow(long windowStart, long windowEnd, final String[] columns, String apisFilter,
+            TableRequestOptions options, OperationContext opContext) throws StorageException {
+        final SimpleDateFormat format = new SimpleDateFormat(PARTITION_KEY_FORMAT, Utility.LOCALE_US);
+        format.setTimeZone(Utility.UTC_ZONE);
+
+        String filter = TableQuery.combineFilters(TableQuery.generateFilterCondition(PARTITION_KEY,
+                QueryComparisons.GREATER_THAN_OR_EQUAL, format.format(new Date(windowStart))), Operators.AND,
+                TableQuery.generateFilterCondition(PARTITION_KEY, QueryComparisons.LESS_THAN,
+                        format.format(new Date(windowEnd))));
+        if (apisFilter != null) {
+            filter = TableQuery.combineFilters(filter, Operators.AND, apisFilter);
+        }
+
+        final TableQuery<DynamicTableEntity> query = TableQuery.from(DynamicTableEntity.class).where(filter)
+                .select(columns);
+        final HashMap<String, Long> partitionTimes = new HashMap<String, Long>();
+        final EntityResolver<MetricsRow> resolver = new EntityResolver<MetricsRow>() {
+            @Override
+            public MetricsRow resolve(String partitionKey, String rowKey, Date timeStamp,
+                    HashMap<String, EntityProperty> properties, String etag) {
+                Long time = partitionTimes.get(partitionKey);
+                if (time == null) {
+                    time = parsePartitionKey(partitionKey);
+                    partitionTimes.put(partitionKey, time);
+                }
+
+                final double[] values = new double[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    values[i] = toDouble(properties.get(columns[i]));
+                }
+
+                return new MetricsRow(time, rowKey, values);
+            }
+        };
+
+        final List<MetricsRow> rows = new ArrayList<MetricsRow>();
+        for (MetricsRow row : this.table.execute(query, resolver, options, opContext)) {
+            rows.add(row);
+        }
+
+        return rows;
+    }
+
+    /**
+     * Runs the window queries, in parallel when there are several.
+     */
+    private Map<Callable<List<MetricsRow>>, List<MetricsRow>> runQueries(
+            final List<Callable<List<MetricsRow>>> queries) throws StorageException {
+        final Map<Callable<List<MetricsRow>>, List<MetricsRow>> results = new HashMap<Callable<List<MetricsRow>>, List<MetricsRow>>();
+        if (queries.size() == 1) {
+            try {
+                results.put(queries.get(0), queries.get(0).call());
+                return results;
+            }
+            catch (StorageException e) {
+                throw e;
+            }
+            catch (Exception e) {
+                throw Utility.generateNewUnexpectedStorageException(e);
+            }
+        }
+
+        if (queries.isEmpty()) {
+            return results;
+        }
+
+        final int threadCount = Math.min(this.concurrentRequestCount, queries.size());
+        final ExecutorService threadExecutor = new ThreadPoolExecutor(threadCount, threadCount, 10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        try {
+            final List<Future<List<MetricsRow>>> futures = new ArrayList<Future<List<MetricsRow>>>();
+            for (Callable<List<MetricsRow>> query : queries) {
+                futures.add(threadExecutor.submit(query));
+            }
+
+            for (int i = 0; i < queries.size(); i++) {
+                results.put(queries.get(i), futures.get(i).get());
+            }
+
+            return results;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Utility.generateNewUnexpectedStorageException(e);
+        }
+        catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            else if (cause instanceof StorageException) {
+                throw (StorageException) cause;
+            }
+
+            throw Utility.generateNewUnexpectedStorageException(cause instanceof Exception ? (Exception) cause : e);
+        }
+        finally {
+            threadExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the time a metrics row describes from its PartitionKey.
+     */
+    static long parsePartitionKey(String partitionKey) {
+        if (partitionKey.length() != PARTITION_KEY_FORMAT.length() - 2 || partitionKey.charAt(8) != 'T') {
+            throw new IllegalArgumentException(String.format(SR.INVALID_DATE_STRING, partitionKey));
+        }
+
+        try {
+            final GregorianCalendar calendar = new GregorianCalendar(Utility.UTC_ZONE);
+            calendar.clear();
+            calendar.set(Integer.parseInt(partitionKey.substring(0, 4)),
+                    Integer.parseInt(partitionKey.substring(4, 6)) - 1, Integer.parseInt(partitionKey.substring(6, 8)),
+                    Integer.parseInt(partitionKey.substring(9, 11)), Integer.parseInt(partitionKey.substring(11, 13)));
+            return calendar.getTimeInMillis();
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format(SR.INVALID_DATE_STRING, partitionKey), e);
+        }
+    }
+
+    private static double toDouble(EntityProperty property) {
+        if (property == null || property.getIsNull()) {
+            return Double.NaN;
+        }
+
+        final EdmType type = property.getEdmType();
+        if (type == EdmType.DOUBLE || type == EdmType.INT32 || type == EdmType.INT64) {
+            return property.getValueAsDouble();
+        }
+
+        return Double.NaN;
+    }
+
+    private static String generateApisFilter(Collection<String> apis) {
+        if (apis == null || apis.isEmpty()) {
+            return null;
+        }
+
+        String filter = null;
+        for (String api : apis) {
+            final String condition = TableQuery.generateFilterCondition(ROW_KEY,
+                    QueryComparisons.EQUAL, api);
+            filter = filter == null ? condition : TableQuery.combineFilters(filter, Operators.OR, condition);
+        }
+
+        return filter;
+    }
+
+    private static long floor(long value, long unit) {
+        return value - (((value % unit) + unit) % unit);
+    }
+
+    /**
+     * Represents the projected values of one metrics row.
+     */
+    static final class MetricsRow {
+        final long time;
+
+        final String api;
+
+        final double[] values;
+
+        MetricsRow(long time, String api, double[] values) {
+            this.time = time;
+            this.api = api;
+            this.values = values;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.analytics;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import com.microsoft.azure.storage.blob.ListBlobItem;
+
+/**
+ * Represents an enumerable collection of log records which are downloaded and parsed in parallel. Each call to
+ * {@link #iterator()} starts a new enumeration, listing the log blobs again. Worker threads stop on their own once
+ * every record has been returned; call {@link #close()} to stop the workers of all enumerations early when they are
+ * abandoned.
+ */
+public class ParallelLogRecordIterable implements Iterable<LogRecord>, Closeable {
+
+    /**
+     * Holds the collection from which we get log blobs.
+     */
+    private final Iterable<ListBlobItem> logBlobs;
+
+    /**
+     * Holds the start of the requested time range, or null.
+     */
+    private final Date startTime;
+
+    /**
+     * Holds the end of the requested time range, or null.
+     */
+    private final Date endTime;
+
+    /**
+     * Holds the options controlling the parallel ingestion.
+     */
+    private final LogIngestionOptions ingestionOptions;
+
+    /**
+     * Holds the iterators which were started and have not ended yet, guarded by this.
+     */
+    private final List<ParallelLogRecordIterator> iterators = new ArrayList<ParallelLogRecordIterator>();
+
+    /**
+     * Flag that indicates whether the collection was closed, guarded by this.
+     */
+    private boolean closed;
+
+    /**
+     * Initializes a new instance of the ParallelLogRecordIterable class.
+     * 
+     * @param logBlobs
+     *            the collection from which we get log blobs.
+     * @param startTime
+     *            the start of the requested time range, or null.
+     * @param endTime
+     *            the end of the requested time range, or null.
+     * @param ingestionOptions
+     *            the options controlling the parallel ingestion.
+     */
+    ParallelLogRecordIterable(Iterable<ListBlobItem> logBlobs, Date startTime, Date endTime,
+            LogIngestionOptions ingestionOptions) {
+        this.logBlobs = logBlobs;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.ingestionOptions = ingestionOptions;
+    }
+
+    @Override
+    public synchronized Iterator<LogRecord> iterator() {
+        final ParallelLogRecordIterator iterator = this.createIterator(this.logBlobs.iterator(), this.startTime,
+                this.endTime, this.ingestionOptions);
+        if (this.closed) {
+            iterator.close();
+        }
+        else {
+            this.iterators.add(iterator);
+            iterator.setIterable(this);
+        }
+
+        return iterator;
+    }
+
+    /**
+     * Stops all the enumerations and releases their worker threads.
+     */
+    @Override
+    public void close() {
+        final List<ParallelLogRecordIterator> started;
+        synchronized (this) {
+            this.closed = true;
+            started = new ArrayList<ParallelLogRecordIterator>(this.iterators);
+            this.iterators.clear();
+        }
+
+        for (final ParallelLogRecordIterator iterator : started) {
+            iterator.close();
+        }
+    }
+
+    /**
+     * Gets the number of enumerations which have not ended yet.
+     * 
+     * @return the number of enumerations.
+     */
+    synchronized int getOpenIteratorCount() {
+        return this.iterators.size();
+    }
+
+    /**
+     * Forgets an enumeration which has ended, either because every record was returned or because it was closed.
+     * 
+     * @param iterator
+     *            the iterator of the enumeration.
+     */
+    synchronized void remove(final ParallelLogRecordIterator iterator) {
+        this.iterators.remove(iterator);
+    }
+
+    /**
+     * Creates the iterator of a new enumeration.
+     * 
+     * @param logBlobIterator
+     *            the iterator from which we get log blobs.
+     * @param startTime
+     *            the start of the requested time range, or null.
+     * @param endTime
+     *            the end of the requested time range, or null.
+     * @param ingestionOptions
+     *            the options controlling the parallel ingestion.
+     * @return the iterator.
+     */
+    ParallelLogRecordIterator createIterator(Iterator<ListBlobItem> logBlobIterator, Date startTime, Date endTime,
+            LogIngestionOptions ingestionOptions) {
+        return new ParallelLogRecordIterator(logBlobIterator, startTime, endTime, ingestionOptions);
+    }
+}
@@ -0,0 +1,513 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.analytics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.azure.storage.Constants;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azure.storage.blob.ListBlobItem;
+import com.microsoft.azure.storage.core.SR;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * RESERVED FOR INTERNAL USE. Enumerates Storage Analytics log records by downloading and parsing several log blobs
+ * concurrently on a worker pool. Parsed records are handed to the caller in batches through bounded queues, one
+ * queue per ordering group, so workers wait rather than buffering whole blobs when the caller falls behind.
+ * <p>
+ * This iterator is not thread safe; it must be consumed from a single thread. {@link #close()} may be called from any
+ * thread, and wakes a consumer waiting for records.
+ */
+class ParallelLogRecordIterator implements Iterator<LogRecord>, Closeable {
+
+    /**
+     * Holds the number of records handed over at once.
+     */
+    static final int BATCH_SIZE = 256;
+
+    /**
+     * Holds how long a worker waits on a full queue, or the consumer on an empty one, before checking whether the
+     * enumeration was closed.
+     */
+    private static final long WAIT_INTERVAL_IN_MS = 100;
+
+    /**
+     * Holds the iterator from which we get log blobs.
+     */
+    private final Iterator<ListBlobItem> logBlobIterator;
+
+    /**
+     * Holds the start of the requested time range, or null.
+     */
+    private final Date startTime;
+
+    /**
+     * Holds the end of the requested time range, or null.
+     */
+    private final Date endTime;
+
+    /**
+     * Holds the order in which records are returned.
+     */
+    private final LogRecordOrdering ordering;
+
+    /**
+     * Holds the maximum number of blobs being processed at once.
+     */
+    private final int concurrentBlobCount;
+
+    /**
+     * Holds the capacity, in batches, of each group queue.
+     */
+    private final int groupCapacity;
+
+    /**
+     * The ExecutorService used to download and parse log blobs.
+     */
+    private final ThreadPoolExecutor threadExecutor;
+
+    /**
+     * Holds the groups that still have records to return, in listing order. Only used by the consumer thread.
+     */
+    private final LinkedList<RecordGroup> groups = new LinkedList<RecordGroup>();
+
+    /**
+     * Holds the number of blobs submitted whose end marker has not been consumed yet.
+     */
+    private int inFlightBlobCount;
+
+    /**
+     * Flag that indicates whether the log blob listing has been exhausted.
+     */
+    private boolean isListingComplete;
+
+    /**
+     * Flag that indicates whether the enumeration was closed. Read by the workers.
+     */
+    private volatile boolean isClosed;
+
+    /**
+     * Holds the collection which started this enumeration, or null.
+     */
+    private volatile ParallelLogRecordIterable iterable;
+
+    /**
+     * Holds the batch currently being returned.
+     */
+    private List<LogRecord> currentBatch;
+
+    /**
+     * Holds the index of the next record of the current batch.
+     */
+    private int currentIndex;
+
+    /**
+     * Constructs a new iterator using an underlying LogBlobIterator.
+     * 
+     * @param logBlobIterator
+     *            the iterator from which we get log blobs.
+     * @param startTime
+     *            the start of the requested time range, or null.
+     * @param endTime
+     *            the end of the requested time range, or null.
+     * @param ingestionOptions
+     *            the options controlling the parallel ingestion.
+     */
+    public ParallelLogRecordIterator(final Iterator<ListBlobItem> logBlobIterator, final Date startTime,
+            final Date endTime, final LogIngestionOptions ingestionOptions) {
+        this.logBlobIterator = logBlobIterator;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.ordering = ingestionOptions.getOrdering();
+        this.concurrentBlobCount = ingestionOptions.getConcurrentBlobCount();
+
+        final int bufferedBatches = Math.max(1, ingestionOptions.getMaximumBufferedRecords() / BATCH_SIZE);
+        this.groupCapacity = this.ordering == LogRecordOrdering.NONE ? bufferedBatches : Math.max(1, bufferedBatches
+                / this.concurrentBlobCount);
+
+        this.threadExecutor = new ThreadPoolExecutor(this.concurrentBlobCount, this.concurrentBlobCount, 10,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        final Thread thread = new Thread(r, "azure-storage-log-ingestion");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        this.threadExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.isClosed) {
+            this.release();
+            return false;
+        }
+
+        if (this.currentBatch != null && this.currentIndex < this.currentBatch.size()) {
+            return true;
+        }
+
+        this.currentBatch = null;
+
+        try {
+            while (true) {
+                this.submitBlobs();
+                if (this.groups.isEmpty()) {
+                    // Every blob has been parsed and returned.
+                    this.close();
+                    this.release();
+                    return false;
+                }
+
+                final RecordGroup head = this.groups.getFirst();
+                if (head.isSealed && head.endedCount == head.submittedCount) {
+                    this.groups.removeFirst();
+                    continue;
+                }
+
+                final RecordBatch batch = head.queue.poll(WAIT_INTERVAL_IN_MS, TimeUnit.MILLISECONDS);
+                if (batch == null) {
+                    if (this.isClosed) {
+                        // Closed by another thread, the workers will not post any more batches.
+                        this.release();
+                        return false;
+                    }
+
+                    continue;
+                }
+
+                if (batch.records == null) {
+                    // End marker for one blob of the group.
+                    head.endedCount++;
+                    this.inFlightBlobCount--;
+                    if (batch.error != null) {
+                        throw this.generateEnumerationException(batch.error);
+                    }
+
+                    continue;
+                }
+
+                this.currentBatch = batch.records;
+                this.currentIndex = 0;
+                return true;
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw this.generateEnumerationException(e);
+        }
+        catch (RuntimeException e) {
+            this.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public LogRecord next() {
+        if (this.hasNext()) {
+            return this.currentBatch.get(this.currentIndex++);
+        }
+        else {
+            throw new NoSuchElementException(SR.ITERATOR_EMPTY);
+        }
+    }
+
+    @Override
+    public void remove() {
+        // Remove not supported.
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Stops the enumeration and the worker threads. Workers notice the close the next time they hand over a batch,
+     * and the consumer the next time it checks for records.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (this.isClosed) {
+                return;
+            }
+
+            this.isClosed = true;
+        }
+
+        this.threadExecutor.shutdownNow();
+        final ParallelLogRecordIterable owner = this.iterable;
+        if (owner != null) {
+            owner.remove(this);
+        }
+    }
+
+    /**
+     * Sets the collection which started this enumeration, which is told when the enumeration ends.
+     * 
+     * @param iterable
+     *            the collection which started this enumeration.
+     */
+    void setIterable(final ParallelLogRecordIterable iterable) {
+        this.iterable = iterable;
+    }
+
+    /**
+     * Drops the records held for the consumer once the enumeration is closed. Only called by the consumer thread.
+     */
+    private void release() {
+        this.groups.clear();
+        this.currentBatch = null;
+    }
+
+    /**
+     * Opens the content of a log blob. Overridden by tests.
+     * 
+     * @param logBlob
+     *            the log blob to open.
+     * @return
+     *         an <code>InputStream</code> over the blob content.
+     * @throws StorageException
+     */
+    InputStream openLogBlob(final ListBlobItem logBlob) throws StorageException {
+        return ((CloudBlob) logBlob).openInputStream();
+    }
+
+    /**
+     * Submits log blobs from the listing until the concurrency limit is reached or the listing is exhausted.
+     */
+    private void submitBlobs() {
+        while (!this.isListingComplete && this.inFlightBlobCount < this.concurrentBlobCount) {
+            if (!this.logBlobIterator.hasNext()) {
+                this.isListingComplete = true;
+                for (RecordGroup group : this.groups) {
+                    group.isSealed = true;
+                }
+
+                return;
+            }
+
+            final ListBlobItem logBlob = this.logBlobIterator.next();
+            if (!this.isInTimeRange((CloudBlob) logBlob)) {
+                continue;
+            }
+
+            final String key = this.getGroupKey((CloudBlob) logBlob);
+            RecordGroup group = this.groups.isEmpty() ? null : this.groups.getLast();
+            if (group == null || !group.key.equals(key)) {
+                if (group != null) {
+                    // Blobs are listed in time order so no later blob can belong to the previous group.
+                    group.isSealed = true;
+                }
+
+                group = new RecordGroup(key, this.groupCapacity);
+                this.groups.addLast(group);
+            }
+
+            group.submittedCount++;
+            this.inFlightBlobCount++;
+
+            // Workers start in submission order, so the blobs of the head group always run before those of later
+            // groups and a full later group can never starve it.
+            this.threadExecutor.execute(new LogBlobWorker(logBlob, group));
+        }
+    }
+
+    /**
+     * Checks the StartTime and EndTime metadata of a log blob, when listed, against the requested time range so
+     * blobs that cannot contain matching records are never downloaded.
+     */
+    private boolean isInTimeRange(final CloudBlob logBlob) {
+        if (this.startTime == null && this.endTime == null) {
+            return true;
+        }
+
+        final HashMap<String, String> metadata = logBlob.getMetadata();
+        final Date logEndTime = parseMetadataTime(metadata.get(Constants.AnalyticsConstants.LOG_END_TIME_METADATA));
+        if (this.startTime != null && logEndTime != null && logEndTime.before(this.startTime)) {
+            return false;
+        }
+
+        final Date logStartTime = parseMetadataTime(metadata
+                .get(Constants.AnalyticsConstants.LOG_START_TIME_METADATA));
+        if (this.endTime != null && logStartTime != null && logStartTime.after(this.endTime)) {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the key of the ordering group the log blob belongs to.
+     */
+    private String getGroupKey(final CloudBlob logBlob) {
+        switch (this.ordering) {
+            case HOUR:
+                // Log blobs are named <service>/YYYY/MM/DD/hhmm/<counter>.log
+                final String name = logBlob.getName();
+                return name.substring(0, name.lastIndexOf('/') + 1);
+
+            case BLOB:
+                return logBlob.getName();
+
+            default:
+                return Constants.EMPTY_STRING;
+        }
+    }
+
+    private NoSuchElementException generateEnumerationException(final Exception cause) {
+        this.close();
+        final NoSuchElementException ex = new NoSuchElementException(SR.ENUMERATION_ERROR);
+        ex.initCause(cause);
+        return ex;
+    }
+
+    private static Date parseMetadataTime(final String value) {
+        if (Utility.isNullOrEmpty(value)) {
+            return null;
+        }
+
+        try {
+            return Utility.parseDate(value);
+        }
+        catch (IllegalArgumentException e) {
+            // Unknown format, the blob is not filtered.
+            return null;
+        }
+    }
+
+    /**
+     * Represents the records of a set of log blobs which are returned together.
+     */
+    private static final class RecordGroup {
+        private final String key;
+
+        private final ArrayBlockingQueue<RecordBatch> queue;
+
+        private int submittedCount;
+
+        private int endedCount;
+
+        private boolean isSealed;
+
+        private RecordGroup(final String key, final int capacity) {
+            this.key = key;
+            this.queue = new ArrayBlockingQueue<RecordBatch>(capacity);
+        }
+    }
+
+    /**
+     * Represents a batch of parsed records, or the end of a log blob when <code>records</code> is null.
+     */
+    private static final class RecordBatch {
+        private final List<LogRecord> records;
+
+        private final Exception error;
+
+        private RecordBatch(final List<LogRecord> records, final Exception error) {
+            this.records = records;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Downloads and parses one log blob.
+     */
+    private final class LogBlobWorker implements Runnable {
+        private final ListBlobItem logBlob;
+
+        private final RecordGroup group;
+
+        private LogBlobWorker(final ListBlobItem logBlob, final RecordGroup group) {
+            this.logBlob = logBlob;
+            this.group = group;
+        }
+
+        @Override
+        public void run() {
+            LogRecordByteScanner scanner = null;
+            Exception error = null;
+            try {
+                scanner = new LogRecordByteScanner(ParallelLogRecordIterator.this.openLogBlob(this.logBlob));
+                final LogRecordView view = new LogRecordView(null);
+                List<LogRecord> batch = new ArrayList<LogRecord>(BATCH_SIZE);
+                while (scanner.nextRecord()) {
+                    view.moveTo(scanner);
+                    batch.add(view.toLogRecord());
+                    if (batch.size() == BATCH_SIZE) {
+                        if (!this.post(new RecordBatch(batch, null))) {
+                            return;
+                        }
+
+                        batch = new ArrayList<LogRecord>(BATCH_SIZE);
+                    }
+                }
+
+                if (!batch.isEmpty() && !this.post(new RecordBatch(batch, null))) {
+                    return;
+                }
+            }
+            catch (Exception e) {
+                error = e;
+            }
+            finally {
+                if (scanner != null) {
+                    try {
+                        scanner.close();
+                    }
+                    catch (IOException e) {
+                        // Ignore, the content has been read.
+                    }
+                }
+            }
+
+            this.post(new RecordBatch(null, error));
+        }
+
+        /**
+         * Hands a batch to the consumer, waiting while the group queue is full.
+         * 
+         * @return
+         *         true if the batch was queued, false if the enumeration was closed.
+         */
+        private boolean post(final RecordBatch batch) {
+            try {
+                while (!ParallelLogRecordIterator.this.isClosed) {
+                    if (this.group.queue.offer(batch, WAIT_INTERVAL_IN_MS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return false;
+        }
+    }
+}
@@ -175,6 +175,11 @@ final class BlobConstants {
      */
     public static final String LATEST_ELEMENT = "Latest";
 
+    /**
+     * The maximum number of blocks in a block blob.
+     */
+    public static final int MAX_BLOCK_COUNT = 50000;
+
     /**
      * The maximum size, in bytes, of a blob before it must be separated into blocks
      */
@@ -0,0 +1,692 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.LinkedHashMap;
+
+import com.microsoft.azure.storage.AccessCondition;
+import com.microsoft.azure.storage.Constants;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.core.ByteBufferOutputStream;
+import com.microsoft.azure.storage.core.SR;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * Represents a cache of blob contents on the local disk, keyed by the URI and the ETag of the blob.
+ * <p>
+ * Once the cache is set with {@link CloudBlobClient#setDiskCache(BlobDiskCache)}, a download of a whole blob through
+ * {@link CloudBlob#download}, {@link CloudBlob#downloadToByteArray} or the methods built on them sends a conditional
+ * request with the ETag of the cached copy. When the service answers that the blob is not modified, the copy is
+ * memory-mapped and read instead; otherwise the downloaded content replaces it. {@link CloudBlob#openInputStream} reads
+ * a cached copy whose ETag matches the attributes it downloads. Downloads with ETag or date conditions of their own
+ * bypass the cache.
+ * <p>
+ * Each copy is a file in the cache directory holding the content followed by the URI, the ETag, the properties and the
+ * metadata of the blob, so a cache opened on an existing directory starts with its copies. A download which reads a
+ * copy restores the blob type, the content headers, the last modified time and the metadata along with the ETag and the
+ * length. The lease, copy, sequence number, committed block count, encryption and tier properties are not kept, since
+ * some of them can change without changing the ETag; such a download leaves them as they were. The least recently used
+ * copies are deleted to keep the total size of the files within the maximum. This class is thread safe; a directory
+ * must be used by a single cache at a time.
+ */
+public final class BlobDiskCache {
+
+    /**
+     * Holds the last field of the trailer of a copy, identifying its format.
+     */
+    static final int TRAILER_VERSION = 0x41534332;
+
+    /**
+     * Holds the length of the fixed part of the trailer: the content length and the version.
+     */
+    private static final int TRAILER_FIXED_LENGTH = 12;
+
+    /**
+     * Holds the suffix of the files of the copies.
+     */
+    private static final String ENTRY_SUFFIX = ".blob";
+
+    /**
+     * Holds the suffix of the files of the copies being downloaded.
+     */
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final File directory;
+
+    private final long maximumSizeInBytes;
+
+    /**
+     * Holds the copies by blob URI, least recently used first, guarded by this.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+    /**
+     * Holds the total length of the files of the copies, guarded by this.
+     */
+    private long sizeInBytes;
+
+    /**
+     * Creates an instance of the <code>BlobDiskCache</code> class which keeps its copies in the specified directory,
+     * starting with the copies already there.
+     * 
+     * @param directory
+     *            A <code>java.io.File</code> object which represents the directory of the cache. It is created if it
+     *            does not exist.
+     * @param maximumSizeInBytes
+     *            A <code>long</code> which represents the maximum total size of the copies, in bytes.
+     * @throws IOException
+     *             If the directory cannot be created or read.
+     */
+    public BlobDiskCache(final File directory, final long maximumSizeInBytes) throws IOException {
+        Utility.assertNotNull("directory", directory);
+        Utility.assertGreaterThanOrEqual("maximumSizeInBytes", maximumSizeInBytes, 0);
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException(String.format(SR.BLOB_CACHE_DIRECTORY_NOT_CREATED, directory));
+        }
+
+        this.directory = directory;
+        this.maximumSizeInBytes = maximumSizeInBytes;
+
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            throw new IOException(String.format(SR.BLOB_CACHE_DIRECTORY_NOT_CREATED, directory));
+        }
+
+        // Files are touched when read, so loading them oldest first restores the least recently used order.
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(final File left, final File right) {
+                final long leftModified = left.lastModified();
+                final long rightModified = right.lastModified();
+                return leftModified < rightModified ? -1 : (leftModified == rightModified ? 0 : 1);
+            }
+        });
+
+        for (final File file : files) {
+            if (file.getName().endsWith(PARTIAL_SUFFIX)) {
+                // Left by an interrupted download.
+                deleteFile(file);
+            }
+            else if (file.getName().endsWith(ENTRY_SUFFIX)) {
+                final Entry entry = readEntry(file);
+                if (entry == null) {
+                    deleteFile(file);
+                }
+                else {
+                    this.add(entry);
+                }
+            }
+        }
+
+        synchronized (this) {
+            this.trim(null);
+        }
+    }
+
+    /**
+     * Gets the directory of the cache.
+     * 
+     * @return A <code>java.io.File</code> object which represents the directory of the cache.
+     */
+    public File getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Gets the maximum total size of the copies.
+     * 
+     * @return A <code>long</code> which represents the maximum total size of the copies, in bytes.
+     */
+    public long getMaximumSizeInBytes() {
+        return this.maximumSizeInBytes;
+    }
+
+    /**
+     * Gets the total size of the copies.
+     * 
+     * @return A <code>long</code> which represents the total size of the copies, in bytes.
+     */
+    public synchronized long getSizeInBytes() {
+        return this.sizeInBytes;
+    }
+
+    /**
+     * Gets the number of blobs which have a copy in the cache.
+     * 
+     * @return An <code>int</code> which represents the number of copies.
+     */
+    public synchronized int getEntryCount() {
+        return this.entries.size();
+    }
+
+    /**
+     * Deletes all the copies.
+     */
+    public synchronized void clear() {
+        for (final Entry entry : this.entries.values()) {
+            deleteFile(entry.file);
+        }
+
+        this.entries.clear();
+        this.sizeInBytes = 0;
+    }
+
+    /**
+     * Gets the key of the copy of a blob: the URI of the blob, including its snapshot.
+     */
+    static String getKey(final CloudBlob blob) throws StorageException {
+        try {
+            return blob.getSnapshotQualifiedUri().toString();
+        }
+        catch (final URISyntaxException e) {
+            throw Utility.generateNewUnexpectedStorageException(e);
+        }
+    }
+
+    /**
+     * Gets whether a download with an access condition can use the cache, which is when the condition holds at most a
+     * lease ID.
+     */
+    static boolean isCacheable(final AccessCondition accessCondition) {
+        return accessCondition == null
+                || (accessCondition.getIfMatch() == null && accessCondition.getIfNoneMatch() == null
+                        && accessCondition.getIfModifiedSinceDate() == null && accessCondition
+                        .getIfUnmodifiedSinceDate() == null);
+    }
+
+    /**
+     * Writes cached content to a stream. The content is put directly into the buffer of a
+     * {@link ByteBufferOutputStream}.
+     */
+    static void copy(final ByteBuffer content, final OutputStream outStream) throws IOException {
+        if (outStream instanceof ByteBufferOutputStream) {
+            final ByteBuffer target = ((ByteBufferOutputStream) outStream).getBuffer();
+            if (content.remaining() > target.remaining()) {
+                throw new IOException(SR.CONTENT_LENGTH_MISMATCH);
+            }
+
+            target.put(content);
+            return;
+        }
+
+        final byte[] transfer = new byte[Math.min(content.remaining(), Constants.BUFFER_COPY_LENGTH)];
+        while (content.hasRemaining()) {
+            final int count = Math.min(content.remaining(), transfer.length);
+            content.get(transfer, 0, count);
+            outStream.write(transfer, 0, count);
+        }
+    }
+
+    /**
+     * Gets the copy of a blob, or <code>null</code> if there is none.
+     */
+    synchronized Entry get(final String key) {
+        return this.entries.get(key);
+    }
+
+    /**
+     * Maps the content of a copy into memory and marks the copy as recently used. Returns <code>null</code> and drops
+     * the copy if its file cannot be read, for instance because it was deleted.
+     */
+    ByteBuffer map(final Entry entry) {
+        try {
+            final RandomAccessFile file = new RandomAccessFile(entry.file, "r");
+            try {
+                final ByteBuffer content = file.getChannel().map(MapMode.READ_ONLY, 0, entry.contentLength);
+                entry.file.setLastModified(System.currentTimeMillis());
+                return content;
+            }
+            finally {
+                file.close();
+            }
+        }
+        catch (final IOException e) {
+            this.remove(entry);
+            return null;
+        }
+    }
+
+    /**
+     * Maps the content of the copy of a blob into memory if its ETag matches, otherwise returns <code>null</code>.
+     */
+    ByteBuffer mapIfCurrent(final String key, final String etag) {
+        final Entry entry = this.get(key);
+        return entry != null && entry.etag.equals(etag) ? this.map(entry) : null;
+    }
+
+    /**
+     * Opens a writer for a new copy of a blob, or returns <code>null</code> if no file can be created for it.
+     */
+    EntryWriter openWriter(final String key) {
+        try {
+            return new EntryWriter(key, File.createTempFile("blob", PARTIAL_SUFFIX, this.directory));
+        }
+        catch (final IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Drops a copy, unless it was already replaced.
+     */
+    synchronized void remove(final Entry entry) {
+        if (this.entries.get(entry.key) == entry) {
+            this.entries.remove(entry.key);
+            this.sizeInBytes -= entry.fileLength;
+            deleteFile(entry.file);
+        }
+    }
+
+    /**
+     * Adds a copy, replacing the previous copy of the same blob.
+     */
+    private synchronized void add(final Entry entry) {
+        final Entry previous = this.entries.put(entry.key, entry);
+        if (previous != null) {
+            this.sizeInBytes -= previous.fileLength;
+            deleteFile(previous.file);
+        }
+
+        this.sizeInBytes += entry.fileLength;
+    }
+
+    /**
+     * Deletes the least recently used copies, except the specified one, until the total size is within the maximum.
+     * Must be called holding the lock.
+     */
+    private void trim(final Entry keep) {
+        final Iterator<Entry> iterator = this.entries.values().iterator();
+        while (this.sizeInBytes > this.maximumSizeInBytes && iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            if (entry != keep) {
+                iterator.remove();
+                this.sizeInBytes -= entry.fileLength;
+                deleteFile(entry.file);
+            }
+        }
+    }
+
+    /**
+     * Reads the trailer of the file of a copy, returning <code>null</code> if the file is not a complete copy.
+     */
+    private static Entry readEntry(final File file) {
+        try {
+            final RandomAccessFile input = new RandomAccessFile(file, "r");
+            try {
+                final long fileLength = input.length();
+                if (fileLength < TRAILER_FIXED_LENGTH) {
+                    return null;
+                }
+
+                input.seek(fileLength - TRAILER_FIXED_LENGTH);
+                final long contentLength = input.readLong();
+                if (input.readInt() != TRAILER_VERSION || contentLength < 0
+                        || contentLength > fileLength - TRAILER_FIXED_LENGTH) {
+                    return null;
+                }
+
+                input.seek(contentLength);
+                final String key = input.readUTF();
+                final BlobProperties properties = readProperties(input);
+                final HashMap<String, String> metadata = readMetadata(input);
+                if (metadata == null || input.getFilePointer() != fileLength - TRAILER_FIXED_LENGTH) {
+                    return null;
+                }
+
+                properties.setLength(contentLength);
+                return new Entry(key, properties, metadata, file, contentLength, fileLength);
+            }
+            finally {
+                input.close();
+            }
+        }
+        catch (final IOException e) {
+            return null;
+        }
+        catch (final IllegalArgumentException e) {
+            // Unknown blob type.
+            return null;
+        }
+    }
+
+    /**
+     * Writes the properties of a blob which are kept with a copy.
+     */
+    private static void writeProperties(final DataOutput output, final BlobProperties properties) throws IOException {
+        output.writeUTF(properties.getEtag());
+        output.writeUTF(properties.getBlobType().name());
+        writeString(output, properties.getCacheControl());
+        writeString(output, properties.getContentDisposition());
+        writeString(output, properties.getContentEncoding());
+        writeString(output, properties.getContentLanguage());
+        writeString(output, properties.getContentMD5());
+        writeString(output, properties.getContentType());
+        output.writeLong(properties.getLastModified() == null ? -1 : properties.getLastModified().getTime());
+    }
+
+    /**
+     * Reads the properties of a blob written by {@link #writeProperties}.
+     */
+    private static BlobProperties readProperties(final DataInput input) throws IOException {
+        final BlobProperties properties = new BlobProperties();
+        properties.setEtag(input.readUTF());
+        properties.setBlobType(BlobType.valueOf(input.readUTF()));
+        properties.setCacheControl(readString(input));
+        properties.setContentDisposition(readString(input));
+        properties.setContentEncoding(readString(input));
+        properties.setContentLanguage(readString(input));
+        properties.setContentMD5(readString(input));
+        properties.setContentType(readString(input));
+        final long lastModified = input.readLong();
+        properties.setLastModified(lastModified == -1 ? null : new Date(lastModified));
+        return properties;
+    }
+
+    /**
+     * Writes the metadata of a blob.
+     */
+    private static void writeMetadata(final DataOutput output, final HashMap<String, String> metadata)
+            throws IOException {
+        output.writeInt(metadata == null ? 0 : metadata.size());
+        if (metadata != null) {
+            for (final Map.Entry<String, String> item : metadata.entrySet()) {
+                output.writeUTF(item.getKey());
+                writeString(output, item.getValue());
+            }
+        }
+    }
+
+    /**
+     * Reads the metadata of a blob written by {@link #writeMetadata}, returning <code>null</code> if the count is
+     * invalid.
+     */
+    private static HashMap<String, String> readMetadata(final DataInput input) throws IOException {
+        final int count = input.readInt();
+        if (count < 0) {
+            return null;
+        }
+
+        final HashMap<String, String> metadata = new HashMap<String, String>();
+        for (int i = 0; i < count; i++) {
+            metadata.put(input.readUTF(), readString(input));
+        }
+
+        return metadata;
+    }
+
+    /**
+     * Writes a string which may be <code>null</code>.
+     */
+    private static void writeString(final DataOutput output, final String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}.
+     */
+    private static String readString(final DataInput input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    /**
+     * Deletes a file. A file which is still mapped cannot be deleted on some platforms and is deleted on exit instead.
+     */
+    private static void deleteFile(final File file) {
+        if (!file.delete() && file.exists()) {
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Represents the copy of a blob.
+     */
+    static final class Entry {
+        private final String key;
+
+        private final String etag;
+
+        private final BlobProperties properties;
+
+        private final HashMap<String, String> metadata;
+
+        private final File file;
+
+        private final long contentLength;
+
+        private final long fileLength;
+
+        private Entry(final String key, final BlobProperties properties, final HashMap<String, String> metadata,
+                final File file, final long contentLength, final long fileLength) {
+            this.key = key;
+            this.etag = properties.getEtag();
+            this.properties = properties;
+            this.metadata = metadata;
+            this.file = file;
+            this.contentLength = contentLength;
+            this.fileLength = fileLength;
+        }
+
+        /**
+         * Gets the ETag of the blob when it was copied.
+         */
+        String getEtag() {
+            return this.etag;
+        }
+
+        /**
+         * Sets the kept properties and the metadata of a blob to those of the copy. The properties which are not kept
+         * are left unchanged.
+         */
+        void restoreAttributes(final CloudBlob blob) {
+            final BlobProperties target = blob.getProperties();
+            target.setEtag(this.etag);
+            target.setLength(this.contentLength);
+            target.setBlobType(this.properties.getBlobType());
+            target.setCacheControl(this.properties.getCacheControl());
+            target.setContentDisposition(this.properties.getContentDisposition());
+            target.setContentEncoding(this.properties.getContentEncoding());
+            target.setContentLanguage(this.properties.getContentLanguage());
+            target.setContentMD5(this.properties.getContentMD5());
+            target.setContentType(this.properties.getContentType());
+            target.setLastModified(this.properties.getLastModified());
+            blob.metadata = new HashMap<String, String>(this.metadata);
+        }
+
+        /**
+         * Gets the length of the content.
+         */
+        long getContentLength() {
+            return this.contentLength;
+        }
+    }
+
+    /**
+     * RESERVED FOR INTERNAL USE. Represents the writer of a new copy of a blob. The copy is abandoned, without failing
+     * the download, if the file cannot be written or the content grows larger than the cache or than can be mapped.
+     */
+    final class EntryWriter {
+        private final String key;
+
+        private final File file;
+
+        private final FileOutputStream output;
+
+        private long contentLength;
+
+        private boolean abandoned;
+
+        private EntryWriter(final String key, final File file) throws IOException {
+            this.key = key;
+            this.file = file;
+            this.output = new FileOutputStream(file);
+        }
+
+        /**
+         * Appends content to the copy.
+         */
+        void write(final byte[] buffer, final int offset, final int count) {
+            if (this.reserve(count)) {
+                try {
+                    this.output.write(buffer, offset, count);
+                }
+                catch (final IOException e) {
+                    this.abandon();
+                }
+            }
+        }
+
+        /**
+         * Appends the remaining content of a buffer to the copy, without changing the position of the buffer.
+         */
+        void write(final ByteBuffer buffer) {
+            if (this.reserve(buffer.remaining())) {
+                try {
+                    final ByteBuffer source = buffer.duplicate();
+                    while (source.hasRemaining()) {
+                        this.output.getChannel().write(source);
+                    }
+                }
+                catch (final IOException e) {
+                    this.abandon();
+                }
+            }
+        }
+
+        /**
+         * Wraps a stream so the content written to it is appended to the copy as well.
+         */
+        OutputStream tee(final OutputStream outStream) {
+            return new OutputStream() {
+                @Override
+                public void write(final int b) throws IOException {
+                    this.write(new byte[] { (byte) b }, 0, 1);
+                }
+
+                @Override
+                public void write(final byte[] b, final int off, final int len) throws IOException {
+                    outStream.write(b, off, len);
+                    EntryWriter.this.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    outStream.flush();
+                }
+            };
+        }
+
+        /**
+         * Completes the copy with the properties and the metadata of the downloaded blob and adds it to the cache.
+         */
+        void commit(final BlobProperties properties, final HashMap<String, String> metadata) {
+            if (this.abandoned) {
+                return;
+            }
+
+            if (Utility.isNullOrEmpty(properties.getEtag())) {
+                this.abandon();
+                return;
+            }
+
+            final File entryFile;
+            final long fileLength;
+            try {
+                final DataOutputStream trailer = new DataOutputStream(this.output);
+                trailer.writeUTF(this.key);
+                writeProperties(trailer, properties);
+                writeMetadata(trailer, metadata);
+                trailer.writeLong(this.contentLength);
+                trailer.writeInt(TRAILER_VERSION);
+                trailer.close();
+
+                final String name = this.file.getName();
+                entryFile = new File(BlobDiskCache.this.directory, name.substring(0,
+                        name.length() - PARTIAL_SUFFIX.length())
+                        + ENTRY_SUFFIX);
+                fileLength = this.file.length();
+                if (fileLength > BlobDiskCache.this.maximumSizeInBytes || !this.file.renameTo(entryFile)) {
+                    this.abandon();
+                    return;
+                }
+            }
+            catch (final IOException e) {
+                this.abandon();
+                return;
+            }
+
+            final BlobProperties kept = new BlobProperties(properties);
+            kept.setLength(this.contentLength);
+            final Entry entry = new Entry(this.key, kept, new HashMap<String, String>(
+                    metadata == null ? new HashMap<String, String>() : metadata), entryFile, this.contentLength,
+                    fileLength);
+            synchronized (BlobDiskCache.this) {
+                BlobDiskCache.this.add(entry);
+                BlobDiskCache.this.trim(entry);
+            }
+        }
+
+        /**
+         * Discards the copy.
+         */
+        void abandon() {
+            if (!this.abandoned) {
+                this.abandoned = true;
+                try {
+                    this.output.close();
+                }
+                catch (final IOException e) {
+                    // The file is deleted anyway.
+                }
+
+                deleteFile(this.file);
+            }
+        }
+
+        private boolean reserve(final int count) {
+            if (this.abandoned) {
+                return false;
+            }
+
+            if (this.contentLength + count > Math.min(BlobDiskCache.this.maximumSizeInBytes, Integer.MAX_VALUE)) {
+                this.abandon();
+                return false;
+            }
+
+            this.contentLength += count;
+            return true;
+        }
+    }
+}
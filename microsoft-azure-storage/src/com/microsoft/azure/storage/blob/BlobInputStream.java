@@ -18,6 +18,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
@@ -121,6 +122,12 @@ public final class BlobInputStream extends InputStream {
      */
     private AccessCondition accessCondition = null;
 
+    /**
+     * Holds the content of the blob mapped from the disk cache of the client, or <code>null</code> if the blob is read
+     * from the service.
+     */
+    private ByteBuffer cachedContent;
+
     /**
      * Initializes a new instance of the BlobInputStream class.
      * 
@@ -181,6 +188,15 @@ public final class BlobInputStream extends InputStream {
 
         this.streamLength = parentBlob.getProperties().getLength();
 
+        final BlobDiskCache diskCache = parentBlob.getServiceClient().getDiskCache();
+        if (diskCache != null) {
+            this.cachedContent = diskCache.mapIfCurrent(BlobDiskCache.getKey(parentBlob), parentBlob.getProperties()
+                    .getEtag());
+            if (this.cachedContent != null && this.cachedContent.capacity() != this.streamLength) {
+                this.cachedContent = null;
+            }
+        }
+
         if (this.validateBlobMd5) {
             try {
                 this.md5Digest = MessageDigest.getInstance("MD5");
@@ -252,8 +268,15 @@ public final class BlobInputStream extends InputStream {
         try {
             final byte[] byteBuffer = new byte[readLength];
 
-            this.parentBlobRef.downloadRangeInternal(this.currentAbsoluteReadPosition, (long) readLength, byteBuffer,
-                    0, this.accessCondition, this.options, this.opContext);
+            if (this.cachedContent != null) {
+                final ByteBuffer source = this.cachedContent.duplicate();
+                source.position((int) this.currentAbsoluteReadPosition);
+                source.get(byteBuffer);
+            }
+            else {
+                this.parentBlobRef.downloadRangeInternal(this.currentAbsoluteReadPosition, (long) readLength,
+                        byteBuffer, 0, this.accessCondition, this.options, this.opContext);
+            }
 
             this.currentBuffer = new ByteArrayInputStream(byteBuffer);
             this.bufferSize = readLength;
@@ -23,7 +23,6 @@ import java.util.HashMap;
 import java.util.Stack;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -32,6 +31,7 @@ import org.xml.sax.helpers.DefaultHandler;
 import com.microsoft.azure.storage.Constants;
 import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.core.ListResponse;
+import com.microsoft.azure.storage.core.ListingSink;
 import com.microsoft.azure.storage.core.SR;
 import com.microsoft.azure.storage.core.Utility;
 
@@ -41,20 +41,30 @@ import com.microsoft.azure.storage.core.Utility;
 final class BlobListHandler extends DefaultHandler {
 
     private final Stack<String> elementStack = new Stack<String>();
-    private StringBuilder bld = new StringBuilder();
+    private final StringBuilder bld = new StringBuilder();
 
     private final ListBlobsResponse response = new ListBlobsResponse();
 
     private final CloudBlobContainer container;
 
+    private final ListingSink<? super ListBlobItem> sink;
+
+    private final ListingSink<? super BlobListingEntry> entrySink;
+
+    private final BlobListingEntry entry;
+
     private BlobProperties properties;
     private HashMap<String, String> metadata;
     private CopyState copyState;
     private String blobName;
     private String snapshotID;
 
-    private BlobListHandler(CloudBlobContainer container) {
+    private BlobListHandler(CloudBlobContainer container, ListingSink<? super ListBlobItem> sink,
+            ListingSink<? super BlobListingEntry> entrySink) {
         this.container = container;
+        this.sink = sink;
+        this.entrySink = entrySink;
+        this.entry = entrySink == null ? null : new BlobListingEntry();
     }
 
     /**
@@ -69,9 +79,38 @@ final class BlobListHandler extends DefaultHandler {
      */
     public static ListBlobsResponse getBlobList(final InputStream stream, final CloudBlobContainer container)
             throws ParserConfigurationException, SAXException, IOException {
-        SAXParser saxParser = Utility.getSAXParser();
-        BlobListHandler handler = new BlobListHandler(container);
-        saxParser.parse(stream, handler);
+        BlobListHandler handler = new BlobListHandler(container, null /* sink */, null /* entrySink */);
+        Utility.parseXml(stream, handler);
+
+        return handler.response;
+    }
+
+    /**
+     * Parse the response, passing each item to a sink rather than adding it to the response. With an entry sink, only
+     * a {@link BlobListingEntry} is populated for each item.
+     * 
+     * @param stream
+     * @param container
+     * @param sink
+     *            the sink which receives each item, or <code>null</code> if <code>entrySink</code> is specified.
+     * @param entrySink
+     *            the sink which receives the projection of each item, or <code>null</code>.
+     * @return
+     * @throws ParserConfigurationException
+     * @throws SAXException
+     * @throws IOException
+     * @throws StorageException
+     */
+    public static ListBlobsResponse getBlobList(final InputStream stream, final CloudBlobContainer container,
+            final ListingSink<? super ListBlobItem> sink, final ListingSink<? super BlobListingEntry> entrySink)
+            throws ParserConfigurationException, SAXException, IOException, StorageException {
+        BlobListHandler handler = new BlobListHandler(container, sink, entrySink);
+        if (entrySink != null) {
+            entrySink.parse(stream, handler);
+        }
+        else {
+            sink.parse(stream, handler);
+        }
 
         return handler.response;
     }
@@ -83,9 +122,14 @@ final class BlobListHandler extends DefaultHandler {
         if (BlobConstants.BLOB_ELEMENT.equals(localName) || BlobConstants.BLOB_PREFIX_ELEMENT.equals(localName)) {
             this.blobName = Constants.EMPTY_STRING;
             this.snapshotID = null;
-            this.properties = new BlobProperties();
-            this.metadata = new HashMap<String, String>();
             this.copyState = null;
+            if (this.entry != null) {
+                this.entry.reset();
+            }
+            else {
+                this.properties = new BlobProperties();
+                this.metadata = new HashMap<String, String>();
+            }
         }
     }
 
@@ -108,7 +152,14 @@ final class BlobListHandler extends DefaultHandler {
             value = null;
         }
 
-        if (BlobConstants.BLOB_ELEMENT.equals(currentNode)) {
+        if (this.entry != null && (BlobConstants.BLOB_ELEMENT.equals(currentNode)
+                || BlobConstants.BLOB_PREFIX_ELEMENT.equals(currentNode))) {
+            this.entry.setName(this.blobName);
+            this.entry.setSnapshotID(this.snapshotID);
+            this.entry.setDirectory(BlobConstants.BLOB_PREFIX_ELEMENT.equals(currentNode));
+            this.entrySink.accept(this.entry);
+        }
+        else if (BlobConstants.BLOB_ELEMENT.equals(currentNode)) {
             CloudBlob retBlob = null;
             try {
                 if (this.properties.getBlobType() == BlobType.BLOCK_BLOB) {
@@ -136,11 +187,11 @@ final class BlobListHandler extends DefaultHandler {
             retBlob.metadata = this.metadata;
             retBlob.properties.setCopyState(this.copyState);
 
-            this.response.getResults().add(retBlob);
+            this.add(retBlob);
         }
         else if (BlobConstants.BLOB_PREFIX_ELEMENT.equals(currentNode)) {
             try {
-                this.response.getResults().add(this.container.getDirectoryReference(this.blobName));
+                this.add(this.container.getDirectoryReference(this.blobName));
             }
             catch (URISyntaxException e) {
                 throw new SAXException(e);
@@ -177,6 +228,9 @@ final class BlobListHandler extends DefaultHandler {
                 this.blobName = value;
             }
         }
+        else if (Constants.PROPERTIES.equals(parentNode) && this.entry != null) {
+            this.setEntryProperties(currentNode, value);
+        }
         else if (Constants.PROPERTIES.equals(parentNode)) {
             try {
                 this.setProperties(currentNode, value);
@@ -188,11 +242,11 @@ final class BlobListHandler extends DefaultHandler {
                 throw new SAXException(e);
             }
         }
-        else if (Constants.METADATA_ELEMENT.equals(parentNode)) {
+        else if (Constants.METADATA_ELEMENT.equals(parentNode) && this.metadata != null) {
             this.metadata.put(currentNode, value);
         }
 
-        this.bld = new StringBuilder();
+        this.bld.setLength(0);
     }
 
     @Override
@@ -200,6 +254,38 @@ final class BlobListHandler extends DefaultHandler {
         this.bld.append(ch, start, length);
     }
 
+    private void add(ListBlobItem item) throws SAXException {
+        if (this.sink != null) {
+            this.sink.accept(item);
+        }
+        else {
+            this.response.getResults().add(item);
+        }
+    }
+
+    private void setEntryProperties(String currentNode, String value) throws SAXException {
+        if (Constants.ETAG_ELEMENT.equals(currentNode)) {
+            this.entry.setEtag(Utility.formatETag(value));
+        }
+        else if (Constants.HeaderConstants.CONTENT_LENGTH.equals(currentNode)) {
+            this.entry.setLength(Long.parseLong(value));
+        }
+        else if (BlobConstants.BLOB_TYPE_ELEMENT.equals(currentNode)) {
+            if (BlobConstants.BLOCK_BLOB.equals(value)) {
+                this.entry.setBlobType(BlobType.BLOCK_BLOB);
+            }
+            else if (BlobConstants.PAGE_BLOB.equals(value)) {
+                this.entry.setBlobType(BlobType.PAGE_BLOB);
+            }
+            else if (BlobConstants.APPEND_BLOB.equals(value)) {
+                this.entry.setBlobType(BlobType.APPEND_BLOB);
+            }
+            else {
+                throw new SAXException(SR.INVALID_RESPONSE_RECEIVED);
+            }
+        }
+    }
+
     private void setProperties(String currentNode, String value) throws ParseException, URISyntaxException,
             SAXException {
 
@@ -0,0 +1,134 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+/**
+ * Represents the lightweight projection of a listed blob or virtual directory which is delivered by
+ * {@link CloudBlobContainer#listBlobEntries}. Only the name, snapshot, type, length and ETag are parsed; no
+ * {@link BlobProperties}, metadata or blob references are created.
+ * <p>
+ * A single instance is reused for every entry of a listing, so its values are only valid during the call to the
+ * consumer. Copy any values which are needed afterwards.
+ */
+public final class BlobListingEntry {
+
+    private String name;
+
+    private String snapshotID;
+
+    private boolean directory;
+
+    private BlobType blobType;
+
+    private long length;
+
+    private String etag;
+
+    /**
+     * Creates an instance of the <code>BlobListingEntry</code> class.
+     */
+    BlobListingEntry() {
+        this.reset();
+    }
+
+    /**
+     * Gets the name of the blob or virtual directory.
+     * 
+     * @return A <code>String</code> which represents the name.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Gets the snapshot ID of the blob.
+     * 
+     * @return A <code>String</code> which represents the snapshot ID, or <code>null</code> if the entry is not a
+     *         snapshot.
+     */
+    public String getSnapshotID() {
+        return this.snapshotID;
+    }
+
+    /**
+     * Gets whether the entry is a virtual directory, which is only listed by a hierarchical listing.
+     * 
+     * @return <code>true</code> if the entry is a virtual directory; <code>false</code> if it is a blob.
+     */
+    public boolean isDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Gets the type of the blob.
+     * 
+     * @return A {@link BlobType} value which represents the type of the blob, or {@link BlobType#UNSPECIFIED} for a
+     *         virtual directory.
+     */
+    public BlobType getBlobType() {
+        return this.blobType;
+    }
+
+    /**
+     * Gets the length of the blob.
+     * 
+     * @return The length of the blob in bytes, or 0 for a virtual directory.
+     */
+    public long getLength() {
+        return this.length;
+    }
+
+    /**
+     * Gets the ETag of the blob.
+     * 
+     * @return A <code>String</code> which represents the ETag, or <code>null</code> for a virtual directory.
+     */
+    public String getEtag() {
+        return this.etag;
+    }
+
+    void reset() {
+        this.name = null;
+        this.snapshotID = null;
+        this.directory = false;
+        this.blobType = BlobType.UNSPECIFIED;
+        this.length = 0;
+        this.etag = null;
+    }
+
+    void setName(final String name) {
+        this.name = name;
+    }
+
+    void setSnapshotID(final String snapshotID) {
+        this.snapshotID = snapshotID;
+    }
+
+    void setDirectory(final boolean directory) {
+        this.directory = directory;
+    }
+
+    void setBlobType(final BlobType blobType) {
+        this.blobType = blobType;
+    }
+
+    void setLength(final long length) {
+        this.length = length;
+    }
+
+    void setEtag(final String etag) {
+        this.etag = etag;
+    }
+}
@@ -30,11 +30,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 import com.microsoft.azure.storage.AccessCondition;
 import com.microsoft.azure.storage.Constants;
@@ -42,8 +38,10 @@ import com.microsoft.azure.storage.DoesServiceRequest;
 import com.microsoft.azure.storage.OperationContext;
 import com.microsoft.azure.storage.StorageErrorCodeStrings;
 import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.TransferScheduler;
 import com.microsoft.azure.storage.core.Base64;
 import com.microsoft.azure.storage.core.Logger;
+import com.microsoft.azure.storage.core.PipelinedDigest;
 import com.microsoft.azure.storage.core.SR;
 import com.microsoft.azure.storage.core.Utility;
 
@@ -67,11 +65,6 @@ public final class BlobOutputStream extends OutputStream {
      */
     private ArrayList<BlockEntry> blockList;
 
-    /**
-     * The CompletionService used to await task completion for this stream.
-     */
-    private final ExecutorCompletionService<Void> completionService;
-    
     /**
      * Holds the futures of the executing tasks. The starting size of the set is a multiple of the concurrent request
      * count to reduce the cost of resizing the set later.
@@ -90,9 +83,9 @@ public final class BlobOutputStream extends OutputStream {
     private volatile IOException lastError = null;
 
     /**
-     * Holds the reference to the MD5 digest for the blob.
+     * Holds the reference to the MD5 digest for the blob, which hashes the dispatched buffers off the writing thread.
      */
-    private MessageDigest md5Digest;
+    private PipelinedDigest md5Digest;
 
     /**
      * Holds the OperationContext for the current stream.
@@ -123,9 +116,9 @@ public final class BlobOutputStream extends OutputStream {
     private BlobType streamType = BlobType.UNSPECIFIED;
 
     /**
-     * The ExecutorService used to schedule tasks for this stream.
+     * The session of the client's transfer scheduler used to schedule tasks for this stream.
      */
-    private final ThreadPoolExecutor threadExecutor;
+    private final TransferScheduler.Session transferSession;
 
     /**
      * Initializes a new instance of the BlobOutputStream class.
@@ -160,7 +153,8 @@ public final class BlobOutputStream extends OutputStream {
 
         if (this.options.getStoreBlobContentMD5()) {
             try {
-                this.md5Digest = MessageDigest.getInstance("MD5");
+                this.md5Digest = new PipelinedDigest(MessageDigest.getInstance("MD5"),
+                        this.options.getConcurrentRequestCount() * 2);
             }
             catch (final NoSuchAlgorithmException e) {
                 // This wont happen, throw fatal.
@@ -168,14 +162,8 @@ public final class BlobOutputStream extends OutputStream {
             }
         }
 
-        // V2 cachedThreadPool for perf.        
-        this.threadExecutor = new ThreadPoolExecutor(
-                this.options.getConcurrentRequestCount(),
-                this.options.getConcurrentRequestCount(),
-                10, 
-                TimeUnit.SECONDS,
-                new LinkedBlockingQueue<Runnable>());
-        this.completionService = new ExecutorCompletionService<Void>(this.threadExecutor);
+        this.transferSession = parentBlob.getServiceClient().getTransferScheduler()
+                .openSession(this.options.getConcurrentRequestCount());
     }
 
     /**
@@ -298,9 +286,6 @@ public final class BlobOutputStream extends OutputStream {
             // flush any remaining data
             this.flush();
 
-            // shut down the ExecutorService.
-            this.threadExecutor.shutdown();
-
             // try to commit the blob
             try {
                 this.commit();
@@ -313,11 +298,8 @@ public final class BlobOutputStream extends OutputStream {
             // if close() is called again, an exception will be thrown
             this.lastError = new IOException(SR.STREAM_CLOSED);
 
-            // if an exception was thrown and the executor was not yet closed, call shutDownNow() to cancel all tasks 
-            // and shutdown the ExecutorService
-            if (!this.threadExecutor.isShutdown()) {
-                this.threadExecutor.shutdownNow();
-            }
+            // if an exception was thrown, cancel the tasks which have not started yet
+            this.transferSession.cancelPending();
         }
     }
 
@@ -326,9 +308,11 @@ public final class BlobOutputStream extends OutputStream {
      * 
      * @throws StorageException
      *             An exception representing any error which occurred during the operation.
+     * @throws IOException
+     *             If the thread was interrupted while waiting for the MD5 of the blob.
      */
     @DoesServiceRequest
-    private synchronized void commit() throws StorageException {
+    private synchronized void commit() throws StorageException, IOException {
         if (this.options.getStoreBlobContentMD5()) {
             this.parentBlobRef.getProperties().setContentMD5(Base64.encode(this.md5Digest.digest()));
         }
@@ -367,15 +351,20 @@ public final class BlobOutputStream extends OutputStream {
 
         Callable<Void> worker = null;
 
-        if (this.threadExecutor.getQueue().size() >= this.options.getConcurrentRequestCount() * 2) {
+        if (this.transferSession.getOutstandingCount() >= this.options.getConcurrentRequestCount() * 2) {
             this.waitForTaskToComplete();
-        } 
+        }
         
         if (this.futureSet.size() >= this.options.getConcurrentRequestCount() * 2) {
             this.clearCompletedFutures();
         }
 
-        final ByteArrayInputStream bufferRef = new ByteArrayInputStream(this.outBuffer.toByteArray());
+        final byte[] buffer = this.outBuffer.toByteArray();
+        if (this.options.getStoreBlobContentMD5()) {
+            this.md5Digest.update(buffer);
+        }
+
+        final ByteArrayInputStream bufferRef = new ByteArrayInputStream(buffer);
 
         if (this.streamType == BlobType.BLOCK_BLOB) {
             final String blockID = this.getCurrentBlockId();
@@ -425,7 +414,7 @@ public final class BlobOutputStream extends OutputStream {
         }
 
         // Add future to set
-        this.futureSet.add(this.completionService.submit(worker));
+        this.futureSet.add(this.transferSession.submit(worker, writeLength));
         
         // Reset buffer.
         this.outBuffer = new ByteArrayOutputStream();
@@ -542,25 +531,18 @@ public final class BlobOutputStream extends OutputStream {
     }
 
     /**
-     * Waits for at least one task to complete.
+     * Waits until fewer than twice the concurrent request count tasks are outstanding.
      * 
      * @throws IOException
      *             If an I/O error occurs. In particular, an IOException may be thrown if the output stream has been
      *             closed.
      */
     private void waitForTaskToComplete() throws IOException {
-        boolean completed = false;
-        while (this.completionService.poll() != null) {
-            completed = true;
+        try {
+            this.transferSession.awaitOutstandingBelow(this.options.getConcurrentRequestCount() * 2);
         }
-        
-        if (!completed) {
-            try {
-                this.completionService.take();
-            }
-            catch (final InterruptedException e) {
-                throw Utility.initIOException(e);
-            }
+        catch (final InterruptedException e) {
+            throw Utility.initIOException(e);
         }
     }
     
@@ -690,11 +672,6 @@ public final class BlobOutputStream extends OutputStream {
             final int availableBufferBytes = this.internalWriteThreshold - this.outBuffer.size();
             final int nextWrite = Math.min(availableBufferBytes, length);
 
-            // If we need to set MD5 then update the digest accordingly
-            if (this.options.getStoreBlobContentMD5()) {
-                this.md5Digest.update(data, offset, nextWrite);
-            }
-
             this.outBuffer.write(data, offset, nextWrite);
             offset += nextWrite;
             length -= nextWrite;
@@ -20,7 +20,6 @@ import java.util.ArrayList;
 import java.util.Stack;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -53,9 +52,8 @@ class BlockListHandler extends DefaultHandler {
      */
     public static ArrayList<BlockEntry> getBlockList(InputStream streamRef) throws ParserConfigurationException,
             SAXException, IOException {
-        SAXParser saxParser = Utility.getSAXParser();
         BlockListHandler handler = new BlockListHandler();
-        saxParser.parse(streamRef, handler);
+        Utility.parseXml(streamRef, handler);
 
         return handler.blocks;
     }
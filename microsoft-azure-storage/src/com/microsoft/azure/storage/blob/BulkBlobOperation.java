@@ -0,0 +1,198 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import java.net.URISyntaxException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.RetryAdaptive;
+import com.microsoft.azure.storage.RetryPolicy;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * RESERVED FOR INTERNAL USE. Represents an operation applied to each blob of a sequence of blob names with bounded
+ * parallelism. A failed blob operation is recorded in the result without stopping the other blob operations.
+ */
+abstract class BulkBlobOperation {
+
+    /**
+     * Represents the outcome of the operation on one blob.
+     */
+    private static final class Outcome {
+        private final String blobName;
+
+        private final StorageException exception;
+
+        private Outcome(final String blobName, final StorageException exception) {
+            this.blobName = blobName;
+            this.exception = exception;
+        }
+    }
+
+    /**
+     * Applies the operation to a blob.
+     * 
+     * @param blob
+     *            A {@link CloudBlob} object which represents the blob.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request.
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation.
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    abstract void execute(CloudBlob blob, BlobRequestOptions options, OperationContext opContext)
+            throws StorageException;
+
+    /**
+     * Gets the reference of the blob the operation is applied to. The default is a block blob reference, which serves
+     * the operations which do not depend on the type of the blob; operations which do resolve the type on the service.
+     * 
+     * @param container
+     *            A {@link CloudBlobContainer} object which represents the container of the blob.
+     * @param blobName
+     *            A <code>String</code> which represents the name of the blob.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request.
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation.
+     * @return A {@link CloudBlob} object which represents the blob.
+     * @throws StorageException
+     *             If a storage service error occurred.
+     * @throws URISyntaxException
+     *             If the resource URI is invalid.
+     */
+    CloudBlob getBlobReference(CloudBlobContainer container, String blobName, BlobRequestOptions options,
+            OperationContext opContext) throws StorageException, URISyntaxException {
+        return container.getBlockBlobReference(blobName);
+    }
+
+    /**
+     * Applies the operation to each of the specified blobs and waits for the blob operations to complete.
+     * 
+     * @param container
+     *            A {@link CloudBlobContainer} object which represents the container of the blobs.
+     * @param blobNames
+     *            An <code>Iterable</code> of the names of the blobs, read lazily.
+     * @param bulkOptions
+     *            A {@link BulkOperationOptions} object.
+     * @param options
+     *            A {@link BlobRequestOptions} object with the defaults applied.
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation.
+     * @return A {@link BulkOperationResult} object.
+     * @throws StorageException
+     *             If the thread is interrupted, or if a blob operation threw an unexpected error.
+     */
+    final BulkOperationResult run(final CloudBlobContainer container, final Iterable<String> blobNames,
+            final BulkOperationOptions bulkOptions, BlobRequestOptions options, final OperationContext opContext)
+            throws StorageException {
+        if (bulkOptions.getRetryBudget() != null) {
+            options = new BlobRequestOptions(options);
+            options.setRetryPolicyFactory(new RetryAdaptive(RetryPolicy.DEFAULT_MIN_BACKOFF,
+                    RetryPolicy.DEFAULT_MAX_BACKOFF, RetryPolicy.DEFAULT_CLIENT_RETRY_COUNT,
+                    bulkOptions.getRetryBudget()));
+        }
+
+        final BlobRequestOptions blobOptions = options;
+        final int concurrentOperationCount = bulkOptions.getConcurrentOperationCount();
+        final ThreadPoolExecutor threadExecutor = new ThreadPoolExecutor(concurrentOperationCount,
+                concurrentOperationCount, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        final Thread thread = new Thread(r, "azure-storage-bulk-operation");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        threadExecutor.allowCoreThreadTimeOut(true);
+
+        final CompletionService<Outcome> completionService = new ExecutorCompletionService<Outcome>(threadExecutor);
+        final LinkedHashMap<String, StorageException> failures = new LinkedHashMap<String, StorageException>();
+        long succeededCount = 0;
+        int outstanding = 0;
+        final Iterator<String> names = blobNames.iterator();
+        try {
+            while (true) {
+                while (outstanding < concurrentOperationCount && names.hasNext()) {
+                    final String blobName = names.next();
+                    completionService.submit(new Callable<Outcome>() {
+                        @Override
+                        public Outcome call() {
+                            try {
+                                final CloudBlob blob = BulkBlobOperation.this.getBlobReference(container, blobName,
+                                        blobOptions, opContext);
+                                BulkBlobOperation.this.execute(blob, blobOptions, opContext);
+                                return new Outcome(blobName, null);
+                            }
+                            catch (final StorageException e) {
+                                return new Outcome(blobName, e);
+                            }
+                            catch (final Exception e) {
+                                return new Outcome(blobName, Utility.generateNewUnexpectedStorageException(e));
+                            }
+                        }
+                    });
+                    outstanding++;
+                }
+
+                if (outstanding == 0) {
+                    break;
+                }
+
+                final Outcome outcome = completionService.take().get();
+                outstanding--;
+                if (outcome.exception == null) {
+                    succeededCount++;
+                }
+                else {
+                    failures.put(outcome.blobName, outcome.exception);
+                }
+            }
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Utility.generateNewUnexpectedStorageException(e);
+        }
+        catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            else if (cause instanceof StorageException) {
+                throw (StorageException) cause;
+            }
+
+            throw Utility.generateNewUnexpectedStorageException(cause instanceof Exception ? (Exception) cause : e);
+        }
+        finally {
+            threadExecutor.shutdownNow();
+        }
+
+        return new BulkOperationResult(succeededCount, failures);
+    }
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import com.microsoft.azure.storage.StorageEvent;
+import com.microsoft.azure.storage.StorageEventMultiCaster;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * Represents a set of options that control how blobs are copied by
+ * {@link CloudBlobContainer#copyBlobsFrom(Iterable, BulkCopyOptions, BlobRequestOptions,
+ * com.microsoft.azure.storage.OperationContext)}.
+ */
+public final class BulkCopyOptions {
+
+    /**
+     * Represents the default number of copies which may be in progress at the same time.
+     */
+    public static final int DEFAULT_CONCURRENT_COPY_COUNT = 32;
+
+    /**
+     * Represents the default number of times a copy is started before it is reported as failed.
+     */
+    public static final int DEFAULT_MAXIMUM_ATTEMPTS = 3;
+
+    /**
+     * Represents the default minimum interval, in milliseconds, between two polls of the copy state of a blob.
+     */
+    public static final int DEFAULT_MINIMUM_POLL_INTERVAL_IN_MS = 1000;
+
+    /**
+     * Represents the default maximum interval, in milliseconds, between two polls of the copy state of a blob.
+     */
+    public static final int DEFAULT_MAXIMUM_POLL_INTERVAL_IN_MS = 60 * 1000;
+
+    /**
+     * Represents the default time, in milliseconds, after which a copy which has made no progress is aborted.
+     */
+    public static final int DEFAULT_STALL_TIMEOUT_IN_MS = 10 * 60 * 1000;
+
+    /**
+     * Represents the default number of copies due to be polled in one container from which their copy state is read
+     * with a single listing instead of one request per blob.
+     */
+    public static final int DEFAULT_LISTING_POLL_THRESHOLD = 8;
+
+    /**
+     * Holds the number of copies which may be in progress at the same time.
+     */
+    private int concurrentCopyCount = DEFAULT_CONCURRENT_COPY_COUNT;
+
+    /**
+     * Holds the number of times a copy is started before it is reported as failed.
+     */
+    private int maximumAttempts = DEFAULT_MAXIMUM_ATTEMPTS;
+
+    /**
+     * Holds the minimum interval between two polls of the copy state of a blob.
+     */
+    private int minimumPollIntervalInMs = DEFAULT_MINIMUM_POLL_INTERVAL_IN_MS;
+
+    /**
+     * Holds the maximum interval between two polls of the copy state of a blob.
+     */
+    private int maximumPollIntervalInMs = DEFAULT_MAXIMUM_POLL_INTERVAL_IN_MS;
+
+    /**
+     * Holds the time after which a copy which has made no progress is aborted.
+     */
+    private int stallTimeoutInMs = DEFAULT_STALL_TIMEOUT_IN_MS;
+
+    /**
+     * Holds the number of due copies in one container from which their copy state is read with a listing.
+     */
+    private int listingPollThreshold = DEFAULT_LISTING_POLL_THRESHOLD;
+
+    /**
+     * Represents an event that is fired each time the progress of the copies is polled.
+     */
+    private final StorageEventMultiCaster<BulkCopyProgressEvent, StorageEvent<BulkCopyProgressEvent>> progressEventHandler =
+            new StorageEventMultiCaster<BulkCopyProgressEvent, StorageEvent<BulkCopyProgressEvent>>();
+
+    /**
+     * Creates an instance of the <code>BulkCopyOptions</code> class using the default values.
+     */
+    public BulkCopyOptions() {
+        // Empty Default Ctor
+    }
+
+    /**
+     * Gets the number of copies which may be in progress at the same time.
+     * 
+     * @return the number of concurrent copies.
+     */
+    public int getConcurrentCopyCount() {
+        return this.concurrentCopyCount;
+    }
+
+    /**
+     * Gets the number of times a copy is started before it is reported as failed. A copy is started again if starting
+     * it fails, if the service reports it as failed or aborted, or if it is aborted because it stalled.
+     * 
+     * @return the maximum number of attempts.
+     */
+    public int getMaximumAttempts() {
+        return this.maximumAttempts;
+    }
+
+    /**
+     * Gets the minimum interval, in milliseconds, between two polls of the copy state of a blob.
+     * 
+     * @return the minimum poll interval in milliseconds.
+     */
+    public int getMinimumPollIntervalInMs() {
+        return this.minimumPollIntervalInMs;
+    }
+
+    /**
+     * Gets the maximum interval, in milliseconds, between two polls of the copy state of a blob. Between the minimum
+     * and the maximum, the interval follows the estimated remaining time of the copy.
+     * 
+     * @return the maximum poll interval in milliseconds.
+     */
+    public int getMaximumPollIntervalInMs() {
+        return this.maximumPollIntervalInMs;
+    }
+
+    /**
+     * Gets the time, in milliseconds, after which a copy whose number of copied bytes has not changed is aborted.
+     * 
+     * @return the stall timeout in milliseconds.
+     */
+    public int getStallTimeoutInMs() {
+        return this.stallTimeoutInMs;
+    }
+
+    /**
+     * Gets the number of copies due to be polled in one container from which their copy state is read with a single
+     * flat listing of the container instead of one request per blob.
+     * 
+     * @return the listing poll threshold.
+     */
+    public int getListingPollThreshold() {
+        return this.listingPollThreshold;
+    }
+
+    /**
+     * Gets a {@link StorageEventMultiCaster} used to notify listeners of the progress of the copies. The event is fired
+     * on the thread running the copies, once per round of polling and when the copies are complete.
+     * 
+     * @return A {@link StorageEventMultiCaster} object for {@link BulkCopyProgressEvent} events.
+     */
+    public StorageEventMultiCaster<BulkCopyProgressEvent, StorageEvent<BulkCopyProgressEvent>> getProgressEventHandler() {
+        return this.progressEventHandler;
+    }
+
+    /**
+     * Sets the number of copies which may be in progress at the same time.
+     * 
+     * @param concurrentCopyCount
+     *            the number of concurrent copies; must be at least 1.
+     */
+    public void setConcurrentCopyCount(int concurrentCopyCount) {
+        Utility.assertGreaterThanOrEqual("concurrentCopyCount", concurrentCopyCount, 1);
+        this.concurrentCopyCount = concurrentCopyCount;
+    }
+
+    /**
+     * Sets the number of times a copy is started before it is reported as failed.
+     * 
+     * @param maximumAttempts
+     *            the maximum number of attempts; must be at least 1.
+     */
+    public void setMaximumAttempts(int maximumAttempts) {
+        Utility.assertGreaterThanOrEqual("maximumAttempts", maximumAttempts, 1);
+        this.maximumAttempts = maximumAttempts;
+    }
+
+    /**
+     * Sets the minimum interval, in milliseconds, between two polls of the copy state of a blob.
+     * 
+     * @param minimumPollIntervalInMs
+     *            the minimum poll interval in milliseconds; must be at least 1.
+     */
+    public void setMinimumPollIntervalInMs(int minimumPollIntervalInMs) {
+        Utility.assertGreaterThanOrEqual("minimumPollIntervalInMs", minimumPollIntervalInMs, 1);
+        this.minimumPollIntervalInMs = minimumPollIntervalInMs;
+    }
+
+    /**
+     * Sets the maximum interval, in milliseconds, between two polls of the copy state of a blob.
+     * 
+     * @param maximumPollIntervalInMs
+     *            the maximum poll interval in milliseconds; must be at least 1.
+     */
+    public void setMaximumPollIntervalInMs(int maximumPollIntervalInMs) {
+        Utility.assertGreaterThanOrEqual("maximumPollIntervalInMs", maximumPollIntervalInMs, 1);
+        this.maximumPollIntervalInMs = maximumPollIntervalInMs;
+    }
+
+    /**
+     * Sets the time, in milliseconds, after which a copy whose number of copied bytes has not changed is aborted.
+     * 
+     * @param stallTimeoutInMs
+     *            the stall timeout in milliseconds; must be at least 1.
+     */
+    public void setStallTimeoutInMs(int stallTimeoutInMs) {
+        Utility.assertGreaterThanOrEqual("stallTimeoutInMs", stallTimeoutInMs, 1);
+        this.stallTimeoutInMs = stallTimeoutInMs;
+    }
+
+    /**
+     * Sets the number of copies due to be polled in one container from which their copy state is read with a single
+     * flat listing of the container.
+     * 
+     * @param listingPollThreshold
+     *            the listing poll threshold; must be at least 1. Use <code>Integer.MAX_VALUE</code> to always poll
+     *            each blob individually.
+     */
+    public void setListingPollThreshold(int listingPollThreshold) {
+        Utility.assertGreaterThanOrEqual("listingPollThreshold", listingPollThreshold, 1);
+        this.listingPollThreshold = listingPollThreshold;
+    }
+}
@@ -0,0 +1,604 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.azure.storage.Constants;
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azure.storage.ResultSegment;
+import com.microsoft.azure.storage.StorageErrorCodeStrings;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.core.SR;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * RESERVED FOR INTERNAL USE. Starts server-side copies of a sequence of source blobs into a container, keeping a
+ * bounded number of copies in progress, and polls their copy state until they complete.
+ * <p>
+ * Copy states are polled at an interval that follows the estimated remaining time of each copy. When enough copies
+ * are due to be polled at once, their states are read with a single flat listing of the destination container instead
+ * of one request per blob. Copies which fail are started again, and copies which make no progress within the stall
+ * timeout are aborted and started again, until their attempts are exhausted.
+ */
+final class BulkCopyOrchestrator {
+
+    /**
+     * Represents a copy of a source blob to a destination blob.
+     */
+    private static final class CopyTask {
+        private final CloudBlob source;
+
+        private final CloudBlob destination;
+
+        private String copyId;
+
+        private int attempts;
+
+        private boolean abortRequested;
+
+        private boolean missing;
+
+        private StorageException exception;
+
+        private long lastBytesCopied = -1;
+
+        private long lastPollTime;
+
+        private long lastProgressTime;
+
+        private long pollInterval;
+
+        private long nextPollTime;
+
+        private CopyTask(final CloudBlob source, final CloudBlob destination) {
+            this.source = source;
+            this.destination = destination;
+        }
+    }
+
+    /**
+     * Holds the container the blobs are copied into.
+     */
+    private final CloudBlobContainer container;
+
+    /**
+     * Holds the source blobs which have not been read yet.
+     */
+    private final Iterator<? extends ListBlobItem> sources;
+
+    /**
+     * Holds the bulk copy options.
+     */
+    private final BulkCopyOptions copyOptions;
+
+    /**
+     * Holds the request options used for each request.
+     */
+    private final BlobRequestOptions options;
+
+    /**
+     * Holds the operation context used for each request.
+     */
+    private final OperationContext opContext;
+
+    /**
+     * The ExecutorService used to start, poll and abort the copies.
+     */
+    private final ThreadPoolExecutor threadExecutor;
+
+    /**
+     * Holds the copies which are neither complete nor failed.
+     */
+    private final List<CopyTask> activeTasks = new ArrayList<CopyTask>();
+
+    /**
+     * Holds the copies which failed after all their attempts.
+     */
+    private final Map<CloudBlob, StorageException> failedCopies = new LinkedHashMap<CloudBlob, StorageException>();
+
+    /**
+     * Holds the time at which the bulk copy started.
+     */
+    private final long startTime = System.currentTimeMillis();
+
+    private long copyCount;
+
+    private long succeededCount;
+
+    private long retriedCount;
+
+    private long stalledCount;
+
+    private long completedBytes;
+
+    /**
+     * Creates an instance of the <code>BulkCopyOrchestrator</code> class.
+     */
+    BulkCopyOrchestrator(final CloudBlobContainer container, final Iterable<? extends ListBlobItem> sources,
+            final BulkCopyOptions copyOptions, final BlobRequestOptions options, final OperationContext opContext) {
+        this.container = container;
+        this.sources = sources.iterator();
+        this.copyOptions = copyOptions;
+        this.options = options;
+        this.opContext = opContext;
+
+        this.threadExecutor = new ThreadPoolExecutor(copyOptions.getConcurrentCopyCount(),
+                copyOptions.getConcurrentCopyCount(), 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        final Thread thread = new Thread(r, "azure-storage-bulk-copy");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        this.threadExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Copies all the source blobs and waits for the copies to complete or fail.
+     * 
+     * @return A {@link BulkCopyResult} object.
+     * @throws StorageException
+     * @throws URISyntaxException
+     */
+    BulkCopyResult run() throws StorageException, URISyntaxException {
+        try {
+            while (true) {
+                this.readSources();
+                if (this.activeTasks.isEmpty()) {
+                    break;
+                }
+
+                final long now = System.currentTimeMillis();
+                final ArrayList<CopyTask> startTasks = new ArrayList<CopyTask>();
+                final ArrayList<CopyTask> abortTasks = new ArrayList<CopyTask>();
+                final ArrayList<CopyTask> pollTasks = new ArrayList<CopyTask>();
+                long nextPollTime = Long.MAX_VALUE;
+                for (final CopyTask task : this.activeTasks) {
+                    if (task.copyId == null) {
+                        startTasks.add(task);
+                    }
+                    else if (task.abortRequested) {
+                        abortTasks.add(task);
+                    }
+                    else if (task.nextPollTime <= now) {
+                        pollTasks.add(task);
+                    }
+                    else {
+                        nextPollTime = Math.min(nextPollTime, task.nextPollTime);
+                    }
+                }
+
+                if (startTasks.isEmpty() && abortTasks.isEmpty() && pollTasks.isEmpty()) {
+                    this.sleep(nextPollTime - now);
+                    continue;
+                }
+
+                this.execute(startTasks, abortTasks, pollTasks);
+
+                final long completedTime = System.currentTimeMillis();
+                for (final CopyTask task : startTasks) {
+                    this.onStarted(task, completedTime);
+                }
+
+                for (final CopyTask task : abortTasks) {
+                    this.stalledCount++;
+                    this.onAttemptFailed(task, task.exception);
+                }
+
+                for (final CopyTask task : pollTasks) {
+                    this.onPolled(task, completedTime);
+                }
+
+                if (!pollTasks.isEmpty()) {
+                    this.fireProgress();
+                }
+            }
+        }
+        finally {
+            this.threadExecutor.shutdownNow();
+        }
+
+        this.fireProgress();
+        return new BulkCopyResult(this.getProgress(), this.failedCopies);
+    }
+
+    /**
+     * Reads source blobs until the number of active copies reaches the concurrent copy count.
+     */
+    private void readSources() throws StorageException, URISyntaxException {
+        while (this.activeTasks.size() < this.copyOptions.getConcurrentCopyCount() && this.sources.hasNext()) {
+            final ListBlobItem item = this.sources.next();
+            if (!(item instanceof CloudBlob)) {
+                continue;
+            }
+
+            final CloudBlob source = (CloudBlob) item;
+            final CloudBlob destination;
+            switch (source.getProperties().getBlobType()) {
+                case PAGE_BLOB:
+                    destination = this.container.getPageBlobReference(source.getName());
+                    break;
+                case APPEND_BLOB:
+                    destination = this.container.getAppendBlobReference(source.getName());
+                    break;
+                default:
+                    destination = this.container.getBlockBlobReference(source.getName());
+                    break;
+            }
+
+            this.activeTasks.add(new CopyTask(source, destination));
+            this.copyCount++;
+        }
+    }
+
+    /**
+     * Runs the requests of a round on the executor and waits for them to complete.
+     */
+    private void execute(final List<CopyTask> startTasks, final List<CopyTask> abortTasks,
+            final List<CopyTask> pollTasks) throws StorageException {
+        final ArrayList<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (final CopyTask task : startTasks) {
+            futures.add(this.threadExecutor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    BulkCopyOrchestrator.this.startCopy(task);
+                    return null;
+                }
+            }));
+        }
+
+        for (final CopyTask task : abortTasks) {
+            futures.add(this.threadExecutor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    BulkCopyOrchestrator.this.abortCopy(task);
+                    return null;
+                }
+            }));
+        }
+
+        if (pollTasks.size() >= this.copyOptions.getListingPollThreshold()) {
+            futures.add(this.threadExecutor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    BulkCopyOrchestrator.this.pollByListing(pollTasks);
+                    return null;
+                }
+            }));
+        }
+        else {
+            for (final CopyTask task : pollTasks) {
+                futures.add(this.threadExecutor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        BulkCopyOrchestrator.this.poll(task);
+                        return null;
+                    }
+                }));
+            }
+        }
+
+        for (final Future<Void> future : futures) {
+            try {
+                future.get();
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw Utility.generateNewUnexpectedStorageException(e);
+            }
+            catch (final ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                else if (cause instanceof StorageException) {
+                    throw (StorageException) cause;
+                }
+
+                throw Utility.generateNewUnexpectedStorageException(cause instanceof Exception ? (Exception) cause : e);
+            }
+        }
+    }
+
+    private void startCopy(final CopyTask task) throws URISyntaxException {
+        task.exception = null;
+        task.attempts++;
+        try {
+            URI source = task.source.getSnapshotQualifiedUri();
+            if (task.source.getServiceClient() != null && task.source.getServiceClient().getCredentials() != null) {
+                source = task.source.getServiceClient().getCredentials().transformUri(source);
+            }
+
+            task.copyId = task.destination.startCopy(source, null /* sourceAccessCondition */,
+                    null /* destinationAccessCondition */, this.options, this.opContext);
+        }
+        catch (final StorageException e) {
+            task.exception = e;
+        }
+    }
+
+    private void abortCopy(final CopyTask task) {
+        task.exception = null;
+        try {
+            task.destination.abortCopy(task.copyId, null /* accessCondition */, this.options, this.opContext);
+        }
+        catch (final StorageException e) {
+            task.exception = e;
+        }
+    }
+
+    private void poll(final CopyTask task) {
+        task.exception = null;
+        task.missing = false;
+        try {
+            task.destination.downloadAttributes(null /* accessCondition */, this.options, this.opContext);
+        }
+        catch (final StorageException e) {
+            if (e.getHttpStatusCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+                task.missing = true;
+            }
+
+            task.exception = e;
+        }
+    }
+
+    /**
+     * Reads the copy states of the specified copies with a flat listing of the destination container, restricted to
+     * the common prefix of their names and stopped past the last of them.
+     */
+    private void pollByListing(final List<CopyTask> tasks) throws StorageException {
+        final HashMap<String, CopyTask> pending = new HashMap<String, CopyTask>();
+        String prefix = null;
+        String lastName = null;
+        for (final CopyTask task : tasks) {
+            final String name = task.destination.getName();
+            pending.put(name, task);
+            prefix = prefix == null ? name : commonPrefix(prefix, name);
+            lastName = lastName == null || name.compareTo(lastName) > 0 ? name : lastName;
+        }
+
+        ResultContinuation token = null;
+        boolean pastLastName = false;
+        try {
+            do {
+                final ResultSegment<ListBlobItem> segment = this.container.listBlobsSegmented(prefix,
+                        true /* useFlatBlobListing */, EnumSet.of(BlobListingDetails.COPY), null /* maxResults */,
+                        token, this.options, this.opContext);
+
+                for (final ListBlobItem item : segment.getResults()) {
+                    final CloudBlob blob = (CloudBlob) item;
+                    final CopyTask task = pending.remove(blob.getName());
+                    if (task != null) {
+                        task.exception = null;
+                        task.missing = false;
+                        task.destination.getProperties().setCopyState(blob.getCopyState());
+                    }
+
+                    pastLastName |= blob.getName().compareTo(lastName) >= 0;
+                }
+
+                token = pending.isEmpty() || pastLastName ? null : segment.getContinuationToken();
+            }
+            while (token != null);
+        }
+        catch (final StorageException e) {
+            // The copies are polled again in the next round.
+            for (final CopyTask task : pending.values()) {
+                task.exception = e;
+                task.missing = false;
+            }
+
+            return;
+        }
+
+        for (final CopyTask task : pending.values()) {
+            task.exception = null;
+            task.missing = true;
+        }
+    }
+
+    private void onStarted(final CopyTask task, final long now) {
+        if (task.exception != null) {
+            this.onAttemptFailed(task, task.exception);
+            return;
+        }
+
+        task.lastBytesCopied = -1;
+        task.lastPollTime = now;
+        task.lastProgressTime = now;
+        task.pollInterval = this.copyOptions.getMinimumPollIntervalInMs();
+        task.nextPollTime = now + task.pollInterval;
+
+        // Small copies within an account may complete synchronously.
+        final CopyState state = task.destination.getCopyState();
+        if (state != null && state.getStatus() == CopyStatus.SUCCESS) {
+            this.onSucceeded(task, state);
+        }
+    }
+
+    private void onPolled(final CopyTask task, final long now) {
+        if (task.missing) {
+            this.onAttemptFailed(task, task.exception);
+            return;
+        }
+
+        final CopyState state = task.destination.getCopyState();
+        if (task.exception == null && state != null && !task.copyId.equals(state.getCopyId())) {
+            // Another copy was started on the destination.
+            this.onFailed(task, new StorageException(StorageErrorCodeStrings.COPY_ID_MISMATCH, String.format(
+                    SR.COPY_ID_MISMATCH, task.copyId, state.getCopyId()), Constants.HeaderConstants.HTTP_UNUSED_306,
+                    null, null));
+            return;
+        }
+
+        final CopyStatus status = task.exception == null && state != null ? state.getStatus() : CopyStatus.PENDING;
+        if (status == CopyStatus.SUCCESS) {
+            this.onSucceeded(task, state);
+            return;
+        }
+        else if (status == CopyStatus.FAILED || status == CopyStatus.ABORTED) {
+            this.onAttemptFailed(task, new StorageException(status.toString(), String.format(SR.COPY_NOT_COMPLETED,
+                    task.copyId, status, state.getStatusDescription()), Constants.HeaderConstants.HTTP_UNUSED_306,
+                    null, null));
+            return;
+        }
+
+        double bytesPerMs = 0;
+        long bytesCopied = task.lastBytesCopied;
+        long totalBytes = -1;
+        if (task.exception == null && state != null && state.getBytesCopied() != null) {
+            bytesCopied = state.getBytesCopied();
+            totalBytes = state.getTotalBytes() == null ? -1 : state.getTotalBytes();
+            if (bytesCopied != task.lastBytesCopied) {
+                if (task.lastBytesCopied >= 0 && now > task.lastPollTime) {
+                    bytesPerMs = (double) (bytesCopied - task.lastBytesCopied) / (now - task.lastPollTime);
+                }
+
+                task.lastProgressTime = now;
+            }
+        }
+
+        task.lastBytesCopied = bytesCopied;
+        task.lastPollTime = now;
+        if (now - task.lastProgressTime >= this.copyOptions.getStallTimeoutInMs()) {
+            task.abortRequested = true;
+            return;
+        }
+
+        task.pollInterval = computePollInterval(bytesCopied, totalBytes, bytesPerMs, task.pollInterval,
+                this.copyOptions.getMinimumPollIntervalInMs(), this.copyOptions.getMaximumPollIntervalInMs());
+        task.nextPollTime = now + task.pollInterval;
+    }
+
+    private void onSucceeded(final CopyTask task, final CopyState state) {
+        this.activeTasks.remove(task);
+        this.succeededCount++;
+        if (state.getBytesCopied() != null) {
+            this.completedBytes += state.getBytesCopied();
+        }
+    }
+
+    private void onAttemptFailed(final CopyTask task, final StorageException exception) {
+        if (task.attempts >= this.copyOptions.getMaximumAttempts()) {
+            this.onFailed(task, exception);
+            return;
+        }
+
+        this.retriedCount++;
+        task.copyId = null;
+        task.abortRequested = false;
+    }
+
+    private void onFailed(final CopyTask task, final StorageException exception) {
+        this.activeTasks.remove(task);
+        this.failedCopies.put(task.destination, exception);
+    }
+
+    private void sleep(final long delay) throws StorageException {
+        try {
+            Thread.sleep(Math.max(1, delay));
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Utility.generateNewUnexpectedStorageException(e);
+        }
+    }
+
+    private void fireProgress() {
+        if (this.copyOptions.getProgressEventHandler().hasListeners()) {
+            this.copyOptions.getProgressEventHandler().fireEvent(
+                    new BulkCopyProgressEvent(this.opContext, this.getProgress()));
+        }
+    }
+
+    private BulkCopyProgress getProgress() {
+        long bytesCopied = this.completedBytes;
+        long totalBytes = this.completedBytes;
+        for (final CopyTask task : this.activeTasks) {
+            final CopyState state = task.copyId == null ? null : task.destination.getCopyState();
+            if (state != null && state.getBytesCopied() != null && state.getTotalBytes() != null) {
+                bytesCopied += state.getBytesCopied();
+                totalBytes += state.getTotalBytes();
+            }
+        }
+
+        return new BulkCopyProgress(this.copyCount, this.succeededCount, this.failedCopies.size(), this.retriedCount,
+                this.stalledCount, bytesCopied, totalBytes, System.currentTimeMillis() - this.startTime);
+    }
+
+    /**
+     * Computes the interval before the next poll of a pending copy. If the rate of the copy is known, the copy is
+     * polled again after half its estimated remaining time; otherwise the previous interval is doubled.
+     * 
+     * @param bytesCopied
+     *            the number of bytes copied, or -1 if unknown.
+     * @param totalBytes
+     *            the total number of bytes to copy, or -1 if unknown.
+     * @param bytesPerMs
+     *            the rate of the copy since the previous poll, or 0 if unknown.
+     * @param previousInterval
+     *            the previous poll interval in milliseconds.
+     * @param minimumInterval
+     *            the minimum poll interval in milliseconds.
+     * @param maximumInterval
+     *            the maximum poll interval in milliseconds.
+     * @return the next poll interval in milliseconds.
+     */
+    static long computePollInterval(final long bytesCopied, final long totalBytes, final double bytesPerMs,
+            final long previousInterval, final long minimumInterval, final long maximumInterval) {
+        final long interval;
+        if (bytesPerMs > 0 && bytesCopied >= 0 && totalBytes >= bytesCopied) {
+            interval = (long) ((totalBytes - bytesCopied) / bytesPerMs / 2);
+        }
+        else {
+            interval = previousInterval > maximumInterval / 2 ? maximumInterval : previousInterval * 2;
+        }
+
+        return Math.max(minimumInterval, Math.min(maximumInterval, interval));
+    }
+
+    /**
+     * Gets the longest common prefix of two strings.
+     */
+    static String commonPrefix(final String first, final String second) {
+        final int length = Math.min(first.length(), second.length());
+        int i = 0;
+        while (i < length && first.charAt(i) == second.charAt(i)) {
+            i++;
+        }
+
+        return first.substring(0, i);
+    }
+}
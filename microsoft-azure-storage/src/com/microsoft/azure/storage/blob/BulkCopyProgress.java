@@ -0,0 +1,167 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+/**
+ * Represents a snapshot of the progress of a bulk copy.
+ */
+public final class BulkCopyProgress {
+
+    /**
+     * Holds the number of copies read from the sources so far.
+     */
+    private final long copyCount;
+
+    /**
+     * Holds the number of copies which completed successfully.
+     */
+    private final long succeededCount;
+
+    /**
+     * Holds the number of copies which failed after all their attempts.
+     */
+    private final long failedCount;
+
+    /**
+     * Holds the number of times a copy was started again.
+     */
+    private final long retriedCount;
+
+    /**
+     * Holds the number of copies aborted because they stalled.
+     */
+    private final long stalledCount;
+
+    /**
+     * Holds the number of bytes copied so far.
+     */
+    private final long bytesCopied;
+
+    /**
+     * Holds the total number of bytes of the copies whose size is known.
+     */
+    private final long totalBytes;
+
+    /**
+     * Holds the time elapsed since the bulk copy started, in milliseconds.
+     */
+    private final long elapsedTimeInMs;
+
+    /**
+     * Creates an instance of the <code>BulkCopyProgress</code> class.
+     */
+    BulkCopyProgress(final long copyCount, final long succeededCount, final long failedCount, final long retriedCount,
+            final long stalledCount, final long bytesCopied, final long totalBytes, final long elapsedTimeInMs) {
+        this.copyCount = copyCount;
+        this.succeededCount = succeededCount;
+        this.failedCount = failedCount;
+        this.retriedCount = retriedCount;
+        this.stalledCount = stalledCount;
+        this.bytesCopied = bytesCopied;
+        this.totalBytes = totalBytes;
+        this.elapsedTimeInMs = elapsedTimeInMs;
+    }
+
+    /**
+     * Gets the number of copies read from the sources so far.
+     * 
+     * @return the number of copies.
+     */
+    public long getCopyCount() {
+        return this.copyCount;
+    }
+
+    /**
+     * Gets the number of copies which completed successfully.
+     * 
+     * @return the number of succeeded copies.
+     */
+    public long getSucceededCount() {
+        return this.succeededCount;
+    }
+
+    /**
+     * Gets the number of copies which failed after all their attempts.
+     * 
+     * @return the number of failed copies.
+     */
+    public long getFailedCount() {
+        return this.failedCount;
+    }
+
+    /**
+     * Gets the number of copies which are neither complete nor failed.
+     * 
+     * @return the number of pending copies.
+     */
+    public long getPendingCount() {
+        return this.copyCount - this.succeededCount - this.failedCount;
+    }
+
+    /**
+     * Gets the number of times a copy was started again after starting it failed, after the service reported it as
+     * failed or aborted, or after it stalled.
+     * 
+     * @return the number of retried copies.
+     */
+    public long getRetriedCount() {
+        return this.retriedCount;
+    }
+
+    /**
+     * Gets the number of copies which were aborted because they made no progress within the stall timeout.
+     * 
+     * @return the number of stalled copies.
+     */
+    public long getStalledCount() {
+        return this.stalledCount;
+    }
+
+    /**
+     * Gets the number of bytes copied so far, as reported by the service.
+     * 
+     * @return the number of bytes copied.
+     */
+    public long getBytesCopied() {
+        return this.bytesCopied;
+    }
+
+    /**
+     * Gets the total number of bytes of the copies whose size has been reported by the service.
+     * 
+     * @return the total number of bytes.
+     */
+    public long getTotalBytes() {
+        return this.totalBytes;
+    }
+
+    /**
+     * Gets the time elapsed since the bulk copy started, in milliseconds.
+     * 
+     * @return the elapsed time in milliseconds.
+     */
+    public long getElapsedTimeInMs() {
+        return this.elapsedTimeInMs;
+    }
+
+    /**
+     * Gets the average number of bytes copied per second since the bulk copy started.
+     * 
+     * @return the throughput in bytes per second.
+     */
+    public double getThroughputInBytesPerSecond() {
+        return this.elapsedTimeInMs == 0 ? 0 : this.bytesCopied * 1000d / this.elapsedTimeInMs;
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import com.microsoft.azure.storage.BaseEvent;
+import com.microsoft.azure.storage.OperationContext;
+
+/**
+ * Represents an event that is fired when the progress of a bulk copy is reported.
+ */
+public final class BulkCopyProgressEvent extends BaseEvent {
+
+    /**
+     * Holds the progress of the bulk copy.
+     */
+    private final BulkCopyProgress progress;
+
+    /**
+     * Creates an instance of the <code>BulkCopyProgressEvent</code> class.
+     * 
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the bulk copy.
+     * @param progress
+     *            A {@link BulkCopyProgress} object that represents the progress of the bulk copy.
+     */
+    public BulkCopyProgressEvent(final OperationContext opContext, final BulkCopyProgress progress) {
+        super(opContext, null /* connectionObject */, null /* requestResult */);
+        this.progress = progress;
+    }
+
+    /**
+     * Gets the progress of the bulk copy.
+     * 
+     * @return A {@link BulkCopyProgress} object.
+     */
+    public BulkCopyProgress getProgress() {
+        return this.progress;
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import java.util.Map;
+
+import com.microsoft.azure.storage.StorageException;
+
+/**
+ * Represents the result of a bulk copy.
+ */
+public final class BulkCopyResult {
+
+    /**
+     * Holds the final progress of the bulk copy.
+     */
+    private final BulkCopyProgress progress;
+
+    /**
+     * Holds the copies which failed, with the exception of their last attempt.
+     */
+    private final Map<CloudBlob, StorageException> failedCopies;
+
+    /**
+     * Creates an instance of the <code>BulkCopyResult</code> class.
+     */
+    BulkCopyResult(final BulkCopyProgress progress, final Map<CloudBlob, StorageException> failedCopies) {
+        this.progress = progress;
+        this.failedCopies = failedCopies;
+    }
+
+    /**
+     * Gets the final progress of the bulk copy.
+     * 
+     * @return A {@link BulkCopyProgress} object.
+     */
+    public BulkCopyProgress getProgress() {
+        return this.progress;
+    }
+
+    /**
+     * Gets the copies which failed after all their attempts. The keys are the destination blobs. The values are the
+     * exceptions of the last attempts, or <code>null</code> if the service reported the copy as failed or aborted, in
+     * which case {@link CloudBlob#getCopyState()} describes the failure.
+     * 
+     * @return A <code>java.util.Map</code> of the failed destination blobs to their exceptions.
+     */
+    public Map<CloudBlob, StorageException> getFailedCopies() {
+        return this.failedCopies;
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import com.microsoft.azure.storage.RetryAdaptive;
+import com.microsoft.azure.storage.RetryBudget;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * Represents a set of options that control how the bulk operations of {@link CloudBlobContainer} run.
+ */
+public final class BulkOperationOptions {
+
+    /**
+     * Represents the default number of blob operations which run concurrently.
+     */
+    public static final int DEFAULT_CONCURRENT_OPERATION_COUNT = 16;
+
+    /**
+     * Holds the number of blob operations which run concurrently.
+     */
+    private int concurrentOperationCount = DEFAULT_CONCURRENT_OPERATION_COUNT;
+
+    /**
+     * Holds the retry budget shared by the blob operations.
+     */
+    private RetryBudget retryBudget;
+
+    /**
+     * Creates an instance of the <code>BulkOperationOptions</code> class using the default values.
+     */
+    public BulkOperationOptions() {
+        // Empty Default Ctor
+    }
+
+    /**
+     * Gets the number of blob operations which run concurrently.
+     * 
+     * @return the number of concurrent operations.
+     */
+    public int getConcurrentOperationCount() {
+        return this.concurrentOperationCount;
+    }
+
+    /**
+     * Gets the retry budget shared by the blob operations.
+     * 
+     * @return A {@link RetryBudget} object, or <code>null</code> if the blob operations use the retry policy of the
+     *         request options.
+     */
+    public RetryBudget getRetryBudget() {
+        return this.retryBudget;
+    }
+
+    /**
+     * Sets the number of blob operations which run concurrently.
+     * 
+     * @param concurrentOperationCount
+     *            the number of concurrent operations; must be at least 1.
+     */
+    public void setConcurrentOperationCount(int concurrentOperationCount) {
+        Utility.assertGreaterThanOrEqual("concurrentOperationCount", concurrentOperationCount, 1);
+        this.concurrentOperationCount = concurrentOperationCount;
+    }
+
+    /**
+     * Sets the retry budget shared by the blob operations. When set, the blob operations are retried with a
+     * {@link RetryAdaptive} policy drawing from this budget, so that failures across the whole batch, or across several
+     * batches sharing the budget, cannot multiply the load on the service. When <code>null</code>, the blob operations
+     * use the retry policy of the request options; a {@link RetryAdaptive} policy there already shares its budget across
+     * the batch.
+     * 
+     * @param retryBudget
+     *            A {@link RetryBudget} object, or <code>null</code>.
+     */
+    public void setRetryBudget(final RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+    }
+}
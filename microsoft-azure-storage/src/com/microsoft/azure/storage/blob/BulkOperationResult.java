@@ -0,0 +1,70 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import java.util.Map;
+
+import com.microsoft.azure.storage.StorageException;
+
+/**
+ * Represents the result of a bulk operation of {@link CloudBlobContainer}.
+ */
+public final class BulkOperationResult {
+
+    /**
+     * Holds the number of blob operations which succeeded.
+     */
+    private final long succeededCount;
+
+    /**
+     * Holds the blob operations which failed, by blob name.
+     */
+    private final Map<String, StorageException> failures;
+
+    /**
+     * Creates an instance of the <code>BulkOperationResult</code> class.
+     */
+    BulkOperationResult(final long succeededCount, final Map<String, StorageException> failures) {
+        this.succeededCount = succeededCount;
+        this.failures = failures;
+    }
+
+    /**
+     * Gets the number of blob operations which succeeded.
+     * 
+     * @return the number of succeeded operations.
+     */
+    public long getSucceededCount() {
+        return this.succeededCount;
+    }
+
+    /**
+     * Gets the number of blob operations which failed.
+     * 
+     * @return the number of failed operations.
+     */
+    public long getFailedCount() {
+        return this.failures.size();
+    }
+
+    /**
+     * Gets the blob operations which failed, in the order in which they completed.
+     * 
+     * @return A <code>java.util.Map</code> of the names of the blobs to the exceptions of their operations.
+     */
+    public Map<String, StorageException> getFailures() {
+        return this.failures;
+    }
+}
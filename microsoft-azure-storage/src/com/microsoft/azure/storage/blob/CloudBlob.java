@@ -26,6 +26,8 @@ import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.security.InvalidKeyException;
 import java.util.Calendar;
 import java.util.Date;
@@ -45,10 +47,12 @@ import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.StorageLocation;
 import com.microsoft.azure.storage.StorageUri;
 import com.microsoft.azure.storage.core.BaseResponse;
+import com.microsoft.azure.storage.core.ByteBufferOutputStream;
 import com.microsoft.azure.storage.core.ExecutionEngine;
 import com.microsoft.azure.storage.core.Logger;
 import com.microsoft.azure.storage.core.NetworkInputStream;
 import com.microsoft.azure.storage.core.PathUtility;
+import com.microsoft.azure.storage.core.RangeReadChannel;
 import com.microsoft.azure.storage.core.RequestLocationMode;
 import com.microsoft.azure.storage.core.SR;
 import com.microsoft.azure.storage.core.SharedAccessSignatureHelper;
@@ -57,7 +61,6 @@ import com.microsoft.azure.storage.core.StorageRequest;
 import com.microsoft.azure.storage.core.StreamMd5AndLength;
 import com.microsoft.azure.storage.core.UriQueryBuilder;
 import com.microsoft.azure.storage.core.Utility;
-import com.microsoft.azure.storage.core.WrappedByteArrayOutputStream;
 
 /**
  * Represents a Microsoft Azure blob. This is the base class for the {@link CloudBlockBlob} and {@link CloudPageBlob}
@@ -1096,6 +1099,9 @@ public abstract class CloudBlob implements ListBlobItem {
 
     /**
      * Downloads the contents of a blob to a stream using the specified request options and operation context.
+     * <p>
+     * If the service client has a {@link BlobDiskCache}, the download is conditional on the ETag of the cached copy of
+     * the blob, which is read instead when the blob is not modified.
      *
      * @param outStream
      *            An <code>OutputStream</code> object that represents the target stream.
@@ -1122,11 +1128,101 @@ public abstract class CloudBlob implements ListBlobItem {
         opContext.initialize();
         options = BlobRequestOptions.populateAndApplyDefaults(options, this.properties.getBlobType(), this.blobServiceClient);
 
+        final BlobDiskCache diskCache = this.blobServiceClient.getDiskCache();
+        if (diskCache != null && BlobDiskCache.isCacheable(accessCondition)) {
+            this.downloadThroughCache(diskCache, outStream, accessCondition, options, opContext);
+            return;
+        }
+
         ExecutionEngine.executeWithRetry(this.blobServiceClient, this, this.downloadToStreamImpl(
                 null /* blobOffset */, null /* length */, outStream, accessCondition, options, opContext), options
                 .getRetryPolicyFactory(), opContext);
     }
 
+    /**
+     * Downloads the contents of the blob to a stream through a disk cache. If the cache has a copy of the blob, the
+     * download is conditional on its ETag and the copy is read when the service answers that the blob is not modified;
+     * the properties and the metadata kept with the copy are then restored, as described in {@link BlobDiskCache}.
+     * Otherwise the downloaded content is copied into the cache.
+     *
+     * @param diskCache
+     *            A {@link BlobDiskCache} object which represents the cache.
+     * @param outStream
+     *            An <code>OutputStream</code> object that represents the target stream.
+     * @param accessCondition
+     *            An {@link AccessCondition} object that represents the access conditions for the blob, at most a lease
+     *            ID.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request.
+     * @param opContext
+     *            An {@link OperationContext} object used to track the execution of the operation.
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    @DoesServiceRequest
+    private void downloadThroughCache(final BlobDiskCache diskCache, final OutputStream outStream,
+            final AccessCondition accessCondition, final BlobRequestOptions options, final OperationContext opContext)
+            throws StorageException {
+        final String key = BlobDiskCache.getKey(this);
+        final BlobDiskCache.Entry cached = diskCache.get(key);
+
+        AccessCondition condition = accessCondition;
+        if (cached != null) {
+            condition = AccessCondition.generateIfNoneMatchCondition(cached.getEtag());
+            condition.setLeaseID(accessCondition == null ? null : accessCondition.getLeaseID());
+        }
+
+        // Content downloaded into a buffer is copied into the cache afterwards, keeping the direct read into the buffer.
+        final BlobDiskCache.EntryWriter writer = diskCache.openWriter(key);
+        final ByteBuffer targetBuffer = outStream instanceof ByteBufferOutputStream ? ((ByteBufferOutputStream) outStream)
+                .getBuffer() : null;
+        final int startPosition = targetBuffer == null ? 0 : targetBuffer.position();
+        final OutputStream target = writer == null || targetBuffer != null ? outStream : writer.tee(outStream);
+
+        try {
+            ExecutionEngine.executeWithRetry(this.blobServiceClient, this, this.downloadToStreamImpl(
+                    null /* blobOffset */, null /* length */, target, condition, options, opContext), options
+                    .getRetryPolicyFactory(), opContext);
+        }
+        catch (final StorageException e) {
+            if (writer != null) {
+                writer.abandon();
+            }
+
+            if (cached == null || e.getHttpStatusCode() != HttpURLConnection.HTTP_NOT_MODIFIED) {
+                throw e;
+            }
+
+            final ByteBuffer content = diskCache.map(cached);
+            if (content == null) {
+                // The copy was evicted in the meantime.
+                this.downloadThroughCache(diskCache, outStream, accessCondition, options, opContext);
+                return;
+            }
+
+            try {
+                BlobDiskCache.copy(content, outStream);
+            }
+            catch (final IOException ioException) {
+                throw StorageException.translateClientException(ioException);
+            }
+
+            cached.restoreAttributes(this);
+            return;
+        }
+
+        if (writer != null) {
+            if (targetBuffer != null) {
+                final ByteBuffer written = targetBuffer.duplicate();
+                written.limit(written.position());
+                written.position(startPosition);
+                writer.write(written);
+            }
+
+            writer.commit(this.properties, this.metadata);
+        }
+    }
+
     /**
      * Downloads the contents of a blob to a stream.
      *
@@ -1460,6 +1556,36 @@ public abstract class CloudBlob implements ListBlobItem {
             throw new IndexOutOfBoundsException();
         }
 
+        return this.downloadRangeInternal(blobOffset, length, ByteBuffer.wrap(buffer, bufferOffset, buffer.length
+                - bufferOffset), accessCondition, options, opContext);
+    }
+
+    /**
+     * Downloads a range of bytes from the blob into the given byte buffer, starting at its position.
+     *
+     * @param blobOffset
+     *            A <code>long</code> which represents the offset within the blob to begin downloading.
+     * @param length
+     *            A <code>Long</code> which represents the number of bytes to read, or <code>null</code> to read to the
+     *            end of the blob.
+     * @param buffer
+     *            A <code>ByteBuffer</code> which represents the buffer to write to.
+     * @param accessCondition
+     *            An {@link AccessCondition} object that represents the access conditions for the blob.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request.
+     * @param opContext
+     *            An {@link OperationContext} object used to track the execution of the operation.
+     * @returns The total number of bytes read into the buffer.
+     * 
+     * @throws StorageException
+     *             an exception representing any error which occurred during the operation.
+     */
+    @DoesServiceRequest
+    private int downloadRangeInternal(final long blobOffset, final Long length, final ByteBuffer buffer,
+            final AccessCondition accessCondition, BlobRequestOptions options, OperationContext opContext)
+            throws StorageException {
+
         if (opContext == null) {
             opContext = new OperationContext();
         }
@@ -1470,13 +1596,83 @@ public abstract class CloudBlob implements ListBlobItem {
             throw new IllegalArgumentException(SR.INVALID_RANGE_CONTENT_MD5_HEADER);
         }
 
-        WrappedByteArrayOutputStream outputStream = new WrappedByteArrayOutputStream(buffer, bufferOffset);
+        final ByteBufferOutputStream outputStream = new ByteBufferOutputStream(buffer);
         ExecutionEngine.executeWithRetry(this.blobServiceClient, this,
                 this.downloadToStreamImpl(blobOffset, length, outputStream, accessCondition, options, opContext),
                 options.getRetryPolicyFactory(), opContext);
         return outputStream.getPosition();
     }
 
+    /**
+     * Downloads a range of bytes from the blob into the given byte buffer, starting at its position. The bytes are read
+     * from the network directly into the buffer: into its backing array for a heap buffer, and through a bounded
+     * transfer array for a direct buffer. The position of the buffer is advanced by the number of bytes read.
+     *
+     * @param offset
+     *            A <code>long</code> which represents the byte offset to use as the starting point for the source.
+     * @param length
+     *            A <code>Long</code> which represents the number of bytes to read, or <code>null</code> to read to the
+     *            end of the blob.
+     * @param buffer
+     *            A <code>ByteBuffer</code> which represents the buffer to which the blob bytes are downloaded.
+     * @return The total number of bytes read into the buffer.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    @DoesServiceRequest
+    public final int downloadRange(final long offset, final Long length, final ByteBuffer buffer)
+            throws StorageException {
+        return this.downloadRange(offset, length, buffer, null /* accessCondition */, null /* options */,
+                null /* opContext */);
+    }
+
+    /**
+     * Downloads a range of bytes from the blob into the given byte buffer, starting at its position, using the
+     * specified access condition, request options and operation context. The bytes are read from the network directly
+     * into the buffer: into its backing array for a heap buffer, and through a bounded transfer array for a direct
+     * buffer. The position of the buffer is advanced by the number of bytes read.
+     *
+     * @param offset
+     *            A <code>long</code> which represents the byte offset to use as the starting point for the source.
+     * @param length
+     *            A <code>Long</code> which represents the number of bytes to read, or <code>null</code> to read to the
+     *            end of the blob.
+     * @param buffer
+     *            A <code>ByteBuffer</code> which represents the buffer to which the blob bytes are downloaded.
+     * @param accessCondition
+     *            An {@link AccessCondition} object that represents the access conditions for the blob.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudBlobClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * @return The total number of bytes read into the buffer.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    @DoesServiceRequest
+    public final int downloadRange(final long offset, final Long length, final ByteBuffer buffer,
+            final AccessCondition accessCondition, BlobRequestOptions options, OperationContext opContext)
+            throws StorageException {
+        Utility.assertNotNull("buffer", buffer);
+        if (offset < 0 || (length != null && (length <= 0 || length > buffer.remaining()))) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (opContext == null) {
+            opContext = new OperationContext();
+        }
+
+        opContext.initialize();
+
+        return this.downloadRangeInternal(offset, length, buffer, accessCondition, options, opContext);
+    }
+
     /**
      * Downloads a range of bytes from the blob to the given byte buffer.
      *
@@ -1608,7 +1804,14 @@ public abstract class CloudBlob implements ListBlobItem {
         opContext.initialize();
         options = BlobRequestOptions.populateAndApplyDefaults(options, this.properties.getBlobType(), this.blobServiceClient);
 
-        WrappedByteArrayOutputStream outputStream = new WrappedByteArrayOutputStream(buffer, bufferOffset);
+        final ByteBufferOutputStream outputStream = new ByteBufferOutputStream(ByteBuffer.wrap(buffer, bufferOffset,
+                buffer.length - bufferOffset));
+        final BlobDiskCache diskCache = this.blobServiceClient.getDiskCache();
+        if (diskCache != null && BlobDiskCache.isCacheable(accessCondition)) {
+            this.downloadThroughCache(diskCache, outputStream, accessCondition, options, opContext);
+            return outputStream.getPosition();
+        }
+
         ExecutionEngine.executeWithRetry(this.blobServiceClient, this,
                 this.downloadToStreamImpl(null, null, outputStream, accessCondition, options, opContext),
                 options.getRetryPolicyFactory(), opContext);
@@ -2289,7 +2492,8 @@ public abstract class CloudBlob implements ListBlobItem {
     /**
      * Opens a blob input stream to download the blob using the specified request options and operation context.
      * <p>
-     * Use {@link #setStreamMinimumReadSizeInBytes(int)} to configure the read size.
+     * Use {@link #setStreamMinimumReadSizeInBytes(int)} to configure the read size. If the service client has a
+     * {@link BlobDiskCache} with a copy of the blob matching its current ETag, the stream reads the copy.
      *
      * @param accessCondition
      *            An {@link AccessCondition} object that represents the access conditions for the blob.
@@ -2321,7 +2525,144 @@ public abstract class CloudBlob implements ListBlobItem {
 
         return new BlobInputStream(this, accessCondition, options, opContext);
     }
+
+    /**
+     * Opens a channel to read the blob sequentially.
+     * <p>
+     * Reads into a buffer with at least {@link #getStreamMinimumReadSizeInBytes()} bytes remaining, or with room for
+     * the rest of the blob, are downloaded directly into that buffer. Unlike {@link #openInputStream}, the channel does
+     * not validate the MD5 of the whole blob; use transactional MD5 in the request options to validate each range.
+     *
+     * @return A <code>ReadableByteChannel</code> object that represents the channel to use for reading from the blob.
+     *
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    @DoesServiceRequest
+    public final ReadableByteChannel openReadChannel() throws StorageException {
+        return this.openReadChannel(null /* accessCondition */, null /* options */, null /* opContext */);
+    }
+
+    /**
+     * Opens a channel to read the blob sequentially, using the specified access condition, request options and
+     * operation context. The properties of the blob are downloaded when the channel is opened, and later reads fail
+     * if the blob is modified.
+     * <p>
+     * Reads into a buffer with at least {@link #getStreamMinimumReadSizeInBytes()} bytes remaining, or with room for
+     * the rest of the blob, are downloaded directly into that buffer. Unlike {@link #openInputStream}, the channel does
+     * not validate the MD5 of the whole blob; use transactional MD5 in the request options to validate each range.
+     *
+     * @param accessCondition
+     *            An {@link AccessCondition} object that represents the access conditions for the blob.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudBlobClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     *
+     * @return A <code>ReadableByteChannel</code> object that represents the channel to use for reading from the blob.
+     *
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    @DoesServiceRequest
+    public final ReadableByteChannel openReadChannel(final AccessCondition accessCondition, BlobRequestOptions options,
+            OperationContext opContext) throws StorageException {
+        if (opContext == null) {
+            opContext = new OperationContext();
+        }
+
+        options = BlobRequestOptions.populateAndApplyDefaults(options, this.properties.getBlobType(),
+                this.blobServiceClient, false /* setStartTime */);
+
+        this.downloadAttributes(accessCondition, options, opContext);
+
+        final AccessCondition readCondition = AccessCondition.generateIfMatchCondition(this.properties.getEtag());
+        if (accessCondition != null) {
+            readCondition.setLeaseID(accessCondition.getLeaseID());
+        }
+
+        final BlobRequestOptions readOptions = options;
+        final OperationContext readContext = opContext;
+        final int maximumReadSize = options.getUseTransactionalContentMD5() ? 4 * Constants.MB : Integer.MAX_VALUE;
+        return new RangeReadChannel(this.properties.getLength(), this.getStreamMinimumReadSizeInBytes(),
+                maximumReadSize) {
+            @Override
+            protected void downloadRange(long offset, long count, ByteBuffer target) throws StorageException {
+                CloudBlob.this.downloadRange(offset, count, target, readCondition, readOptions, readContext);
+            }
+        };
+    }
     
+    /**
+     * Opens a reader which reads the blob at any position through a cache of blocks of
+     * {@link #getStreamMinimumReadSizeInBytes()} bytes, holding up to
+     * {@link SeekableBlobReader#DEFAULT_CACHE_SIZE_IN_BLOCKS} unpinned blocks.
+     *
+     * @return A {@link SeekableBlobReader} object that represents the reader to use for reading from the blob.
+     *
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    @DoesServiceRequest
+    public final SeekableBlobReader openSeekableReader() throws StorageException {
+        return this.openSeekableReader(this.getStreamMinimumReadSizeInBytes(),
+                SeekableBlobReader.DEFAULT_CACHE_SIZE_IN_BLOCKS, null /* accessCondition */, null /* options */,
+                null /* opContext */);
+    }
+
+    /**
+     * Opens a reader which reads the blob at any position through a cache of blocks of the specified size, using the
+     * specified access condition, request options and operation context. Blocks which are not cached are downloaded,
+     * consecutive ones with a single request, and the least recently used blocks beyond the cache size are evicted.
+     * Every download is conditional on the ETag of the blob when the reader is opened.
+     *
+     * @param blockSizeInBytes
+     *            An <code>int</code> which represents the size of a cached block. It must be at most 4 MB if
+     *            transactional MD5 validation is used.
+     * @param cacheSizeInBlocks
+     *            An <code>int</code> which represents the maximum number of unpinned blocks cached.
+     * @param accessCondition
+     *            An {@link AccessCondition} object that represents the access conditions for the blob.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudBlobClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     *
+     * @return A {@link SeekableBlobReader} object that represents the reader to use for reading from the blob.
+     *
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    @DoesServiceRequest
+    public final SeekableBlobReader openSeekableReader(final int blockSizeInBytes, final int cacheSizeInBlocks,
+            final AccessCondition accessCondition, BlobRequestOptions options, OperationContext opContext)
+            throws StorageException {
+        if (opContext == null) {
+            opContext = new OperationContext();
+        }
+
+        options = BlobRequestOptions.populateAndApplyDefaults(options, this.properties.getBlobType(),
+                this.blobServiceClient, false /* setStartTime */);
+
+        this.downloadAttributes(accessCondition, options, opContext);
+
+        final AccessCondition readCondition = AccessCondition.generateIfMatchCondition(this.properties.getEtag());
+        if (accessCondition != null) {
+            readCondition.setLeaseID(accessCondition.getLeaseID());
+        }
+
+        return new SeekableBlobReader(this, this.properties.getLength(), blockSizeInBytes, cacheSizeInBlocks,
+                readCondition, options, opContext);
+    }
+
     /**
      * Verifies the passed in URI. Then parses it and uses its components to populate this resource's properties.
      * 
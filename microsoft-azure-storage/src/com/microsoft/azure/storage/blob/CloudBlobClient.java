@@ -20,6 +20,7 @@ import java.net.URISyntaxException;
 
 import com.microsoft.azure.storage.DoesServiceRequest;
 import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.ResultConsumer;
 import com.microsoft.azure.storage.ResultContinuation;
 import com.microsoft.azure.storage.ResultContinuationType;
 import com.microsoft.azure.storage.ResultSegment;
@@ -29,10 +30,12 @@ import com.microsoft.azure.storage.ServiceStats;
 import com.microsoft.azure.storage.StorageCredentials;
 import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.StorageUri;
+import com.microsoft.azure.storage.TransferScheduler;
 import com.microsoft.azure.storage.core.ExecutionEngine;
 import com.microsoft.azure.storage.core.LazySegmentedIterable;
 import com.microsoft.azure.storage.core.ListResponse;
 import com.microsoft.azure.storage.core.ListingContext;
+import com.microsoft.azure.storage.core.ListingSink;
 import com.microsoft.azure.storage.core.SegmentedStorageRequest;
 import com.microsoft.azure.storage.core.StorageRequest;
 import com.microsoft.azure.storage.core.Utility;
@@ -56,6 +59,21 @@ public final class CloudBlobClient extends ServiceClient {
      */
     private BlobRequestOptions defaultRequestOptions = new BlobRequestOptions();
 
+    /**
+     * Holds the scheduler running the uploads of the blob output streams of this client, created on first use.
+     */
+    private TransferScheduler transferScheduler;
+
+    /**
+     * Holds the manager renewing the leases of this client, created on first use.
+     */
+    private LeaseManager leaseManager;
+
+    /**
+     * Holds the disk cache of the blob downloads of this client, or <code>null</code> if downloads are not cached.
+     */
+    private BlobDiskCache diskCache;
+
     /**
      * Creates an instance of the <code>CloudBlobClient</code> class using the specified Blob service endpoint and
      * anonymous credentials.
@@ -197,6 +215,49 @@ public final class CloudBlobClient extends ServiceClient {
         return this.listContainersWithPrefix(prefix, detailsIncluded, options, opContext);
     }
 
+    /**
+     * Lists the blob containers whose names begin with the specified prefix for this Blob service client, passing each
+     * container to the specified consumer as soon as it is parsed instead of collecting result segments. Listing
+     * continues through all result segments until the consumer returns <code>false</code>.
+     * 
+     * @param prefix
+     *            A <code>String</code> that represents the container name prefix.
+     * @param detailsIncluded
+     *            A {@link ContainerListingDetails} value that indicates whether container metadata will be returned.
+     * @param consumer
+     *            The {@link ResultConsumer} which receives each {@link CloudBlobContainer}.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudBlobClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred, or if the consumer threw an exception.
+     */
+    @DoesServiceRequest
+    public void listContainers(final String prefix, final ContainerListingDetails detailsIncluded,
+            final ResultConsumer<? super CloudBlobContainer> consumer, BlobRequestOptions options,
+            OperationContext opContext) throws StorageException {
+        final ListingSink<CloudBlobContainer> sink = new ListingSink<CloudBlobContainer>(consumer);
+        if (opContext == null) {
+            opContext = new OperationContext();
+        }
+
+        opContext.initialize();
+        options = BlobRequestOptions.populateAndApplyDefaults(options, BlobType.UNSPECIFIED, this);
+
+        final SegmentedStorageRequest segmentedRequest = new SegmentedStorageRequest();
+        do {
+            ExecutionEngine.executeWithRetry(this, null, this.listContainersWithPrefixSegmentedImpl(prefix,
+                    detailsIncluded, null /* maxResults */, options, segmentedRequest, sink),
+                    options.getRetryPolicyFactory(), opContext);
+        } while (segmentedRequest.getToken() != null && !sink.isStopped());
+    }
+
     /**
      * Returns a result segment of an enumerable collection of blob containers for this Blob service client.
      * 
@@ -305,7 +366,8 @@ public final class CloudBlobClient extends ServiceClient {
         SegmentedStorageRequest segmentedRequest = new SegmentedStorageRequest();
 
         return new LazySegmentedIterable<CloudBlobClient, Void, CloudBlobContainer>(
-                this.listContainersWithPrefixSegmentedImpl(prefix, detailsIncluded, null, options, segmentedRequest),
+                this.listContainersWithPrefixSegmentedImpl(prefix, detailsIncluded, null, options, segmentedRequest,
+                        null /* sink */),
                 this, null, options.getRetryPolicyFactory(), opContext);
     }
 
@@ -356,12 +418,14 @@ public final class CloudBlobClient extends ServiceClient {
         segmentedRequest.setToken(continuationToken);
 
         return ExecutionEngine.executeWithRetry(this, null, this.listContainersWithPrefixSegmentedImpl(prefix,
-                detailsIncluded, maxResults, options, segmentedRequest), options.getRetryPolicyFactory(), opContext);
+                detailsIncluded, maxResults, options, segmentedRequest, null /* sink */),
+                options.getRetryPolicyFactory(), opContext);
     }
 
     private StorageRequest<CloudBlobClient, Void, ResultSegment<CloudBlobContainer>> listContainersWithPrefixSegmentedImpl(
             final String prefix, final ContainerListingDetails detailsIncluded, final Integer maxResults,
-            final BlobRequestOptions options, final SegmentedStorageRequest segmentedRequest) {
+            final BlobRequestOptions options, final SegmentedStorageRequest segmentedRequest,
+            final ListingSink<? super CloudBlobContainer> sink) {
 
         Utility.assertContinuationType(segmentedRequest.getToken(), ResultContinuationType.CONTAINER);
 
@@ -404,8 +468,9 @@ public final class CloudBlobClient extends ServiceClient {
             public ResultSegment<CloudBlobContainer> postProcessResponse(HttpURLConnection connection, Void container,
                     CloudBlobClient client, OperationContext context, ResultSegment<CloudBlobContainer> storageObject)
                     throws Exception {
-                final ListResponse<CloudBlobContainer> response = ContainerListHandler.getContainerList(this
-                        .getConnection().getInputStream(), client);
+                final ListResponse<CloudBlobContainer> response = sink == null ? ContainerListHandler
+                        .getContainerList(this.getConnection().getInputStream(), client) : ContainerListHandler
+                        .getContainerList(this.getConnection().getInputStream(), client, sink);
                 ResultContinuation newToken = null;
 
                 if (response.getNextMarker() != null) {
@@ -599,6 +664,80 @@ public final class CloudBlobClient extends ServiceClient {
         this.defaultRequestOptions = defaultRequestOptions;
     }
 
+    /**
+     * Gets the {@link TransferScheduler} that runs the uploads of the blob output streams opened through this
+     * <code>CloudBlobClient</code>. A scheduler with the default settings is created on first use.
+     * 
+     * @return The {@link TransferScheduler} object used by this <code>CloudBlobClient</code>.
+     */
+    public synchronized TransferScheduler getTransferScheduler() {
+        if (this.transferScheduler == null) {
+            this.transferScheduler = new TransferScheduler();
+        }
+
+        return this.transferScheduler;
+    }
+
+    /**
+     * Sets the {@link TransferScheduler} that runs the uploads of the blob output streams opened through this
+     * <code>CloudBlobClient</code>. Share a scheduler between clients to limit their uploads together.
+     * 
+     * @param transferScheduler
+     *            A {@link TransferScheduler} object.
+     */
+    public synchronized void setTransferScheduler(final TransferScheduler transferScheduler) {
+        Utility.assertNotNull("transferScheduler", transferScheduler);
+        this.transferScheduler = transferScheduler;
+    }
+
+    /**
+     * Gets the {@link LeaseManager} that keeps alive the blob and container leases of this
+     * <code>CloudBlobClient</code>. A manager with the default settings is created on first use.
+     * 
+     * @return The {@link LeaseManager} object used by this <code>CloudBlobClient</code>.
+     */
+    public synchronized LeaseManager getLeaseManager() {
+        if (this.leaseManager == null) {
+            this.leaseManager = new LeaseManager();
+        }
+
+        return this.leaseManager;
+    }
+
+    /**
+     * Sets the {@link LeaseManager} that keeps alive the blob and container leases of this
+     * <code>CloudBlobClient</code>. Share a manager between clients to renew all their leases from one thread.
+     * 
+     * @param leaseManager
+     *            A {@link LeaseManager} object.
+     */
+    public synchronized void setLeaseManager(final LeaseManager leaseManager) {
+        Utility.assertNotNull("leaseManager", leaseManager);
+        this.leaseManager = leaseManager;
+    }
+
+    /**
+     * Gets the {@link BlobDiskCache} which keeps local copies of the blobs downloaded through this
+     * <code>CloudBlobClient</code>.
+     * 
+     * @return The {@link BlobDiskCache} object used by this <code>CloudBlobClient</code>, or <code>null</code> if
+     *         downloads are not cached.
+     */
+    public synchronized BlobDiskCache getDiskCache() {
+        return this.diskCache;
+    }
+
+    /**
+     * Sets the {@link BlobDiskCache} which keeps local copies of the blobs downloaded through this
+     * <code>CloudBlobClient</code>. Share a cache between clients to share the copies of their blobs.
+     * 
+     * @param diskCache
+     *            A {@link BlobDiskCache} object, or <code>null</code> to stop caching downloads.
+     */
+    public synchronized void setDiskCache(final BlobDiskCache diskCache) {
+        this.diskCache = diskCache;
+    }
+
     /**
      * Indicates whether path-style URIs are being used.
      * 
@@ -25,12 +25,14 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
 
 import com.microsoft.azure.storage.AccessCondition;
 import com.microsoft.azure.storage.Constants;
 import com.microsoft.azure.storage.DoesServiceRequest;
 import com.microsoft.azure.storage.IPRange;
 import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.ResultConsumer;
 import com.microsoft.azure.storage.ResultContinuation;
 import com.microsoft.azure.storage.ResultContinuationType;
 import com.microsoft.azure.storage.ResultSegment;
@@ -44,6 +46,7 @@ import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.StorageUri;
 import com.microsoft.azure.storage.core.ExecutionEngine;
 import com.microsoft.azure.storage.core.LazySegmentedIterable;
+import com.microsoft.azure.storage.core.ListingSink;
 import com.microsoft.azure.storage.core.PathUtility;
 import com.microsoft.azure.storage.core.RequestLocationMode;
 import com.microsoft.azure.storage.core.SR;
@@ -194,6 +197,57 @@ public final class CloudBlobContainer {
         this.blobServiceClient = client;
     }
 
+    /**
+     * Copies the specified source blobs into this container using server-side copies, and waits for the copies to
+     * complete. Each source blob is copied to a blob with the same name and type in this container.
+     * <p>
+     * The sources are typically the result of a flat listing of another container, which may be in another storage
+     * account. Items of the sequence which are not blobs, such as {@link CloudBlobDirectory} items, are skipped. The
+     * sources are read lazily, so at most {@link BulkCopyOptions#getConcurrentCopyCount()} copies are in progress at
+     * the same time. The copy states are polled in batches at adaptive intervals, failed copies are started again, and
+     * copies which make no progress are aborted and started again, as specified by the {@link BulkCopyOptions}.
+     * <p>
+     * If this method throws, copies which were already started continue on the service.
+     * 
+     * @param sources
+     *            An <code>Iterable</code> of {@link ListBlobItem} objects which represents the blobs to copy.
+     * @param copyOptions
+     *            A {@link BulkCopyOptions} object that specifies how the copies are started and polled. Specifying
+     *            <code>null</code> will use the default options.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudBlobClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * 
+     * @return A {@link BulkCopyResult} object which represents the progress of the copies and the copies which failed.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred.
+     * @throws URISyntaxException
+     *             If the resource URI is invalid.
+     */
+    @DoesServiceRequest
+    public BulkCopyResult copyBlobsFrom(final Iterable<? extends ListBlobItem> sources, BulkCopyOptions copyOptions,
+            BlobRequestOptions options, OperationContext opContext) throws StorageException, URISyntaxException {
+        Utility.assertNotNull("sources", sources);
+        if (copyOptions == null) {
+            copyOptions = new BulkCopyOptions();
+        }
+
+        if (opContext == null) {
+            opContext = new OperationContext();
+        }
+
+        opContext.initialize();
+        options = BlobRequestOptions.populateAndApplyDefaults(options, BlobType.UNSPECIFIED, this.blobServiceClient);
+
+        return new BulkCopyOrchestrator(this, sources, copyOptions, options, opContext).run();
+    }
+
     /**
      * Creates the container.
      * 
@@ -468,6 +522,62 @@ public final class CloudBlobContainer {
         return putRequest;
     }
 
+    /**
+     * Deletes the specified blobs in this container, running the deletions in parallel. Blobs which do not exist are
+     * counted as deleted. A failed deletion is recorded in the result and does not stop the other deletions.
+     * <p>
+     * The names are read lazily, so an <code>Iterable</code> returned by {@link #listBlobNames} can be used to delete
+     * all the blobs with a given prefix.
+     * 
+     * @param blobNames
+     *            An <code>Iterable</code> of the names of the blobs to delete.
+     * @param deleteSnapshotsOption
+     *            A {@link DeleteSnapshotsOption} object that indicates whether to delete only the blobs, only their
+     *            snapshots, or both.
+     * @param bulkOptions
+     *            A {@link BulkOperationOptions} object that specifies the parallelism and retry budget of the blob
+     *            operations. Specifying <code>null</code> will use the default options.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudBlobClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * 
+     * @return A {@link BulkOperationResult} object which represents the number of blob operations which succeeded and
+     *         the blob operations which failed.
+     * 
+     * @throws StorageException
+     *             If the thread was interrupted or an unexpected error occurred.
+     */
+    @DoesServiceRequest
+    public BulkOperationResult deleteBlobs(final Iterable<String> blobNames,
+            final DeleteSnapshotsOption deleteSnapshotsOption, BulkOperationOptions bulkOptions,
+            BlobRequestOptions options, OperationContext opContext) throws StorageException {
+        Utility.assertNotNull("blobNames", blobNames);
+        Utility.assertNotNull("deleteSnapshotsOption", deleteSnapshotsOption);
+        if (bulkOptions == null) {
+            bulkOptions = new BulkOperationOptions();
+        }
+
+        if (opContext == null) {
+            opContext = new OperationContext();
+        }
+
+        opContext.initialize();
+        options = BlobRequestOptions.populateAndApplyDefaults(options, BlobType.UNSPECIFIED, this.blobServiceClient);
+
+        return new BulkBlobOperation() {
+            @Override
+            void execute(CloudBlob blob, BlobRequestOptions options, OperationContext opContext)
+                    throws StorageException {
+                blob.deleteIfExists(deleteSnapshotsOption, null /* accessCondition */, options, opContext);
+            }
+        }.run(this, blobNames, bulkOptions, options, opContext);
+    }
+
     /**
      * Deletes the container if it exists.
      * 
@@ -1235,6 +1345,54 @@ public final class CloudBlobContainer {
         return this.storageUri.getPrimaryUri();
     }
 
+    /**
+     * Returns an enumerable collection of the names of the blobs in this container whose names begin with the specified
+     * prefix, using a flat listing. The listing is requested lazily as the collection is enumerated, which makes it
+     * suitable as the input of the bulk operations such as {@link #deleteBlobs}.
+     * 
+     * @param prefix
+     *            A <code>String</code> that represents the blob name prefix.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudBlobClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * 
+     * @return An enumerable collection of <code>String</code> objects that represent the names of the blobs.
+     */
+    @DoesServiceRequest
+    public Iterable<String> listBlobNames(final String prefix, final BlobRequestOptions options,
+            final OperationContext opContext) {
+        final Iterable<ListBlobItem> blobs = this.listBlobs(prefix, true /* useFlatBlobListing */,
+                EnumSet.noneOf(BlobListingDetails.class), options, opContext);
+
+        return new Iterable<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                final Iterator<ListBlobItem> iterator = blobs.iterator();
+                return new Iterator<String>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        return ((CloudBlob) iterator.next()).getName();
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
     /**
      * Returns an enumerable collection of blob items for the container.
      * 
@@ -1321,10 +1479,111 @@ public final class CloudBlobContainer {
         SegmentedStorageRequest segmentedRequest = new SegmentedStorageRequest();
 
         return new LazySegmentedIterable<CloudBlobClient, CloudBlobContainer, ListBlobItem>(
-                this.listBlobsSegmentedImpl(prefix, useFlatBlobListing, listingDetails, null, options, segmentedRequest),
+                this.listBlobsSegmentedImpl(prefix, useFlatBlobListing, listingDetails, null, options, segmentedRequest,
+                        null /* sink */, null /* entrySink */),
                 this.blobServiceClient, this, options.getRetryPolicyFactory(), opContext);
     }
 
+    /**
+     * Lists the blob items for the container whose names begin with the specified prefix, passing each item to the
+     * specified consumer as soon as it is parsed instead of collecting result segments. Listing continues through all
+     * result segments until the consumer returns <code>false</code>.
+     * 
+     * @param prefix
+     *            A <code>String</code> that represents the blob name prefix. This value must be preceded either by the
+     *            name of the container or by the absolute path to the container.
+     * @param useFlatBlobListing
+     *            <code>true</code> to indicate that the returned list will be flat; <code>false</code> to indicate that
+     *            the returned list will be hierarchical.
+     * @param listingDetails
+     *            A <code>java.util.EnumSet</code> object that contains {@link BlobListingDetails} values that indicate
+     *            whether snapshots, metadata, and/or uncommitted blocks are returned. Committed blocks are always
+     *            returned.
+     * @param consumer
+     *            The {@link ResultConsumer} which receives each {@link ListBlobItem}.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudBlobClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred, or if the consumer threw an exception.
+     */
+    @DoesServiceRequest
+    public void listBlobs(final String prefix, final boolean useFlatBlobListing,
+            final EnumSet<BlobListingDetails> listingDetails, final ResultConsumer<? super ListBlobItem> consumer,
+            final BlobRequestOptions options, final OperationContext opContext) throws StorageException {
+        this.listBlobsStreamed(prefix, useFlatBlobListing, listingDetails, new ListingSink<ListBlobItem>(consumer),
+                null /* entrySink */, options, opContext);
+    }
+
+    /**
+     * Lists a lightweight projection of the blob items for the container whose names begin with the specified
+     * prefix. Only the name, snapshot, type, length and ETag of each item are parsed, and no blob references,
+     * properties or metadata are created, which makes this the cheapest way to enumerate very large containers.
+     * <p>
+     * The same {@link BlobListingEntry} instance is passed to the consumer for every item, so its values must be
+     * copied if they are needed after the consumer returns. Listing continues through all result segments until the
+     * consumer returns <code>false</code>.
+     * 
+     * @param prefix
+     *            A <code>String</code> that represents the blob name prefix. This value must be preceded either by the
+     *            name of the container or by the absolute path to the container.
+     * @param useFlatBlobListing
+     *            <code>true</code> to indicate that the returned list will be flat; <code>false</code> to indicate that
+     *            the returned list will be hierarchical.
+     * @param listingDetails
+     *            A <code>java.util.EnumSet</code> object that contains {@link BlobListingDetails} values that indicate
+     *            whether snapshots and/or uncommitted blobs are listed. Metadata is never parsed.
+     * @param consumer
+     *            The {@link ResultConsumer} which receives each {@link BlobListingEntry}.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudBlobClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred, or if the consumer threw an exception.
+     */
+    @DoesServiceRequest
+    public void listBlobEntries(final String prefix, final boolean useFlatBlobListing,
+            final EnumSet<BlobListingDetails> listingDetails, final ResultConsumer<? super BlobListingEntry> consumer,
+            final BlobRequestOptions options, final OperationContext opContext) throws StorageException {
+        this.listBlobsStreamed(prefix, useFlatBlobListing, listingDetails, null /* sink */,
+                new ListingSink<BlobListingEntry>(consumer), options, opContext);
+    }
+
+    private void listBlobsStreamed(final String prefix, final boolean useFlatBlobListing,
+            final EnumSet<BlobListingDetails> listingDetails, final ListingSink<ListBlobItem> sink,
+            final ListingSink<BlobListingEntry> entrySink, BlobRequestOptions options, OperationContext opContext)
+            throws StorageException {
+        if (opContext == null) {
+            opContext = new OperationContext();
+        }
+
+        opContext.initialize();
+        options = BlobRequestOptions.populateAndApplyDefaults(options, BlobType.UNSPECIFIED, this.blobServiceClient);
+
+        if (!useFlatBlobListing && listingDetails != null && listingDetails.contains(BlobListingDetails.SNAPSHOTS)) {
+            throw new IllegalArgumentException(SR.SNAPSHOT_LISTING_ERROR);
+        }
+
+        final SegmentedStorageRequest segmentedRequest = new SegmentedStorageRequest();
+        do {
+            ExecutionEngine.executeWithRetry(this.blobServiceClient, this, this.listBlobsSegmentedImpl(prefix,
+                    useFlatBlobListing, listingDetails, null /* maxResults */, options, segmentedRequest, sink,
+                    entrySink), options.getRetryPolicyFactory(), opContext);
+        } while (segmentedRequest.getToken() != null && !(sink != null ? sink : entrySink).isStopped());
+    }
+
     /**
      * Returns a result segment of an enumerable collection of blob items in the container.
      * 
@@ -1415,13 +1674,14 @@ public final class CloudBlobContainer {
         segmentedRequest.setToken(continuationToken);
 
         return ExecutionEngine.executeWithRetry(this.blobServiceClient, this, this.listBlobsSegmentedImpl(prefix,
-                useFlatBlobListing, listingDetails, maxResults, options, segmentedRequest), options
-                .getRetryPolicyFactory(), opContext);
+                useFlatBlobListing, listingDetails, maxResults, options, segmentedRequest, null /* sink */,
+                null /* entrySink */), options.getRetryPolicyFactory(), opContext);
     }
 
     private StorageRequest<CloudBlobClient, CloudBlobContainer, ResultSegment<ListBlobItem>> listBlobsSegmentedImpl(
             final String prefix, final boolean useFlatBlobListing, final EnumSet<BlobListingDetails> listingDetails,
-            final Integer maxResults, final BlobRequestOptions options, final SegmentedStorageRequest segmentedRequest) {
+            final Integer maxResults, final BlobRequestOptions options, final SegmentedStorageRequest segmentedRequest,
+            final ListingSink<? super ListBlobItem> sink, final ListingSink<? super BlobListingEntry> entrySink) {
 
         Utility.assertContinuationType(segmentedRequest.getToken(), ResultContinuationType.BLOB);
         Utility.assertNotNull("options", options);
@@ -1467,7 +1727,9 @@ public final class CloudBlobContainer {
             public ResultSegment<ListBlobItem> postProcessResponse(HttpURLConnection connection,
                     CloudBlobContainer container, CloudBlobClient client, OperationContext context,
                     ResultSegment<ListBlobItem> storageObject) throws Exception {
-                final ListBlobsResponse response = BlobListHandler.getBlobList(connection.getInputStream(), container);
+                final ListBlobsResponse response = sink == null && entrySink == null ? BlobListHandler.getBlobList(
+                        connection.getInputStream(), container) : BlobListHandler.getBlobList(
+                        connection.getInputStream(), container, sink, entrySink);
 
                 ResultContinuation newToken = null;
 
@@ -1706,6 +1968,147 @@ public final class CloudBlobContainer {
         this.properties = properties;
     }
 
+    /**
+     * Replaces the metadata of the specified blobs in this container, running the updates in parallel. A failed update
+     * is recorded in the result and does not stop the other updates.
+     * 
+     * @param blobNames
+     *            An <code>Iterable</code> of the names of the blobs to update, read lazily.
+     * @param metadata
+     *            A <code>java.util.HashMap</code> object that represents the metadata of each blob.
+     * @param bulkOptions
+     *            A {@link BulkOperationOptions} object that specifies the parallelism and retry budget of the blob
+     *            operations. Specifying <code>null</code> will use the default options.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudBlobClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * 
+     * @return A {@link BulkOperationResult} object which represents the number of blob operations which succeeded and
+     *         the blob operations which failed.
+     * 
+     * @throws StorageException
+     *             If the thread was interrupted or an unexpected error occurred.
+     */
+    @DoesServiceRequest
+    public BulkOperationResult uploadBlobsMetadata(final Iterable<String> blobNames,
+            final HashMap<String, String> metadata, BulkOperationOptions bulkOptions, BlobRequestOptions options,
+            OperationContext opContext) throws StorageException {
+        Utility.assertNotNull("blobNames", blobNames);
+        Utility.assertNotNull("metadata", metadata);
+        if (bulkOptions == null) {
+            bulkOptions = new BulkOperationOptions();
+        }
+
+        if (opContext == null) {
+            opContext = new OperationContext();
+        }
+
+        opContext.initialize();
+        options = BlobRequestOptions.populateAndApplyDefaults(options, BlobType.UNSPECIFIED, this.blobServiceClient);
+
+        return new BulkBlobOperation() {
+            @Override
+            void execute(CloudBlob blob, BlobRequestOptions options, OperationContext opContext)
+                    throws StorageException {
+                blob.setMetadata(new HashMap<String, String>(metadata));
+                blob.uploadMetadata(null /* accessCondition */, options, opContext);
+            }
+        }.run(this, blobNames, bulkOptions, options, opContext);
+    }
+
+    /**
+     * Updates the properties of the specified blobs in this container, running the updates in parallel. The cache
+     * control, content disposition, content encoding, content language and content type which are set on the specified
+     * properties replace those of each blob; the other properties of each blob are kept. A failed update is recorded in
+     * the result and does not stop the other updates.
+     * <p>
+     * Because the service replaces all the properties at once, each update reads the properties and the type of the
+     * blob first and is conditional on the blob not having changed in between, so each blob costs two requests. Blobs
+     * of all types are supported.
+     * 
+     * @param blobNames
+     *            An <code>Iterable</code> of the names of the blobs to update, read lazily.
+     * @param properties
+     *            A {@link BlobProperties} object whose non-<code>null</code> content properties are set on each blob.
+     * @param bulkOptions
+     *            A {@link BulkOperationOptions} object that specifies the parallelism and retry budget of the blob
+     *            operations. Specifying <code>null</code> will use the default options.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudBlobClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * 
+     * @return A {@link BulkOperationResult} object which represents the number of blob operations which succeeded and
+     *         the blob operations which failed.
+     * 
+     * @throws StorageException
+     *             If the thread was interrupted or an unexpected error occurred.
+     */
+    @DoesServiceRequest
+    public BulkOperationResult uploadBlobsProperties(final Iterable<String> blobNames,
+            final BlobProperties properties, BulkOperationOptions bulkOptions, BlobRequestOptions options,
+            OperationContext opContext) throws StorageException {
+        Utility.assertNotNull("blobNames", blobNames);
+        Utility.assertNotNull("properties", properties);
+        if (bulkOptions == null) {
+            bulkOptions = new BulkOperationOptions();
+        }
+
+        if (opContext == null) {
+            opContext = new OperationContext();
+        }
+
+        opContext.initialize();
+        options = BlobRequestOptions.populateAndApplyDefaults(options, BlobType.UNSPECIFIED, this.blobServiceClient);
+
+        return new BulkBlobOperation() {
+            @Override
+            CloudBlob getBlobReference(CloudBlobContainer container, String blobName, BlobRequestOptions options,
+                    OperationContext opContext) throws StorageException, URISyntaxException {
+                // Reads the properties along with the type of the blob, which a block blob reference would reject.
+                return container.getBlobReferenceFromServer(blobName, null /* snapshotID */,
+                        null /* accessCondition */, options, opContext);
+            }
+
+            @Override
+            void execute(CloudBlob blob, BlobRequestOptions options, OperationContext opContext)
+                    throws StorageException {
+                final BlobProperties blobProperties = blob.getProperties();
+                if (properties.getCacheControl() != null) {
+                    blobProperties.setCacheControl(properties.getCacheControl());
+                }
+
+                if (properties.getContentDisposition() != null) {
+                    blobProperties.setContentDisposition(properties.getContentDisposition());
+                }
+
+                if (properties.getContentEncoding() != null) {
+                    blobProperties.setContentEncoding(properties.getContentEncoding());
+                }
+
+                if (properties.getContentLanguage() != null) {
+                    blobProperties.setContentLanguage(properties.getContentLanguage());
+                }
+
+                if (properties.getContentType() != null) {
+                    blobProperties.setContentType(properties.getContentType());
+                }
+
+                blob.uploadProperties(AccessCondition.generateIfMatchCondition(blobProperties.getEtag()), options,
+                        opContext);
+            }
+        }.run(this, blobNames, bulkOptions, options, opContext);
+    }
+
     /**
      * Uploads the container's metadata.
      * 
@@ -16,12 +16,23 @@ package com.microsoft.azure.storage.blob;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.microsoft.azure.storage.AccessCondition;
 import com.microsoft.azure.storage.Constants;
@@ -31,9 +42,11 @@ import com.microsoft.azure.storage.StorageCredentials;
 import com.microsoft.azure.storage.StorageErrorCodeStrings;
 import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.StorageUri;
+import com.microsoft.azure.storage.TransferScheduler;
 import com.microsoft.azure.storage.core.Base64;
 import com.microsoft.azure.storage.core.BaseResponse;
 import com.microsoft.azure.storage.core.ExecutionEngine;
+import com.microsoft.azure.storage.core.OutputStreamWriteChannel;
 import com.microsoft.azure.storage.core.RequestLocationMode;
 import com.microsoft.azure.storage.core.SR;
 import com.microsoft.azure.storage.core.StorageRequest;
@@ -583,6 +596,50 @@ public final class CloudBlockBlob extends CloudBlob {
         return new BlobOutputStream(this, accessCondition, options, opContext);
     }
 
+    /**
+     * Creates and opens a channel to write data to the block blob. If the blob already exists on the service, it will
+     * be overwritten. The contents of heap buffers are written without an intermediate copy; the data is uploaded as by
+     * {@link #openOutputStream()}, and the channel must be closed to commit the blob.
+     * 
+     * @return A <code>WritableByteChannel</code> object used to write data to the blob.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    @DoesServiceRequest
+    public WritableByteChannel openWriteChannel() throws StorageException {
+        return this.openWriteChannel(null /* accessCondition */, null /* options */, null /* opContext */);
+    }
+
+    /**
+     * Creates and opens a channel to write data to the block blob using the specified request options and operation
+     * context. If the blob already exists on the service, it will be overwritten. The contents of heap buffers are
+     * written without an intermediate copy; the data is uploaded as by
+     * {@link #openOutputStream(AccessCondition, BlobRequestOptions, OperationContext)}, and the channel must be closed
+     * to commit the blob.
+     * 
+     * @param accessCondition
+     *            An {@link AccessCondition} object that represents the access conditions for the blob.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudBlobClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * 
+     * @return A <code>WritableByteChannel</code> object used to write data to the blob.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    @DoesServiceRequest
+    public WritableByteChannel openWriteChannel(AccessCondition accessCondition, BlobRequestOptions options,
+            OperationContext opContext) throws StorageException {
+        return new OutputStreamWriteChannel(this.openOutputStream(accessCondition, options, opContext));
+    }
+
     /**
      * Uploads the source stream data to the block blob. If the blob already exists on the service, it will be 
      * overwritten.
@@ -788,6 +845,409 @@ public final class CloudBlockBlob extends CloudBlob {
         return putRequest;
     }
     
+    /**
+     * Uploads a blob from a file so that an interrupted upload can be resumed. If the blob already exists on the
+     * service, it will be overwritten.
+     * 
+     * @param path
+     *            A <code>String</code> which represents the path to the file to be uploaded.
+     * @param checkpointPath
+     *            A <code>String</code> which represents the path to the journal of the upload.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred.
+     * @throws IOException
+     *             If an I/O error occurred.
+     * @see #uploadFromFileResumable(String, String, AccessCondition, BlobRequestOptions, OperationContext)
+     */
+    @DoesServiceRequest
+    public void uploadFromFileResumable(final String path, final String checkpointPath) throws StorageException,
+            IOException {
+        this.uploadFromFileResumable(path, checkpointPath, null /* accessCondition */, null /* options */,
+                null /* opContext */);
+    }
+
+    /**
+     * Uploads a blob from a file so that an interrupted upload can be resumed, using the specified access conditions,
+     * request options, and operation context. If the blob already exists on the service, it will be overwritten.
+     * <p>
+     * The file is uploaded in blocks of {@link #getStreamWriteSizeInBytes()} bytes whose IDs are derived from their
+     * offset in the file. The upload is identified by a small journal at <code>checkpointPath</code>. If the upload is
+     * interrupted, calling this method again with the same file and journal skips the blocks the service already has
+     * and only uploads the others before committing the block list. The journal is deleted once the blob is
+     * committed. If the file changed since the journal was written, the upload starts over.
+     * 
+     * @param path
+     *            A <code>String</code> which represents the path to the file to be uploaded.
+     * @param checkpointPath
+     *            A <code>String</code> which represents the path to the journal of the upload.
+     * @param accessCondition
+     *            An {@link AccessCondition} object that represents the access conditions for the blob.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudBlobClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred.
+     * @throws IOException
+     *             If an I/O error occurred.
+     */
+    @DoesServiceRequest
+    public void uploadFromFileResumable(final String path, final String checkpointPath,
+            final AccessCondition accessCondition, BlobRequestOptions options, OperationContext opContext)
+            throws StorageException, IOException {
+        Utility.assertNotNull("path", path);
+        Utility.assertNotNull("checkpointPath", checkpointPath);
+        assertNoWriteOperationForSnapshot();
+
+        if (opContext == null) {
+            opContext = new OperationContext();
+        }
+
+        opContext.initialize();
+        options = BlobRequestOptions.populateAndApplyDefaults(options, BlobType.BLOCK_BLOB, this.blobServiceClient);
+
+        final File source = new File(path);
+        final int blockSize = this.streamWriteSizeInBytes;
+        if ((source.length() + blockSize - 1) / blockSize > BlobConstants.MAX_BLOCK_COUNT) {
+            throw new IllegalArgumentException(String.format(SR.FILE_TOO_LARGE_FOR_BLOCK_SIZE,
+                    BlobConstants.MAX_BLOCK_COUNT, blockSize));
+        }
+
+        final ResumableUploadCheckpoint checkpoint = ResumableUploadCheckpoint.open(new File(checkpointPath), this
+                .getUri().toString(), source, blockSize);
+
+        // The blocks the service already has, committed or not, by ID.
+        final HashMap<String, Long> availableBlocks = new HashMap<String, Long>();
+        try {
+            for (BlockEntry block : this.downloadBlockList(BlockListingFilter.ALL, null /* accessCondition */,
+                    options, opContext)) {
+                availableBlocks.put(block.getId(), block.getSize());
+            }
+        }
+        catch (final StorageException e) {
+            if (e.getHttpStatusCode() != HttpURLConnection.HTTP_NOT_FOUND) {
+                throw e;
+            }
+        }
+
+        final ArrayList<BlockEntry> blockList = this.uploadMissingBlocks(source, checkpoint, availableBlocks,
+                accessCondition, options, opContext);
+        this.commitBlockList(blockList, accessCondition, options, opContext);
+        checkpoint.delete();
+    }
+
+    /**
+     * Uploads the blocks of a resumable upload which the service does not have yet, and computes the MD5 of the file
+     * if required.
+     * 
+     * @return the block list to commit.
+     */
+    private ArrayList<BlockEntry> uploadMissingBlocks(final File source, final ResumableUploadCheckpoint checkpoint,
+            final HashMap<String, Long> availableBlocks, final AccessCondition accessCondition,
+            final BlobRequestOptions options, final OperationContext opContext) throws StorageException, IOException {
+        MessageDigest md5Digest = null;
+        if (options.getStoreBlobContentMD5()) {
+            try {
+                md5Digest = MessageDigest.getInstance("MD5");
+            }
+            catch (final NoSuchAlgorithmException e) {
+                // This wont happen, throw fatal.
+                throw Utility.generateNewUnexpectedStorageException(e);
+            }
+        }
+
+        final int maximumOutstandingCount = options.getConcurrentRequestCount() * 2;
+        final TransferScheduler.Session session = this.blobServiceClient.getTransferScheduler().openSession(
+                options.getConcurrentRequestCount());
+        final ArrayList<Future<Void>> futures = new ArrayList<Future<Void>>();
+        final AtomicBoolean isFaulted = new AtomicBoolean();
+        final ArrayList<BlockEntry> blockList = new ArrayList<BlockEntry>(checkpoint.getBlockCount());
+        final RandomAccessFile sourceFile = new RandomAccessFile(source, "r");
+        try {
+            for (int i = 0; i < checkpoint.getBlockCount() && !isFaulted.get(); i++) {
+                final long offset = checkpoint.getBlockOffset(i);
+                final int length = checkpoint.getBlockLength(i);
+                final String blockId = checkpoint.getBlockId(offset);
+                blockList.add(new BlockEntry(blockId, BlockSearchMode.LATEST));
+
+                final Long availableLength = availableBlocks.get(blockId);
+                final boolean isAvailable = availableLength != null && availableLength == length;
+                if (isAvailable && md5Digest == null) {
+                    continue;
+                }
+
+                final byte[] data = new byte[length];
+                sourceFile.seek(offset);
+                sourceFile.readFully(data);
+                if (md5Digest != null) {
+                    md5Digest.update(data);
+                }
+
+                if (isAvailable) {
+                    continue;
+                }
+
+                awaitOutstandingBelow(session, maximumOutstandingCount);
+                futures.add(session.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        try {
+                            CloudBlockBlob.this.uploadBlock(blockId, new ByteArrayInputStream(data), length,
+                                    accessCondition, options, opContext);
+                            return null;
+                        }
+                        catch (final Exception e) {
+                            isFaulted.set(true);
+                            throw e;
+                        }
+                    }
+                }, length));
+            }
+
+            awaitBlockUploads(futures);
+        }
+        finally {
+            // When a block failed, the uploads already running must finish before the source file is closed.
+            session.cancelPending();
+            awaitCompletion(futures);
+            sourceFile.close();
+        }
+
+        if (md5Digest != null) {
+            this.properties.setContentMD5(Base64.encode(md5Digest.digest()));
+        }
+
+        return blockList;
+    }
+
+    /**
+     * Uploads the source stream data to the blob, only sending the parts of the data the blob does not already have. If
+     * the blob already exists on the service, it will be overwritten.
+     * 
+     * @param sourceStream
+     *            An {@link InputStream} object that represents the input stream to write to the block blob.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred.
+     * @throws IOException
+     *             If an I/O error occurred.
+     * @see #uploadDeduplicated(InputStream, AccessCondition, BlobRequestOptions, OperationContext)
+     */
+    @DoesServiceRequest
+    public void uploadDeduplicated(final InputStream sourceStream) throws StorageException, IOException {
+        this.uploadDeduplicated(sourceStream, null /* accessCondition */, null /* options */, null /* opContext */);
+    }
+
+    /**
+     * Uploads the source stream data to the blob, only sending the parts of the data the blob does not already have,
+     * using the specified access conditions, request options, and operation context. If the blob already exists on the
+     * service, it will be overwritten.
+     * <p>
+     * The stream is split into blocks at boundaries found from its content, so that a change to the data only changes
+     * the blocks around it. Each block ID is derived from a SHA-256 hash of the block data. Blocks whose ID is already
+     * in the committed block list of the blob are not uploaded again and are committed from the existing block list.
+     * This makes re-uploading a slightly modified version of a large blob much cheaper than {@link #upload}, as long as
+     * the previous version was also uploaded with this method. Blocks are at most {@link #getStreamWriteSizeInBytes()}
+     * bytes long.
+     * <p>
+     * To make sure the committed blocks are not replaced by another writer before the new block list is committed,
+     * specify an {@link AccessCondition} on the ETag of the blob.
+     * 
+     * @param sourceStream
+     *            An {@link InputStream} object that represents the input stream to write to the block blob.
+     * @param accessCondition
+     *            An {@link AccessCondition} object that represents the access conditions for the blob.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudBlobClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred.
+     * @throws IOException
+     *             If an I/O error occurred.
+     */
+    @DoesServiceRequest
+    public void uploadDeduplicated(final InputStream sourceStream, final AccessCondition accessCondition,
+            BlobRequestOptions options, OperationContext opContext) throws StorageException, IOException {
+        Utility.assertNotNull("sourceStream", sourceStream);
+        assertNoWriteOperationForSnapshot();
+
+        if (opContext == null) {
+            opContext = new OperationContext();
+        }
+
+        opContext.initialize();
+        options = BlobRequestOptions.populateAndApplyDefaults(options, BlobType.BLOCK_BLOB, this.blobServiceClient);
+
+        final HashSet<String> committedBlocks = new HashSet<String>();
+        try {
+            for (BlockEntry block : this.downloadBlockList(BlockListingFilter.COMMITTED, accessCondition, options,
+                    opContext)) {
+                committedBlocks.add(block.getId());
+            }
+        }
+        catch (final StorageException e) {
+            if (e.getHttpStatusCode() != HttpURLConnection.HTTP_NOT_FOUND) {
+                throw e;
+            }
+        }
+
+        MessageDigest md5Digest = null;
+        final MessageDigest blockDigest;
+        try {
+            blockDigest = MessageDigest.getInstance("SHA-256");
+            if (options.getStoreBlobContentMD5()) {
+                md5Digest = MessageDigest.getInstance("MD5");
+            }
+        }
+        catch (final NoSuchAlgorithmException e) {
+            // This wont happen, throw fatal.
+            throw Utility.generateNewUnexpectedStorageException(e);
+        }
+
+        final ContentDefinedChunker chunker = ContentDefinedChunker.forBlockSize(sourceStream,
+                this.streamWriteSizeInBytes);
+        final BlobRequestOptions blockOptions = options;
+        final OperationContext blockOpContext = opContext;
+        final int maximumOutstandingCount = options.getConcurrentRequestCount() * 2;
+        final TransferScheduler.Session session = this.blobServiceClient.getTransferScheduler().openSession(
+                options.getConcurrentRequestCount());
+        final ArrayList<Future<Void>> futures = new ArrayList<Future<Void>>();
+        final AtomicBoolean isFaulted = new AtomicBoolean();
+        final HashSet<String> uploadedBlocks = new HashSet<String>();
+        final ArrayList<BlockEntry> blockList = new ArrayList<BlockEntry>();
+        try {
+            for (byte[] chunk = chunker.next(); chunk != null && !isFaulted.get(); chunk = chunker.next()) {
+                if (blockList.size() == BlobConstants.MAX_BLOCK_COUNT) {
+                    throw new IOException(String.format(SR.STREAM_TOO_LARGE_FOR_BLOCK_COUNT,
+                            BlobConstants.MAX_BLOCK_COUNT));
+                }
+
+                if (md5Digest != null) {
+                    md5Digest.update(chunk);
+                }
+
+                final String blockId = Base64.encode(blockDigest.digest(chunk));
+                if (committedBlocks.contains(blockId)) {
+                    blockList.add(new BlockEntry(blockId, BlockSearchMode.COMMITTED));
+                    continue;
+                }
+
+                blockList.add(new BlockEntry(blockId, BlockSearchMode.LATEST));
+                if (!uploadedBlocks.add(blockId)) {
+                    continue;
+                }
+
+                final byte[] data = chunk;
+                awaitOutstandingBelow(session, maximumOutstandingCount);
+                futures.add(session.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        try {
+                            CloudBlockBlob.this.uploadBlock(blockId, new ByteArrayInputStream(data), data.length,
+                                    accessCondition, blockOptions, blockOpContext);
+                            return null;
+                        }
+                        catch (final Exception e) {
+                            isFaulted.set(true);
+                            throw e;
+                        }
+                    }
+                }, data.length));
+            }
+
+            awaitBlockUploads(futures);
+        }
+        finally {
+            session.cancelPending();
+            awaitCompletion(futures);
+        }
+
+        if (md5Digest != null) {
+            this.properties.setContentMD5(Base64.encode(md5Digest.digest()));
+        }
+
+        this.commitBlockList(blockList, accessCondition, options, opContext);
+    }
+
+    /**
+     * Waits until the specified upload session has fewer than the specified number of outstanding uploads.
+     */
+    private static void awaitOutstandingBelow(final TransferScheduler.Session session, final int count)
+            throws IOException {
+        if (session.getOutstandingCount() >= count) {
+            try {
+                session.awaitOutstandingBelow(count);
+            }
+            catch (final InterruptedException e) {
+                throw Utility.initIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Waits for the specified uploads to finish, successfully or not, so that none of them outlives the operation.
+     */
+    private static void awaitCompletion(final ArrayList<Future<Void>> futures) {
+        boolean isInterrupted = false;
+        for (Future<Void> future : futures) {
+            while (!future.isDone()) {
+                try {
+                    future.get();
+                }
+                catch (final InterruptedException e) {
+                    isInterrupted = true;
+                }
+                catch (final ExecutionException e) {
+                    // Reported by awaitBlockUploads.
+                }
+            }
+        }
+
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for the specified block uploads to complete and throws the first error they raised.
+     */
+    private static void awaitBlockUploads(final ArrayList<Future<Void>> futures) throws StorageException, IOException {
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            }
+            catch (final InterruptedException e) {
+                throw Utility.initIOException(e);
+            }
+            catch (final ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                else if (cause instanceof StorageException) {
+                    throw (StorageException) cause;
+                }
+                else if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+
+                throw Utility.generateNewUnexpectedStorageException(cause instanceof Exception ? (Exception) cause : e);
+            }
+        }
+    }
+
     /**
      * Uploads a block to be committed as part of the block blob, using the specified block ID.
      * 
@@ -900,6 +900,64 @@ public final class CloudPageBlob extends CloudBlob {
         return this.openOutputStreamInternal(null /* length */, null /* premiumBlobTier */, accessCondition, options, opContext);
     }
 
+    /**
+     * Opens a writer which uploads pages written at any page-aligned offset of the page blob concurrently. The page
+     * blob must already exist and any existing data may be overwritten.
+     * 
+     * @return A {@link PageBlobWriter} object used to write pages to the blob.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    @DoesServiceRequest
+    public PageBlobWriter openPageWriter() throws StorageException {
+        return this.openPageWriter(null /* accessCondition */, null /* options */, null /* opContext */);
+    }
+
+    /**
+     * Opens a writer which uploads pages written at any page-aligned offset of the page blob concurrently, using the
+     * specified lease ID, request options and operation context. The page blob must already exist and any existing
+     * data may be overwritten.
+     * <p>
+     * The access condition is checked when the writer is opened, and only its lease ID is applied to the uploads.
+     * 
+     * @param accessCondition
+     *            An {@link AccessCondition} object which represents the access conditions for the blob.
+     * @param options
+     *            A {@link BlobRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudBlobClient}).
+     * @param opContext
+     *            An {@link OperationContext} object which represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * 
+     * @return A {@link PageBlobWriter} object used to write pages to the blob.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    @DoesServiceRequest
+    public PageBlobWriter openPageWriter(AccessCondition accessCondition, BlobRequestOptions options,
+            OperationContext opContext) throws StorageException {
+        if (opContext == null) {
+            opContext = new OperationContext();
+        }
+
+        assertNoWriteOperationForSnapshot();
+
+        options = BlobRequestOptions.populateAndApplyDefaults(options, BlobType.PAGE_BLOB, this.blobServiceClient,
+                false /* setStartTime */);
+
+        this.downloadAttributes(accessCondition, options, opContext);
+
+        if (accessCondition != null) {
+            accessCondition = AccessCondition.generateLeaseCondition(accessCondition.getLeaseID());
+        }
+
+        return new PageBlobWriter(this, this.getProperties().getLength(), accessCondition, options, opContext);
+    }
+
     /**
      * Opens an output stream object to write data to the page blob. The page blob does not need to yet exist and will
      * be created with the length specified. If the blob already exists on the service, it will be overwritten.
@@ -1497,9 +1555,7 @@ public final class CloudPageBlob extends CloudBlob {
 
         options = BlobRequestOptions.populateAndApplyDefaults(options, BlobType.PAGE_BLOB, this.blobServiceClient);
 
-        final PageRange pageRange = new PageRange(offset, offset + length - 1);
         final byte[] data = new byte[(int) length];
-        String md5 = null;
 
         int count = 0;
         int total = 0;
@@ -1508,6 +1564,20 @@ public final class CloudPageBlob extends CloudBlob {
             total += count;
         }
 
+        this.uploadPagesInternal(data, offset, accessCondition, options, opContext);
+    }
+
+    /**
+     * Uploads a byte array as a range of contiguous pages. The offset and the array length must already have been
+     * validated, and the options populated.
+     */
+    @DoesServiceRequest
+    void uploadPagesInternal(final byte[] data, final long offset, final AccessCondition accessCondition,
+            final BlobRequestOptions options, final OperationContext opContext) throws StorageException {
+        final long length = data.length;
+        final PageRange pageRange = new PageRange(offset, offset + length - 1);
+        String md5 = null;
+
         if (options.getUseTransactionalContentMD5()) {
             try {
                 final MessageDigest digest = MessageDigest.getInstance("MD5");
@@ -21,7 +21,6 @@ import java.text.ParseException;
 import java.util.Stack;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -30,6 +29,7 @@ import org.xml.sax.helpers.DefaultHandler;
 import com.microsoft.azure.storage.Constants;
 import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.core.ListResponse;
+import com.microsoft.azure.storage.core.ListingSink;
 import com.microsoft.azure.storage.core.SR;
 import com.microsoft.azure.storage.core.Utility;
 
@@ -39,16 +39,19 @@ import com.microsoft.azure.storage.core.Utility;
 final class ContainerListHandler extends DefaultHandler {
 
     private final Stack<String> elementStack = new Stack<String>();
-    private StringBuilder bld = new StringBuilder();
+    private final StringBuilder bld = new StringBuilder();
 
     private final CloudBlobClient serviceClient;
 
+    private final ListingSink<? super CloudBlobContainer> sink;
+
     private final ListResponse<CloudBlobContainer> response = new ListResponse<CloudBlobContainer>();
     private BlobContainerAttributes attributes;
     private String containerName;
 
-    private ContainerListHandler(CloudBlobClient serviceClient) {
+    private ContainerListHandler(CloudBlobClient serviceClient, ListingSink<? super CloudBlobContainer> sink) {
         this.serviceClient = serviceClient;
+        this.sink = sink;
     }
 
     /**
@@ -64,9 +67,32 @@ final class ContainerListHandler extends DefaultHandler {
      */
     protected static ListResponse<CloudBlobContainer> getContainerList(final InputStream stream,
             final CloudBlobClient serviceClient) throws ParserConfigurationException, SAXException, IOException {
-        SAXParser saxParser = Utility.getSAXParser();
-        ContainerListHandler handler = new ContainerListHandler(serviceClient);
-        saxParser.parse(stream, handler);
+        ContainerListHandler handler = new ContainerListHandler(serviceClient, null /* sink */);
+        Utility.parseXml(stream, handler);
+
+        return handler.response;
+    }
+
+    /**
+     * Parses a {@link ContainerListResponse} form the given XML stream, passing each container to a sink rather than
+     * adding it to the response.
+     *
+     * @param serviceClient
+     *            a reference to the client object associated with this object.
+     * @param stream
+     *            the stream from which to parse the container list
+     * @param sink
+     *            the sink which receives each container
+     * @throws SAXException
+     * @throws ParserConfigurationException
+     * @throws IOException
+     * @throws StorageException
+     */
+    protected static ListResponse<CloudBlobContainer> getContainerList(final InputStream stream,
+            final CloudBlobClient serviceClient, final ListingSink<? super CloudBlobContainer> sink)
+            throws ParserConfigurationException, SAXException, IOException, StorageException {
+        ContainerListHandler handler = new ContainerListHandler(serviceClient, sink);
+        sink.parse(stream, handler);
 
         return handler.response;
     }
@@ -107,7 +133,7 @@ final class ContainerListHandler extends DefaultHandler {
                 retContainer.setMetadata(this.attributes.getMetadata());
                 retContainer.setProperties(this.attributes.getProperties());
 
-                this.response.getResults().add(retContainer);
+                this.add(retContainer);
             }
             catch (URISyntaxException e) {
                 throw new SAXException(e);
@@ -151,7 +177,16 @@ final class ContainerListHandler extends DefaultHandler {
             this.attributes.getMetadata().put(currentNode, value);
         }
 
-        this.bld = new StringBuilder();
+        this.bld.setLength(0);
+    }
+
+    private void add(CloudBlobContainer item) throws SAXException {
+        if (this.sink != null) {
+            this.sink.accept(item);
+        }
+        else {
+            this.response.getResults().add(item);
+        }
     }
 
     @Override
@@ -0,0 +1,152 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * RESERVED FOR INTERNAL USE. Splits a stream into chunks whose boundaries depend on the content of the stream rather
+ * than on offsets.
+ * <p>
+ * A gear rolling hash is computed over the bytes of the stream, and a chunk ends where the high bits selected by the
+ * boundary mask of the hash are all zero, as long as the chunk has at least the minimum size. Since the hash only
+ * depends on the last 64 bytes, inserting or removing bytes only moves the boundaries close to the change, and the
+ * following chunks are identical to those of the original stream. Chunks are never longer than the maximum size.
+ */
+final class ContentDefinedChunker {
+
+    /**
+     * Holds the number of bytes contributing to the hash.
+     */
+    private static final int WINDOW_SIZE = 64;
+
+    /**
+     * Holds the random values mixed into the hash for each byte value. The values come from a fixed seed so that all
+     * clients find the same boundaries.
+     */
+    private static final long[] GEAR = new long[256];
+
+    static {
+        final Random random = new Random(0x6a09e667f3bcc908L);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    private final InputStream sourceStream;
+
+    private final int minimumSize;
+
+    private final long boundaryMask;
+
+    private final byte[] buffer;
+
+    /**
+     * Holds the number of bytes read ahead in the buffer.
+     */
+    private int count;
+
+    private boolean isEndOfStream;
+
+    /**
+     * Creates a chunker reading from the specified stream.
+     * 
+     * @param sourceStream
+     *            The <code>InputStream</code> to split.
+     * @param minimumSize
+     *            The minimum size of a chunk, except for the last one.
+     * @param boundaryInterval
+     *            The average number of bytes hashed past the minimum size before finding a boundary. Must be a power
+     *            of two.
+     * @param maximumSize
+     *            The maximum size of a chunk.
+     */
+    ContentDefinedChunker(final InputStream sourceStream, final int minimumSize, final int boundaryInterval,
+            final int maximumSize) {
+        this.sourceStream = sourceStream;
+        this.minimumSize = minimumSize;
+        this.boundaryMask = -1L << (Long.SIZE - Integer.numberOfTrailingZeros(boundaryInterval));
+        this.buffer = new byte[maximumSize];
+    }
+
+    /**
+     * Creates a chunker whose chunks are on average about three eighths of the specified block size and at most the
+     * block size.
+     * 
+     * @param sourceStream
+     *            The <code>InputStream</code> to split.
+     * @param blockSize
+     *            The maximum size of a chunk.
+     * @return the chunker.
+     */
+    static ContentDefinedChunker forBlockSize(final InputStream sourceStream, final int blockSize) {
+        return new ContentDefinedChunker(sourceStream, blockSize / 8, Integer.highestOneBit(blockSize / 4), blockSize);
+    }
+
+    /**
+     * Reads the next chunk of the stream.
+     * 
+     * @return the next chunk, or <code>null</code> at the end of the stream.
+     * @throws IOException
+     *             If an I/O error occurred while reading the stream.
+     */
+    byte[] next() throws IOException {
+        while (!this.isEndOfStream && this.count < this.buffer.length) {
+            final int read = this.sourceStream.read(this.buffer, this.count, this.buffer.length - this.count);
+            if (read < 0) {
+                this.isEndOfStream = true;
+            }
+            else {
+                this.count += read;
+            }
+        }
+
+        if (this.count == 0) {
+            return null;
+        }
+
+        final int length = this.findBoundary();
+        final byte[] chunk = Arrays.copyOf(this.buffer, length);
+        System.arraycopy(this.buffer, length, this.buffer, 0, this.count - length);
+        this.count -= length;
+        return chunk;
+    }
+
+    /**
+     * Finds the end of the chunk starting at the beginning of the buffer.
+     */
+    private int findBoundary() {
+        if (this.count <= this.minimumSize) {
+            return this.count;
+        }
+
+        long hash = 0;
+        for (int i = Math.max(0, this.minimumSize - WINDOW_SIZE); i < this.minimumSize; i++) {
+            hash = (hash << 1) + GEAR[this.buffer[i] & 0xFF];
+        }
+
+        for (int i = this.minimumSize; i < this.count; i++) {
+            hash = (hash << 1) + GEAR[this.buffer[i] & 0xFF];
+            if ((hash & this.boundaryMask) == 0) {
+                return i + 1;
+            }
+        }
+
+        return this.count;
+    }
+}
@@ -0,0 +1,781 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.azure.storage.AccessCondition;
+import com.microsoft.azure.storage.DoesServiceRequest;
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.core.SR;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * Represents a manager which keeps blob and container leases alive, timing their renewals from a single thread.
+ * <p>
+ * Each lease is renewed ahead of its expiry by a margin made of the minimum margin, twice the measured latency of its
+ * renewals and the batch window. When the scheduling thread wakes up it hands every lease due within the batch window
+ * to a bounded pool of renewal threads, so leases with close expiries share one wake-up and their renewals are sent
+ * concurrently rather than one after the other. A renewal which fails with a transient error is retried until the
+ * lease would have expired; a lease which is found to be lost, either because the service rejects the lease ID or
+ * because it could not be renewed in time, is reported to its {@link LeaseListener} and is no longer renewed.
+ * <p>
+ * The expiry of a lease is estimated from the time its last successful renewal was sent, so the estimate is never
+ * later than the expiry seen by the service. The threads are created on demand and stop when no lease is managed.
+ * <p>
+ * This class is thread safe.
+ */
+public final class LeaseManager {
+
+    /**
+     * Represents the default minimum time, in milliseconds, between the renewal of a lease and its estimated expiry.
+     */
+    public static final int DEFAULT_MINIMUM_MARGIN_IN_MS = 5000;
+
+    /**
+     * Represents the default window, in milliseconds, within which renewals which are due are run together.
+     */
+    public static final int DEFAULT_BATCH_WINDOW_IN_MS = 1000;
+
+    /**
+     * Represents the default maximum number of renewals sent at the same time.
+     */
+    public static final int DEFAULT_MAXIMUM_CONCURRENT_RENEWALS = 8;
+
+    /**
+     * Represents the time, in milliseconds, between attempts to renew a lease after a transient failure.
+     */
+    private static final int RETRY_INTERVAL_IN_MS = 1000;
+
+    /**
+     * An interface which is notified when a managed lease is lost.
+     */
+    public interface LeaseListener {
+        /**
+         * Called on a renewal thread when a lease could not be renewed and is no longer held. This method should
+         * return quickly, since the renewal thread cannot renew other leases while it runs.
+         * 
+         * @param lease
+         *            The {@link ManagedLease} which was lost.
+         * @param cause
+         *            The {@link StorageException} returned by the last renewal attempt, or <code>null</code> if the
+         *            lease expired before a renewal could be attempted.
+         */
+        void leaseLost(ManagedLease lease, StorageException cause);
+    }
+
+    /**
+     * Holds the minimum margin in nanoseconds.
+     */
+    private final long minimumMarginNanos;
+
+    /**
+     * Holds the batch window in nanoseconds.
+     */
+    private final long batchWindowNanos;
+
+    /**
+     * Holds the leases waiting for their next renewal, ordered by due time, guarded by this.
+     */
+    private final PriorityQueue<ManagedLease> scheduledLeases = new PriorityQueue<ManagedLease>();
+
+    /**
+     * Holds the executor which sends the renewals.
+     */
+    private final ThreadPoolExecutor renewalExecutor;
+
+    /**
+     * Holds the scheduling thread, or <code>null</code> if it is not running, guarded by this.
+     */
+    private Thread renewalThread;
+
+    /**
+     * Holds the number of leases being renewed, guarded by this.
+     */
+    private int managedCount;
+
+    /**
+     * Creates an instance of the <code>LeaseManager</code> class using the default minimum margin and batch window.
+     */
+    public LeaseManager() {
+        this(DEFAULT_MINIMUM_MARGIN_IN_MS, DEFAULT_BATCH_WINDOW_IN_MS);
+    }
+
+    /**
+     * Creates an instance of the <code>LeaseManager</code> class using the specified minimum margin and batch window,
+     * and the default maximum number of concurrent renewals.
+     * 
+     * @param minimumMarginInMs
+     *            The minimum time, in milliseconds, between the renewal of a lease and its estimated expiry.
+     * @param batchWindowInMs
+     *            The window, in milliseconds, within which renewals which are due are run together.
+     */
+    public LeaseManager(final int minimumMarginInMs, final int batchWindowInMs) {
+        this(minimumMarginInMs, batchWindowInMs, DEFAULT_MAXIMUM_CONCURRENT_RENEWALS);
+    }
+
+    /**
+     * Creates an instance of the <code>LeaseManager</code> class using the specified minimum margin, batch window and
+     * maximum number of concurrent renewals.
+     * 
+     * @param minimumMarginInMs
+     *            The minimum time, in milliseconds, between the renewal of a lease and its estimated expiry.
+     * @param batchWindowInMs
+     *            The window, in milliseconds, within which renewals which are due are run together.
+     * @param maximumConcurrentRenewals
+     *            The maximum number of renewals sent at the same time.
+     */
+    public LeaseManager(final int minimumMarginInMs, final int batchWindowInMs, final int maximumConcurrentRenewals) {
+        Utility.assertGreaterThanOrEqual("minimumMarginInMs", minimumMarginInMs, 0);
+        Utility.assertGreaterThanOrEqual("batchWindowInMs", batchWindowInMs, 0);
+        Utility.assertGreaterThanOrEqual("maximumConcurrentRenewals", maximumConcurrentRenewals, 1);
+
+        this.minimumMarginNanos = TimeUnit.MILLISECONDS.toNanos(minimumMarginInMs);
+        this.batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(batchWindowInMs);
+        this.renewalExecutor = new ThreadPoolExecutor(maximumConcurrentRenewals, maximumConcurrentRenewals, 10,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        final Thread thread = new Thread(r, "azure-storage-lease-renewal");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        this.renewalExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Acquires a lease on a blob and keeps it alive until it is released, stopped or lost.
+     * 
+     * @param blob
+     *            The {@link CloudBlob} to lease.
+     * @param leaseTimeInSeconds
+     *            The lease duration, from 15 to 60 seconds.
+     * @param proposedLeaseId
+     *            A <code>String</code> that represents the proposed lease ID, or <code>null</code>.
+     * @param listener
+     *            The {@link LeaseListener} notified if the lease is lost, or <code>null</code>.
+     * @param options
+     *            A {@link BlobRequestOptions} object whose retry policy, timeout interval and maximum execution time
+     *            are used for the acquisition and the renewals, or <code>null</code>.
+     * @param opContext
+     *            An {@link OperationContext} object for the acquisition.
+     * @return A {@link ManagedLease} object.
+     * @throws StorageException
+     *             If the lease could not be acquired.
+     */
+    @DoesServiceRequest
+    public ManagedLease acquire(final CloudBlob blob, final int leaseTimeInSeconds, final String proposedLeaseId,
+            final LeaseListener listener, final BlobRequestOptions options, final OperationContext opContext)
+            throws StorageException {
+        Utility.assertNotNull("blob", blob);
+        return this.acquire(new BlobLease(blob, leaseTimeInSeconds, listener, options), proposedLeaseId, opContext);
+    }
+
+    /**
+     * Acquires a lease on a container and keeps it alive until it is released, stopped or lost.
+     * 
+     * @param container
+     *            The {@link CloudBlobContainer} to lease.
+     * @param leaseTimeInSeconds
+     *            The lease duration, from 15 to 60 seconds.
+     * @param proposedLeaseId
+     *            A <code>String</code> that represents the proposed lease ID, or <code>null</code>.
+     * @param listener
+     *            The {@link LeaseListener} notified if the lease is lost, or <code>null</code>.
+     * @param options
+     *            A {@link BlobRequestOptions} object whose retry policy, timeout interval and maximum execution time
+     *            are used for the acquisition and the renewals, or <code>null</code>.
+     * @param opContext
+     *            An {@link OperationContext} object for the acquisition.
+     * @return A {@link ManagedLease} object.
+     * @throws StorageException
+     *             If the lease could not be acquired.
+     */
+    @DoesServiceRequest
+    public ManagedLease acquire(final CloudBlobContainer container, final int leaseTimeInSeconds,
+            final String proposedLeaseId, final LeaseListener listener, final BlobRequestOptions options,
+            final OperationContext opContext) throws StorageException {
+        Utility.assertNotNull("container", container);
+        return this.acquire(new ContainerLease(container, leaseTimeInSeconds, listener, options), proposedLeaseId,
+                opContext);
+    }
+
+    /**
+     * Keeps alive a lease already held on a blob. The lease is renewed immediately, since the time it was last renewed
+     * is not known.
+     * 
+     * @param blob
+     *            The leased {@link CloudBlob}.
+     * @param leaseId
+     *            A <code>String</code> that represents the lease ID.
+     * @param leaseTimeInSeconds
+     *            The lease duration, from 15 to 60 seconds.
+     * @param listener
+     *            The {@link LeaseListener} notified if the lease is lost, or <code>null</code>.
+     * @param options
+     *            A {@link BlobRequestOptions} object whose retry policy, timeout interval and maximum execution time
+     *            are used for the renewals, or <code>null</code>.
+     * @return A {@link ManagedLease} object.
+     */
+    public ManagedLease manage(final CloudBlob blob, final String leaseId, final int leaseTimeInSeconds,
+            final LeaseListener listener, final BlobRequestOptions options) {
+        Utility.assertNotNull("blob", blob);
+        return this.manage(new BlobLease(blob, leaseTimeInSeconds, listener, options), leaseId);
+    }
+
+    /**
+     * Keeps alive a lease already held on a container. The lease is renewed immediately, since the time it was last
+     * renewed is not known.
+     * 
+     * @param container
+     *            The leased {@link CloudBlobContainer}.
+     * @param leaseId
+     *            A <code>String</code> that represents the lease ID.
+     * @param leaseTimeInSeconds
+     *            The lease duration, from 15 to 60 seconds.
+     * @param listener
+     *            The {@link LeaseListener} notified if the lease is lost, or <code>null</code>.
+     * @param options
+     *            A {@link BlobRequestOptions} object whose retry policy, timeout interval and maximum execution time
+     *            are used for the renewals, or <code>null</code>.
+     * @return A {@link ManagedLease} object.
+     */
+    public ManagedLease manage(final CloudBlobContainer container, final String leaseId, final int leaseTimeInSeconds,
+            final LeaseListener listener, final BlobRequestOptions options) {
+        Utility.assertNotNull("container", container);
+        return this.manage(new ContainerLease(container, leaseTimeInSeconds, listener, options), leaseId);
+    }
+
+    /**
+     * Gets the number of leases being renewed.
+     * 
+     * @return the number of managed leases.
+     */
+    public synchronized int getManagedCount() {
+        return this.managedCount;
+    }
+
+    private ManagedLease acquire(final ManagedLease lease, final String proposedLeaseId,
+            final OperationContext opContext) throws StorageException {
+        final long start = System.nanoTime();
+        final String leaseId = lease.acquire(proposedLeaseId, lease.createRequestOptions(null), opContext);
+        final long end = System.nanoTime();
+
+        synchronized (lease) {
+            lease.leaseId = leaseId;
+            lease.onRenewed(start, end - start);
+        }
+
+        synchronized (this) {
+            this.managedCount++;
+            this.schedule(lease);
+        }
+
+        return lease;
+    }
+
+    ManagedLease manage(final ManagedLease lease, final String leaseId) {
+        Utility.assertNotNullOrEmpty("leaseId", leaseId);
+        final long now = System.nanoTime();
+        lease.leaseId = leaseId;
+        lease.expiryNanos = now + lease.durationNanos;
+        lease.dueNanos = now;
+
+        synchronized (this) {
+            this.managedCount++;
+            this.schedule(lease);
+        }
+
+        return lease;
+    }
+
+    /**
+     * Returns the time before the estimated expiry of a lease at which it is renewed. At least a third of the lease
+     * duration passes between renewals.
+     */
+    private long getMargin(final ManagedLease lease) {
+        return Math.min(this.minimumMarginNanos + 2 * lease.latencyNanos + this.batchWindowNanos,
+                lease.durationNanos * 2 / 3);
+    }
+
+    /**
+     * Queues a lease for its next renewal and starts the scheduling thread if needed. Must be called while holding
+     * the lock.
+     */
+    private void schedule(final ManagedLease lease) {
+        this.scheduledLeases.add(lease);
+        if (this.renewalThread == null) {
+            this.renewalThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    LeaseManager.this.runRenewals();
+                }
+            }, "azure-storage-lease-scheduler");
+            this.renewalThread.setDaemon(true);
+            this.renewalThread.start();
+        }
+        else if (this.scheduledLeases.peek() == lease) {
+            this.notifyAll();
+        }
+    }
+
+    /**
+     * Removes a lease which is no longer renewed.
+     */
+    private synchronized void unmanage(final ManagedLease lease) {
+        if (this.scheduledLeases.remove(lease) || lease.renewing) {
+            this.managedCount--;
+        }
+
+        lease.renewing = false;
+    }
+
+    /**
+     * Hands the leases to the renewal threads as they become due, until no lease is queued. Leases being renewed are
+     * queued again by {@link #renew(ManagedLease)}, which restarts this thread if it has stopped.
+     */
+    private void runRenewals() {
+        final List<ManagedLease> batch = new ArrayList<ManagedLease>();
+        while (true) {
+            synchronized (this) {
+                while (true) {
+                    if (this.scheduledLeases.isEmpty()) {
+                        this.renewalThread = null;
+                        return;
+                    }
+
+                    final long waitNanos = this.scheduledLeases.peek().dueNanos - this.batchWindowNanos
+                            - System.nanoTime();
+                    if (waitNanos <= 0) {
+                        break;
+                    }
+
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+                    }
+                    catch (InterruptedException e) {
+                        // the thread is private, keep renewing
+                    }
+                }
+
+                final long batchEnd = System.nanoTime() + this.batchWindowNanos;
+                while (!this.scheduledLeases.isEmpty() && this.scheduledLeases.peek().dueNanos - batchEnd <= 0) {
+                    final ManagedLease lease = this.scheduledLeases.poll();
+                    lease.renewing = true;
+                    batch.add(lease);
+                }
+            }
+
+            for (final ManagedLease lease : batch) {
+                this.renewalExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        LeaseManager.this.renew(lease);
+                    }
+                });
+            }
+
+            batch.clear();
+        }
+    }
+
+    /**
+     * Renews a lease and queues its next renewal, or reports it lost.
+     */
+    private void renew(final ManagedLease lease) {
+        StorageException cause = null;
+        boolean lost = false;
+        synchronized (lease) {
+            if (!lease.renewing) {
+                // stopped or released while queued
+                return;
+            }
+
+            final long start = System.nanoTime();
+            final long remainingNanos = lease.expiryNanos - start;
+            if (remainingNanos <= 0) {
+                cause = lease.lastError;
+                lost = true;
+            }
+            else {
+                try {
+                    lease.renew(lease.createRequestOptions(remainingNanos), new OperationContext());
+                    final long end = System.nanoTime();
+                    lease.onRenewed(start, end - start);
+                }
+                catch (final StorageException e) {
+                    lease.lastError = e;
+                    if (isLeaseLost(e)) {
+                        cause = e;
+                        lost = true;
+                    }
+                    else {
+                        final long now = System.nanoTime();
+                        lease.dueNanos = now
+                                + Math.min(TimeUnit.MILLISECONDS.toNanos(RETRY_INTERVAL_IN_MS),
+                                        (lease.expiryNanos - now) / 2);
+                    }
+                }
+            }
+
+            if (lost) {
+                lease.held = false;
+            }
+        }
+
+        synchronized (this) {
+            if (!lease.renewing) {
+                return;
+            }
+
+            if (lost) {
+                lease.renewing = false;
+                this.managedCount--;
+            }
+            else {
+                lease.renewing = false;
+                this.schedule(lease);
+                return;
+            }
+        }
+
+        if (lease.listener != null) {
+            try {
+                lease.listener.leaseLost(lease, cause);
+            }
+            catch (final RuntimeException e) {
+                // a failing listener must not stop the renewal of the other leases
+            }
+        }
+    }
+
+    /**
+     * Returns whether a renewal failure means the lease is no longer held.
+     */
+    private static boolean isLeaseLost(final StorageException e) {
+        final int status = e.getHttpStatusCode();
+        return status == HttpURLConnection.HTTP_CONFLICT || status == HttpURLConnection.HTTP_PRECON_FAILED
+                || status == HttpURLConnection.HTTP_NOT_FOUND;
+    }
+
+    /**
+     * Represents a lease kept alive by a {@link LeaseManager}.
+     */
+    public abstract class ManagedLease implements Comparable<ManagedLease> {
+
+        /**
+         * Holds the lease duration in seconds.
+         */
+        private final int leaseTimeInSeconds;
+
+        /**
+         * Holds the lease duration in nanoseconds.
+         */
+        private final long durationNanos;
+
+        /**
+         * Holds the listener, or <code>null</code>.
+         */
+        private final LeaseListener listener;
+
+        /**
+         * Holds the options supplied by the user, or <code>null</code>.
+         */
+        private final BlobRequestOptions options;
+
+        /**
+         * Holds the lease ID, written under the lease lock.
+         */
+        private volatile String leaseId;
+
+        /**
+         * Holds whether the lease is still held, as far as is known.
+         */
+        private volatile boolean held = true;
+
+        /**
+         * Holds the estimated expiry of the lease in the <code>System.nanoTime()</code> clock, written under the lease
+         * lock.
+         */
+        private volatile long expiryNanos;
+
+        /**
+         * Holds the time of the next renewal, guarded by the manager.
+         */
+        private long dueNanos;
+
+        /**
+         * Holds whether the lease is being renewed, while it is not in the queue, written under the manager lock.
+         */
+        private volatile boolean renewing;
+
+        /**
+         * Holds the smoothed latency of the renewals, guarded by this.
+         */
+        private long latencyNanos = -1;
+
+        /**
+         * Holds the exception of the last failed renewal, guarded by this.
+         */
+        private StorageException lastError;
+
+        ManagedLease(final int leaseTimeInSeconds, final LeaseListener listener, final BlobRequestOptions options) {
+            Utility.assertInBounds("leaseTimeInSeconds", leaseTimeInSeconds, 15, 60);
+            this.leaseTimeInSeconds = leaseTimeInSeconds;
+            this.durationNanos = TimeUnit.SECONDS.toNanos(leaseTimeInSeconds);
+            this.listener = listener;
+            this.options = options;
+        }
+
+        /**
+         * Gets the lease ID.
+         * 
+         * @return A <code>String</code> that represents the lease ID.
+         */
+        public String getLeaseId() {
+            return this.leaseId;
+        }
+
+        /**
+         * Gets the lease duration.
+         * 
+         * @return the lease duration in seconds.
+         */
+        public int getLeaseTimeInSeconds() {
+            return this.leaseTimeInSeconds;
+        }
+
+        /**
+         * Gets whether the lease is still held, as far as is known. This becomes <code>false</code> when the lease is
+         * lost or released, but not when its renewal is stopped.
+         * 
+         * @return <code>true</code> if the lease is held; otherwise, <code>false</code>.
+         */
+        public boolean isHeld() {
+            return this.held && this.expiryNanos - System.nanoTime() > 0;
+        }
+
+        /**
+         * Gets the estimated time remaining before the lease expires if it is not renewed. The estimate is measured
+         * from the time the last successful renewal was sent, so it errs on the short side.
+         * 
+         * @return the remaining time in milliseconds, or 0 if the lease is not held.
+         */
+        public long getRemainingTimeInMs() {
+            return this.held ? Math.max(0, TimeUnit.NANOSECONDS.toMillis(this.expiryNanos - System.nanoTime())) : 0;
+        }
+
+        /**
+         * Changes the lease ID of the lease. Renewals are suspended during the change and use the new ID afterwards.
+         * 
+         * @param proposedLeaseId
+         *            A <code>String</code> that represents the proposed lease ID.
+         * @param opContext
+         *            An {@link OperationContext} object for the request.
+         * @return A <code>String</code> that represents the new lease ID.
+         * @throws StorageException
+         *             If a storage service error occurred.
+         * @throws IllegalStateException
+         *             If the lease is no longer renewed by the manager.
+         */
+        @DoesServiceRequest
+        public synchronized String changeLease(final String proposedLeaseId, final OperationContext opContext)
+                throws StorageException {
+            Utility.assertNotNullOrEmpty("proposedLeaseId", proposedLeaseId);
+            this.assertManaged();
+            this.leaseId = this.change(proposedLeaseId, this.createRequestOptions(null), opContext);
+            return this.leaseId;
+        }
+
+        /**
+         * Stops renewing the lease and releases it.
+         * 
+         * @param opContext
+         *            An {@link OperationContext} object for the request.
+         * @throws StorageException
+         *             If a storage service error occurred.
+         * @throws IllegalStateException
+         *             If the lease is no longer renewed by the manager.
+         */
+        @DoesServiceRequest
+        public synchronized void release(final OperationContext opContext) throws StorageException {
+            this.assertManaged();
+            LeaseManager.this.unmanage(this);
+            this.held = false;
+            this.release(this.createRequestOptions(null), opContext);
+        }
+
+        /**
+         * Stops renewing the lease without releasing it, so it expires at the end of its current period.
+         */
+        public synchronized void stop() {
+            LeaseManager.this.unmanage(this);
+        }
+
+        /**
+         * Reserved for internal use. Orders leases by the time of their next renewal.
+         */
+        @Override
+        public int compareTo(final ManagedLease other) {
+            final long difference = this.dueNanos - other.dueNanos;
+            return difference < 0 ? -1 : (difference > 0 ? 1 : 0);
+        }
+
+        /**
+         * Records a successful renewal sent at the specified time and computes the time of the next one.
+         */
+        private void onRenewed(final long start, final long latencyNanos) {
+            this.latencyNanos = this.latencyNanos < 0 ? latencyNanos : this.latencyNanos
+                    + (latencyNanos - this.latencyNanos) / 4;
+            this.lastError = null;
+            this.expiryNanos = start + this.durationNanos;
+            this.dueNanos = this.expiryNanos - LeaseManager.this.getMargin(this);
+        }
+
+        private void assertManaged() {
+            synchronized (LeaseManager.this) {
+                if (!this.held || !(this.renewing || LeaseManager.this.scheduledLeases.contains(this))) {
+                    throw new IllegalStateException(SR.LEASE_NOT_MANAGED);
+                }
+            }
+        }
+
+        /**
+         * Creates the options of a request, limiting its execution time to the specified remaining time if not
+         * <code>null</code>.
+         */
+        private BlobRequestOptions createRequestOptions(final Long remainingNanos) {
+            final BlobRequestOptions requestOptions = new BlobRequestOptions();
+            if (this.options != null) {
+                requestOptions.setRetryPolicyFactory(this.options.getRetryPolicyFactory());
+                requestOptions.setTimeoutIntervalInMs(this.options.getTimeoutIntervalInMs());
+                requestOptions.setMaximumExecutionTimeInMs(this.options.getMaximumExecutionTimeInMs());
+            }
+
+            if (remainingNanos != null) {
+                final long remainingMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+                final Integer maximum = requestOptions.getMaximumExecutionTimeInMs();
+                if (maximum == null || maximum > remainingMs) {
+                    requestOptions.setMaximumExecutionTimeInMs((int) remainingMs);
+                }
+            }
+
+            return requestOptions;
+        }
+
+        abstract String acquire(String proposedLeaseId, BlobRequestOptions requestOptions, OperationContext opContext)
+                throws StorageException;
+
+        abstract void renew(BlobRequestOptions requestOptions, OperationContext opContext) throws StorageException;
+
+        abstract String change(String proposedLeaseId, BlobRequestOptions requestOptions, OperationContext opContext)
+                throws StorageException;
+
+        abstract void release(BlobRequestOptions requestOptions, OperationContext opContext) throws StorageException;
+    }
+
+    /**
+     * A lease on a blob.
+     */
+    private final class BlobLease extends ManagedLease {
+
+        private final CloudBlob blob;
+
+        private BlobLease(final CloudBlob blob, final int leaseTimeInSeconds, final LeaseListener listener,
+                final BlobRequestOptions options) {
+            super(leaseTimeInSeconds, listener, options);
+            this.blob = blob;
+        }
+
+        @Override
+        String acquire(final String proposedLeaseId, final BlobRequestOptions requestOptions,
+                final OperationContext opContext) throws StorageException {
+            return this.blob.acquireLease(this.getLeaseTimeInSeconds(), proposedLeaseId, null /* accessCondition */,
+                    requestOptions, opContext);
+        }
+
+        @Override
+        void renew(final BlobRequestOptions requestOptions, final OperationContext opContext)
+                throws StorageException {
+            this.blob.renewLease(AccessCondition.generateLeaseCondition(this.getLeaseId()), requestOptions,
+                    opContext);
+        }
+
+        @Override
+        String change(final String proposedLeaseId, final BlobRequestOptions requestOptions,
+                final OperationContext opContext) throws StorageException {
+            return this.blob.changeLease(proposedLeaseId, AccessCondition.generateLeaseCondition(this.getLeaseId()),
+                    requestOptions, opContext);
+        }
+
+        @Override
+        void release(final BlobRequestOptions requestOptions, final OperationContext opContext)
+                throws StorageException {
+            this.blob.releaseLease(AccessCondition.generateLeaseCondition(this.getLeaseId()), requestOptions,
+                    opContext);
+        }
+    }
+
+    /**
+     * A lease on a container.
+     */
+    private final class ContainerLease extends ManagedLease {
+
+        private final CloudBlobContainer container;
+
+        private ContainerLease(final CloudBlobContainer container, final int leaseTimeInSeconds,
+                final LeaseListener listener, final BlobRequestOptions options) {
+            super(leaseTimeInSeconds, listener, options);
+            this.container = container;
+        }
+
+        @Override
+        String acquire(final String proposedLeaseId, final BlobRequestOptions requestOptions,
+                final OperationContext opContext) throws StorageException {
+            return this.container.acquireLease(this.getLeaseTimeInSeconds(), proposedLeaseId,
+                    null /* accessCondition */, requestOptions, opContext);
+        }
+
+        @Override
+        void renew(final BlobRequestOptions requestOptions, final OperationContext opContext)
+                throws StorageException {
+            this.container.renewLease(AccessCondition.generateLeaseCondition(this.getLeaseId()), requestOptions,
+                    opContext);
+        }
+
+        @Override
+        String change(final String proposedLeaseId, final BlobRequestOptions requestOptions,
+                final OperationContext opContext) throws StorageException {
+            return this.container.changeLease(proposedLeaseId,
+                    AccessCondition.generateLeaseCondition(this.getLeaseId()), requestOptions, opContext);
+        }
+
+        @Override
+        void release(final BlobRequestOptions requestOptions, final OperationContext opContext)
+                throws StorageException {
+            this.container.releaseLease(AccessCondition.generateLeaseCondition(this.getLeaseId()), requestOptions,
+                    opContext);
+        }
+    }
+}
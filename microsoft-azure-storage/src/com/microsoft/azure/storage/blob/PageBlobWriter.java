@@ -0,0 +1,452 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import com.microsoft.azure.storage.AccessCondition;
+import com.microsoft.azure.storage.Constants;
+import com.microsoft.azure.storage.DoesServiceRequest;
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.TransferScheduler;
+import com.microsoft.azure.storage.core.SR;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * Represents a writer which accepts writes at any page-aligned offset of an existing page blob and uploads them
+ * concurrently.
+ * <p>
+ * Writes are buffered as dirty pages, a later write to a page replacing an earlier one. When the buffered data reaches
+ * four times the concurrent request count in megabytes, or when {@link #flush()} is called, adjacent dirty pages are
+ * coalesced into ranges of up to 4 MB, which are uploaded in parallel on the client's {@link TransferScheduler}. An
+ * upload which overlaps one still in progress waits for it, so the last write to a page is always the one stored.
+ * <p>
+ * This class is thread safe.
+ */
+public final class PageBlobWriter implements Closeable {
+
+    /**
+     * Represents the maximum size of one upload, 4 MB.
+     */
+    private static final int MAXIMUM_RANGE_SIZE = 4 * Constants.MB;
+
+    /**
+     * Holds the page blob written.
+     */
+    private final CloudPageBlob parentBlobRef;
+
+    /**
+     * Holds the length of the page blob.
+     */
+    private final long blobLength;
+
+    /**
+     * Holds the lease condition of the uploads, or <code>null</code>.
+     */
+    private final AccessCondition accessCondition;
+
+    /**
+     * Holds the options of the uploads.
+     */
+    private final BlobRequestOptions options;
+
+    /**
+     * Holds the operation context of the uploads.
+     */
+    private final OperationContext opContext;
+
+    /**
+     * Holds the session of the client's transfer scheduler running the uploads.
+     */
+    private final TransferScheduler.Session transferSession;
+
+    /**
+     * Holds the number of buffered bytes at which the dirty pages are uploaded.
+     */
+    private final long maximumBufferedBytes;
+
+    /**
+     * Holds the dirty pages as non-overlapping extents keyed by their offset in the blob.
+     */
+    private final TreeMap<Long, Extent> dirtyExtents = new TreeMap<Long, Extent>();
+
+    /**
+     * Holds the uploads which may not have completed, in the order they were submitted.
+     */
+    private final LinkedList<Upload> uploads = new LinkedList<Upload>();
+
+    /**
+     * Holds the number of bytes in the dirty extents.
+     */
+    private long bufferedBytes;
+
+    /**
+     * Holds the last exception thrown by an upload, or the exception marking the writer as closed.
+     */
+    private volatile IOException lastError;
+
+    /**
+     * Initializes a new instance of the PageBlobWriter class.
+     * 
+     * @param parentBlob
+     *            A {@link CloudPageBlob} object which represents the blob that this writer is associated with.
+     * @param blobLength
+     *            The length of the blob.
+     * @param accessCondition
+     *            An {@link AccessCondition} object which represents the lease condition of the uploads.
+     * @param options
+     *            A {@link BlobRequestOptions} object which specifies any additional options for the request.
+     * @param opContext
+     *            An {@link OperationContext} object which is used to track the execution of the operation.
+     */
+    PageBlobWriter(final CloudPageBlob parentBlob, final long blobLength, final AccessCondition accessCondition,
+            final BlobRequestOptions options, final OperationContext opContext) {
+        this.parentBlobRef = parentBlob;
+        this.blobLength = blobLength;
+        this.accessCondition = accessCondition;
+        this.options = new BlobRequestOptions(options);
+        this.opContext = opContext;
+
+        Utility.assertGreaterThanOrEqual("concurrentRequestCount", this.options.getConcurrentRequestCount(), 1);
+
+        this.maximumBufferedBytes = (long) this.options.getConcurrentRequestCount() * MAXIMUM_RANGE_SIZE;
+        this.transferSession = parentBlob.getServiceClient().getTransferScheduler()
+                .openSession(this.options.getConcurrentRequestCount());
+    }
+
+    /**
+     * Writes pages at the specified offset of the blob.
+     * 
+     * @param blobOffset
+     *            The offset in the blob, which must be a multiple of 512.
+     * @param buffer
+     *            The data, whose length must be a multiple of 512.
+     * @throws IOException
+     *             If an upload failed or the writer is closed.
+     */
+    @DoesServiceRequest
+    public void write(final long blobOffset, final byte[] buffer) throws IOException {
+        this.write(blobOffset, buffer, 0, buffer.length);
+    }
+
+    /**
+     * Writes pages at the specified offset of the blob. The data is copied, so the buffer may be reused once this
+     * method returns.
+     * 
+     * @param blobOffset
+     *            The offset in the blob, which must be a multiple of 512.
+     * @param buffer
+     *            The array containing the data.
+     * @param offset
+     *            The offset of the data in <code>buffer</code>.
+     * @param length
+     *            The number of bytes to write, which must be a multiple of 512.
+     * @throws IOException
+     *             If an upload failed or the writer is closed.
+     */
+    @DoesServiceRequest
+    public synchronized void write(final long blobOffset, final byte[] buffer, final int offset, final int length)
+            throws IOException {
+        Utility.assertNotNull("buffer", buffer);
+        if (offset < 0 || length < 0 || offset > buffer.length - length) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (blobOffset < 0 || blobOffset % Constants.PAGE_SIZE != 0) {
+            throw new IllegalArgumentException(SR.INVALID_PAGE_START_OFFSET);
+        }
+
+        if (length % Constants.PAGE_SIZE != 0) {
+            throw new IllegalArgumentException(SR.INVALID_PAGE_BLOB_LENGTH);
+        }
+
+        if (blobOffset > this.blobLength - length) {
+            throw new IllegalArgumentException(String.format(SR.ARGUMENT_OUT_OF_RANGE_ERROR, "blobOffset",
+                    blobOffset));
+        }
+
+        this.checkWriterState();
+        if (length == 0) {
+            return;
+        }
+
+        this.insert(new Extent(blobOffset, Arrays.copyOfRange(buffer, offset, offset + length), 0, length));
+        if (this.bufferedBytes >= this.maximumBufferedBytes) {
+            this.dispatchDirtyExtents();
+        }
+    }
+
+    /**
+     * Uploads all the pages written so far and waits for their uploads to complete.
+     * 
+     * @throws IOException
+     *             If an upload failed or the writer is closed.
+     */
+    @DoesServiceRequest
+    public synchronized void flush() throws IOException {
+        this.checkWriterState();
+        this.dispatchDirtyExtents();
+
+        while (!this.uploads.isEmpty()) {
+            waitForUpload(this.uploads.removeFirst());
+            this.checkWriterState();
+        }
+    }
+
+    /**
+     * Uploads all the pages written so far, waits for their uploads to complete and closes the writer.
+     * 
+     * @throws IOException
+     *             If an upload failed or the writer is already closed.
+     */
+    @Override
+    @DoesServiceRequest
+    public synchronized void close() throws IOException {
+        try {
+            this.flush();
+        }
+        finally {
+            // if close() is called again, an exception will be thrown
+            this.lastError = new IOException(SR.STREAM_CLOSED);
+
+            // if an exception was thrown, cancel the uploads which have not started yet
+            this.transferSession.cancelPending();
+            this.dirtyExtents.clear();
+            this.bufferedBytes = 0;
+        }
+    }
+
+    /**
+     * Gets the number of bytes written and not yet submitted for upload.
+     * 
+     * @return the number of buffered bytes.
+     */
+    public synchronized long getBufferedBytes() {
+        return this.bufferedBytes;
+    }
+
+    private void checkWriterState() throws IOException {
+        if (this.lastError != null) {
+            throw this.lastError;
+        }
+    }
+
+    /**
+     * Adds an extent to the dirty extents, trimming or removing the parts of existing extents it overlaps.
+     */
+    private void insert(final Extent extent) {
+        final long start = extent.start;
+        final long end = extent.getEnd();
+
+        final Map.Entry<Long, Extent> lower = this.dirtyExtents.lowerEntry(start);
+        if (lower != null && lower.getValue().getEnd() > start) {
+            final Extent previous = lower.getValue();
+            this.replace(previous, previous.slice(previous.start, start));
+            if (previous.getEnd() > end) {
+                this.add(previous.slice(end, previous.getEnd()));
+            }
+        }
+
+        final Iterator<Extent> overlapped = this.dirtyExtents.subMap(start, end).values().iterator();
+        Extent tail = null;
+        while (overlapped.hasNext()) {
+            final Extent next = overlapped.next();
+            overlapped.remove();
+            this.bufferedBytes -= next.length;
+            if (next.getEnd() > end) {
+                tail = next.slice(end, next.getEnd());
+            }
+        }
+
+        if (tail != null) {
+            this.add(tail);
+        }
+
+        this.add(extent);
+    }
+
+    private void add(final Extent extent) {
+        this.dirtyExtents.put(extent.start, extent);
+        this.bufferedBytes += extent.length;
+    }
+
+    private void replace(final Extent extent, final Extent replacement) {
+        this.dirtyExtents.put(extent.start, replacement);
+        this.bufferedBytes += replacement.length - extent.length;
+    }
+
+    /**
+     * Coalesces the adjacent dirty extents into ranges of up to 4 MB and submits their uploads.
+     */
+    private void dispatchDirtyExtents() throws IOException {
+        final LinkedList<Extent> range = new LinkedList<Extent>();
+        long rangeEnd = -1;
+        int rangeLength = 0;
+        for (Extent extent : this.dirtyExtents.values()) {
+            while (extent != null) {
+                if (rangeLength > 0 && (extent.start != rangeEnd || rangeLength == MAXIMUM_RANGE_SIZE)) {
+                    this.dispatchRange(range, rangeLength);
+                    rangeLength = 0;
+                }
+
+                Extent remainder = null;
+                if (rangeLength + extent.length > MAXIMUM_RANGE_SIZE) {
+                    final long split = extent.start + MAXIMUM_RANGE_SIZE - rangeLength;
+                    remainder = extent.slice(split, extent.getEnd());
+                    extent = extent.slice(extent.start, split);
+                }
+
+                range.add(extent);
+                rangeLength += extent.length;
+                rangeEnd = extent.getEnd();
+                extent = remainder;
+            }
+        }
+
+        if (rangeLength > 0) {
+            this.dispatchRange(range, rangeLength);
+        }
+
+        this.dirtyExtents.clear();
+        this.bufferedBytes = 0;
+    }
+
+    /**
+     * Copies a range of adjacent extents into one buffer and submits its upload, once the uploads it overlaps have
+     * completed.
+     */
+    private void dispatchRange(final LinkedList<Extent> range, final int rangeLength) throws IOException {
+        final long start = range.getFirst().start;
+        final long end = start + rangeLength;
+        final byte[] data = new byte[rangeLength];
+        int position = 0;
+        for (final Extent extent : range) {
+            System.arraycopy(extent.data, extent.dataOffset, data, position, extent.length);
+            position += extent.length;
+        }
+
+        range.clear();
+
+        final Iterator<Upload> inProgress = this.uploads.iterator();
+        while (inProgress.hasNext()) {
+            final Upload upload = inProgress.next();
+            if (upload.future.isDone()) {
+                inProgress.remove();
+                waitForUpload(upload);
+            }
+            else if (upload.start < end && start < upload.end) {
+                // a later write must not race an earlier upload of the same pages
+                inProgress.remove();
+                waitForUpload(upload);
+            }
+        }
+
+        this.checkWriterState();
+        try {
+            this.transferSession.awaitOutstandingBelow(this.options.getConcurrentRequestCount() * 2);
+        }
+        catch (final InterruptedException e) {
+            throw Utility.initIOException(e);
+        }
+
+        final Future<Void> future = this.transferSession.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                PageBlobWriter.this.uploadRange(data, start);
+                return null;
+            }
+        }, rangeLength);
+        this.uploads.add(new Upload(start, end, future));
+    }
+
+    private void uploadRange(final byte[] data, final long offset) {
+        try {
+            this.parentBlobRef.uploadPagesInternal(data, offset, this.accessCondition,
+                    BlobRequestOptions.populateAndApplyDefaults(this.options, BlobType.PAGE_BLOB,
+                            this.parentBlobRef.getServiceClient()), this.opContext);
+        }
+        catch (final StorageException e) {
+            this.lastError = Utility.initIOException(e);
+        }
+    }
+
+    private static void waitForUpload(final Upload upload) throws IOException {
+        try {
+            upload.future.get();
+        }
+        catch (final Exception e) {
+            throw Utility.initIOException(e);
+        }
+    }
+
+    /**
+     * A run of dirty pages backed by part of an array.
+     */
+    private static final class Extent {
+
+        private final long start;
+
+        private final byte[] data;
+
+        private final int dataOffset;
+
+        private final int length;
+
+        Extent(final long start, final byte[] data, final int dataOffset, final int length) {
+            this.start = start;
+            this.data = data;
+            this.dataOffset = dataOffset;
+            this.length = length;
+        }
+
+        long getEnd() {
+            return this.start + this.length;
+        }
+
+        /**
+         * Returns the part of this extent between the specified blob offsets.
+         */
+        Extent slice(final long from, final long to) {
+            return new Extent(from, this.data, this.dataOffset + (int) (from - this.start), (int) (to - from));
+        }
+    }
+
+    /**
+     * An upload submitted to the transfer scheduler.
+     */
+    private static final class Upload {
+
+        private final long start;
+
+        private final long end;
+
+        private final Future<Void> future;
+
+        Upload(final long start, final long end, final Future<Void> future) {
+            this.start = start;
+            this.end = end;
+            this.future = future;
+        }
+    }
+}
@@ -21,7 +21,6 @@ import java.util.List;
 import java.util.Stack;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -54,9 +53,8 @@ final class PageRangeDiffHandler extends DefaultHandler {
      */
     protected static List<PageRangeDiff> getPageRangesDiff(InputStream streamRef) throws ParserConfigurationException,
             SAXException, IOException {
-        SAXParser saxParser = Utility.getSAXParser();
         PageRangeDiffHandler handler = new PageRangeDiffHandler();
-        saxParser.parse(streamRef, handler);
+        Utility.parseXml(streamRef, handler);
 
         return handler.pages;
     }
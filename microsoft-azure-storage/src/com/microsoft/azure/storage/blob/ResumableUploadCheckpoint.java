@@ -0,0 +1,174 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.util.UUID;
+
+import com.microsoft.azure.storage.Constants;
+import com.microsoft.azure.storage.core.Base64;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * RESERVED FOR INTERNAL USE. Represents the journal of a resumable block blob upload from a file.
+ * <p>
+ * The journal identifies the upload: the blob, the source file with its length and last modified time, the block size
+ * and a random block ID prefix. Block IDs are derived from the prefix and the offset of the block in the file, so a
+ * restarted upload generates the same IDs and recognizes the blocks the service already has from its block list. A
+ * journal which does not match the upload is discarded and the upload starts over with a new prefix.
+ */
+final class ResumableUploadCheckpoint {
+
+    /**
+     * Holds the first line of a journal.
+     */
+    static final String JOURNAL_VERSION = "#azure-storage-resumable-upload 1";
+
+    private final File file;
+
+    private final String header;
+
+    private final String blockIdPrefix;
+
+    private final long sourceLength;
+
+    private final int blockSize;
+
+    private ResumableUploadCheckpoint(final File file, final String header, final String blockIdPrefix,
+            final long sourceLength, final int blockSize) {
+        this.file = file;
+        this.header = header;
+        this.blockIdPrefix = blockIdPrefix;
+        this.sourceLength = sourceLength;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Opens the journal of an upload, resuming it if the existing journal describes the same upload, and otherwise
+     * starting a new one.
+     * 
+     * @param file
+     *            the journal file.
+     * @param blobUri
+     *            the URI of the blob.
+     * @param source
+     *            the file uploaded.
+     * @param blockSize
+     *            the size of the blocks.
+     * @return the journal.
+     * @throws IOException
+     */
+    static ResumableUploadCheckpoint open(final File file, final String blobUri, final File source,
+            final int blockSize) throws IOException {
+        final String identity = "blob=" + blobUri + "\nsource=" + source.getAbsolutePath() + "\nlength="
+                + source.length() + "\nlastModified=" + source.lastModified() + "\nblockSize=" + blockSize + "\n";
+
+        if (file.exists()) {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+                    Constants.UTF8_CHARSET));
+            try {
+                final StringBuilder existing = new StringBuilder();
+                for (int i = 0; i < 6; i++) {
+                    final String line = reader.readLine();
+                    if (line == null) {
+                        break;
+                    }
+
+                    existing.append(line).append('\n');
+                }
+
+                final String prefixLine = reader.readLine();
+                if (existing.toString().equals(JOURNAL_VERSION + "\n" + identity) && prefixLine != null
+                        && prefixLine.startsWith("prefix=")) {
+                    return new ResumableUploadCheckpoint(file, existing + prefixLine + "\n",
+                            prefixLine.substring("prefix=".length()), source.length(), blockSize);
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+
+        final String prefix = UUID.randomUUID().toString();
+        final ResumableUploadCheckpoint checkpoint = new ResumableUploadCheckpoint(file, JOURNAL_VERSION + "\n"
+                + identity + "prefix=" + prefix + "\n", prefix, source.length(), blockSize);
+        checkpoint.writeHeader();
+        return checkpoint;
+    }
+
+    /**
+     * Gets the number of blocks of the upload.
+     */
+    int getBlockCount() {
+        return (int) ((this.sourceLength + this.blockSize - 1) / this.blockSize);
+    }
+
+    /**
+     * Gets the length of the block at an index.
+     */
+    int getBlockLength(final int index) {
+        return (int) Math.min(this.blockSize, this.sourceLength - (long) index * this.blockSize);
+    }
+
+    /**
+     * Gets the offset of the block at an index.
+     */
+    long getBlockOffset(final int index) {
+        return (long) index * this.blockSize;
+    }
+
+    /**
+     * Gets the ID of the block at an offset. All IDs have the same length.
+     */
+    String getBlockId(final long offset) {
+        try {
+            return Base64.encode(String.format(Utility.LOCALE_US, "%s-%019d", this.blockIdPrefix, offset).getBytes(
+                    Constants.UTF8_CHARSET));
+        }
+        catch (final UnsupportedEncodingException e) {
+            // this should never happen, UTF8 is a default charset
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Deletes the journal once the upload is committed. A journal which cannot be deleted is harmless: a later attempt
+     * finds all its blocks committed.
+     */
+    void delete() {
+        this.file.delete();
+    }
+
+    private void writeHeader() throws IOException {
+        final FileOutputStream stream = new FileOutputStream(this.file);
+        final Writer headerWriter = new OutputStreamWriter(stream, Constants.UTF8_CHARSET);
+        try {
+            headerWriter.write(this.header);
+            headerWriter.flush();
+            stream.getFD().sync();
+        }
+        finally {
+            headerWriter.close();
+        }
+    }
+}
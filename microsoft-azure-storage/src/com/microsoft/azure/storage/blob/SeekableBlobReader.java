@@ -0,0 +1,425 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.blob;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.microsoft.azure.storage.AccessCondition;
+import com.microsoft.azure.storage.Constants;
+import com.microsoft.azure.storage.DoesServiceRequest;
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.core.SR;
+import com.microsoft.azure.storage.core.Utility;
+
+/**
+ * Represents a reader which reads a blob at any position through a cache of fixed-size blocks.
+ * <p>
+ * A read is served from the cached blocks it covers. The blocks which are missing are downloaded, consecutive missing
+ * blocks with a single range request, and added to the cache, which evicts the least recently used blocks beyond its
+ * capacity. Ranges read repeatedly, such as the footer of a columnar file, can be pinned so they are never evicted.
+ * <p>
+ * All reads are conditional on the ETag the blob had when the reader was opened, so a reader never mixes data from two
+ * versions of the blob. This class is thread safe; downloads of different threads run concurrently.
+ */
+public final class SeekableBlobReader implements Closeable {
+
+    /**
+     * Represents the default number of unpinned blocks cached.
+     */
+    public static final int DEFAULT_CACHE_SIZE_IN_BLOCKS = 16;
+
+    /**
+     * Holds the blob read.
+     */
+    private final CloudBlob parentBlobRef;
+
+    /**
+     * Holds the length of the blob.
+     */
+    private final long length;
+
+    /**
+     * Holds the size of a block.
+     */
+    private final int blockSize;
+
+    /**
+     * Holds the maximum number of blocks downloaded by one request.
+     */
+    private final int maximumBlocksPerRequest;
+
+    /**
+     * Holds the condition of the downloads.
+     */
+    private final AccessCondition readCondition;
+
+    /**
+     * Holds the options of the downloads.
+     */
+    private final BlobRequestOptions options;
+
+    /**
+     * Holds the operation context of the downloads.
+     */
+    private final OperationContext opContext;
+
+    /**
+     * Holds the unpinned blocks keyed by index, in access order, guarded by this.
+     */
+    private final LinkedHashMap<Long, byte[]> cachedBlocks;
+
+    /**
+     * Holds the pinned blocks keyed by index, guarded by this.
+     */
+    private final HashMap<Long, byte[]> pinnedBlocks = new HashMap<Long, byte[]>();
+
+    /**
+     * Holds the indexes of the blocks to keep pinned once downloaded, guarded by this.
+     */
+    private final HashMap<Long, Boolean> pinRequests = new HashMap<Long, Boolean>();
+
+    /**
+     * Holds whether the reader is closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Initializes a new instance of the SeekableBlobReader class.
+     * 
+     * @param parentBlob
+     *            A {@link CloudBlob} object which represents the blob that this reader is associated with.
+     * @param length
+     *            The length of the blob.
+     * @param blockSize
+     *            The size of a cached block.
+     * @param cacheSizeInBlocks
+     *            The maximum number of unpinned blocks cached.
+     * @param readCondition
+     *            An {@link AccessCondition} object which represents the condition of the downloads.
+     * @param options
+     *            A {@link BlobRequestOptions} object which specifies any additional options for the request.
+     * @param opContext
+     *            An {@link OperationContext} object which is used to track the execution of the operation.
+     */
+    SeekableBlobReader(final CloudBlob parentBlob, final long length, final int blockSize,
+            final int cacheSizeInBlocks, final AccessCondition readCondition, final BlobRequestOptions options,
+            final OperationContext opContext) {
+        Utility.assertGreaterThanOrEqual("cacheSizeInBlocks", cacheSizeInBlocks, 0);
+        if (options.getUseTransactionalContentMD5()) {
+            Utility.assertInBounds("blockSizeInBytes", blockSize, 1, 4 * Constants.MB);
+        }
+        else {
+            Utility.assertGreaterThanOrEqual("blockSizeInBytes", blockSize, 1);
+        }
+
+        this.parentBlobRef = parentBlob;
+        this.length = length;
+        this.blockSize = blockSize;
+        this.maximumBlocksPerRequest = options.getUseTransactionalContentMD5() ? 4 * Constants.MB / blockSize
+                : Integer.MAX_VALUE;
+        this.readCondition = readCondition;
+        this.options = options;
+        this.opContext = opContext;
+        this.cachedBlocks = new LinkedHashMap<Long, byte[]>(16, 0.75f, true /* accessOrder */) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, byte[]> eldest) {
+                return this.size() > cacheSizeInBlocks;
+            }
+        };
+    }
+
+    /**
+     * Gets the length of the blob.
+     * 
+     * @return the length in bytes.
+     */
+    public long getLength() {
+        return this.length;
+    }
+
+    /**
+     * Gets the size of a cached block.
+     * 
+     * @return the block size in bytes.
+     */
+    public int getBlockSize() {
+        return this.blockSize;
+    }
+
+    /**
+     * Reads bytes starting at the specified position of the blob, until the array range is full or the end of the
+     * blob is reached.
+     * 
+     * @param position
+     *            The position in the blob of the first byte to read.
+     * @param buffer
+     *            The array receiving the bytes.
+     * @param offset
+     *            The offset in <code>buffer</code> of the first byte.
+     * @param count
+     *            The maximum number of bytes to read.
+     * @return the number of bytes read, or -1 if <code>position</code> is at or past the end of the blob.
+     * @throws IOException
+     *             If a download failed or the reader is closed.
+     */
+    @DoesServiceRequest
+    public int read(final long position, final byte[] buffer, final int offset, final int count) throws IOException {
+        Utility.assertNotNull("buffer", buffer);
+        if (offset < 0 || count < 0 || offset > buffer.length - count) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return this.read(position, ByteBuffer.wrap(buffer, offset, count));
+    }
+
+    /**
+     * Reads bytes starting at the specified position of the blob into a buffer, until it has no bytes remaining or
+     * the end of the blob is reached. The position of the buffer is advanced by the number of bytes read.
+     * 
+     * @param position
+     *            The position in the blob of the first byte to read.
+     * @param target
+     *            The <code>ByteBuffer</code> receiving the bytes.
+     * @return the number of bytes read, or -1 if <code>position</code> is at or past the end of the blob.
+     * @throws IOException
+     *             If a download failed or the reader is closed.
+     */
+    @DoesServiceRequest
+    public int read(final long position, final ByteBuffer target) throws IOException {
+        Utility.assertNotNull("target", target);
+        Utility.assertGreaterThanOrEqual("position", position, 0);
+        this.checkReaderState();
+        if (position >= this.length) {
+            return -1;
+        }
+
+        final int count = (int) Math.min(target.remaining(), this.length - position);
+        if (count == 0) {
+            return 0;
+        }
+
+        final long firstBlock = position / this.blockSize;
+        final long lastBlock = (position + count - 1) / this.blockSize;
+        final byte[][] blocks = this.getBlocks(firstBlock, lastBlock);
+
+        long blockStart = firstBlock * this.blockSize;
+        for (final byte[] block : blocks) {
+            final int from = (int) Math.max(0, position - blockStart);
+            final int to = (int) Math.min(block.length, position + count - blockStart);
+            target.put(block, from, to - from);
+            blockStart += this.blockSize;
+        }
+
+        return count;
+    }
+
+    /**
+     * Reads exactly the specified number of bytes starting at the specified position of the blob.
+     * 
+     * @param position
+     *            The position in the blob of the first byte to read.
+     * @param buffer
+     *            The array receiving the bytes.
+     * @param offset
+     *            The offset in <code>buffer</code> of the first byte.
+     * @param count
+     *            The number of bytes to read.
+     * @throws EOFException
+     *             If the blob ends before <code>count</code> bytes are read.
+     * @throws IOException
+     *             If a download failed or the reader is closed.
+     */
+    @DoesServiceRequest
+    public void readFully(final long position, final byte[] buffer, final int offset, final int count)
+            throws IOException {
+        if (count > 0 && (position < 0 || position > this.length - count)) {
+            throw new EOFException();
+        }
+
+        this.read(position, buffer, offset, count);
+    }
+
+    /**
+     * Downloads the blocks covering a range of the blob, if needed, and keeps them cached until they are unpinned.
+     * Pinned blocks do not count towards the cache size.
+     * 
+     * @param position
+     *            The position in the blob of the range.
+     * @param count
+     *            The length of the range.
+     * @throws IOException
+     *             If a download failed or the reader is closed.
+     */
+    @DoesServiceRequest
+    public void pin(final long position, final long count) throws IOException {
+        Utility.assertGreaterThanOrEqual("position", position, 0);
+        Utility.assertGreaterThanOrEqual("count", count, 0);
+        this.checkReaderState();
+        final long end = Math.min(position + count, this.length);
+        if (end <= position) {
+            return;
+        }
+
+        final long firstBlock = position / this.blockSize;
+        final long lastBlock = (end - 1) / this.blockSize;
+        synchronized (this) {
+            for (long index = firstBlock; index <= lastBlock; index++) {
+                this.pinRequests.put(index, Boolean.TRUE);
+                final byte[] block = this.cachedBlocks.remove(index);
+                if (block != null) {
+                    this.pinnedBlocks.put(index, block);
+                }
+            }
+        }
+
+        this.getBlocks(firstBlock, lastBlock);
+    }
+
+    /**
+     * Unpins the blocks covering a range of the blob, returning them to the least recently used cache.
+     * 
+     * @param position
+     *            The position in the blob of the range.
+     * @param count
+     *            The length of the range.
+     */
+    public synchronized void unpin(final long position, final long count) {
+        Utility.assertGreaterThanOrEqual("position", position, 0);
+        Utility.assertGreaterThanOrEqual("count", count, 0);
+        final long end = Math.min(position + count, this.length);
+        if (end <= position) {
+            return;
+        }
+
+        for (long index = position / this.blockSize; index <= (end - 1) / this.blockSize; index++) {
+            this.pinRequests.remove(index);
+            final byte[] block = this.pinnedBlocks.remove(index);
+            if (block != null) {
+                this.cachedBlocks.put(index, block);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of blocks cached, pinned or not.
+     * 
+     * @return the number of cached blocks.
+     */
+    public synchronized int getCachedBlockCount() {
+        return this.cachedBlocks.size() + this.pinnedBlocks.size();
+    }
+
+    /**
+     * Closes the reader and releases the cached blocks.
+     */
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        this.cachedBlocks.clear();
+        this.pinnedBlocks.clear();
+        this.pinRequests.clear();
+    }
+
+    private void checkReaderState() throws IOException {
+        if (this.closed) {
+            throw new IOException(SR.STREAM_CLOSED);
+        }
+    }
+
+    /**
+     * Returns the blocks with the specified indexes, downloading the missing ones with one request per run of
+     * consecutive missing blocks.
+     */
+    private byte[][] getBlocks(final long firstBlock, final long lastBlock) throws IOException {
+        final byte[][] blocks = new byte[(int) (lastBlock - firstBlock + 1)][];
+        synchronized (this) {
+            for (int i = 0; i < blocks.length; i++) {
+                blocks[i] = this.getCachedBlock(firstBlock + i);
+            }
+        }
+
+        int i = 0;
+        while (i < blocks.length) {
+            if (blocks[i] != null) {
+                i++;
+                continue;
+            }
+
+            int runEnd = i + 1;
+            while (runEnd < blocks.length && blocks[runEnd] == null && runEnd - i < this.maximumBlocksPerRequest) {
+                runEnd++;
+            }
+
+            this.downloadBlocks(firstBlock + i, blocks, i, runEnd - i);
+            i = runEnd;
+        }
+
+        return blocks;
+    }
+
+    private byte[] getCachedBlock(final long index) {
+        final byte[] block = this.pinnedBlocks.get(index);
+        return block != null ? block : this.cachedBlocks.get(index);
+    }
+
+    /**
+     * Downloads consecutive blocks with a single request and adds them to the cache.
+     */
+    private void downloadBlocks(final long firstIndex, final byte[][] blocks, final int blocksOffset,
+            final int blockCount) throws IOException {
+        final long start = firstIndex * this.blockSize;
+        final int count = (int) Math.min((long) blockCount * this.blockSize, this.length - start);
+        final byte[] data = new byte[count];
+        try {
+            this.parentBlobRef.downloadRangeToByteArray(start, (long) count, data, 0, this.readCondition,
+                    this.options, this.opContext);
+        }
+        catch (final StorageException e) {
+            throw Utility.initIOException(e);
+        }
+
+        synchronized (this) {
+            this.checkReaderState();
+            for (int i = 0; i < blockCount; i++) {
+                final int from = i * this.blockSize;
+                final byte[] block = data.length == this.blockSize ? data : new byte[Math.min(this.blockSize,
+                        count - from)];
+                if (block != data) {
+                    System.arraycopy(data, from, block, 0, block.length);
+                }
+
+                final long index = firstIndex + i;
+                if (this.pinRequests.containsKey(index)) {
+                    this.cachedBlocks.remove(index);
+                    this.pinnedBlocks.put(index, block);
+                }
+                else {
+                    this.cachedBlocks.put(index, block);
+                }
+
+                blocks[blocksOffset + i] = block;
+            }
+        }
+    }
+}
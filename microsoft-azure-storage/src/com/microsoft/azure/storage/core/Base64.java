@@ -14,8 +14,14 @@
  */
 package com.microsoft.azure.storage.core;
 
+import java.nio.ByteBuffer;
+
 /**
  * RESERVED FOR INTERNAL USE. Provides Base64 encoding, decoding, and validation functionality.
+ * <p>
+ * Encoding looks up each 12-bit half of a 3-byte group in a table of character pairs, and decoding combines the
+ * looked-up values of a 4-character group with a single validity check, so both process a whole group per step. All
+ * range methods read and write caller-supplied arrays or buffers without intermediate strings.
  */
 public final class Base64 {
     /**
@@ -24,29 +30,39 @@ public final class Base64 {
     private static final String BASE_64_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
 
     /**
-     * Decoded values, -1 is invalid character, -2 is = pad character.
+     * The pad character.
+     */
+    private static final char PAD = '=';
+
+    /**
+     * The first character of the encoding of each 12-bit value.
+     */
+    private static final char[] ENCODE_12_HIGH = new char[4096];
+
+    /**
+     * The second character of the encoding of each 12-bit value.
      */
-    private static final byte DECODE_64[] = { -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, // 0-15
-            -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, /*
-                                                                             * 16- 31
-                                                                             */
-            -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 62, -1, -1, -1, 63, /*
-                                                                             * 32- 47
-                                                                             */
-            52, 53, 54, 55, 56, 57, 58, 59, 60, 61, -1, -1, -1, -2, -1, -1, /*
-                                                                             * 48- 63
-                                                                             */
-            -1, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, /* 64-79 */
-            15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25, -1, -1, -1, -1, -1, /*
-                                                                             * 80- 95
-                                                                             */
-            -1, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35, 36, 37, 38, 39, 40, /*
-                                                                             * 96- 111
-                                                                             */
-            41, 42, 43, 44, 45, 46, 47, 48, 49, 50, 51, -1, -1, -1, -1, -1 /*
-                                                                            * 112- 127
-                                                                            */
-    };
+    private static final char[] ENCODE_12_LOW = new char[4096];
+
+    /**
+     * Decoded values for the ASCII characters, -1 is invalid character or the = pad character.
+     */
+    private static final int[] DECODE_64 = new int[128];
+
+    static {
+        for (int i = 0; i < 4096; i++) {
+            ENCODE_12_HIGH[i] = BASE_64_CHARS.charAt(i >>> 6);
+            ENCODE_12_LOW[i] = BASE_64_CHARS.charAt(i & 0x3F);
+        }
+
+        for (int i = 0; i < DECODE_64.length; i++) {
+            DECODE_64[i] = -1;
+        }
+
+        for (int i = 0; i < BASE_64_CHARS.length(); i++) {
+            DECODE_64[BASE_64_CHARS.charAt(i)] = i;
+        }
+    }
 
     /**
      * Decodes a given Base64 string into its corresponding byte array.
@@ -62,56 +78,9 @@ public final class Base64 {
         if (data == null) {
             throw new IllegalArgumentException(SR.STRING_NOT_VALID);
         }
-        
-        int byteArrayLength = 3 * data.length() / 4;
-
-        if (data.endsWith("==")) {
-            byteArrayLength -= 2;
-        }
-        else if (data.endsWith("=")) {
-            byteArrayLength -= 1;
-        }
-
-        final byte[] retArray = new byte[byteArrayLength];
-        int byteDex = 0;
-        int charDex = 0;
-
-        for (; charDex < data.length(); charDex += 4) {
-            // get 4 chars, convert to 3 bytes
-            final int char1 = DECODE_64[(byte) data.charAt(charDex)];
-            final int char2 = DECODE_64[(byte) data.charAt(charDex + 1)];
-            final int char3 = DECODE_64[(byte) data.charAt(charDex + 2)];
-            final int char4 = DECODE_64[(byte) data.charAt(charDex + 3)];
-
-            if (char1 < 0 || char2 < 0 || char3 == -1 || char4 == -1) {
-                // invalid character(-1), or bad padding (-2)
-                throw new IllegalArgumentException(SR.STRING_NOT_VALID);
-            }
 
-            int tVal = char1 << 18;
-            tVal += char2 << 12;
-            tVal += (char3 & 0xff) << 6;
-            tVal += char4 & 0xff;
-
-            if (char3 == -2) {
-                // two "==" pad chars, check bits 12-24
-                tVal &= 0x00FFF000;
-                retArray[byteDex++] = (byte) (tVal >> 16 & 0xFF);
-            }
-            else if (char4 == -2) {
-                // one pad char "=" , check bits 6-24.
-                tVal &= 0x00FFFFC0;
-                retArray[byteDex++] = (byte) (tVal >> 16 & 0xFF);
-                retArray[byteDex++] = (byte) (tVal >> 8 & 0xFF);
-
-            }
-            else {
-                // No pads take all 3 bytes, bits 0-24
-                retArray[byteDex++] = (byte) (tVal >> 16 & 0xFF);
-                retArray[byteDex++] = (byte) (tVal >> 8 & 0xFF);
-                retArray[byteDex++] = (byte) (tVal & 0xFF);
-            }
-        }
+        final byte[] retArray = new byte[decodedLength(data)];
+        decode(data, retArray, 0);
         return retArray;
     }
 
@@ -126,56 +95,169 @@ public final class Base64 {
      *             If the string is not a valid base64 encoded string
      */
     public static Byte[] decodeAsByteObjectArray(final String data) {
-        int byteArrayLength = 3 * data.length() / 4;
+        final byte[] decoded = decode(data);
+        final Byte[] retArray = new Byte[decoded.length];
+        for (int i = 0; i < decoded.length; i++) {
+            // Byte.valueOf returns cached instances
+            retArray[i] = Byte.valueOf(decoded[i]);
+        }
+
+        return retArray;
+    }
 
-        if (data.endsWith("==")) {
-            byteArrayLength -= 2;
+    /**
+     * Returns the number of bytes a Base64 string decodes to.
+     * 
+     * @param data
+     *            the Base64 characters
+     * @return the decoded length in bytes
+     * @throws IllegalArgumentException
+     *             If the length of the string is not a multiple of four
+     */
+    public static int decodedLength(final CharSequence data) {
+        final int length = checkEncodedLength(data.length());
+        return length == 0 ? 0 : decodedLength(length, data.charAt(length - 2), data.charAt(length - 1));
+    }
+
+    /**
+     * Returns the number of bytes a range of Base64 characters decodes to.
+     * 
+     * @param data
+     *            the Base64 characters
+     * @param offset
+     *            the offset of the first character
+     * @param length
+     *            the number of characters
+     * @return the decoded length in bytes
+     * @throws IllegalArgumentException
+     *             If the number of characters is not a multiple of four
+     */
+    public static int decodedLength(final char[] data, final int offset, final int length) {
+        checkRange(data.length, offset, length);
+        checkEncodedLength(length);
+        return length == 0 ? 0 : decodedLength(length, data[offset + length - 2], data[offset + length - 1]);
+    }
+
+    /**
+     * Decodes Base64 characters into a caller-supplied byte array, without intermediate strings.
+     * 
+     * @param data
+     *            the Base64 characters to decode
+     * @param destination
+     *            the byte array which receives the {@link #decodedLength(CharSequence)} decoded bytes
+     * @param destinationOffset
+     *            the offset in <code>destination</code> at which to write the first byte
+     * @return the number of bytes written
+     * @throws IllegalArgumentException
+     *             If the characters are not valid Base64
+     * @throws IndexOutOfBoundsException
+     *             If the destination is too small
+     */
+    public static int decode(final CharSequence data, final byte[] destination, final int destinationOffset) {
+        final int decodedLength = decodedLength(data);
+        checkRange(destination.length, destinationOffset, decodedLength);
+
+        final int length = data.length();
+        final int fullEnd = decodedLength % 3 == 0 ? length : length - 4;
+        int byteDex = destinationOffset;
+        for (int charDex = 0; charDex < fullEnd; charDex += 4) {
+            final int n = decodeGroup(data.charAt(charDex), data.charAt(charDex + 1), data.charAt(charDex + 2),
+                    data.charAt(charDex + 3));
+            destination[byteDex++] = (byte) (n >> 16);
+            destination[byteDex++] = (byte) (n >> 8);
+            destination[byteDex++] = (byte) n;
         }
-        else if (data.endsWith("=")) {
-            byteArrayLength -= 1;
+
+        if (fullEnd < length) {
+            byteDex = decodeFinalGroup(data.charAt(fullEnd), data.charAt(fullEnd + 1), data.charAt(fullEnd + 2),
+                    destination, byteDex);
         }
 
-        final Byte[] retArray = new Byte[byteArrayLength];
-        int byteDex = 0;
-        int charDex = 0;
+        return byteDex - destinationOffset;
+    }
 
-        for (; charDex < data.length(); charDex += 4) {
-            // get 4 chars, convert to 3 bytes
-            final int char1 = DECODE_64[(byte) data.charAt(charDex)];
-            final int char2 = DECODE_64[(byte) data.charAt(charDex + 1)];
-            final int char3 = DECODE_64[(byte) data.charAt(charDex + 2)];
-            final int char4 = DECODE_64[(byte) data.charAt(charDex + 3)];
+    /**
+     * Decodes a range of Base64 characters into a caller-supplied byte array, without intermediate strings.
+     * 
+     * @param data
+     *            the Base64 characters to decode
+     * @param offset
+     *            the offset of the first character
+     * @param length
+     *            the number of characters
+     * @param destination
+     *            the byte array which receives the {@link #decodedLength(char[], int, int)} decoded bytes
+     * @param destinationOffset
+     *            the offset in <code>destination</code> at which to write the first byte
+     * @return the number of bytes written
+     * @throws IllegalArgumentException
+     *             If the characters are not valid Base64
+     * @throws IndexOutOfBoundsException
+     *             If the destination is too small
+     */
+    public static int decode(final char[] data, final int offset, final int length, final byte[] destination,
+            final int destinationOffset) {
+        final int decodedLength = decodedLength(data, offset, length);
+        checkRange(destination.length, destinationOffset, decodedLength);
+
+        final int fullEnd = offset + (decodedLength % 3 == 0 ? length : length - 4);
+        int byteDex = destinationOffset;
+        for (int charDex = offset; charDex < fullEnd; charDex += 4) {
+            final int n = decodeGroup(data[charDex], data[charDex + 1], data[charDex + 2], data[charDex + 3]);
+            destination[byteDex++] = (byte) (n >> 16);
+            destination[byteDex++] = (byte) (n >> 8);
+            destination[byteDex++] = (byte) n;
+        }
 
-            if (char1 < 0 || char2 < 0 || char3 == -1 || char4 == -1) {
-                // invalid character(-1), or bad padding (-2)
-                throw new IllegalArgumentException(SR.STRING_NOT_VALID);
-            }
+        if (fullEnd < offset + length) {
+            byteDex = decodeFinalGroup(data[fullEnd], data[fullEnd + 1], data[fullEnd + 2], destination, byteDex);
+        }
 
-            int tVal = char1 << 18;
-            tVal += char2 << 12;
-            tVal += (char3 & 0xff) << 6;
-            tVal += char4 & 0xff;
+        return byteDex - destinationOffset;
+    }
 
-            if (char3 == -2) {
-                // two "==" pad chars, check bits 12-24
-                tVal &= 0x00FFF000;
-                retArray[byteDex++] = (byte) (tVal >> 16 & 0xFF);
-            }
-            else if (char4 == -2) {
-                // one pad char "=" , check bits 6-24.
-                tVal &= 0x00FFFFC0;
-                retArray[byteDex++] = (byte) (tVal >> 16 & 0xFF);
-                retArray[byteDex++] = (byte) (tVal >> 8 & 0xFF);
+    /**
+     * Decodes the remaining ASCII Base64 characters of a buffer into another buffer, advancing the position of both.
+     * 
+     * @param source
+     *            the <code>ByteBuffer</code> containing the ASCII Base64 characters
+     * @param destination
+     *            the <code>ByteBuffer</code> which receives the decoded bytes
+     * @return the number of bytes written
+     * @throws IllegalArgumentException
+     *             If the characters are not valid Base64
+     * @throws IndexOutOfBoundsException
+     *             If the destination does not have enough space remaining
+     */
+    public static int decode(final ByteBuffer source, final ByteBuffer destination) {
+        final int length = checkEncodedLength(source.remaining());
+        final int start = source.position();
+        final int decodedLength = length == 0 ? 0 : decodedLength(length, source.get(start + length - 2),
+                source.get(start + length - 1));
+        if (destination.remaining() < decodedLength) {
+            throw new IndexOutOfBoundsException();
+        }
 
-            }
-            else {
-                // No pads take all 3 bytes, bits 0-24
-                retArray[byteDex++] = (byte) (tVal >> 16 & 0xFF);
-                retArray[byteDex++] = (byte) (tVal >> 8 & 0xFF);
-                retArray[byteDex++] = (byte) (tVal & 0xFF);
+        final int fullEnd = start + (decodedLength % 3 == 0 ? length : length - 4);
+        for (int charDex = start; charDex < fullEnd; charDex += 4) {
+            final int n = decodeGroup(source.get(charDex), source.get(charDex + 1), source.get(charDex + 2),
+                    source.get(charDex + 3));
+            destination.put((byte) (n >> 16));
+            destination.put((byte) (n >> 8));
+            destination.put((byte) n);
+        }
+
+        if (fullEnd < start + length) {
+            final int n = decodeGroup(source.get(fullEnd), source.get(fullEnd + 1),
+                    decodedLength % 3 == 2 ? source.get(fullEnd + 2) : 'A', 'A');
+            destination.put((byte) (n >> 16));
+            if (decodedLength % 3 == 2) {
+                destination.put((byte) (n >> 8));
             }
         }
-        return retArray;
+
+        source.position(start + length);
+        return decodedLength;
     }
 
     /**
@@ -186,98 +268,182 @@ public final class Base64 {
      * @return the Base64-encoded string, as a <code>String</code> object
      */
     public static String encode(final byte[] data) {
-        final StringBuilder builder = new StringBuilder();
-        final int dataRemainder = data.length % 3;
-
-        int j = 0;
-        int n = 0;
-        for (; j < data.length; j += 3) {
-
-            if (j < data.length - dataRemainder) {
-                n = ((data[j] & 0xFF) << 16) + ((data[j + 1] & 0xFF) << 8) + (data[j + 2] & 0xFF);
-            }
-            else {
-                if (dataRemainder == 1) {
-                    n = (data[j] & 0xFF) << 16;
-                }
-                else if (dataRemainder == 2) {
-                    n = ((data[j] & 0xFF) << 16) + ((data[j + 1] & 0xFF) << 8);
-                }
-            }
+        final char[] chars = new char[encodedLength(data.length)];
+        encode(data, 0, data.length, chars, 0);
+        return new String(chars);
+    }
 
-            // Left here for readability
-            // byte char1 = (byte) ((n >>> 18) & 0x3F);
-            // byte char2 = (byte) ((n >>> 12) & 0x3F);
-            // byte char3 = (byte) ((n >>> 6) & 0x3F);
-            // byte char4 = (byte) (n & 0x3F);
-            builder.append(BASE_64_CHARS.charAt((byte) ((n >>> 18) & 0x3F)));
-            builder.append(BASE_64_CHARS.charAt((byte) ((n >>> 12) & 0x3F)));
-            builder.append(BASE_64_CHARS.charAt((byte) ((n >>> 6) & 0x3F)));
-            builder.append(BASE_64_CHARS.charAt((byte) (n & 0x3F)));
+    /**
+     * Encodes a byte array as a Base64 string.
+     * 
+     * @param data
+     *            the byte array to encode
+     * @return the Base64-encoded string, as a <code>String</code> object
+     */
+    public static String encode(final Byte[] data) {
+        final byte[] bytes = new byte[data.length];
+        for (int i = 0; i < data.length; i++) {
+            bytes[i] = data[i];
         }
 
-        final int bLength = builder.length();
+        return encode(bytes);
+    }
+
+    /**
+     * Returns the length of the Base64 encoding of the specified number of bytes.
+     * 
+     * @param length
+     *            the number of bytes to encode
+     * @return the number of Base64 characters, including padding
+     */
+    public static int encodedLength(final int length) {
+        return (length + 2) / 3 * 4;
+    }
 
-        // append '=' to pad
-        if (data.length % 3 == 1) {
-            builder.replace(bLength - 2, bLength, "==");
+    /**
+     * Encodes a range of a byte array as Base64 into a character array.
+     * 
+     * @param data
+     *            the byte array to encode
+     * @param offset
+     *            the offset of the first byte to encode
+     * @param length
+     *            the number of bytes to encode
+     * @param destination
+     *            the character array which receives the {@link #encodedLength(int)} encoded characters
+     * @param destinationOffset
+     *            the offset in <code>destination</code> at which to write the first character
+     * @return the number of characters written
+     * @throws IndexOutOfBoundsException
+     *             If the range is outside <code>data</code>, or the destination is too small
+     */
+    public static int encode(final byte[] data, final int offset, final int length, final char[] destination,
+            final int destinationOffset) {
+        checkRange(data.length, offset, length);
+        checkRange(destination.length, destinationOffset, encodedLength(length));
+
+        final int fullEnd = offset + length - length % 3;
+        int k = destinationOffset;
+        for (int j = offset; j < fullEnd; j += 3) {
+            final int n = ((data[j] & 0xFF) << 16) | ((data[j + 1] & 0xFF) << 8) | (data[j + 2] & 0xFF);
+            final int high = n >>> 12;
+            final int low = n & 0xFFF;
+            destination[k++] = ENCODE_12_HIGH[high];
+            destination[k++] = ENCODE_12_LOW[high];
+            destination[k++] = ENCODE_12_HIGH[low];
+            destination[k++] = ENCODE_12_LOW[low];
         }
-        else if (data.length % 3 == 2) {
-            builder.replace(bLength - 1, bLength, "=");
+
+        final int remainder = length % 3;
+        if (remainder > 0) {
+            final int n = ((data[fullEnd] & 0xFF) << 16) | (remainder == 2 ? (data[fullEnd + 1] & 0xFF) << 8 : 0);
+            destination[k++] = ENCODE_12_HIGH[n >>> 12];
+            destination[k++] = ENCODE_12_LOW[n >>> 12];
+            destination[k++] = remainder == 2 ? ENCODE_12_HIGH[n & 0xFFF] : PAD;
+            destination[k++] = PAD;
         }
 
-        return builder.toString();
+        return k - destinationOffset;
     }
 
     /**
-     * Encodes a byte array as a Base64 string.
+     * Encodes a range of a byte array as Base64 into a byte array as ASCII characters, without intermediate strings.
      * 
      * @param data
      *            the byte array to encode
-     * @return the Base64-encoded string, as a <code>String</code> object
+     * @param offset
+     *            the offset of the first byte to encode
+     * @param length
+     *            the number of bytes to encode
+     * @param destination
+     *            the byte array which receives the {@link #encodedLength(int)} encoded characters
+     * @param destinationOffset
+     *            the offset in <code>destination</code> at which to write the first character
+     * @return the number of characters written
+     * @throws IndexOutOfBoundsException
+     *             If the range is outside <code>data</code>, or the destination is too small
      */
-    public static String encode(final Byte[] data) {
-        final StringBuilder builder = new StringBuilder();
-        final int dataRemainder = data.length % 3;
+    public static int encode(final byte[] data, final int offset, final int length, final byte[] destination,
+            final int destinationOffset) {
+        checkRange(data.length, offset, length);
+        checkRange(destination.length, destinationOffset, encodedLength(length));
+
+        final int fullEnd = offset + length - length % 3;
+        int k = destinationOffset;
+        for (int j = offset; j < fullEnd; j += 3) {
+            final int n = ((data[j] & 0xFF) << 16) | ((data[j + 1] & 0xFF) << 8) | (data[j + 2] & 0xFF);
+            final int high = n >>> 12;
+            final int low = n & 0xFFF;
+            destination[k++] = (byte) ENCODE_12_HIGH[high];
+            destination[k++] = (byte) ENCODE_12_LOW[high];
+            destination[k++] = (byte) ENCODE_12_HIGH[low];
+            destination[k++] = (byte) ENCODE_12_LOW[low];
+        }
 
-        int j = 0;
-        int n = 0;
-        for (; j < data.length; j += 3) {
+        final int remainder = length % 3;
+        if (remainder > 0) {
+            final int n = ((data[fullEnd] & 0xFF) << 16) | (remainder == 2 ? (data[fullEnd + 1] & 0xFF) << 8 : 0);
+            destination[k++] = (byte) ENCODE_12_HIGH[n >>> 12];
+            destination[k++] = (byte) ENCODE_12_LOW[n >>> 12];
+            destination[k++] = (byte) (remainder == 2 ? ENCODE_12_HIGH[n & 0xFFF] : PAD);
+            destination[k++] = (byte) PAD;
+        }
 
-            if (j < data.length - dataRemainder) {
-                n = ((data[j] & 0xFF) << 16) + ((data[j + 1] & 0xFF) << 8) + (data[j + 2] & 0xFF);
-            }
-            else {
-                if (dataRemainder == 1) {
-                    n = (data[j] & 0xFF) << 16;
-                }
-                else if (dataRemainder == 2) {
-                    n = ((data[j] & 0xFF) << 16) + ((data[j + 1] & 0xFF) << 8);
-                }
-            }
+        return k - destinationOffset;
+    }
 
-            // Left here for readability
-            // byte char1 = (byte) ((n >>> 18) & 0x3F);
-            // byte char2 = (byte) ((n >>> 12) & 0x3F);
-            // byte char3 = (byte) ((n >>> 6) & 0x3F);
-            // byte char4 = (byte) (n & 0x3F);
-            builder.append(BASE_64_CHARS.charAt((byte) ((n >>> 18) & 0x3F)));
-            builder.append(BASE_64_CHARS.charAt((byte) ((n >>> 12) & 0x3F)));
-            builder.append(BASE_64_CHARS.charAt((byte) ((n >>> 6) & 0x3F)));
-            builder.append(BASE_64_CHARS.charAt((byte) (n & 0x3F)));
+    /**
+     * Encodes the remaining bytes of a buffer as ASCII Base64 characters into another buffer, advancing the position
+     * of both.
+     * 
+     * @param source
+     *            the <code>ByteBuffer</code> containing the bytes to encode
+     * @param destination
+     *            the <code>ByteBuffer</code> which receives the encoded characters
+     * @return the number of characters written
+     * @throws IndexOutOfBoundsException
+     *             If the destination does not have enough space remaining
+     */
+    public static int encode(final ByteBuffer source, final ByteBuffer destination) {
+        final int length = source.remaining();
+        final int encodedLength = encodedLength(length);
+        if (destination.remaining() < encodedLength) {
+            throw new IndexOutOfBoundsException();
         }
 
-        final int bLength = builder.length();
+        if (source.hasArray() && destination.hasArray()) {
+            encode(source.array(), source.arrayOffset() + source.position(), length, destination.array(),
+                    destination.arrayOffset() + destination.position());
+            destination.position(destination.position() + encodedLength);
+            source.position(source.position() + length);
+            return encodedLength;
+        }
 
-        // append '=' to pad
-        if (data.length % 3 == 1) {
-            builder.replace(bLength - 2, bLength, "==");
+        final int start = source.position();
+        final int fullEnd = start + length - length % 3;
+        for (int j = start; j < fullEnd; j += 3) {
+            final int n = ((source.get(j) & 0xFF) << 16) | ((source.get(j + 1) & 0xFF) << 8) | (source.get(j + 2)
+                    & 0xFF);
+            final int high = n >>> 12;
+            final int low = n & 0xFFF;
+            destination.put((byte) ENCODE_12_HIGH[high]);
+            destination.put((byte) ENCODE_12_LOW[high]);
+            destination.put((byte) ENCODE_12_HIGH[low]);
+            destination.put((byte) ENCODE_12_LOW[low]);
         }
-        else if (data.length % 3 == 2) {
-            builder.replace(bLength - 1, bLength, "=");
+
+        final int remainder = length % 3;
+        if (remainder > 0) {
+            final int n = ((source.get(fullEnd) & 0xFF) << 16)
+                    | (remainder == 2 ? (source.get(fullEnd + 1) & 0xFF) << 8 : 0);
+            destination.put((byte) ENCODE_12_HIGH[n >>> 12]);
+            destination.put((byte) ENCODE_12_LOW[n >>> 12]);
+            destination.put((byte) (remainder == 2 ? ENCODE_12_HIGH[n & 0xFFF] : PAD));
+            destination.put((byte) PAD);
         }
 
-        return builder.toString();
+        source.position(start + length);
+        return encodedLength;
     }
 
     /**
@@ -288,30 +454,89 @@ public final class Base64 {
      * @return <code>true</code> if <code>data</code> is a valid Base64 string, otherwise <code>false</code>
      */
     public static boolean validateIsBase64String(final String data) {
-
         if (data == null || data.length() % 4 != 0) {
             return false;
         }
 
-        for (int m = 0; m < data.length(); m++) {
-            final byte charByte = (byte) data.charAt(m);
-
-            // pad char detected
-            if (DECODE_64[charByte] == -2) {
-                if (m < data.length() - 2) {
-                    return false;
-                }
-                else if (m == data.length() - 2 && DECODE_64[(byte) data.charAt(m + 1)] != -2) {
-                    return false;
-                }
-            }
+        int length = data.length();
+        if (length > 0 && data.charAt(length - 1) == PAD) {
+            length -= data.charAt(length - 2) == PAD ? 2 : 1;
+        }
 
-            if (charByte < 0 || DECODE_64[charByte] == -1) {
-                return false;
-            }
+        int check = 0;
+        for (int m = 0; m < length; m++) {
+            check |= decodeChar(data.charAt(m));
         }
 
-        return true;
+        return check >= 0;
+    }
+
+    /**
+     * Returns the specified number of characters, after checking it is a multiple of four.
+     */
+    private static int checkEncodedLength(final int length) {
+        if (length % 4 != 0) {
+            throw new IllegalArgumentException(SR.STRING_NOT_VALID);
+        }
+
+        return length;
+    }
+
+    /**
+     * Returns the decoded length of a non-empty run of characters, given the last two.
+     */
+    private static int decodedLength(final int length, final int secondLast, final int last) {
+        int decodedLength = length / 4 * 3;
+        if (last == PAD) {
+            decodedLength -= secondLast == PAD ? 2 : 1;
+        }
+
+        return decodedLength;
+    }
+
+    /**
+     * Decodes a group of four characters into 24 bits.
+     */
+    private static int decodeGroup(final int char1, final int char2, final int char3, final int char4) {
+        final int value1 = decodeChar(char1);
+        final int value2 = decodeChar(char2);
+        final int value3 = decodeChar(char3);
+        final int value4 = decodeChar(char4);
+
+        // any invalid character(-1) makes the combined check negative
+        if ((value1 | value2 | value3 | value4) < 0) {
+            throw new IllegalArgumentException(SR.STRING_NOT_VALID);
+        }
+
+        return value1 << 18 | value2 << 12 | value3 << 6 | value4;
+    }
+
+    /**
+     * Decodes a padded final group, given its first three characters, and returns the index after the last byte
+     * written.
+     */
+    private static int decodeFinalGroup(final char char1, final char char2, final char char3,
+            final byte[] destination, int byteDex) {
+        final int n = decodeGroup(char1, char2, char3 == PAD ? 'A' : char3, 'A');
+        destination[byteDex++] = (byte) (n >> 16);
+        if (char3 != PAD) {
+            destination[byteDex++] = (byte) (n >> 8);
+        }
+
+        return byteDex;
+    }
+
+    /**
+     * Returns the decoded value of a character, or -1 for an invalid character.
+     */
+    private static int decodeChar(final int c) {
+        return c >= 0 && c < DECODE_64.length ? DECODE_64[c] : -1;
+    }
+
+    private static void checkRange(final int arrayLength, final int offset, final int length) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IndexOutOfBoundsException();
+        }
     }
 
     /**
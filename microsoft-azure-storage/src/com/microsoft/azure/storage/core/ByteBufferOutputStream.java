@@ -0,0 +1,77 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * RESERVED FOR INTERNAL USE. An output stream which writes to a {@link ByteBuffer}, starting at its position.
+ * {@link Utility#writeToOutputStream} recognizes this stream and reads the source directly into the buffer.
+ */
+public final class ByteBufferOutputStream extends OutputStream {
+
+    private final ByteBuffer buffer;
+
+    private final int startingPosition;
+
+    /**
+     * Creates an instance of the <code>ByteBufferOutputStream</code> class.
+     * 
+     * @param buffer
+     *            The {@link ByteBuffer} to write to.
+     */
+    public ByteBufferOutputStream(final ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.startingPosition = buffer.position();
+    }
+
+    /**
+     * Gets the buffer written to.
+     * 
+     * @return the {@link ByteBuffer}.
+     */
+    public ByteBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * Gets the number of bytes written.
+     * 
+     * @return the number of bytes written.
+     */
+    public int getPosition() {
+        return this.buffer.position() - this.startingPosition;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (!this.buffer.hasRemaining()) {
+            throw new IOException(SR.CONTENT_LENGTH_MISMATCH);
+        }
+
+        this.buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len > this.buffer.remaining()) {
+            throw new IOException(SR.CONTENT_LENGTH_MISMATCH);
+        }
+
+        this.buffer.put(b, off, len);
+    }
+}
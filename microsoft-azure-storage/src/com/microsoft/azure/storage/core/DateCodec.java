@@ -0,0 +1,570 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.core;
+
+import java.text.ParseException;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+/**
+ * RESERVED FOR INTERNAL USE. Parses and formats the ISO 8601, RFC 1123 and RFC 850 date/time strings used by the
+ * storage services. Unlike <code>SimpleDateFormat</code>, the codec keeps no state, so it is safe to share across
+ * threads and does not allocate a formatter or calendar per call. Parsers operate on character ranges so callers
+ * can decode directly from a buffer.
+ * <p>
+ * Results match the <code>SimpleDateFormat</code> patterns previously used by {@link Utility}, including the
+ * lenient handling of out-of-range fields and the switch to the Julian calendar for dates before
+ * 1582-10-15.
+ */
+public final class DateCodec {
+
+    /**
+     * The number of milliseconds in a day.
+     */
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    /**
+     * The first day of the Gregorian calendar, as a number of days since 1970-01-01.
+     */
+    private static final long GREGORIAN_CUTOVER_DAY = -141427;
+
+    /**
+     * The abbreviated names of the days of the week, starting with Thursday, the weekday of 1970-01-01.
+     */
+    private static final String[] SHORT_WEEKDAYS = { "Thu", "Fri", "Sat", "Sun", "Mon", "Tue", "Wed" };
+
+    /**
+     * The full names of the days of the week, in the same order as {@link #SHORT_WEEKDAYS}.
+     */
+    private static final String[] WEEKDAYS = { "Thursday", "Friday", "Saturday", "Sunday", "Monday", "Tuesday",
+            "Wednesday" };
+
+    /**
+     * The abbreviated names of the months.
+     */
+    private static final String[] SHORT_MONTHS = { "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep",
+            "Oct", "Nov", "Dec" };
+
+    /**
+     * The full names of the months.
+     */
+    private static final String[] MONTHS = { "January", "February", "March", "April", "May", "June", "July",
+            "August", "September", "October", "November", "December" };
+
+    /**
+     * The start of the 100 year window two digit years are resolved into, which, as for
+     * <code>SimpleDateFormat</code>, begins 80 years before the class is loaded.
+     */
+    private static final long CENTURY_START;
+
+    /**
+     * The year of {@link #CENTURY_START}.
+     */
+    private static final int CENTURY_START_YEAR;
+
+    static {
+        final Calendar calendar = new GregorianCalendar(Utility.GMT_ZONE, Utility.LOCALE_US);
+        calendar.add(Calendar.YEAR, -80);
+        CENTURY_START = calendar.getTimeInMillis();
+        CENTURY_START_YEAR = calendar.get(Calendar.YEAR);
+    }
+
+    /**
+     * Private Default Ctor.
+     */
+    private DateCodec() {
+        // No op
+    }
+
+    /**
+     * Parses an ISO 8601 UTC date/time of the form <code>yyyy-MM-ddTHH:mm[:ss[.fffffff]]Z</code>. One to seven
+     * fractional digits are accepted and truncated to millisecond precision.
+     * 
+     * @param value
+     *            A <code>CharSequence</code> which contains the date/time.
+     * 
+     * @return A <code>Date</code> which represents the parsed date/time.
+     * 
+     * @throws IllegalArgumentException
+     *             If the value is not a supported ISO 8601 date/time.
+     */
+    public static Date parseISO8601(final CharSequence value) {
+        return new Date(parseISO8601(value, 0, value.length()));
+    }
+
+    /**
+     * Parses an ISO 8601 UTC date/time of the form <code>yyyy-MM-ddTHH:mm[:ss[.fffffff]]Z</code> from a range of
+     * characters. One to seven fractional digits are accepted and truncated to millisecond precision.
+     * 
+     * @param value
+     *            A <code>CharSequence</code> which contains the date/time.
+     * @param start
+     *            The index of the first character of the date/time.
+     * @param end
+     *            The index after the last character of the date/time.
+     * 
+     * @return The number of milliseconds since 1970-01-01T00:00:00Z.
+     * 
+     * @throws IllegalArgumentException
+     *             If the range is not a supported ISO 8601 date/time.
+     */
+    public static long parseISO8601(final CharSequence value, final int start, final int end) {
+        final int length = end - start;
+        if ((length != 17 && length != 20 && (length < 22 || length > 28)) || value.charAt(start + 4) != '-'
+                || value.charAt(start + 7) != '-' || value.charAt(start + 10) != 'T'
+                || value.charAt(start + 13) != ':' || value.charAt(end - 1) != 'Z') {
+            throw invalidDate(value, start, end);
+        }
+
+        final int year = parseDigits(value, start, 4, start, end);
+        final int month = parseDigits(value, start + 5, 2, start, end);
+        final int day = parseDigits(value, start + 8, 2, start, end);
+        final int hour = parseDigits(value, start + 11, 2, start, end);
+        final int minute = parseDigits(value, start + 14, 2, start, end);
+
+        int second = 0;
+        int millis = 0;
+        if (length > 17) {
+            if (value.charAt(start + 16) != ':') {
+                throw invalidDate(value, start, end);
+            }
+
+            second = parseDigits(value, start + 17, 2, start, end);
+            if (length > 20) {
+                if (value.charAt(start + 19) != '.') {
+                    throw invalidDate(value, start, end);
+                }
+
+                final int fractionDigits = length - 21;
+                millis = parseDigits(value, start + 20, Math.min(fractionDigits, 3), start, end);
+                for (int i = fractionDigits; i < 3; i++) {
+                    millis *= 10;
+                }
+
+                if (fractionDigits > 3) {
+                    // Digits beyond millisecond precision are validated but otherwise ignored.
+                    parseDigits(value, start + 23, fractionDigits - 3, start, end);
+                }
+            }
+        }
+
+        return toEpochMillis(year, month, day, hour, minute, second, millis);
+    }
+
+    /**
+     * Parses an RFC 1123 GMT date/time of the form <code>EEE, dd MMM yyyy HH:mm:ss GMT</code>, as used in HTTP
+     * headers and in listing responses.
+     * 
+     * @param value
+     *            A <code>CharSequence</code> which contains the date/time.
+     * 
+     * @return A <code>Date</code> which represents the parsed date/time.
+     * 
+     * @throws ParseException
+     *             If the value is not an RFC 1123 date/time.
+     */
+    public static Date parseRFC1123(final CharSequence value) throws ParseException {
+        return new Date(parseHttpDate(value, 0, value.length(), ' ', false /* allowTwoDigitYear */));
+    }
+
+    /**
+     * Parses an RFC 1123 GMT date/time of the form <code>EEE, dd MMM yyyy HH:mm:ss GMT</code> from a range of
+     * characters.
+     * 
+     * @param value
+     *            A <code>CharSequence</code> which contains the date/time.
+     * @param start
+     *            The index of the first character of the date/time.
+     * @param end
+     *            The index after the last character of the date/time.
+     * 
+     * @return The number of milliseconds since 1970-01-01T00:00:00Z.
+     * 
+     * @throws ParseException
+     *             If the range is not an RFC 1123 date/time.
+     */
+    public static long parseRFC1123(final CharSequence value, final int start, final int end)
+            throws ParseException {
+        return parseHttpDate(value, start, end, ' ', false /* allowTwoDigitYear */);
+    }
+
+    /**
+     * Parses an RFC 850 GMT date/time of the form <code>EEEE, dd-MMM-yy HH:mm:ss GMT</code>, as used by the
+     * LastModifiedTime field of Storage Analytics logs. Two digit years are resolved to the century which begins 80
+     * years ago.
+     * 
+     * @param value
+     *            A <code>CharSequence</code> which contains the date/time.
+     * 
+     * @return A <code>Date</code> which represents the parsed date/time.
+     * 
+     * @throws ParseException
+     *             If the value is not an RFC 850 date/time.
+     */
+    public static Date parseRFC850(final CharSequence value) throws ParseException {
+        return new Date(parseHttpDate(value, 0, value.length(), '-', true /* allowTwoDigitYear */));
+    }
+
+    /**
+     * Formats a date/time using the RFC 1123 pattern, for example <code>Tue, 09 Aug 2011 18:52:40 GMT</code>.
+     * 
+     * @param date
+     *            A <code>Date</code> which represents the date/time to format.
+     * 
+     * @return A <code>String</code> which represents the formatted date/time.
+     */
+    public static String formatRFC1123(final Date date) {
+        return appendRFC1123(new StringBuilder(29), date.getTime()).toString();
+    }
+
+    /**
+     * Appends a date/time formatted using the RFC 1123 pattern, for example
+     * <code>Tue, 09 Aug 2011 18:52:40 GMT</code>.
+     * 
+     * @param builder
+     *            The <code>StringBuilder</code> to append to.
+     * @param time
+     *            The number of milliseconds since 1970-01-01T00:00:00Z.
+     * 
+     * @return The <code>StringBuilder</code>.
+     */
+    public static StringBuilder appendRFC1123(final StringBuilder builder, final long time) {
+        final long days = floorDiv(time, MILLIS_PER_DAY);
+        final int millisOfDay = (int) (time - days * MILLIS_PER_DAY);
+        final int[] date = fromEpochDays(days);
+
+        builder.append(SHORT_WEEKDAYS[(int) (days - floorDiv(days, 7) * 7)]).append(", ");
+        appendDigits(builder, date[2], 2).append(' ').append(SHORT_MONTHS[date[1] - 1]).append(' ');
+        appendYear(builder, date[0]).append(' ');
+        return appendTimeOfDay(builder, millisOfDay).append(" GMT");
+    }
+
+    /**
+     * Formats a UTC date/time using the ISO 8601 pattern with second precision, for example
+     * <code>2011-08-09T18:52:40Z</code>.
+     * 
+     * @param date
+     *            A <code>Date</code> which represents the date/time to format.
+     * 
+     * @return A <code>String</code> which represents the formatted date/time.
+     */
+    public static String formatISO8601(final Date date) {
+        return appendISO8601(new StringBuilder(20), date.getTime(), false /* includeMillis */).toString();
+    }
+
+    /**
+     * Formats a UTC date/time using the ISO 8601 pattern with millisecond precision, for example
+     * <code>2011-08-09T18:52:40.924Z</code>.
+     * 
+     * @param date
+     *            A <code>Date</code> which represents the date/time to format.
+     * 
+     * @return A <code>String</code> which represents the formatted date/time.
+     */
+    public static String formatISO8601Millis(final Date date) {
+        return appendISO8601(new StringBuilder(24), date.getTime(), true /* includeMillis */).toString();
+    }
+
+    /**
+     * Appends a UTC date/time formatted using the ISO 8601 pattern.
+     * 
+     * @param builder
+     *            The <code>StringBuilder</code> to append to.
+     * @param time
+     *            The number of milliseconds since 1970-01-01T00:00:00Z.
+     * @param includeMillis
+     *            <code>true</code> to include milliseconds; <code>false</code> to format with second precision.
+     * 
+     * @return The <code>StringBuilder</code>.
+     */
+    public static StringBuilder appendISO8601(final StringBuilder builder, final long time,
+            final boolean includeMillis) {
+        final long days = floorDiv(time, MILLIS_PER_DAY);
+        final int millisOfDay = (int) (time - days * MILLIS_PER_DAY);
+        final int[] date = fromEpochDays(days);
+
+        appendYear(builder, date[0]).append('-');
+        appendDigits(builder, date[1], 2).append('-');
+        appendDigits(builder, date[2], 2).append('T');
+        appendTimeOfDay(builder, millisOfDay);
+        if (includeMillis) {
+            appendDigits(builder.append('.'), millisOfDay % 1000, 3);
+        }
+
+        return builder.append('Z');
+    }
+
+    /**
+     * Gets the number of milliseconds since 1970-01-01T00:00:00Z for the specified UTC date and time. As with a
+     * lenient <code>Calendar</code>, fields outside of their usual range roll over into the next larger field.
+     * 
+     * @param year
+     *            The year.
+     * @param month
+     *            The month, from 1 to 12.
+     * @param day
+     *            The day of the month, from 1.
+     * @param hour
+     *            The hour of the day, from 0 to 23.
+     * @param minute
+     *            The minute, from 0 to 59.
+     * @param second
+     *            The second, from 0 to 59.
+     * @param millis
+     *            The millisecond, from 0 to 999.
+     * 
+     * @return The number of milliseconds since 1970-01-01T00:00:00Z.
+     */
+    public static long toEpochMillis(int year, int month, final int day, final int hour, final int minute,
+            final int second, final int millis) {
+        final int yearsCarried = (int) floorDiv(month - 1, 12);
+        year += yearsCarried;
+        month -= yearsCarried * 12;
+
+        long days = daysFromGregorian(year, month, 1) + day - 1;
+        if (days < GREGORIAN_CUTOVER_DAY) {
+            days = daysFromJulian(year, month, 1) + day - 1;
+        }
+
+        return (((days * 24 + hour) * 60 + minute) * 60 + second) * 1000 + millis;
+    }
+
+    /**
+     * Parses the RFC 1123 and RFC 850 forms, which differ only in the date separator and the year.
+     */
+    private static long parseHttpDate(final CharSequence value, final int start, final int end,
+            final char dateSeparator, final boolean allowTwoDigitYear) throws ParseException {
+        int index = start;
+        while (index < end && Character.isLetter(value.charAt(index))) {
+            index++;
+        }
+
+        // The day of the week is validated, but as with SimpleDateFormat the day of the month takes precedence.
+        if (matchName(value, start, index, SHORT_WEEKDAYS, WEEKDAYS) < 0) {
+            throw new ParseException(value.subSequence(start, end).toString(), start);
+        }
+
+        index = expect(value, index, end, ',', start);
+        index = expect(value, index, end, ' ', start);
+        final int dayEnd = scanDigits(value, index, end, 2, start);
+        final int day = parseDigits(value, index, dayEnd - index, start, end);
+        index = expect(value, dayEnd, end, dateSeparator, start);
+
+        final int monthStart = index;
+        while (index < end && Character.isLetter(value.charAt(index))) {
+            index++;
+        }
+
+        final int month = matchName(value, monthStart, index, SHORT_MONTHS, MONTHS) + 1;
+        if (month == 0) {
+            throw new ParseException(value.subSequence(start, end).toString(), monthStart);
+        }
+
+        index = expect(value, index, end, dateSeparator, start);
+        final int yearEnd = scanDigits(value, index, end, 4, start);
+        int year = parseDigits(value, index, yearEnd - index, start, end);
+        final boolean ambiguousYear = allowTwoDigitYear && yearEnd - index == 2;
+        if (ambiguousYear) {
+            year += (CENTURY_START_YEAR / 100) * 100 + (year < CENTURY_START_YEAR % 100 ? 100 : 0);
+        }
+
+        index = expect(value, yearEnd, end, ' ', start);
+        final int hourEnd = scanDigits(value, index, end, 2, start);
+        final int hour = parseDigits(value, index, hourEnd - index, start, end);
+        index = expect(value, hourEnd, end, ':', start);
+        final int minuteEnd = scanDigits(value, index, end, 2, start);
+        final int minute = parseDigits(value, index, minuteEnd - index, start, end);
+        index = expect(value, minuteEnd, end, ':', start);
+        final int secondEnd = scanDigits(value, index, end, 2, start);
+        final int second = parseDigits(value, index, secondEnd - index, start, end);
+        index = expect(value, secondEnd, end, ' ', start);
+        index = expect(value, index, end, 'G', start);
+        index = expect(value, index, end, 'M', start);
+        index = expect(value, index, end, 'T', start);
+        if (index != end) {
+            throw new ParseException(value.subSequence(start, end).toString(), index);
+        }
+
+        long time = toEpochMillis(year, month, day, hour, minute, second, 0);
+        if (ambiguousYear && time < CENTURY_START) {
+            time = toEpochMillis(year + 100, month, day, hour, minute, second, 0);
+        }
+
+        return time;
+    }
+
+    /**
+     * Gets the index of the name matching the range in either array, ignoring case, or -1 if there is none.
+     */
+    private static int matchName(final CharSequence value, final int start, final int end,
+            final String[] shortNames, final String[] names) {
+        final int length = end - start;
+        for (int i = 0; i < names.length; i++) {
+            final String name = length == shortNames[i].length() ? shortNames[i]
+                    : (length == names[i].length() ? names[i] : null);
+            if (name != null && regionMatches(value, start, name)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean regionMatches(final CharSequence value, final int start, final String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.toLowerCase(value.charAt(start + i)) != Character.toLowerCase(name.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int expect(final CharSequence value, final int index, final int end, final char expected,
+            final int start) throws ParseException {
+        if (index >= end || value.charAt(index) != expected) {
+            throw new ParseException(value.subSequence(start, end).toString(), index);
+        }
+
+        return index + 1;
+    }
+
+    /**
+     * Gets the end of a run of at least one and at most <code>maxDigits</code> digits.
+     */
+    private static int scanDigits(final CharSequence value, final int index, final int end, final int maxDigits,
+            final int start) throws ParseException {
+        int digitsEnd = index;
+        while (digitsEnd < end && digitsEnd - index < maxDigits && isDigit(value.charAt(digitsEnd))) {
+            digitsEnd++;
+        }
+
+        if (digitsEnd == index) {
+            throw new ParseException(value.subSequence(start, end).toString(), index);
+        }
+
+        return digitsEnd;
+    }
+
+    private static int parseDigits(final CharSequence value, final int index, final int count, final int start,
+            final int end) {
+        int result = 0;
+        for (int i = index; i < index + count; i++) {
+            final char c = value.charAt(i);
+            if (!isDigit(c)) {
+                throw invalidDate(value, start, end);
+            }
+
+            result = result * 10 + (c - '0');
+        }
+
+        return result;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static IllegalArgumentException invalidDate(final CharSequence value, final int start, final int end) {
+        return new IllegalArgumentException(String.format(SR.INVALID_DATE_STRING, value.subSequence(start, end)));
+    }
+
+    private static StringBuilder appendTimeOfDay(final StringBuilder builder, final int millisOfDay) {
+        final int seconds = millisOfDay / 1000;
+        appendDigits(builder, seconds / 3600, 2).append(':');
+        appendDigits(builder, seconds / 60 % 60, 2).append(':');
+        return appendDigits(builder, seconds % 60, 2);
+    }
+
+    /**
+     * Appends a year as the year of its era, which is how <code>SimpleDateFormat</code> formats years before 1 AD.
+     */
+    private static StringBuilder appendYear(final StringBuilder builder, final int year) {
+        return appendDigits(builder, year > 0 ? year : 1 - year, 4);
+    }
+
+    /**
+     * Appends a non-negative number, padded with zeros to at least <code>width</code> digits.
+     */
+    private static StringBuilder appendDigits(final StringBuilder builder, final int value, final int width) {
+        for (int limit = 10, i = 1; i < width; limit *= 10, i++) {
+            if (value < limit) {
+                builder.append('0');
+            }
+        }
+
+        return builder.append(value);
+    }
+
+    /**
+     * Gets the year, month and day of the month of the specified number of days since 1970-01-01, using the Julian
+     * calendar before the Gregorian cutover.
+     */
+    private static int[] fromEpochDays(final long days) {
+        final long year;
+        final long dayOfYear;
+        if (days >= GREGORIAN_CUTOVER_DAY) {
+            final long shifted = days + 719468;
+            final long era = floorDiv(shifted, 146097);
+            final long dayOfEra = shifted - era * 146097;
+            final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+            year = yearOfEra + era * 400;
+            dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        }
+        else {
+            final long shifted = days + 719470;
+            final long era = floorDiv(shifted, 1461);
+            final long dayOfEra = shifted - era * 1461;
+            final long yearOfEra = (dayOfEra - dayOfEra / 1460) / 365;
+            year = yearOfEra + era * 4;
+            dayOfYear = dayOfEra - 365 * yearOfEra;
+        }
+
+        // Years are counted from March, so that the leap day is the last day of the year.
+        final int shiftedMonth = (int) ((5 * dayOfYear + 2) / 153);
+        final int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        final int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        return new int[] { (int) (month <= 2 ? year + 1 : year), month, day };
+    }
+
+    /**
+     * Gets the number of days between 1970-01-01 and the specified date of the proleptic Gregorian calendar.
+     */
+    private static long daysFromGregorian(int year, final int month, final int day) {
+        year -= month <= 2 ? 1 : 0;
+        final long era = floorDiv(year, 400);
+        final long yearOfEra = year - era * 400;
+        final int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Gets the number of days between 1970-01-01 and the specified date of the Julian calendar.
+     */
+    private static long daysFromJulian(int year, final int month, final int day) {
+        year -= month <= 2 ? 1 : 0;
+        final long era = floorDiv(year, 4);
+        final long yearOfEra = year - era * 4;
+        final int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        return era * 1461 + yearOfEra * 365 + dayOfYear - 719470;
+    }
+
+    private static long floorDiv(final long dividend, final long divisor) {
+        final long quotient = dividend / divisor;
+        return (dividend % divisor != 0 && (dividend < 0) != (divisor < 0)) ? quotient - 1 : quotient;
+    }
+}
@@ -20,6 +20,11 @@ import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.util.Date;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import android.os.NetworkOnMainThreadException;
 import com.microsoft.azure.storage.*;
@@ -73,11 +78,25 @@ public final class ExecutionEngine {
         StorageException translatedException = null;
         HttpURLConnection request = null;
         final long startTime = new Date().getTime();
+        final RateLimiter rateLimiter = client instanceof ServiceClient ? ((ServiceClient) client).getRateLimiter()
+                : null;
+        final HedgedReadPolicy hedgedReadPolicy = client instanceof ServiceClient ? ((ServiceClient) client)
+                .getHedgedReadPolicy() : null;
+        final LocationHealthTracker locationHealthTracker = client instanceof ServiceClient ? ((ServiceClient) client)
+                .getLocationHealthTracker() : null;
 
         while (true) {
+            final long startByteCount = task.getCurrentRequestByteCount();
+            long requestStartTime = System.nanoTime();
             try {
-                // 1-4: setup the request
-                request = setupStorageRequest(client, parentObject, task, currentRetryCount, opContext);
+                // 1-4: wait for the rate limiter and setup the request
+                if (rateLimiter != null) {
+                    rateLimiter.acquire(task.getRateLimitPartitionKey());
+                    requestStartTime = System.nanoTime();
+                }
+
+                request = setupStorageRequest(client, parentObject, task, currentRetryCount, locationHealthTracker,
+                        opContext);
 
                 Logger.info(opContext, LogConstants.START_REQUEST, request.getURL(),
                         request.getRequestProperty(Constants.HeaderConstants.DATE));
@@ -86,6 +105,10 @@ public final class ExecutionEngine {
                 boolean responseReceivedEventTriggered = false;
                 try {
                     if (task.getSendStream() != null) {
+                        if (rateLimiter != null && task.getLength() != null) {
+                            rateLimiter.acquireBytes(task.getLength());
+                        }
+
                         Logger.info(opContext, LogConstants.UPLOAD);
                         final StreamMd5AndLength descriptor = Utility.writeToOutputStream(task.getSendStream(),
                                 request.getOutputStream(), task.getLength(), false /* rewindStream */,
@@ -103,6 +126,11 @@ public final class ExecutionEngine {
 
                     Logger.info(opContext, LogConstants.GET_RESPONSE);
 
+                    if (hedgedReadPolicy != null && canHedge(task, request)) {
+                        request = getResponseWithHedging(hedgedReadPolicy, client, parentObject, task, request,
+                                opContext);
+                    }
+
                     currResult.setStatusCode(request.getResponseCode());
                     currResult.setStatusMessage(request.getResponseMessage());
                     currResult.setStopDate(new Date());
@@ -212,6 +240,16 @@ public final class ExecutionEngine {
                 // 10. Fire RequestCompleted Event
                 if (task.isSent()) {
                     ExecutionEngine.fireRequestCompletedEvent(opContext, request, task.getResult());
+
+                    if (rateLimiter != null) {
+                        rateLimiter.onRequestCompleted(task.getRateLimitPartitionKey(),
+                                task.getCurrentRequestByteCount() - startByteCount, task.getResult());
+                    }
+
+                    if (locationHealthTracker != null) {
+                        locationHealthTracker.onRequestCompleted(task.getResult().getTargetLocation(),
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requestStartTime), task.getResult());
+                    }
                 }
             }
 
@@ -272,7 +310,8 @@ public final class ExecutionEngine {
     private static <CLIENT_TYPE, PARENT_TYPE, RESULT_TYPE> HttpURLConnection setupStorageRequest(
             final CLIENT_TYPE client, final PARENT_TYPE parentObject,
             final StorageRequest<CLIENT_TYPE, PARENT_TYPE, RESULT_TYPE> task, int currentRetryCount,
-            final OperationContext opContext) throws StorageException {
+            final LocationHealthTracker locationHealthTracker, final OperationContext opContext)
+            throws StorageException {
         try {
 
             // reset result flags
@@ -300,6 +339,15 @@ public final class ExecutionEngine {
 
             task.setRequestLocationMode();
 
+            // Start on the other location if the location to start on is unhealthy and the command allows it.
+            if (currentRetryCount == 0 && locationHealthTracker != null && canUseEitherLocation(task)) {
+                final StorageLocation location = locationHealthTracker.selectLocation(task.getCurrentLocation());
+                if (location != task.getCurrentLocation()) {
+                    Logger.info(opContext, LogConstants.LOCATION_UNHEALTHY, task.getCurrentLocation(), location);
+                    task.setCurrentLocation(location);
+                }
+            }
+
             // If the command only allows for a specific location, we should target
             // that location no matter what the retry policy says.
             task.validateLocation();
@@ -339,6 +387,161 @@ public final class ExecutionEngine {
         }
     }
 
+    /**
+     * Determines whether a command may be served from either location, with a location mode using both locations.
+     */
+    private static boolean canUseEitherLocation(final StorageRequest<?, ?, ?> task) {
+        final LocationMode locationMode = task.getLocationMode();
+        return task.getRequestLocationMode() == RequestLocationMode.PRIMARY_OR_SECONDARY
+                && (locationMode == LocationMode.PRIMARY_THEN_SECONDARY
+                        || locationMode == LocationMode.SECONDARY_THEN_PRIMARY);
+    }
+
+    /**
+     * Determines whether a request may be hedged: it must be a read which may be served from either location, with a
+     * location mode using both locations.
+     */
+    private static boolean canHedge(final StorageRequest<?, ?, ?> task, final HttpURLConnection request) {
+        return task.getSendStream() == null
+                && canUseEitherLocation(task)
+                && (Constants.HTTP_GET.equals(request.getRequestMethod()) || Constants.HTTP_HEAD.equals(request
+                        .getRequestMethod()));
+    }
+
+    /**
+     * Waits for the response of a request, sending the same request to the other location if the response takes longer
+     * than the hedged read policy allows. The first connection whose response settles the read is set on the task and
+     * returned, and the other one is disconnected. If neither response settles the read, the first one is used.
+     */
+    private static <CLIENT_TYPE, PARENT_TYPE, RESULT_TYPE> HttpURLConnection getResponseWithHedging(
+            final HedgedReadPolicy policy, final CLIENT_TYPE client, final PARENT_TYPE parentObject,
+            final StorageRequest<CLIENT_TYPE, PARENT_TYPE, RESULT_TYPE> task, final HttpURLConnection request,
+            final OperationContext opContext) throws Exception {
+        final StorageLocation hedgeLocation = task.getCurrentLocation() == StorageLocation.PRIMARY
+                ? StorageLocation.SECONDARY : StorageLocation.PRIMARY;
+        final String operation = task.getClass().getName() + "/" + task.getCurrentLocation();
+        final long delayInMs = policy.onRequestStarted(operation);
+        final long startTime = System.nanoTime();
+
+        final ExecutorCompletionService<HttpURLConnection> responses = new ExecutorCompletionService<HttpURLConnection>(
+                policy.getExecutor());
+        responses.submit(getResponseCode(request));
+
+        HttpURLConnection hedge = null;
+        HttpURLConnection winner = null;
+        HttpURLConnection firstUnsettled = null;
+        Exception firstError = null;
+        try {
+            Future<HttpURLConnection> completed = responses.poll(delayInMs, TimeUnit.MILLISECONDS);
+            if (completed == null && policy.tryHedge()) {
+                Logger.info(opContext, LogConstants.HEDGE_REQUEST, delayInMs, hedgeLocation);
+                try {
+                    hedge = setupHedgeRequest(client, parentObject, task, hedgeLocation, opContext);
+                    responses.submit(getResponseCode(hedge));
+                }
+                catch (final Exception e) {
+                    // The request can still complete on its own, ignore the hedge.
+                    Logger.warn(opContext, LogConstants.RETRYABLE_EXCEPTION, e.getClass().getName(), e.getMessage());
+                    hedge = null;
+                }
+            }
+
+            // Use the first response which settles the read, for instance not a 404 from a lagging secondary, while
+            // the other request may still answer.
+            int outstandingCount = hedge == null ? 1 : 2;
+            while (winner == null && outstandingCount > 0) {
+                final Future<HttpURLConnection> response = completed != null ? completed : responses.take();
+                completed = null;
+                outstandingCount--;
+                try {
+                    final HttpURLConnection connection = response.get();
+                    final StorageLocation location = connection == hedge ? hedgeLocation : task.getCurrentLocation();
+                    if (policy.isSettlingResponse(connection.getResponseCode(), location)) {
+                        winner = connection;
+                    }
+                    else if (firstUnsettled == null) {
+                        firstUnsettled = connection;
+                    }
+                }
+                catch (final ExecutionException e) {
+                    if (firstError == null) {
+                        firstError = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    }
+                }
+            }
+
+            if (winner == null) {
+                winner = firstUnsettled;
+            }
+        }
+        finally {
+            if (winner != request) {
+                request.disconnect();
+            }
+
+            if (hedge != null && winner != hedge) {
+                hedge.disconnect();
+            }
+        }
+
+        if (winner == null) {
+            throw firstError;
+        }
+
+        // If the hedge won, the time until it answered is a lower bound of the latency of the request.
+        policy.recordLatency(operation, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        if (winner == hedge) {
+            policy.onHedgeWon();
+            Logger.info(opContext, LogConstants.HEDGE_WON, hedgeLocation);
+            task.setCurrentLocation(hedgeLocation);
+            task.getResult().setTargetLocation(hedgeLocation);
+            task.setConnection(hedge);
+        }
+
+        return winner;
+    }
+
+    /**
+     * Builds, signs and returns the same request as the task's for the specified location.
+     */
+    private static <CLIENT_TYPE, PARENT_TYPE, RESULT_TYPE> HttpURLConnection setupHedgeRequest(
+            final CLIENT_TYPE client, final PARENT_TYPE parentObject,
+            final StorageRequest<CLIENT_TYPE, PARENT_TYPE, RESULT_TYPE> task, final StorageLocation location,
+            final OperationContext opContext) throws Exception {
+        final StorageLocation currentLocation = task.getCurrentLocation();
+        task.setCurrentLocation(location);
+        try {
+            final HttpURLConnection request = task.buildRequest(client, parentObject, opContext);
+            task.setHeaders(request, parentObject, opContext);
+
+            if (opContext.getUserHeaders() != null) {
+                for (final Entry<String, String> entry : opContext.getUserHeaders().entrySet()) {
+                    request.setRequestProperty(entry.getKey(), entry.getValue());
+                }
+            }
+
+            ExecutionEngine.fireSendingRequestEvent(opContext, request, task.getResult());
+            task.signRequest(request, client, opContext);
+            return request;
+        }
+        finally {
+            task.setCurrentLocation(currentLocation);
+        }
+    }
+
+    /**
+     * Returns a task which waits for the response status of a request.
+     */
+    private static Callable<HttpURLConnection> getResponseCode(final HttpURLConnection request) {
+        return new Callable<HttpURLConnection>() {
+            @Override
+            public HttpURLConnection call() throws IOException {
+                request.getResponseCode();
+                return request;
+            }
+        };
+    }
+
     private static StorageLocation getNextLocation(StorageLocation lastLocation, LocationMode locationMode) {
         switch (locationMode) {
             case PRIMARY_ONLY:
@@ -0,0 +1,140 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.microsoft.azure.storage.ResultConsumer;
+import com.microsoft.azure.storage.StorageException;
+
+/**
+ * RESERVED FOR INTERNAL USE. Passes the results parsed by a listing handler to a {@link ResultConsumer} as they are
+ * parsed. A sink is used for every segment of a listing, and tracks how many results of the current segment have been
+ * delivered so that a retried segment resumes after them.
+ * 
+ * @param <T>
+ *            The type of the results.
+ */
+public final class ListingSink<T> {
+
+    /**
+     * Thrown from within the parse to abandon the rest of the response.
+     */
+    private final SAXException abort = new SAXException(ListingSink.class.getName());
+
+    private final ResultConsumer<? super T> consumer;
+
+    /**
+     * The number of results of the current segment which have been delivered, including by earlier attempts.
+     */
+    private int delivered;
+
+    /**
+     * The index of the next result of the current attempt.
+     */
+    private int position;
+
+    private boolean stopped;
+
+    private RuntimeException failure;
+
+    /**
+     * Creates an instance of the <code>ListingSink</code> class.
+     * 
+     * @param consumer
+     *            The {@link ResultConsumer} which receives the results.
+     */
+    public ListingSink(final ResultConsumer<? super T> consumer) {
+        Utility.assertNotNull("consumer", consumer);
+        this.consumer = consumer;
+    }
+
+    /**
+     * Parses one segment of the listing.
+     * 
+     * @param stream
+     *            An <code>InputStream</code> object that represents the listing response.
+     * @param handler
+     *            The listing handler, which calls {@link #accept} with each result.
+     * 
+     * @throws ParserConfigurationException
+     * @throws SAXException
+     * @throws IOException
+     * @throws StorageException
+     *             If the consumer threw an exception.
+     */
+    public void parse(final InputStream stream, final DefaultHandler handler) throws ParserConfigurationException,
+            SAXException, IOException, StorageException {
+        this.position = 0;
+        try {
+            Utility.parseXml(stream, handler);
+        }
+        catch (final SAXException e) {
+            if (e != this.abort && e.getException() != this.abort) {
+                throw e;
+            }
+            else if (this.failure != null) {
+                throw StorageException.translateClientException(this.failure);
+            }
+
+            return;
+        }
+
+        this.delivered = 0;
+    }
+
+    /**
+     * Delivers a result to the consumer unless an earlier attempt at the segment already delivered it.
+     * 
+     * @param result
+     *            The result.
+     * 
+     * @throws SAXException
+     *             To stop the parse when the consumer stops the listing or fails.
+     */
+    public void accept(final T result) throws SAXException {
+        if (this.position++ < this.delivered) {
+            return;
+        }
+
+        this.delivered++;
+        try {
+            this.stopped = !this.consumer.accept(result);
+        }
+        catch (final RuntimeException e) {
+            this.stopped = true;
+            this.failure = e;
+        }
+
+        if (this.stopped) {
+            throw this.abort;
+        }
+    }
+
+    /**
+     * Gets whether the consumer has stopped the listing.
+     * 
+     * @return <code>true</code> if no further segments should be requested.
+     */
+    public boolean isStopped() {
+        return this.stopped;
+    }
+}
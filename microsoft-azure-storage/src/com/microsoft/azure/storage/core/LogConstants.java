@@ -24,7 +24,10 @@ public class LogConstants {
     public static final String DO_NOT_RETRY_TIMEOUT = "Operation cannot be retried because maximum execution timeout has been reached. Failing. Inner error Message = '%s'.";
     public static final String ERROR_RECEIVING_RESPONSE = "A network error occurred before the HTTP response status and headers were received.";
     public static final String GET_RESPONSE = "Waiting for response.";
+    public static final String HEDGE_REQUEST = "No response after '%d'ms, hedging the request to location '%s'.";
+    public static final String HEDGE_WON = "The hedged request to location '%s' answered first.";
     public static final String INIT_LOCATION = "Starting operation with location '%s' per location mode '%s'.";
+    public static final String LOCATION_UNHEALTHY = "Location '%s' is unhealthy, starting operation with location '%s'.";
     public static final String NEXT_LOCATION = "The next location has been set to '%s', per location mode '%s'.";
     public static final String POST_PROCESS = "Processing response body.";
     public static final String POST_PROCESS_DONE = "Response body was parsed successfully.";
@@ -32,6 +35,7 @@ public class LogConstants {
     public static final String PRE_PROCESS_DONE = "Response headers were processed successfully.";
     public static final String RESPONSE_RECEIVED = "Response received. Status code = '%d', Request ID = '%s', Content-MD5 = '%s', ETag = '%s', Date = '%s'.";
     public static final String RETRY = "Retrying failed operation.";
+    public static final String RETRY_BUDGET_EXHAUSTED = "Retry budget is exhausted, the operation will not be retried. %s.";
     public static final String RETRY_CHECK = "Checking if the operation should be retried. Retry count = '%d', HTTP status code = '%d', Error Message = '%s'.";
     public static final String RETRY_DELAY = "Operation will be retried after '%d'ms.";
     public static final String RETRY_INFO = "The retry policy set the next location to '%s' and updated the location mode to '%s'.";
@@ -0,0 +1,85 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+
+import com.microsoft.azure.storage.Constants;
+
+/**
+ * RESERVED FOR INTERNAL USE. A channel which writes to an output stream. The contents of heap buffers are written to
+ * the stream without an intermediate copy; the contents of direct buffers are copied through a bounded transfer buffer.
+ */
+public final class OutputStreamWriteChannel implements WritableByteChannel {
+
+    private final OutputStream outputStream;
+
+    private byte[] transferBuffer;
+
+    private boolean open = true;
+
+    /**
+     * Creates an instance of the <code>OutputStreamWriteChannel</code> class.
+     * 
+     * @param outputStream
+     *            the {@link OutputStream} to write to. It is closed when the channel is closed.
+     */
+    public OutputStreamWriteChannel(final OutputStream outputStream) {
+        this.outputStream = outputStream;
+    }
+
+    @Override
+    public int write(final ByteBuffer src) throws IOException {
+        if (!this.open) {
+            throw new ClosedChannelException();
+        }
+
+        final int count = src.remaining();
+        if (src.hasArray()) {
+            this.outputStream.write(src.array(), src.arrayOffset() + src.position(), count);
+            src.position(src.limit());
+            return count;
+        }
+
+        if (this.transferBuffer == null) {
+            this.transferBuffer = new byte[Constants.BUFFER_COPY_LENGTH];
+        }
+
+        while (src.hasRemaining()) {
+            final int chunk = Math.min(src.remaining(), this.transferBuffer.length);
+            src.get(this.transferBuffer, 0, chunk);
+            this.outputStream.write(this.transferBuffer, 0, chunk);
+        }
+
+        return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.open) {
+            this.open = false;
+            this.outputStream.close();
+        }
+    }
+}
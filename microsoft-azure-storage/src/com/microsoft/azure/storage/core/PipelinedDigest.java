@@ -0,0 +1,154 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.core;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RESERVED FOR INTERNAL USE. Computes a digest of a sequence of buffers on a background thread, so that the thread
+ * producing the buffers does not spend its time hashing.
+ * <p>
+ * Buffers are hashed in the order they are passed to {@link #update(byte[])}, one at a time, by a thread of a pool
+ * shared by all pipelines. The buffers must not be modified once passed. At most a given number of buffers are
+ * pending, after which {@link #update(byte[])} waits for the digest to catch up.
+ */
+public final class PipelinedDigest {
+
+    /**
+     * Holds the threads hashing the buffers of all pipelines. Each pipeline uses at most one thread at a time.
+     */
+    private static final ThreadPoolExecutor DIGEST_EXECUTOR;
+
+    static {
+        final int threadCount = Runtime.getRuntime().availableProcessors();
+        DIGEST_EXECUTOR = new ThreadPoolExecutor(threadCount, threadCount, 10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        final Thread thread = new Thread(r, "azure-storage-digest");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        DIGEST_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private final MessageDigest digest;
+
+    private final int maximumPendingCount;
+
+    /**
+     * Holds the buffers not hashed yet, guarded by this.
+     */
+    private final ArrayDeque<byte[]> pendingBuffers = new ArrayDeque<byte[]>();
+
+    /**
+     * Indicates whether a thread is hashing the pending buffers, guarded by this.
+     */
+    private boolean isRunning;
+
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            PipelinedDigest.this.drain();
+        }
+    };
+
+    /**
+     * Creates a pipeline updating the specified digest.
+     * 
+     * @param digest
+     *            The <code>MessageDigest</code> to update.
+     * @param maximumPendingCount
+     *            The maximum number of buffers waiting to be hashed.
+     */
+    public PipelinedDigest(final MessageDigest digest, final int maximumPendingCount) {
+        Utility.assertNotNull("digest", digest);
+        Utility.assertGreaterThanOrEqual("maximumPendingCount", maximumPendingCount, 1);
+
+        this.digest = digest;
+        this.maximumPendingCount = maximumPendingCount;
+    }
+
+    /**
+     * Queues the specified buffer to be hashed, waiting if too many buffers are pending.
+     * 
+     * @param buffer
+     *            The data to hash.
+     * @throws IOException
+     *             If the thread was interrupted while waiting.
+     */
+    public synchronized void update(final byte[] buffer) throws IOException {
+        try {
+            while (this.pendingBuffers.size() >= this.maximumPendingCount) {
+                this.wait();
+            }
+        }
+        catch (final InterruptedException e) {
+            throw Utility.initIOException(e);
+        }
+
+        this.pendingBuffers.add(buffer);
+        if (!this.isRunning) {
+            this.isRunning = true;
+            DIGEST_EXECUTOR.execute(this.drainTask);
+        }
+    }
+
+    /**
+     * Waits for all the pending buffers to be hashed and completes the digest.
+     * 
+     * @return the digest.
+     * @throws IOException
+     *             If the thread was interrupted while waiting.
+     */
+    public synchronized byte[] digest() throws IOException {
+        try {
+            while (this.isRunning) {
+                this.wait();
+            }
+        }
+        catch (final InterruptedException e) {
+            throw Utility.initIOException(e);
+        }
+
+        return this.digest.digest();
+    }
+
+    /**
+     * Hashes the pending buffers until there are none left.
+     */
+    private void drain() {
+        while (true) {
+            final byte[] buffer;
+            synchronized (this) {
+                buffer = this.pendingBuffers.poll();
+                this.notifyAll();
+                if (buffer == null) {
+                    this.isRunning = false;
+                    return;
+                }
+            }
+
+            this.digest.update(buffer);
+        }
+    }
+}
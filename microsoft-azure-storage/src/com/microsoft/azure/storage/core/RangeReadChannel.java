@@ -0,0 +1,147 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+
+import com.microsoft.azure.storage.StorageException;
+
+/**
+ * RESERVED FOR INTERNAL USE. A channel which reads a blob or file sequentially by downloading ranges.
+ * <p>
+ * A read into a buffer with at least the minimum read size remaining, or with room for the rest of the content, is
+ * downloaded directly into that buffer. Smaller reads are served from a read-ahead buffer of the minimum read size.
+ */
+public abstract class RangeReadChannel implements ReadableByteChannel {
+
+    private final long length;
+
+    private final int minimumReadSize;
+
+    private final int maximumReadSize;
+
+    private long position;
+
+    private ByteBuffer readAhead;
+
+    private boolean open = true;
+
+    /**
+     * Creates an instance of the <code>RangeReadChannel</code> class.
+     * 
+     * @param length
+     *            the length of the content.
+     * @param minimumReadSize
+     *            the minimum number of bytes downloaded at once.
+     * @param maximumReadSize
+     *            the maximum number of bytes downloaded at once.
+     */
+    protected RangeReadChannel(final long length, final int minimumReadSize, final int maximumReadSize) {
+        this.length = length;
+        this.minimumReadSize = Math.min(minimumReadSize, maximumReadSize);
+        this.maximumReadSize = maximumReadSize;
+    }
+
+    /**
+     * Downloads a range of the content into the specified buffer, starting at its position.
+     * 
+     * @param offset
+     *            the offset of the range.
+     * @param count
+     *            the length of the range.
+     * @param target
+     *            the {@link ByteBuffer} to download into.
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    protected abstract void downloadRange(long offset, long count, ByteBuffer target) throws StorageException;
+
+    /**
+     * Gets the position of the next byte to read.
+     * 
+     * @return the position.
+     */
+    public long getPosition() {
+        return this.position;
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        if (!this.open) {
+            throw new ClosedChannelException();
+        }
+
+        if (this.readAhead != null && this.readAhead.hasRemaining()) {
+            final int count = Math.min(dst.remaining(), this.readAhead.remaining());
+            final ByteBuffer source = this.readAhead.duplicate();
+            source.limit(source.position() + count);
+            dst.put(source);
+            this.readAhead.position(source.position());
+            this.position += count;
+            return count;
+        }
+
+        if (this.position >= this.length) {
+            return -1;
+        }
+
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+
+        final long remaining = this.length - this.position;
+        try {
+            if (dst.remaining() >= this.minimumReadSize || dst.remaining() >= remaining) {
+                final int count = (int) Math.min(Math.min(dst.remaining(), remaining), this.maximumReadSize);
+                final ByteBuffer target = dst.duplicate();
+                target.limit(target.position() + count);
+                this.downloadRange(this.position, count, target);
+
+                final int read = target.position() - dst.position();
+                dst.position(target.position());
+                this.position += read;
+                return read;
+            }
+
+            if (this.readAhead == null) {
+                this.readAhead = ByteBuffer.allocate(this.minimumReadSize);
+            }
+
+            this.readAhead.clear();
+            this.readAhead.limit((int) Math.min(this.minimumReadSize, remaining));
+            this.downloadRange(this.position, this.readAhead.limit(), this.readAhead);
+            this.readAhead.flip();
+        }
+        catch (final StorageException e) {
+            throw Utility.initIOException(e);
+        }
+
+        return this.read(dst);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.open;
+    }
+
+    @Override
+    public void close() {
+        this.open = false;
+        this.readAhead = null;
+    }
+}
@@ -26,6 +26,7 @@ public class SR {
     public static final String ARGUMENT_OUT_OF_RANGE_ERROR = "The argument is out of range. Argument name: %s, Value passed: %s.";
     public static final String ATTEMPTED_TO_SERIALIZE_INACCESSIBLE_PROPERTY = "An attempt was made to access an inaccessible member of the entity during serialization.";
     public static final String BLOB = "blob";
+    public static final String BLOB_CACHE_DIRECTORY_NOT_CREATED = "The blob cache directory %s does not exist and could not be created.";
     public static final String BLOB_DATA_CORRUPTED = "Blob data corrupted (integrity check failed), Expected value is %s, retrieved %s";
     public static final String BLOB_ENDPOINT_NOT_CONFIGURED = "No blob endpoint configured.";
     public static final String BLOB_HASH_MISMATCH = "Blob hash mismatch (integrity check failed), Expected value is %s, retrieved %s.";
@@ -37,6 +38,8 @@ public class SR {
     public static final String CANNOT_TRANSFORM_NON_HTTPS_URI_WITH_HTTPS_ONLY_CREDENTIALS = "Cannot use HTTP with credentials that only support HTTPS.";
     public static final String CONTAINER = "container";
     public static final String CONTENT_LENGTH_MISMATCH = "An incorrect number of bytes was read from the connection. The connection may have been closed.";
+    public static final String COPY_ID_MISMATCH = "The copy %s was replaced by another copy (%s) on the destination blob.";
+    public static final String COPY_NOT_COMPLETED = "The copy %s ended with the status %s. Status description: %s.";
     public static final String CREATING_NETWORK_STREAM = "Creating a NetworkInputStream and expecting to read %s bytes.";
     public static final String CREDENTIALS_CANNOT_SIGN_REQUEST = "CloudBlobClient, CloudQueueClient and CloudTableClient require credentials that can sign a request.";
     public static final String CUSTOM_RESOLVER_THREW = "The custom property resolver delegate threw an exception. Check the inner exception for more details.";
@@ -65,6 +68,7 @@ public class SR {
     public static final String FILE_ENDPOINT_NOT_CONFIGURED = "No file endpoint configured.";
     public static final String FILE_HASH_MISMATCH = "File hash mismatch (integrity check failed), Expected value is %s, retrieved %s.";
     public static final String FILE_MD5_NOT_POSSIBLE = "MD5 cannot be calculated for an existing file because it would require reading the existing data. Please disable StoreFileContentMD5.";
+    public static final String FILE_TOO_LARGE_FOR_BLOCK_SIZE = "The file is too large to upload as at most %d blocks of %d bytes.";
     public static final String INCORRECT_STREAM_LENGTH = "An incorrect stream length was specified, resulting in an authentication failure. Please specify correct length, or -1.";
     public static final String INPUT_STREAM_SHOULD_BE_MARKABLE = "Input stream must be markable.";
     public static final String INVALID_ACCOUNT_NAME = "Invalid account name.";
@@ -103,6 +107,9 @@ public class SR {
     public static final String INVALID_STREAM_LENGTH = "Invalid stream length; stream must be between 0 and %s MB in length.";
     public static final String ITERATOR_EMPTY = "There are no more elements in this enumeration.";
     public static final String LEASE_CONDITION_ON_SOURCE = "A lease condition cannot be specified on the source of a copy.";
+    public static final String LEASE_NOT_MANAGED = "The lease is no longer held or is no longer renewed by the lease manager.";
+    public static final String LOG_FIELD_NOT_SELECTED = "The log record field %s was not selected for this enumeration.";
+    public static final String LOG_FIELD_PARSE_ERROR = "Error parsing log record: the value of field %s could not be parsed.";
     public static final String LOG_STREAM_END_ERROR = "Error parsing log record: unexpected end of stream.";
     public static final String LOG_STREAM_DELIMITER_ERROR = "Error parsing log record: unexpected delimiter encountered.";
     public static final String LOG_STREAM_QUOTE_ERROR = "Error parsing log record: unexpected quote character encountered.";
@@ -111,6 +118,8 @@ public class SR {
     public static final String MAXIMUM_EXECUTION_TIMEOUT_EXCEPTION = "The client could not finish the operation within specified maximum execution timeout.";
     public static final String METADATA_KEY_INVALID = "The key for one of the metadata key-value pairs is null, empty, or whitespace.";
     public static final String METADATA_VALUE_INVALID = "The value for one of the metadata key-value pairs is null, empty, or whitespace.";
+    public static final String METRICS_COLUMN_NOT_AGGREGATED = "The column %s was not aggregated.";
+    public static final String METRICS_INTERVAL_INVALID = "The aggregation interval must be a positive multiple of %s milliseconds.";
     public static final String MISSING_CREDENTIALS = "No credentials provided.";
     public static final String MISSING_MANDATORY_DATE_HEADER = "Canonicalization did not find a non-empty x-ms-date header in the request. Please use a request with a valid x-ms-date header in RFC 123 format.";
     public static final String MISSING_MANDATORY_PARAMETER_FOR_SAS = "Missing mandatory parameters for valid Shared Access Signature.";
@@ -157,6 +166,7 @@ public class SR {
     public static final String STREAM_CLOSED = "Stream is already closed.";
     public static final String STREAM_LENGTH_GREATER_THAN_4MB = "Invalid stream length, length must be less than or equal to 4 MB in size.";
     public static final String STREAM_LENGTH_NEGATIVE = "Invalid stream length, specify -1 for unknown length stream, or a positive number of bytes.";
+    public static final String STREAM_TOO_LARGE_FOR_BLOCK_COUNT = "The stream is too large to upload as at most %d blocks.";
     public static final String STRING_NOT_VALID = "The String is not a valid Base64-encoded string.";
     public static final String TABLE = "table";
     public static final String TABLE_ENDPOINT_NOT_CONFIGURED = "No table endpoint configured.";
@@ -29,6 +29,7 @@ import com.microsoft.azure.storage.SharedAccessAccountPolicy;
 import com.microsoft.azure.storage.SharedAccessHeaders;
 import com.microsoft.azure.storage.SharedAccessPolicy;
 import com.microsoft.azure.storage.SharedAccessProtocols;
+import com.microsoft.azure.storage.SharedAccessSignatureCache;
 import com.microsoft.azure.storage.StorageCredentials;
 import com.microsoft.azure.storage.StorageCredentialsSharedAccessSignature;
 import com.microsoft.azure.storage.StorageException;
@@ -250,14 +251,19 @@ public class SharedAccessSignatureHelper {
         }
         
         
-        String stringToSign = String.format("%s\n%s\n%s\n%s\n%s\n%s\n%s\n%s\n%s\n",
-                accountName, permissions == null ? Constants.EMPTY_STRING : permissions, services, resourceTypes,
-                Utility.getUTCTimeOrEmpty(startTime), Utility.getUTCTimeOrEmpty(expiryTime),
-                ipRange == null ? Constants.EMPTY_STRING : ipRange.toString(),
-                protocols == null ? Constants.EMPTY_STRING : protocols.toString(),
-                Constants.HeaderConstants.TARGET_STORAGE_VERSION);
-
-        return generateSharedAccessSignatureHashHelper(stringToSign, creds);
+        final StringBuilder stringToSign = new StringBuilder(256);
+        stringToSign.append(accountName).append('\n');
+        stringToSign.append(permissions == null ? Constants.EMPTY_STRING : permissions).append('\n');
+        stringToSign.append(services).append('\n');
+        stringToSign.append(resourceTypes).append('\n');
+        stringToSign.append(Utility.getUTCTimeOrEmpty(startTime)).append('\n');
+        stringToSign.append(Utility.getUTCTimeOrEmpty(expiryTime)).append('\n');
+        stringToSign.append(ipRange == null ? Constants.EMPTY_STRING : ipRange.toString()).append('\n');
+        stringToSign.append(protocols == null ? Constants.EMPTY_STRING : protocols.toString()).append('\n');
+        stringToSign.append(Constants.HeaderConstants.TARGET_STORAGE_VERSION).append('\n');
+
+        return generateSharedAccessSignatureHashHelper(stringToSign.toString(), creds, null /* cache */,
+                null /* expiryTime */);
     }
 
     /**
@@ -287,7 +293,7 @@ public class SharedAccessSignatureHelper {
             final IPRange ipRange, final SharedAccessProtocols protocols, final ServiceClient client)
             throws InvalidKeyException, StorageException {
         
-        String stringToSign = generateSharedAccessSignatureStringToSign(
+        final StringBuilder stringToSign = generateSharedAccessSignatureStringToSign(
                 policy, resourceName, ipRange, protocols, accessPolicyIdentifier);
 
         String cacheControl = null;
@@ -303,14 +309,14 @@ public class SharedAccessSignatureHelper {
             contentType = headers.getContentType();
         }
             
-        stringToSign = String.format("%s\n%s\n%s\n%s\n%s\n%s", stringToSign,
-                cacheControl == null ? Constants.EMPTY_STRING : cacheControl,
-                contentDisposition == null ? Constants.EMPTY_STRING : contentDisposition,
-                contentEncoding == null ? Constants.EMPTY_STRING : contentEncoding,
-                contentLanguage == null ? Constants.EMPTY_STRING : contentLanguage,
-                contentType == null ? Constants.EMPTY_STRING : contentType);
-        
-        return generateSharedAccessSignatureHashHelper(stringToSign, client.getCredentials());
+        stringToSign.append('\n').append(cacheControl == null ? Constants.EMPTY_STRING : cacheControl);
+        stringToSign.append('\n').append(contentDisposition == null ? Constants.EMPTY_STRING : contentDisposition);
+        stringToSign.append('\n').append(contentEncoding == null ? Constants.EMPTY_STRING : contentEncoding);
+        stringToSign.append('\n').append(contentLanguage == null ? Constants.EMPTY_STRING : contentLanguage);
+        stringToSign.append('\n').append(contentType == null ? Constants.EMPTY_STRING : contentType);
+
+        return generateSharedAccessSignatureHashHelper(stringToSign.toString(), client.getCredentials(),
+                client.getSharedAccessSignatureCache(), policy == null ? null : policy.getSharedAccessExpiryTime());
     }
 
     /**
@@ -339,10 +345,11 @@ public class SharedAccessSignatureHelper {
             final IPRange ipRange, final SharedAccessProtocols protocols, final ServiceClient client)
             throws InvalidKeyException, StorageException {
         
-        final String stringToSign = generateSharedAccessSignatureStringToSign(
+        final StringBuilder stringToSign = generateSharedAccessSignatureStringToSign(
                 policy, resourceName, ipRange, protocols, accessPolicyIdentifier);
-        
-        return generateSharedAccessSignatureHashHelper(stringToSign, client.getCredentials());
+
+        return generateSharedAccessSignatureHashHelper(stringToSign.toString(), client.getCredentials(),
+                client.getSharedAccessSignatureCache(), policy == null ? null : policy.getSharedAccessExpiryTime());
     }
 
     /**
@@ -379,16 +386,16 @@ public class SharedAccessSignatureHelper {
             final String startRowKey, final String endPartitionKey, final String endRowKey, final ServiceClient client)
             throws InvalidKeyException, StorageException {
 
-        String stringToSign = generateSharedAccessSignatureStringToSign(
+        final StringBuilder stringToSign = generateSharedAccessSignatureStringToSign(
                 policy, resourceName, ipRange, protocols, accessPolicyIdentifier);
-        
-        stringToSign = String.format("%s\n%s\n%s\n%s\n%s", stringToSign,
-                startPartitionKey == null ? Constants.EMPTY_STRING : startPartitionKey,
-                startRowKey == null ? Constants.EMPTY_STRING : startRowKey,
-                endPartitionKey == null ? Constants.EMPTY_STRING : endPartitionKey,
-                endRowKey == null ? Constants.EMPTY_STRING : endRowKey);
-        
-        return generateSharedAccessSignatureHashHelper(stringToSign, client.getCredentials());
+
+        stringToSign.append('\n').append(startPartitionKey == null ? Constants.EMPTY_STRING : startPartitionKey);
+        stringToSign.append('\n').append(startRowKey == null ? Constants.EMPTY_STRING : startRowKey);
+        stringToSign.append('\n').append(endPartitionKey == null ? Constants.EMPTY_STRING : endPartitionKey);
+        stringToSign.append('\n').append(endRowKey == null ? Constants.EMPTY_STRING : endRowKey);
+
+        return generateSharedAccessSignatureHashHelper(stringToSign.toString(), client.getCredentials(),
+                client.getSharedAccessSignatureCache(), policy == null ? null : policy.getSharedAccessExpiryTime());
     }
 
     /**
@@ -575,21 +582,27 @@ public class SharedAccessSignatureHelper {
      *            The string to decode and hash
      * @param creds
      *            Reference to the {@link StorageCredentials.}.
+     * @param cache
+     *            The {@link SharedAccessSignatureCache} to look the signature up in, or <code>null</code>.
+     * @param expiryTime
+     *            The expiry time of the Shared Access Signature, if known, which bounds how long it is cached.
      * 
      * @return The signature hash embedded inside the Shared Access Signature.
      *         
      * @throws InvalidKeyException
      * @throws StorageException
      */
-    private static String generateSharedAccessSignatureHashHelper(String stringToSign, final StorageCredentials creds)
-            throws StorageException, InvalidKeyException {
+    private static String generateSharedAccessSignatureHashHelper(String stringToSign, final StorageCredentials creds,
+            final SharedAccessSignatureCache cache, final Date expiryTime) throws StorageException,
+            InvalidKeyException {
         
         Utility.assertNotNull("credentials", creds);
     
         Logger.debug(null, LogConstants.SIGNING, stringToSign);
 
         stringToSign = Utility.safeDecode(stringToSign);
-        final String signature = StorageCredentialsHelper.computeHmac256(creds, stringToSign);
+        final String signature = cache == null ? StorageCredentialsHelper.computeHmac256(creds, stringToSign) : cache
+                .getSignature(creds, stringToSign, expiryTime);
 
         Logger.verbose(null, LogConstants.SIGNING, stringToSign);
         
@@ -612,12 +625,12 @@ public class SharedAccessSignatureHelper {
      * @param accessPolicyIdentifier
      *            An optional identifier for the policy.
      *            
-     * @return The signature hash embedded inside the Shared Access Signature.
+     * @return The string to sign, to which service-specific fields may be appended.
      *         
      * @throws InvalidKeyException
      * @throws StorageException
      */
-    private static String generateSharedAccessSignatureStringToSign(
+    private static StringBuilder generateSharedAccessSignatureStringToSign(
             final SharedAccessPolicy policy, final String resource, final IPRange ipRange,
             final SharedAccessProtocols protocols, final String accessPolicyIdentifier)
             throws InvalidKeyException, StorageException {
@@ -634,13 +647,16 @@ public class SharedAccessSignatureHelper {
             expiryTime = policy.getSharedAccessExpiryTime();
         }
         
-        String stringToSign = String.format("%s\n%s\n%s\n%s\n%s\n%s\n%s\n%s",
-                permissions == null ? Constants.EMPTY_STRING : permissions,
-                Utility.getUTCTimeOrEmpty(startTime), Utility.getUTCTimeOrEmpty(expiryTime), resource,
-                accessPolicyIdentifier == null ? Constants.EMPTY_STRING : accessPolicyIdentifier,
-                ipRange == null ? Constants.EMPTY_STRING : ipRange.toString(),
-                protocols == null ? Constants.EMPTY_STRING : protocols.toString(),
-                Constants.HeaderConstants.TARGET_STORAGE_VERSION);
+        final StringBuilder stringToSign = new StringBuilder(256);
+        stringToSign.append(permissions == null ? Constants.EMPTY_STRING : permissions).append('\n');
+        stringToSign.append(Utility.getUTCTimeOrEmpty(startTime)).append('\n');
+        stringToSign.append(Utility.getUTCTimeOrEmpty(expiryTime)).append('\n');
+        stringToSign.append(resource).append('\n');
+        stringToSign.append(accessPolicyIdentifier == null ? Constants.EMPTY_STRING : accessPolicyIdentifier)
+                .append('\n');
+        stringToSign.append(ipRange == null ? Constants.EMPTY_STRING : ipRange.toString()).append('\n');
+        stringToSign.append(protocols == null ? Constants.EMPTY_STRING : protocols.toString()).append('\n');
+        stringToSign.append(Constants.HeaderConstants.TARGET_STORAGE_VERSION);
 
         return stringToSign;
     }
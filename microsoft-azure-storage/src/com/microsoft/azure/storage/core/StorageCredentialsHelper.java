@@ -63,7 +63,7 @@ public final class StorageCredentialsHelper {
      * @throws InvalidKeyException
      *             If the key is not a valid Base64-encoded string.
      */
-    public static synchronized String computeHmac256(final StorageCredentials creds, final String value) throws InvalidKeyException {
+    public static String computeHmac256(final StorageCredentials creds, final String value) throws InvalidKeyException {
         if (creds.getClass().equals(StorageCredentialsAccountAndKey.class)) {
             byte[] utf8Bytes = null;
             try {
@@ -72,7 +72,7 @@ public final class StorageCredentialsHelper {
             catch (final UnsupportedEncodingException e) {
                 throw new IllegalArgumentException(e);
             }
-            return Base64.encode(((StorageCredentialsAccountAndKey) creds).getHmac256().doFinal(utf8Bytes));
+            return Base64.encode(((StorageCredentialsAccountAndKey) creds).computeHmac256(utf8Bytes));
         }
         else {
             return null;
@@ -19,7 +19,6 @@ import java.io.InputStream;
 import java.util.Stack;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -48,9 +47,8 @@ final class StorageErrorHandler extends DefaultHandler {
      */
     public static StorageExtendedErrorInformation getExtendedErrorInformation(final InputStream stream)
             throws SAXException, IOException, ParserConfigurationException {
-        SAXParser saxParser = Utility.getSAXParser();
         StorageErrorHandler handler = new StorageErrorHandler();
-        saxParser.parse(stream, handler);
+        Utility.parseXml(stream, handler);
 
         return handler.errorInfo;
     }
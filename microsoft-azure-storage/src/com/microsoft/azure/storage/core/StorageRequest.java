@@ -129,6 +129,11 @@ public abstract class StorageRequest<C, P, R> {
      */
     private long currentRequestByteCount = 0;
 
+    /**
+     * Holds the table partition targeted by the request, used for rate limiting.
+     */
+    private String rateLimitPartitionKey = null;
+
     /**
      * Denotes whether the associated request has been sent.
      */
@@ -271,6 +276,13 @@ public abstract class StorageRequest<C, P, R> {
         return this.currentRequestByteCount;
     }
 
+    /**
+     * @return the table partition targeted by the request, or <code>null</code>
+     */
+    public String getRateLimitPartitionKey() {
+        return this.rateLimitPartitionKey;
+    }
+
     /**
      * @return the isSent value
      */
@@ -531,6 +543,14 @@ public abstract class StorageRequest<C, P, R> {
         this.currentRequestByteCount = currentRequestByteCount;
     }
 
+    /**
+     * @param rateLimitPartitionKey
+     *            the table partition targeted by the request
+     */
+    public void setRateLimitPartitionKey(String rateLimitPartitionKey) {
+        this.rateLimitPartitionKey = rateLimitPartitionKey;
+    }
+
     /**
      * Function to apply the location mode to the request.
      */
@@ -25,6 +25,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.text.DateFormat;
@@ -45,6 +46,7 @@ import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 import org.xmlpull.v1.XmlSerializer;
 
 import android.util.Log;
@@ -80,27 +82,6 @@ public final class Utility {
      */
     public static final Locale LOCALE_US = Locale.US;
 
-    /**
-     * Stores a reference to the RFC1123 date/time pattern.
-     */
-    private static final String RFC1123_GMT_PATTERN = "EEE, dd MMM yyyy HH:mm:ss 'GMT'";
-
-    /**
-     * Stores a reference to the ISO8601 date/time pattern.
-     */
-    private static final String ISO8601_PATTERN_NO_SECONDS = "yyyy-MM-dd'T'HH:mm'Z'";
-
-    /**
-     * Stores a reference to the ISO8601 date/time pattern.
-     */
-    private static final String ISO8601_PATTERN = "yyyy-MM-dd'T'HH:mm:ss'Z'";
-
-    /**
-     * Stores a reference to the Java version of ISO8601_LONG date/time pattern.  The full version cannot be used
-     * because Java Dates have millisecond precision.
-     */
-    private static final String JAVA_ISO8601_PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
-    
     /**
      * List of ports used for path style addressing.
      */
@@ -113,15 +94,16 @@ public final class Utility {
     private static final SAXParserFactory factory = SAXParserFactory.newInstance();
 
     /**
-     * Stores a reference to the date/time pattern with the greatest precision Java.util.Date is capable of expressing.
+     * Holds an idle <code>SAXParser</code> for each thread. The slot is emptied while the parser is in use, so a
+     * parse started from within another parse on the same thread creates its own parser.
      */
-    private static final String MAX_PRECISION_PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSS";
-    
-    /**
-     * The length of a datestring that matches the MAX_PRECISION_PATTERN.
-     */
-    private static final int MAX_PRECISION_DATESTRING_LENGTH = MAX_PRECISION_PATTERN.replaceAll("'", "").length();
-    
+    private static final ThreadLocal<SAXParser[]> threadSAXParser = new ThreadLocal<SAXParser[]>() {
+        @Override
+        protected SAXParser[] initialValue() {
+            return new SAXParser[1];
+        }
+    };
+
     /**
      * 
      * Determines the size of an input stream, and optionally calculates the MD5 hash for the stream.
@@ -438,11 +420,9 @@ public final class Utility {
      * @return A {@link StorageException} object that represents the unexpected storage exception being thrown.
      */
     public static StorageException generateNewUnexpectedStorageException(final Exception cause) {
-        final StorageException exceptionRef = new StorageException(StorageErrorCode.NONE.toString(),
+        return new StorageException(StorageErrorCode.NONE.toString(),
                 "Unexpected internal storage client error.", 306, // unused
-                null, null);
-        exceptionRef.initCause(cause);
-        return exceptionRef;
+                null, cause);
     }
 
     /**
@@ -483,9 +463,7 @@ public final class Utility {
      *         pattern.
      */
     public static String getGMTTime(final Date date) {
-        final DateFormat formatter = new SimpleDateFormat(RFC1123_GMT_PATTERN, LOCALE_US);
-        formatter.setTimeZone(GMT_ZONE);
-        return formatter.format(date);
+        return DateCodec.formatRFC1123(date);
     }
 
     /**
@@ -500,9 +478,7 @@ public final class Utility {
      *            of the ISO8601 pattern.
      */
     public static String getJavaISO8601Time(Date date) {
-        final DateFormat formatter = new SimpleDateFormat(JAVA_ISO8601_PATTERN, LOCALE_US);
-        formatter.setTimeZone(UTC_ZONE);
-        return formatter.format(date);
+        return DateCodec.formatISO8601Millis(date);
     }
     
     /**
@@ -517,6 +493,42 @@ public final class Utility {
         factory.setNamespaceAware(true);
         return factory.newSAXParser();
     }
+
+    /**
+     * Parses the specified stream with a namespace aware <code>SAXParser</code> which is reused by later calls on the
+     * same thread.
+     * 
+     * @param stream
+     *            An <code>InputStream</code> object that represents the XML document to parse.
+     * @param handler
+     *            The <code>DefaultHandler</code> which receives the parse events.
+     * 
+     * @throws ParserConfigurationException
+     * @throws SAXException
+     * @throws IOException
+     */
+    public static void parseXml(final InputStream stream, final DefaultHandler handler)
+            throws ParserConfigurationException, SAXException, IOException {
+        final SAXParser[] slot = threadSAXParser.get();
+        SAXParser parser = slot[0];
+        slot[0] = null;
+        if (parser == null) {
+            parser = getSAXParser();
+        }
+
+        try {
+            parser.parse(stream, handler);
+        }
+        finally {
+            try {
+                parser.reset();
+                slot[0] = parser;
+            }
+            catch (UnsupportedOperationException e) {
+                // Parsers which cannot be reset are not reused.
+            }
+        }
+    }
     
     /**
      * Returns the standard header value from the specified connection request, or an empty string if no header value
@@ -552,10 +564,7 @@ public final class Utility {
             return Constants.EMPTY_STRING;
         }
 
-        final DateFormat iso8601Format = new SimpleDateFormat(ISO8601_PATTERN, LOCALE_US);
-        iso8601Format.setTimeZone(UTC_ZONE);
-
-        return iso8601Format.format(value);
+        return DateCodec.formatISO8601(value);
     }
 
     /**
@@ -682,9 +691,7 @@ public final class Utility {
      *             If the specified string is invalid.
      */
     public static Date parseRFC1123DateFromStringInGMT(final String value) throws ParseException {
-        final DateFormat format = new SimpleDateFormat(RFC1123_GMT_PATTERN, Utility.LOCALE_US);
-        format.setTimeZone(GMT_ZONE);
-        return format.parse(value);
+        return DateCodec.parseRFC1123(value);
     }
 
     /**
@@ -1192,6 +1199,11 @@ public final class Utility {
             writeLength = Long.MAX_VALUE;
         }
 
+        if (outStream instanceof ByteBufferOutputStream) {
+            return readToByteBuffer(sourceStream, ((ByteBufferOutputStream) outStream).getBuffer(), writeLength,
+                    calculateMD5, options, request, descriptor);
+        }
+
         final byte[] retrievedBuff = new byte[Constants.BUFFER_COPY_LENGTH];
         int nextCopy = (int) Math.min(retrievedBuff.length, writeLength);
         int count = sourceStream.read(retrievedBuff, 0, nextCopy);
@@ -1232,6 +1244,77 @@ public final class Utility {
         return descriptor;
     }
 
+    /**
+     * Reads data from an input stream directly into a byte buffer, starting at its position. The data is read into the
+     * backing array of a heap buffer, and through a bounded transfer array for a direct buffer. If the buffer fills up
+     * before the end of the stream, an <code>IOException</code> is thrown.
+     */
+    private static StreamMd5AndLength readToByteBuffer(final InputStream sourceStream, final ByteBuffer target,
+            final long writeLength, final boolean calculateMD5, final RequestOptions options,
+            final StorageRequest<?, ?, Integer> request, final StreamMd5AndLength descriptor) throws IOException {
+        byte[] transferBuff = null;
+        while (descriptor.getLength() < writeLength) {
+
+            // if maximum execution time would be exceeded
+            if (Utility.validateMaxExecutionTimeout(options.getOperationExpiryTimeInMs())) {
+                // throw an exception
+                TimeoutException timeoutException = new TimeoutException(SR.MAXIMUM_EXECUTION_TIMEOUT_EXCEPTION);
+                throw Utility.initIOException(timeoutException);
+            }
+
+            final int nextCopy = (int) Math.min(target.remaining(), writeLength - descriptor.getLength());
+            if (nextCopy == 0) {
+                // The buffer is full, so the stream must be at its end.
+                if (sourceStream.read(new byte[1], 0, 1) != -1) {
+                    throw new IOException(SR.CONTENT_LENGTH_MISMATCH);
+                }
+
+                break;
+            }
+
+            final int count;
+            if (target.hasArray()) {
+                final int arrayOffset = target.arrayOffset() + target.position();
+                count = sourceStream.read(target.array(), arrayOffset, nextCopy);
+                if (count == -1) {
+                    break;
+                }
+
+                if (calculateMD5) {
+                    descriptor.getDigest().update(target.array(), arrayOffset, count);
+                }
+
+                target.position(target.position() + count);
+            }
+            else {
+                if (transferBuff == null) {
+                    transferBuff = new byte[Constants.BUFFER_COPY_LENGTH];
+                }
+
+                count = sourceStream.read(transferBuff, 0, Math.min(nextCopy, transferBuff.length));
+                if (count == -1) {
+                    break;
+                }
+
+                if (calculateMD5) {
+                    descriptor.getDigest().update(transferBuff, 0, count);
+                }
+
+                target.put(transferBuff, 0, count);
+            }
+
+            descriptor.setLength(descriptor.getLength() + count);
+            descriptor.setCurrentOperationByteCount(descriptor.getCurrentOperationByteCount() + count);
+
+            if (request != null) {
+                request.setCurrentRequestByteCount(request.getCurrentRequestByteCount() + count);
+                request.setCurrentDescriptor(descriptor);
+            }
+        }
+
+        return descriptor;
+    }
+
     /**
      * Private Default Constructor.
      */
@@ -1263,41 +1346,7 @@ public final class Utility {
      * @return the corresponding <code>Date</code> object
      */
     public static Date parseDate(String dateString) {
-        String pattern = MAX_PRECISION_PATTERN;
-        switch(dateString.length()) {
-            case 28: // "yyyy-MM-dd'T'HH:mm:ss.SSSSSSS'Z'"-> [2012-01-04T23:21:59.1234567Z] length = 28
-            case 27: // "yyyy-MM-dd'T'HH:mm:ss.SSSSSS'Z'"-> [2012-01-04T23:21:59.123456Z] length = 27
-            case 26: // "yyyy-MM-dd'T'HH:mm:ss.SSSSS'Z'"-> [2012-01-04T23:21:59.12345Z] length = 26
-            case 25: // "yyyy-MM-dd'T'HH:mm:ss.SSSS'Z'"-> [2012-01-04T23:21:59.1234Z] length = 25
-            case 24: // "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'"-> [2012-01-04T23:21:59.123Z] length = 24
-                dateString = dateString.substring(0, MAX_PRECISION_DATESTRING_LENGTH);
-                break;
-            case 23: // "yyyy-MM-dd'T'HH:mm:ss.SS'Z'"-> [2012-01-04T23:21:59.12Z] length = 23
-                // SS is assumed to be milliseconds, so a trailing 0 is necessary
-                dateString = dateString.replace("Z", "0");
-                break;
-            case 22: // "yyyy-MM-dd'T'HH:mm:ss.S'Z'"-> [2012-01-04T23:21:59.1Z] length = 22
-                // S is assumed to be milliseconds, so trailing 0's are necessary
-                dateString = dateString.replace("Z", "00");
-                break;
-            case 20: // "yyyy-MM-dd'T'HH:mm:ss'Z'"-> [2012-01-04T23:21:59Z] length = 20
-                pattern = Utility.ISO8601_PATTERN;
-                break;
-            case 17: // "yyyy-MM-dd'T'HH:mm'Z'"-> [2012-01-04T23:21Z] length = 17
-                pattern = Utility.ISO8601_PATTERN_NO_SECONDS;
-                break;
-            default:
-                throw new IllegalArgumentException(String.format(SR.INVALID_DATE_STRING, dateString));
-        }
-
-        final DateFormat format = new SimpleDateFormat(pattern, Utility.LOCALE_US);
-        format.setTimeZone(UTC_ZONE);
-        try {
-            return format.parse(dateString);
-        }
-        catch (final ParseException e) {
-            throw new IllegalArgumentException(String.format(SR.INVALID_DATE_STRING, dateString), e);
-        }
+        return DateCodec.parseISO8601(dateString);
     }
     
     /**
@@ -25,6 +25,9 @@ import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -51,10 +54,13 @@ import com.microsoft.azure.storage.blob.CloudBlob;
 import com.microsoft.azure.storage.blob.CloudBlobClient;
 import com.microsoft.azure.storage.core.Base64;
 import com.microsoft.azure.storage.core.BaseResponse;
+import com.microsoft.azure.storage.core.ByteBufferOutputStream;
 import com.microsoft.azure.storage.core.ExecutionEngine;
 import com.microsoft.azure.storage.core.Logger;
 import com.microsoft.azure.storage.core.NetworkInputStream;
+import com.microsoft.azure.storage.core.OutputStreamWriteChannel;
 import com.microsoft.azure.storage.core.PathUtility;
+import com.microsoft.azure.storage.core.RangeReadChannel;
 import com.microsoft.azure.storage.core.RequestLocationMode;
 import com.microsoft.azure.storage.core.SR;
 import com.microsoft.azure.storage.core.SharedAccessSignatureHelper;
@@ -63,7 +69,6 @@ import com.microsoft.azure.storage.core.StorageRequest;
 import com.microsoft.azure.storage.core.StreamMd5AndLength;
 import com.microsoft.azure.storage.core.UriQueryBuilder;
 import com.microsoft.azure.storage.core.Utility;
-import com.microsoft.azure.storage.core.WrappedByteArrayOutputStream;
 
 /**
  * Represents a Microsoft Azure File.
@@ -939,19 +944,119 @@ public final class CloudFile implements ListFileItem {
             throw new IndexOutOfBoundsException();
         }
 
+        return this.downloadRangeInternal(fileOffset, length, ByteBuffer.wrap(buffer, bufferOffset, buffer.length
+                - bufferOffset), accessCondition, options, opContext);
+    }
+
+    /**
+     * Downloads a range of bytes from the file into the given byte buffer, starting at its position.
+     *
+     * @param fileOffset
+     *            A <code>long</code> which represents the offset within the file to begin downloading.
+     * @param length
+     *            A <code>Long</code> which represents the number of bytes to read, or <code>null</code> to read to the
+     *            end of the file.
+     * @param buffer
+     *            A <code>ByteBuffer</code> which represents the buffer to write to.
+     * @param accessCondition
+     *            An {@link AccessCondition} object that represents the access conditions for the file.
+     * @param options
+     *            A {@link FileRequestOptions} object that specifies any additional options for the request.
+     * @param opContext
+     *            An {@link OperationContext} object used to track the execution of the operation.
+     * @returns The total number of bytes read into the buffer.
+     * 
+     * @throws StorageException
+     *             an exception representing any error which occurred during the operation.
+     */
+    @DoesServiceRequest
+    private int downloadRangeInternal(final long fileOffset, final Long length, final ByteBuffer buffer,
+            final AccessCondition accessCondition, FileRequestOptions options, OperationContext opContext)
+            throws StorageException {
+
         if (opContext == null) {
             opContext = new OperationContext();
         }
 
         options = FileRequestOptions.populateAndApplyDefaults(options, this.fileServiceClient);
         
-        WrappedByteArrayOutputStream outputStream = new WrappedByteArrayOutputStream(buffer, bufferOffset);
+        final ByteBufferOutputStream outputStream = new ByteBufferOutputStream(buffer);
         ExecutionEngine.executeWithRetry(this.fileServiceClient, this,
                 this.downloadToStreamImpl(fileOffset, length, outputStream, accessCondition, options, opContext),
                 options.getRetryPolicyFactory(), opContext);
         return outputStream.getPosition();
     }
 
+    /**
+     * Downloads a range of bytes from the file into the given byte buffer, starting at its position. The bytes are read
+     * from the network directly into the buffer: into its backing array for a heap buffer, and through a bounded
+     * transfer array for a direct buffer. The position of the buffer is advanced by the number of bytes read.
+     *
+     * @param offset
+     *            A <code>long</code> which represents the byte offset to use as the starting point for the source.
+     * @param length
+     *            A <code>Long</code> which represents the number of bytes to read, or <code>null</code> to read to the
+     *            end of the file.
+     * @param buffer
+     *            A <code>ByteBuffer</code> which represents the buffer to which the file bytes are downloaded.
+     * @return The total number of bytes read into the buffer.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    @DoesServiceRequest
+    public final int downloadRange(final long offset, final Long length, final ByteBuffer buffer)
+            throws StorageException {
+        return this.downloadRange(offset, length, buffer, null /* accessCondition */, null /* options */,
+                null /* opContext */);
+    }
+
+    /**
+     * Downloads a range of bytes from the file into the given byte buffer, starting at its position, using the
+     * specified access condition, request options and operation context. The bytes are read from the network directly
+     * into the buffer: into its backing array for a heap buffer, and through a bounded transfer array for a direct
+     * buffer. The position of the buffer is advanced by the number of bytes read.
+     *
+     * @param offset
+     *            A <code>long</code> which represents the byte offset to use as the starting point for the source.
+     * @param length
+     *            A <code>Long</code> which represents the number of bytes to read, or <code>null</code> to read to the
+     *            end of the file.
+     * @param buffer
+     *            A <code>ByteBuffer</code> which represents the buffer to which the file bytes are downloaded.
+     * @param accessCondition
+     *            An {@link AccessCondition} object that represents the access conditions for the file.
+     * @param options
+     *            A {@link FileRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudFileClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * @return The total number of bytes read into the buffer.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    @DoesServiceRequest
+    public final int downloadRange(final long offset, final Long length, final ByteBuffer buffer,
+            final AccessCondition accessCondition, FileRequestOptions options, OperationContext opContext)
+            throws StorageException {
+        Utility.assertNotNull("buffer", buffer);
+        if (offset < 0 || (length != null && (length <= 0 || length > buffer.remaining()))) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (opContext == null) {
+            opContext = new OperationContext();
+        }
+
+        opContext.initialize();
+
+        return this.downloadRangeInternal(offset, length, buffer, accessCondition, options, opContext);
+    }
+
     /**
      * Downloads a range of bytes from the file to the given byte buffer.
      * 
@@ -1081,7 +1186,8 @@ public final class CloudFile implements ListFileItem {
         opContext.initialize();
         options = FileRequestOptions.populateAndApplyDefaults(options, this.fileServiceClient);
         
-        WrappedByteArrayOutputStream outputStream = new WrappedByteArrayOutputStream(buffer, bufferOffset);
+        final ByteBufferOutputStream outputStream = new ByteBufferOutputStream(ByteBuffer.wrap(buffer, bufferOffset,
+                buffer.length - bufferOffset));
         ExecutionEngine.executeWithRetry(this.fileServiceClient, this,
                 this.downloadToStreamImpl(null, null, outputStream, accessCondition, options, opContext),
                 options.getRetryPolicyFactory(), opContext);
@@ -1819,6 +1925,77 @@ public final class CloudFile implements ListFileItem {
         return new FileInputStream(this, accessCondition, options, opContext);
     }
 
+    /**
+     * Opens a channel to read the file sequentially.
+     * <p>
+     * Reads into a buffer with at least {@link #getStreamMinimumReadSizeInBytes()} bytes remaining, or with room for
+     * the rest of the file, are downloaded directly into that buffer. Unlike {@link #openRead}, the channel does not
+     * validate the MD5 of the whole file; use transactional MD5 in the request options to validate each range.
+     *
+     * @return A <code>ReadableByteChannel</code> object that represents the channel to use for reading from the file.
+     *
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    @DoesServiceRequest
+    public final ReadableByteChannel openReadChannel() throws StorageException {
+        return this.openReadChannel(null /* accessCondition */, null /* options */, null /* opContext */);
+    }
+
+    /**
+     * Opens a channel to read the file sequentially, using the specified access condition, request options and
+     * operation context. The properties of the file are downloaded when the channel is opened, and later reads fail
+     * if the file is modified.
+     * <p>
+     * Reads into a buffer with at least {@link #getStreamMinimumReadSizeInBytes()} bytes remaining, or with room for
+     * the rest of the file, are downloaded directly into that buffer. Unlike {@link #openRead}, the channel does not
+     * validate the MD5 of the whole file; use transactional MD5 in the request options to validate each range.
+     *
+     * @param accessCondition
+     *            An {@link AccessCondition} object that represents the access conditions for the file.
+     * @param options
+     *            A {@link FileRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudFileClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     *
+     * @return A <code>ReadableByteChannel</code> object that represents the channel to use for reading from the file.
+     *
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    @DoesServiceRequest
+    public final ReadableByteChannel openReadChannel(final AccessCondition accessCondition, FileRequestOptions options,
+            OperationContext opContext) throws StorageException {
+        if (opContext == null) {
+            opContext = new OperationContext();
+        }
+
+        options = FileRequestOptions.populateAndApplyDefaults(options, this.fileServiceClient,
+                false /* setStartTime */);
+
+        this.downloadAttributes(accessCondition, options, opContext);
+
+        final AccessCondition readCondition = AccessCondition.generateIfMatchCondition(this.properties.getEtag());
+        if (accessCondition != null) {
+            readCondition.setLeaseID(accessCondition.getLeaseID());
+        }
+
+        final FileRequestOptions readOptions = options;
+        final OperationContext readContext = opContext;
+        final int maximumReadSize = options.getUseTransactionalContentMD5() ? 4 * Constants.MB : Integer.MAX_VALUE;
+        return new RangeReadChannel(this.properties.getLength(), this.getStreamMinimumReadSizeInBytes(),
+                maximumReadSize) {
+            @Override
+            protected void downloadRange(long offset, long count, ByteBuffer target) throws StorageException {
+                CloudFile.this.downloadRange(offset, count, target, readCondition, readOptions, readContext);
+            }
+        };
+    }
+
     /**
      * Opens an output stream object to write data to the file. The file must already exist and any existing data may 
      * be overwritten.
@@ -1914,6 +2091,35 @@ public final class CloudFile implements ListFileItem {
         return openOutputStreamInternal(length, accessCondition, options, opContext);
     }
 
+    /**
+     * Creates a file of the specified length and opens a channel to write data to it. The contents of heap buffers are
+     * written without an intermediate copy; the data is uploaded as by {@link #openWriteNew(long)}, and the channel
+     * must be closed to complete the upload.
+     * 
+     * @param length
+     *            A <code>long</code> which represents the length, in bytes, of the file to create.
+     * @param accessCondition
+     *            An {@link AccessCondition} object which represents the access conditions for the file.
+     * @param options
+     *            A {@link FileRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudFileClient}).
+     * @param opContext
+     *            An {@link OperationContext} object which represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * 
+     * @return A <code>WritableByteChannel</code> object used to write data to the file.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred.
+     */
+    @DoesServiceRequest
+    public WritableByteChannel openWriteChannel(final long length, AccessCondition accessCondition,
+            FileRequestOptions options, OperationContext opContext) throws StorageException {
+        return new OutputStreamWriteChannel(this.openWriteNew(length, accessCondition, options, opContext));
+    }
+
     /**
      * Opens an output stream object to write data to the file, using the specified lease ID, request options and
      * operation context. If the length is specified, a new file will be created with the length specified.
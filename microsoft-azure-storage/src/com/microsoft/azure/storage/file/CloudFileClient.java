@@ -28,6 +28,7 @@ import com.microsoft.azure.storage.StorageCredentials;
 import com.microsoft.azure.storage.StorageCredentialsAnonymous;
 import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.StorageUri;
+import com.microsoft.azure.storage.TransferScheduler;
 import com.microsoft.azure.storage.core.ExecutionEngine;
 import com.microsoft.azure.storage.core.LazySegmentedIterable;
 import com.microsoft.azure.storage.core.ListResponse;
@@ -50,6 +51,11 @@ public final class CloudFileClient extends ServiceClient {
      */
     private FileRequestOptions defaultRequestOptions = new FileRequestOptions();
 
+    /**
+     * Holds the scheduler running the uploads of the file output streams of this client, created on first use.
+     */
+    private TransferScheduler transferScheduler;
+
     /**
      * Creates an instance of the <code>CloudFileClient</code> class using the specified File service endpoint and
      * account credentials.
@@ -501,6 +507,32 @@ public final class CloudFileClient extends ServiceClient {
         this.defaultRequestOptions = defaultRequestOptions;
     }
     
+    /**
+     * Gets the {@link TransferScheduler} that runs the uploads of the file output streams opened through this
+     * <code>CloudFileClient</code>. A scheduler with the default settings is created on first use.
+     * 
+     * @return The {@link TransferScheduler} object used by this <code>CloudFileClient</code>.
+     */
+    public synchronized TransferScheduler getTransferScheduler() {
+        if (this.transferScheduler == null) {
+            this.transferScheduler = new TransferScheduler();
+        }
+
+        return this.transferScheduler;
+    }
+
+    /**
+     * Sets the {@link TransferScheduler} that runs the uploads of the file output streams opened through this
+     * <code>CloudFileClient</code>. Share a scheduler between clients to limit their uploads together.
+     * 
+     * @param transferScheduler
+     *            A {@link TransferScheduler} object.
+     */
+    public synchronized void setTransferScheduler(final TransferScheduler transferScheduler) {
+        Utility.assertNotNull("transferScheduler", transferScheduler);
+        this.transferScheduler = transferScheduler;
+    }
+
     /**
      * Indicates whether path-style URIs are being used.
      * 
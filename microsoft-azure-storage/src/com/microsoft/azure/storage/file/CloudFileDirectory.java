@@ -26,6 +26,7 @@ import com.microsoft.azure.storage.AccessCondition;
 import com.microsoft.azure.storage.Constants;
 import com.microsoft.azure.storage.DoesServiceRequest;
 import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.ResultConsumer;
 import com.microsoft.azure.storage.ResultContinuation;
 import com.microsoft.azure.storage.ResultContinuationType;
 import com.microsoft.azure.storage.ResultSegment;
@@ -39,6 +40,7 @@ import com.microsoft.azure.storage.core.ExecutionEngine;
 import com.microsoft.azure.storage.core.LazySegmentedIterable;
 import com.microsoft.azure.storage.core.ListResponse;
 import com.microsoft.azure.storage.core.ListingContext;
+import com.microsoft.azure.storage.core.ListingSink;
 import com.microsoft.azure.storage.core.PathUtility;
 import com.microsoft.azure.storage.core.RequestLocationMode;
 import com.microsoft.azure.storage.core.SR;
@@ -782,11 +784,52 @@ public final class CloudFileDirectory implements ListFileItem {
         SegmentedStorageRequest segmentedRequest = new SegmentedStorageRequest();
 
         return new LazySegmentedIterable<CloudFileClient, CloudFileDirectory, ListFileItem>(
-                this.listFilesAndDirectoriesSegmentedImpl(prefix, null /* maxResults */, options, segmentedRequest),
+                this.listFilesAndDirectoriesSegmentedImpl(prefix, null /* maxResults */, options, segmentedRequest,
+                        null /* sink */),
                 this.fileServiceClient, this,
                 options.getRetryPolicyFactory(), opContext);
     }
 
+    /**
+     * Lists the file and directory items of the directory whose names begin with the specified prefix, passing each
+     * item to the specified consumer as soon as it is parsed instead of collecting result segments. Listing continues
+     * through all result segments until the consumer returns <code>false</code>.
+     *
+     * @param prefix
+     *            A string containing the file or directory name prefix.
+     * @param consumer
+     *            The {@link ResultConsumer} which receives each {@link ListFileItem}.
+     * @param options
+     *            A {@link FileRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudFileClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred, or if the consumer threw an exception.
+     */
+    @DoesServiceRequest
+    public void listFilesAndDirectories(final String prefix, final ResultConsumer<? super ListFileItem> consumer,
+            FileRequestOptions options, OperationContext opContext) throws StorageException {
+        final ListingSink<ListFileItem> sink = new ListingSink<ListFileItem>(consumer);
+        if (opContext == null) {
+            opContext = new OperationContext();
+        }
+
+        opContext.initialize();
+        options = FileRequestOptions.populateAndApplyDefaults(options, this.fileServiceClient);
+
+        final SegmentedStorageRequest segmentedRequest = new SegmentedStorageRequest();
+        do {
+            ExecutionEngine.executeWithRetry(this.fileServiceClient, this, this.listFilesAndDirectoriesSegmentedImpl(
+                    prefix, null /* maxResults */, options, segmentedRequest, sink), options.getRetryPolicyFactory(),
+                    opContext);
+        } while (segmentedRequest.getToken() != null && !sink.isStopped());
+    }
+
     /**
      * Returns a result segment of an enumerable collection of files and directories for this File service client.
      * 
@@ -876,12 +919,14 @@ public final class CloudFileDirectory implements ListFileItem {
         segmentedRequest.setToken(continuationToken);
 
         return ExecutionEngine.executeWithRetry(this.fileServiceClient, this,
-                this.listFilesAndDirectoriesSegmentedImpl(prefix, maxResults, options, segmentedRequest),
+                this.listFilesAndDirectoriesSegmentedImpl(prefix, maxResults, options, segmentedRequest,
+                        null /* sink */),
                 options.getRetryPolicyFactory(), opContext);
     }
 
     private StorageRequest<CloudFileClient, CloudFileDirectory, ResultSegment<ListFileItem>> listFilesAndDirectoriesSegmentedImpl(
-            final String prefix, final Integer maxResults, final FileRequestOptions options, final SegmentedStorageRequest segmentedRequest) {
+            final String prefix, final Integer maxResults, final FileRequestOptions options,
+            final SegmentedStorageRequest segmentedRequest, final ListingSink<? super ListFileItem> sink) {
 
         Utility.assertContinuationType(segmentedRequest.getToken(), ResultContinuationType.FILE);
 
@@ -926,8 +971,9 @@ public final class CloudFileDirectory implements ListFileItem {
             public ResultSegment<ListFileItem> postProcessResponse(HttpURLConnection connection,
                     CloudFileDirectory directory, CloudFileClient client, OperationContext context,
                     ResultSegment<ListFileItem> storageObject) throws Exception {
-                final ListResponse<ListFileItem> response = FileListHandler.getFileAndDirectoryList(this
-                        .getConnection().getInputStream(), directory);
+                final ListResponse<ListFileItem> response = sink == null ? FileListHandler
+                        .getFileAndDirectoryList(this.getConnection().getInputStream(), directory) : FileListHandler
+                        .getFileAndDirectoryList(this.getConnection().getInputStream(), directory, sink);
                 ResultContinuation newToken = null;
 
                 if (response.getNextMarker() != null) {
@@ -21,7 +21,6 @@ import java.text.ParseException;
 import java.util.Stack;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -30,6 +29,7 @@ import org.xml.sax.helpers.DefaultHandler;
 import com.microsoft.azure.storage.Constants;
 import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.core.ListResponse;
+import com.microsoft.azure.storage.core.ListingSink;
 import com.microsoft.azure.storage.core.SR;
 import com.microsoft.azure.storage.core.Utility;
 
@@ -39,18 +39,21 @@ import com.microsoft.azure.storage.core.Utility;
 final class FileListHandler extends DefaultHandler {
 
     private final Stack<String> elementStack = new Stack<String>();
-    private StringBuilder bld = new StringBuilder();
+    private final StringBuilder bld = new StringBuilder();
 
     private final ListResponse<ListFileItem> response = new ListResponse<ListFileItem>();
 
     private final CloudFileDirectory directory;
 
+    private final ListingSink<? super ListFileItem> sink;
+
     private FileDirectoryProperties directoryProperties;
     private FileProperties fileProperties;
     private String name;
 
-    private FileListHandler(CloudFileDirectory directory) {
+    private FileListHandler(CloudFileDirectory directory, ListingSink<? super ListFileItem> sink) {
         this.directory = directory;
+        this.sink = sink;
     }
 
     /**
@@ -65,9 +68,30 @@ final class FileListHandler extends DefaultHandler {
      */
     public static ListResponse<ListFileItem> getFileAndDirectoryList(final InputStream stream,
             final CloudFileDirectory directory) throws ParserConfigurationException, SAXException, IOException {
-        SAXParser saxParser = Utility.getSAXParser();
-        FileListHandler handler = new FileListHandler(directory);
-        saxParser.parse(stream, handler);
+        FileListHandler handler = new FileListHandler(directory, null /* sink */);
+        Utility.parseXml(stream, handler);
+
+        return handler.response;
+    }
+
+    /**
+     * Parse the response, passing each file and directory to a sink rather than adding it to the response.
+     * 
+     * @param stream
+     * @param directory
+     * @param sink
+     *            the sink which receives each file and directory
+     * @return
+     * @throws ParserConfigurationException
+     * @throws SAXException
+     * @throws IOException
+     * @throws StorageException
+     */
+    public static ListResponse<ListFileItem> getFileAndDirectoryList(final InputStream stream,
+            final CloudFileDirectory directory, final ListingSink<? super ListFileItem> sink)
+            throws ParserConfigurationException, SAXException, IOException, StorageException {
+        FileListHandler handler = new FileListHandler(directory, sink);
+        sink.parse(stream, handler);
 
         return handler.response;
     }
@@ -118,7 +142,7 @@ final class FileListHandler extends DefaultHandler {
                 throw new SAXException(e);
             }
             retFile.setProperties(this.fileProperties);
-            this.response.getResults().add(retFile);
+            this.add(retFile);
         }
         else if (FileConstants.DIRECTORY_ELEMENT.equals(currentNode)) {
             CloudFileDirectory retDirectory = null;
@@ -132,7 +156,7 @@ final class FileListHandler extends DefaultHandler {
                 throw new SAXException(e);
             }
             retDirectory.setProperties(this.directoryProperties);
-            this.response.getResults().add(retDirectory);
+            this.add(retDirectory);
         }
         else if (ListResponse.ENUMERATION_RESULTS.equals(parentNode)) {
             if (Constants.PREFIX_ELEMENT.equals(currentNode)) {
@@ -162,7 +186,16 @@ final class FileListHandler extends DefaultHandler {
             }
         }
 
-        this.bld = new StringBuilder();
+        this.bld.setLength(0);
+    }
+
+    private void add(ListFileItem item) throws SAXException {
+        if (this.sink != null) {
+            this.sink.accept(item);
+        }
+        else {
+            this.response.getResults().add(item);
+        }
     }
 
     @Override
@@ -22,17 +22,14 @@ import java.io.OutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import com.microsoft.azure.storage.AccessCondition;
 import com.microsoft.azure.storage.DoesServiceRequest;
 import com.microsoft.azure.storage.OperationContext;
 import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.TransferScheduler;
 import com.microsoft.azure.storage.core.Base64;
+import com.microsoft.azure.storage.core.PipelinedDigest;
 import com.microsoft.azure.storage.core.SR;
 import com.microsoft.azure.storage.core.Utility;
 
@@ -74,7 +71,7 @@ public class FileOutputStream extends OutputStream {
     /**
      * Holds the reference to the MD5 digest for the file.
      */
-    private MessageDigest md5Digest;
+    private PipelinedDigest md5Digest;
 
     /**
      * Holds the currentOffset the stream is writing to.
@@ -97,19 +94,9 @@ public class FileOutputStream extends OutputStream {
     private int internalWriteThreshold = -1;
 
     /**
-     * Holds the number of current outstanding requests.
+     * The session of the client's transfer scheduler used to schedule tasks for this stream.
      */
-    private volatile int outstandingRequests;
-
-    /**
-     * The ExecutorService used to schedule tasks for this stream.
-     */
-    private final ExecutorService threadExecutor;
-
-    /**
-     * The CompletionService used to await task completion for this stream.
-     */
-    private final ExecutorCompletionService<Void> completionService;
+    private final TransferScheduler.Session transferSession;
 
     /**
      * Holds the {@link AccessCondition} object that represents the access conditions for the file.
@@ -149,7 +136,8 @@ public class FileOutputStream extends OutputStream {
 
         if (this.options.getStoreFileContentMD5()) {
             try {
-                this.md5Digest = MessageDigest.getInstance("MD5");
+                this.md5Digest = new PipelinedDigest(MessageDigest.getInstance("MD5"),
+                        this.options.getConcurrentRequestCount() * 2);
             }
             catch (final NoSuchAlgorithmException e) {
                 // This wont happen, throw fatal.
@@ -157,9 +145,8 @@ public class FileOutputStream extends OutputStream {
             }
         }
 
-        // V2 cachedThreadPool for perf.
-        this.threadExecutor = Executors.newFixedThreadPool(this.options.getConcurrentRequestCount());
-        this.completionService = new ExecutorCompletionService<Void>(this.threadExecutor);
+        this.transferSession = parentFile.getServiceClient().getTransferScheduler()
+                .openSession(this.options.getConcurrentRequestCount());
         this.internalWriteThreshold = (int) Math.min(this.parentFileRef.getStreamWriteSizeInBytes(), length);
     }
 
@@ -196,9 +183,6 @@ public class FileOutputStream extends OutputStream {
             // flush any remaining data
             this.flush();
 
-            // shut down the ExecutorService.
-            this.threadExecutor.shutdown();
-
             // try to commit the file
             try {
                 this.commit();
@@ -214,11 +198,8 @@ public class FileOutputStream extends OutputStream {
                 this.lastError = new IOException(SR.STREAM_CLOSED);
             }
 
-            // if an exception was thrown and the executor was not yet closed, call shutDownNow() to cancel all tasks 
-            // and shutdown the ExecutorService
-            if (!this.threadExecutor.isShutdown()) {
-                this.threadExecutor.shutdownNow();
-            }
+            // if an exception was thrown, cancel the tasks which have not started yet
+            this.transferSession.cancelPending();
         }
     }
 
@@ -227,9 +208,11 @@ public class FileOutputStream extends OutputStream {
      * 
      * @throws StorageException
      *             An exception representing any error which occurred during the operation.
+     * @throws IOException
+     *             If the thread was interrupted while waiting for the MD5 of the file.
      */
     @DoesServiceRequest
-    private void commit() throws StorageException {
+    private void commit() throws StorageException, IOException {
         if (this.options.getStoreFileContentMD5()) {
             this.parentFileRef.getProperties().setContentMD5(Base64.encode(this.md5Digest.digest()));
         }
@@ -256,11 +239,16 @@ public class FileOutputStream extends OutputStream {
 
         Callable<Void> worker = null;
 
-        if (this.outstandingRequests > this.options.getConcurrentRequestCount() * 2) {
-            this.waitForTaskToComplete();
+        if (this.transferSession.getOutstandingCount() > this.options.getConcurrentRequestCount() * 2) {
+            this.waitForTasksToComplete(this.options.getConcurrentRequestCount() * 2 + 1);
         }
 
-        final ByteArrayInputStream bufferRef = new ByteArrayInputStream(this.outBuffer.toByteArray());
+        final byte[] buffer = this.outBuffer.toByteArray();
+        if (this.options.getStoreFileContentMD5()) {
+            this.md5Digest.update(buffer);
+        }
+
+        final ByteArrayInputStream bufferRef = new ByteArrayInputStream(buffer);
         final CloudFile fileRef = this.parentFileRef;
         long tempOffset = this.currentOffset;
         long tempLength = writeLength;
@@ -293,8 +281,7 @@ public class FileOutputStream extends OutputStream {
         };
 
         // Do work and reset buffer.
-        this.completionService.submit(worker);
-        this.outstandingRequests++;
+        this.transferSession.submit(worker, writeLength);
         this.currentBufferedBytes = 0;
         this.outBuffer = new ByteArrayOutputStream();
     }
@@ -315,35 +302,28 @@ public class FileOutputStream extends OutputStream {
         this.dispatchWrite(this.currentBufferedBytes);
         
         // Waits for all submitted tasks to complete
-        while (this.outstandingRequests > 0) {
-            // Wait for a task to complete
-            this.waitForTaskToComplete();
-            
-            // If that task threw an error, fail fast
-            this.checkStreamState();
-        }
+        this.waitForTasksToComplete(1);
+
+        // If a task threw an error, fail
+        this.checkStreamState();
     }
 
     /**
-     * Waits for one task to complete
+     * Waits until fewer than the specified number of tasks are outstanding.
      * 
+     * @param maximumOutstandingCount
+     *            An <code>int</code> which represents the number of outstanding tasks to wait below.
      * @throws IOException
      *             If an I/O error occurs. In particular, an IOException may be thrown if the output stream has been
      *             closed.
      */
-    private void waitForTaskToComplete() throws IOException {
+    private void waitForTasksToComplete(final int maximumOutstandingCount) throws IOException {
         try {
-            final Future<Void> future = this.completionService.take();
-            future.get();
+            this.transferSession.awaitOutstandingBelow(maximumOutstandingCount);
         }
         catch (final InterruptedException e) {
             throw Utility.initIOException(e);
         }
-        catch (final ExecutionException e) {
-            throw Utility.initIOException(e);
-        }
-
-        this.outstandingRequests--;
     }
 
     /**
@@ -444,11 +424,6 @@ public class FileOutputStream extends OutputStream {
             final int availableBufferBytes = this.internalWriteThreshold - this.currentBufferedBytes;
             final int nextWrite = Math.min(availableBufferBytes, length);
 
-            // If we need to set MD5 then update the digest accordingly
-            if (this.options.getStoreFileContentMD5()) {
-                this.md5Digest.update(data, offset, nextWrite);
-            }
-
             this.outBuffer.write(data, offset, nextWrite);
             this.currentBufferedBytes += nextWrite;
             offset += nextWrite;
@@ -20,7 +20,6 @@ import java.util.ArrayList;
 import java.util.Stack;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -53,9 +52,8 @@ final class FileRangeHandler extends DefaultHandler {
      */
     protected static ArrayList<FileRange> getFileRanges(InputStream streamRef) throws ParserConfigurationException,
             SAXException, IOException {
-        SAXParser saxParser = Utility.getSAXParser();
         FileRangeHandler handler = new FileRangeHandler();
-        saxParser.parse(streamRef, handler);
+        Utility.parseXml(streamRef, handler);
 
         return handler.fileRanges;
     }
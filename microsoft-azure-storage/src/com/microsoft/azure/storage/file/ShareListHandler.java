@@ -21,7 +21,6 @@ import java.text.ParseException;
 import java.util.Stack;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -39,7 +38,7 @@ import com.microsoft.azure.storage.core.Utility;
 final class ShareListHandler extends DefaultHandler {
 
     private final Stack<String> elementStack = new Stack<String>();
-    private StringBuilder bld = new StringBuilder();
+    private final StringBuilder bld = new StringBuilder();
 
     private final CloudFileClient serviceClient;
 
@@ -64,9 +63,8 @@ final class ShareListHandler extends DefaultHandler {
      */
     protected static ListResponse<CloudFileShare> getShareList(final InputStream stream,
             final CloudFileClient serviceClient) throws ParserConfigurationException, SAXException, IOException {
-        SAXParser saxParser = Utility.getSAXParser();
         ShareListHandler handler = new ShareListHandler(serviceClient);
-        saxParser.parse(stream, handler);
+        Utility.parseXml(stream, handler);
 
         return handler.response;
     }
@@ -150,7 +148,7 @@ final class ShareListHandler extends DefaultHandler {
             this.attributes.getMetadata().put(currentNode, value);
         }
 
-        this.bld = new StringBuilder();
+        this.bld.setLength(0);
     }
 
     @Override
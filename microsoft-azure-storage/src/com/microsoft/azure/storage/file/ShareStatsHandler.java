@@ -19,7 +19,6 @@ import java.io.InputStream;
 import java.util.Stack;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -56,9 +55,8 @@ final class ShareStatsHandler extends DefaultHandler {
      */
     public static ShareStats readShareStatsFromStream(final InputStream inStream)
             throws ParserConfigurationException, SAXException, IOException {
-        SAXParser saxParser = Utility.getSAXParser();
         ShareStatsHandler handler = new ShareStatsHandler();
-        saxParser.parse(inStream, handler);
+        Utility.parseXml(inStream, handler);
 
         return handler.stats;
     }
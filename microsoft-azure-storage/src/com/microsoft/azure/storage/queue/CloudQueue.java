@@ -271,69 +271,50 @@ public final class CloudQueue {
     private StorageRequest<CloudQueueClient, CloudQueue, Void> addMessageImpl(final CloudQueueMessage message,
             final int timeToLiveInSeconds, final int initialVisibilityDelayInSeconds, final QueueRequestOptions options)
             throws StorageException {
-        final String stringToSend = message.getMessageContentForTransfer(this.shouldEncodeMessage);
+        final byte[] messageBytes = message.getMessageRequestBody(this.shouldEncodeMessage);
 
-        try {
-            final byte[] messageBytes = QueueMessageSerializer.generateMessageRequestBody(stringToSend);
+        final StorageRequest<CloudQueueClient, CloudQueue, Void> putRequest =
+                new StorageRequest<CloudQueueClient, CloudQueue, Void>(options, this.getStorageUri()) {
 
-            final StorageRequest<CloudQueueClient, CloudQueue, Void> putRequest =
-                    new StorageRequest<CloudQueueClient, CloudQueue, Void>(options, this.getStorageUri()) {
+            @Override
+            public HttpURLConnection buildRequest(CloudQueueClient client, CloudQueue queue,
+                    OperationContext context) throws Exception {
+                this.setSendStream(new ByteArrayInputStream(messageBytes));
+                this.setLength((long) messageBytes.length);
+                return QueueRequest.putMessage(
+                        queue.getMessageRequestAddress(context).getUri(this.getCurrentLocation()), options,
+                        context, initialVisibilityDelayInSeconds, timeToLiveInSeconds);
+            }
 
-                @Override
-                public HttpURLConnection buildRequest(CloudQueueClient client, CloudQueue queue,
-                        OperationContext context) throws Exception {
-                    this.setSendStream(new ByteArrayInputStream(messageBytes));
-                    this.setLength((long) messageBytes.length);
-                    return QueueRequest.putMessage(
-                            queue.getMessageRequestAddress(context).getUri(this.getCurrentLocation()), options,
-                            context, initialVisibilityDelayInSeconds, timeToLiveInSeconds);
-                }
+            @Override
+            public void signRequest(HttpURLConnection connection, CloudQueueClient client, OperationContext context)
+                    throws Exception {
+                StorageRequest.signBlobQueueAndFileRequest(connection, client, messageBytes.length, context);
+            }
 
-                @Override
-                public void signRequest(HttpURLConnection connection, CloudQueueClient client, OperationContext context)
-                        throws Exception {
-                    StorageRequest.signBlobQueueAndFileRequest(connection, client, messageBytes.length, context);
+            @Override
+            public Void preProcessResponse(CloudQueue queue, CloudQueueClient client,
+                    OperationContext context) throws Exception {
+                if (this.getResult().getStatusCode() != HttpURLConnection.HTTP_CREATED) {
+                    this.setNonExceptionedRetryableFailure(true);
+                    return null;
                 }
 
-                @Override
-                public Void preProcessResponse(CloudQueue queue, CloudQueueClient client,
-                        OperationContext context) throws Exception {
-                    if (this.getResult().getStatusCode() != HttpURLConnection.HTTP_CREATED) {
-                        this.setNonExceptionedRetryableFailure(true);
-                        return null;
-                    }
-
-                    // Parse the returned messages
-                    CloudQueueMessage returnedMessage = QueueMessageHandler.readMessages(
-                            this.getConnection().getInputStream(), queue.shouldEncodeMessage).get(0);
+                // Parse the returned messages
+                CloudQueueMessage returnedMessage = QueueMessageHandler.readMessages(
+                        this.getConnection().getInputStream(), queue.shouldEncodeMessage).get(0);
 
-                    message.setInsertionTime(returnedMessage.getInsertionTime());
-                    message.setExpirationTime(returnedMessage.getExpirationTime());
-                    message.setNextVisibleTime(returnedMessage.getNextVisibleTime());
-                    message.setMessageId(returnedMessage.getMessageId());
-                    message.setPopReceipt(returnedMessage.getPopReceipt());
+                message.setInsertionTime(returnedMessage.getInsertionTime());
+                message.setExpirationTime(returnedMessage.getExpirationTime());
+                message.setNextVisibleTime(returnedMessage.getNextVisibleTime());
+                message.setMessageId(returnedMessage.getMessageId());
+                message.setPopReceipt(returnedMessage.getPopReceipt());
 
-                    return null;
-                }
-            };
+                return null;
+            }
+        };
 
-            return putRequest;
-        }
-        catch (IllegalArgumentException e) {
-            // The request was not even made. There was an error while trying to write the message. Just throw.
-            StorageException translatedException = StorageException.translateClientException(e);
-            throw translatedException;
-        }
-        catch (IllegalStateException e) {
-            // The request was not even made. There was an error while trying to write the message. Just throw.
-            StorageException translatedException = StorageException.translateClientException(e);
-            throw translatedException;
-        }
-        catch (IOException e) {
-            // The request was not even made. There was an error while trying to write the message. Just throw.
-            StorageException translatedException = StorageException.translateClientException(e);
-            throw translatedException;
-        }
+        return putRequest;
     }
 
     /**
@@ -1398,7 +1379,8 @@ public final class CloudQueue {
     private StorageRequest<CloudQueueClient, CloudQueue, Void> updateMessageImpl(final CloudQueueMessage message,
             final int visibilityTimeoutInSeconds, final EnumSet<MessageUpdateFields> messageUpdateFields,
             final QueueRequestOptions options) throws StorageException {
-        final String stringToSend = message.getMessageContentForTransfer(this.shouldEncodeMessage);
+        final byte[] messageBytes = messageUpdateFields.contains(MessageUpdateFields.CONTENT) ? message
+                .getMessageRequestBody(this.shouldEncodeMessage) : null;
 
         final StorageRequest<CloudQueueClient, CloudQueue, Void> putRequest = new StorageRequest<CloudQueueClient, CloudQueue, Void>(
                 options, this.getStorageUri()) {
@@ -1406,27 +1388,9 @@ public final class CloudQueue {
             @Override
             public HttpURLConnection buildRequest(CloudQueueClient client, CloudQueue queue, OperationContext context)
                     throws Exception {
-                if (messageUpdateFields.contains(MessageUpdateFields.CONTENT)) {
-                    try {
-                        final byte[] messageBytes = QueueMessageSerializer.generateMessageRequestBody(stringToSend);
-                        this.setSendStream(new ByteArrayInputStream(messageBytes));
-                        this.setLength((long) messageBytes.length);
-                    }
-                    catch (IllegalArgumentException e) {
-                        // The request was not even made. There was an error while trying to write the message. Just throw.
-                        StorageException translatedException = StorageException.translateClientException(e);
-                        throw translatedException;
-                    }
-                    catch (IllegalStateException e) {
-                        // The request was not even made. There was an error while trying to write the message. Just throw.
-                        StorageException translatedException = StorageException.translateClientException(e);
-                        throw translatedException;
-                    }
-                    catch (IOException e) {
-                        // The request was not even made. There was an error while trying to write the message. Just throw.
-                        StorageException translatedException = StorageException.translateClientException(e);
-                        throw translatedException;
-                    }
+                if (messageBytes != null) {
+                    this.setSendStream(new ByteArrayInputStream(messageBytes));
+                    this.setLength((long) messageBytes.length);
                 }
 
                 return QueueRequest.updateMessage(
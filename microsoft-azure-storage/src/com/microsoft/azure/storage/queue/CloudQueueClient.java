@@ -21,6 +21,7 @@ import java.net.URISyntaxException;
 
 import com.microsoft.azure.storage.DoesServiceRequest;
 import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.ResultConsumer;
 import com.microsoft.azure.storage.ResultContinuation;
 import com.microsoft.azure.storage.ResultContinuationType;
 import com.microsoft.azure.storage.ResultSegment;
@@ -37,6 +38,7 @@ import com.microsoft.azure.storage.core.ExecutionEngine;
 import com.microsoft.azure.storage.core.LazySegmentedIterable;
 import com.microsoft.azure.storage.core.ListResponse;
 import com.microsoft.azure.storage.core.ListingContext;
+import com.microsoft.azure.storage.core.ListingSink;
 import com.microsoft.azure.storage.core.SR;
 import com.microsoft.azure.storage.core.SegmentedStorageRequest;
 import com.microsoft.azure.storage.core.StorageRequest;
@@ -166,7 +168,51 @@ public final class CloudQueueClient extends ServiceClient {
 
         SegmentedStorageRequest segmentedRequest = new SegmentedStorageRequest();
         return new LazySegmentedIterable<CloudQueueClient, Void, CloudQueue>(this.listQueuesSegmentedImpl(prefix,
-                detailsIncluded, null, options, segmentedRequest), this, null, options.getRetryPolicyFactory(), opContext);
+                detailsIncluded, null, options, segmentedRequest, null /* sink */), this, null,
+                options.getRetryPolicyFactory(), opContext);
+    }
+
+    /**
+     * Lists the queues whose names begin with the specified prefix for this Queue service client, passing each queue
+     * to the specified consumer as soon as it is parsed instead of collecting result segments. Listing continues
+     * through all result segments until the consumer returns <code>false</code>.
+     * 
+     * @param prefix
+     *            A <code>String</code> that represents the queue name prefix.
+     * @param detailsIncluded
+     *            A {@link QueueListingDetails} value that indicates whether queue metadata will be returned.
+     * @param consumer
+     *            The {@link ResultConsumer} which receives each {@link CloudQueue}.
+     * @param options
+     *            A {@link QueueRequestOptions} object that specifies any additional options for the request. Specifying
+     *            <code>null</code> will use the default request options from the associated service client (
+     *            {@link CloudQueueClient}).
+     * @param opContext
+     *            An {@link OperationContext} object that represents the context for the current operation. This object
+     *            is used to track requests to the storage service, and to provide additional runtime information about
+     *            the operation.
+     * 
+     * @throws StorageException
+     *             If a storage service error occurred, or if the consumer threw an exception.
+     */
+    @DoesServiceRequest
+    public void listQueues(final String prefix, final QueueListingDetails detailsIncluded,
+            final ResultConsumer<? super CloudQueue> consumer, QueueRequestOptions options, OperationContext opContext)
+            throws StorageException {
+        final ListingSink<CloudQueue> sink = new ListingSink<CloudQueue>(consumer);
+        if (opContext == null) {
+            opContext = new OperationContext();
+        }
+
+        opContext.initialize();
+        options = QueueRequestOptions.populateAndApplyDefaults(options, this);
+
+        final SegmentedStorageRequest segmentedRequest = new SegmentedStorageRequest();
+        do {
+            ExecutionEngine.executeWithRetry(this, null, this.listQueuesSegmentedImpl(prefix, detailsIncluded,
+                    null /* maxResults */, options, segmentedRequest, sink), options.getRetryPolicyFactory(),
+                    opContext);
+        } while (segmentedRequest.getToken() != null && !sink.isStopped());
     }
 
     /**
@@ -253,13 +299,15 @@ public final class CloudQueueClient extends ServiceClient {
         SegmentedStorageRequest segmentedRequest = new SegmentedStorageRequest();
         segmentedRequest.setToken(continuationToken);
         return ExecutionEngine.executeWithRetry(this, null,
-                this.listQueuesSegmentedImpl(prefix, detailsIncluded, maxResults, options, segmentedRequest),
+                this.listQueuesSegmentedImpl(prefix, detailsIncluded, maxResults, options, segmentedRequest,
+                        null /* sink */),
                 options.getRetryPolicyFactory(), opContext);
     }
 
     private StorageRequest<CloudQueueClient, Void, ResultSegment<CloudQueue>> listQueuesSegmentedImpl(
             final String prefix, final QueueListingDetails detailsIncluded, final Integer maxResults,
-            final QueueRequestOptions options, final SegmentedStorageRequest segmentedRequest) {
+            final QueueRequestOptions options, final SegmentedStorageRequest segmentedRequest,
+            final ListingSink<? super CloudQueue> sink) {
 
         Utility.assertContinuationType(segmentedRequest.getToken(), ResultContinuationType.QUEUE);
         final ListingContext listingContext = new ListingContext(prefix, maxResults);
@@ -301,8 +349,9 @@ public final class CloudQueueClient extends ServiceClient {
             public ResultSegment<CloudQueue> postProcessResponse(HttpURLConnection connection, Void queue,
                     CloudQueueClient client, OperationContext context, ResultSegment<CloudQueue> storageObject)
                     throws Exception {
-                final ListResponse<CloudQueue> response = QueueListHandler.getQueues(connection.getInputStream(),
-                        client);
+                final ListResponse<CloudQueue> response = sink == null ? QueueListHandler.getQueues(
+                        connection.getInputStream(), client) : QueueListHandler.getQueues(connection.getInputStream(),
+                        client, sink);
 
                 ResultContinuation newToken = null;
 
@@ -14,7 +14,9 @@
  */
 package com.microsoft.azure.storage.queue;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
 import java.util.Date;
 
 import com.microsoft.azure.storage.Constants;
@@ -49,10 +51,26 @@ public class CloudQueueMessage {
     private Date insertionTime;
 
     /**
-     * Holds the message content.
+     * Holds the message content. For content set as bytes this is only populated once the Base64 form is requested.
      */
     protected String messageContent;
 
+    /**
+     * Holds the binary content of the message, when it was set as bytes. It is Base64-encoded directly into the
+     * request body.
+     */
+    private byte[] binaryContent;
+
+    /**
+     * Holds the offset of the binary content.
+     */
+    private int binaryOffset;
+
+    /**
+     * Holds the length of the binary content.
+     */
+    private int binaryLength;
+
     /**
      * Holds the message type.
      */
@@ -142,6 +160,10 @@ public class CloudQueueMessage {
      *         If a storage service error occurred.
      */
     public final byte[] getMessageContentAsByte() throws StorageException {
+        if (this.binaryContent != null) {
+            return Arrays.copyOfRange(this.binaryContent, this.binaryOffset, this.binaryOffset + this.binaryLength);
+        }
+
         if (Utility.isNullOrEmpty(this.messageContent)) {
             return new byte[0];
         }
@@ -159,6 +181,64 @@ public class CloudQueueMessage {
         }
     }
 
+    /**
+     * Gets the content of the message into the specified buffer. Base64-encoded content is decoded directly into the
+     * buffer, without an intermediate array.
+     * 
+     * @param buffer
+     *        A <code>byte</code> array which receives the content of the message.
+     * @param offset
+     *        The offset in <code>buffer</code> at which to write the content.
+     * @return The number of bytes written, which is {@link #getMessageContentLength()}.
+     * 
+     * @throws IllegalArgumentException
+     *         If the buffer is too small to hold the content.
+     * @throws StorageException
+     *         If a storage service error occurred.
+     */
+    public final int getMessageContentAsByte(final byte[] buffer, final int offset) throws StorageException {
+        Utility.assertNotNull("buffer", buffer);
+        final int length = this.getMessageContentLength();
+        if (offset < 0 || buffer.length - offset < length) {
+            throw new IllegalArgumentException(String.format(SR.ARGUMENT_OUT_OF_RANGE_ERROR, "offset", offset));
+        }
+
+        if (this.binaryContent != null) {
+            System.arraycopy(this.binaryContent, this.binaryOffset, buffer, offset, length);
+        }
+        else if (this.messageType != QueueMessageType.RAW_STRING && !Utility.isNullOrEmpty(this.messageContent)) {
+            Base64.decode(this.messageContent, buffer, offset);
+        }
+        else if (length > 0) {
+            System.arraycopy(this.getMessageContentAsByte(), 0, buffer, offset, length);
+        }
+
+        return length;
+    }
+
+    /**
+     * Gets the length of the content of the message in bytes, as returned by {@link #getMessageContentAsByte()}.
+     * 
+     * @return An <code>int</code> which contains the length of the content of the message.
+     * 
+     * @throws StorageException
+     *         If a storage service error occurred.
+     */
+    public final int getMessageContentLength() throws StorageException {
+        if (this.binaryContent != null) {
+            return this.binaryLength;
+        }
+        else if (Utility.isNullOrEmpty(this.messageContent)) {
+            return 0;
+        }
+        else if (this.messageType == QueueMessageType.RAW_STRING) {
+            return this.getMessageContentAsByte().length;
+        }
+        else {
+            return Base64.decodedLength(this.messageContent);
+        }
+    }
+
     /**
      * Gets the content of the message as a string.
      * 
@@ -172,6 +252,16 @@ public class CloudQueueMessage {
             return this.messageContent;
         }
         else {
+            if (this.binaryContent != null && this.binaryLength > 0) {
+                try {
+                    return new String(this.binaryContent, this.binaryOffset, this.binaryLength,
+                            Constants.UTF8_CHARSET);
+                }
+                catch (final UnsupportedEncodingException e) {
+                    throw Utility.generateNewUnexpectedStorageException(e);
+                }
+            }
+
             if (Utility.isNullOrEmpty(this.messageContent)) {
                 return null;
             }
@@ -194,6 +284,10 @@ public class CloudQueueMessage {
      *         If a storage service error occurred.
      */
     protected final String getMessageContentForTransfer(final boolean shouldEncodeMessage) throws StorageException {
+        if (this.binaryContent != null && this.messageContent == null) {
+            this.messageContent = Base64.encode(this.getMessageContentAsByte());
+        }
+
         String result = null;
         if (this.messageType == QueueMessageType.RAW_STRING && shouldEncodeMessage) {
             result = Base64.encode(this.getMessageContentAsByte());
@@ -210,6 +304,56 @@ public class CloudQueueMessage {
         return result;
     }
 
+    /**
+     * Generates the request body which carries the content of the message (internal use only). Binary content is
+     * Base64-encoded directly into the body.
+     * 
+     * @param shouldEncodeMessage
+     *        Whether string content is Base64-encoded for transfer.
+     * @return A <code>byte</code> array which contains the request body.
+     * 
+     * @throws IllegalArgumentException
+     *         If the encoded content is longer than the maximum message size.
+     * @throws StorageException
+     *         If the request body could not be written.
+     */
+    final byte[] getMessageRequestBody(final boolean shouldEncodeMessage) throws StorageException {
+        if (this.binaryContent != null || (this.messageType == QueueMessageType.RAW_STRING && shouldEncodeMessage)) {
+            byte[] content = this.binaryContent;
+            int offset = this.binaryOffset;
+            int length = this.binaryLength;
+            if (content == null) {
+                content = this.getMessageContentAsByte();
+                offset = 0;
+                length = content.length;
+            }
+
+            if (Base64.encodedLength(length) > QueueConstants.MAX_MESSAGE_SIZE) {
+                throw new IllegalArgumentException(
+                        String.format(SR.INVALID_MESSAGE_LENGTH, QueueConstants.MAX_MESSAGE_SIZE));
+            }
+
+            return QueueMessageSerializer.generateMessageRequestBody(content, offset, length);
+        }
+
+        final String stringToSend = this.getMessageContentForTransfer(shouldEncodeMessage);
+        try {
+            return QueueMessageSerializer.generateMessageRequestBody(stringToSend);
+        }
+        catch (IllegalArgumentException e) {
+            // The request was not even made. There was an error while trying to write the message. Just throw.
+            throw StorageException.translateClientException(e);
+        }
+        catch (IllegalStateException e) {
+            // The request was not even made. There was an error while trying to write the message. Just throw.
+            throw StorageException.translateClientException(e);
+        }
+        catch (IOException e) {
+            // The request was not even made. There was an error while trying to write the message. Just throw.
+            throw StorageException.translateClientException(e);
+        }
+    }
+
     /**
      * Gets the message ID.
      * 
@@ -286,7 +430,31 @@ public class CloudQueueMessage {
     public final void setMessageContent(final byte[] content) {
         Utility.assertNotNull("content", content);
 
-        this.messageContent = Base64.encode(content);
+        this.setMessageContent(content.clone(), 0, content.length);
+    }
+
+    /**
+     * Sets the content of the message as a range of a <code>byte</code> array. The array is not copied; it is
+     * Base64-encoded directly into the request body when the message is sent, so the range must not be modified until
+     * then.
+     * 
+     * @param content
+     *        A <code>byte</code> array which contains the content of the message.
+     * @param offset
+     *        The offset of the content in the array.
+     * @param length
+     *        The length of the content.
+     */
+    public final void setMessageContent(final byte[] content, final int offset, final int length) {
+        Utility.assertNotNull("content", content);
+        if (offset < 0 || length < 0 || offset > content.length - length) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        this.binaryContent = content;
+        this.binaryOffset = offset;
+        this.binaryLength = length;
+        this.messageContent = null;
         this.messageType = QueueMessageType.BASE_64_ENCODED;
     }
 
@@ -297,6 +465,7 @@ public class CloudQueueMessage {
      *        A <code>String</code> which contains the content of the message.
      */
     public final void setMessageContent(final String content) {
+        this.binaryContent = null;
         this.messageContent = content;
         this.messageType = QueueMessageType.RAW_STRING;
     }
@@ -21,7 +21,6 @@ import java.util.HashMap;
 import java.util.Stack;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -30,6 +29,7 @@ import org.xml.sax.helpers.DefaultHandler;
 import com.microsoft.azure.storage.Constants;
 import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.core.ListResponse;
+import com.microsoft.azure.storage.core.ListingSink;
 import com.microsoft.azure.storage.core.SR;
 import com.microsoft.azure.storage.core.Utility;
 
@@ -41,15 +41,18 @@ final class QueueListHandler extends DefaultHandler {
     private final ListResponse<CloudQueue> response = new ListResponse<CloudQueue>();
 
     private final Stack<String> elementStack = new Stack<String>();
-    private StringBuilder bld = new StringBuilder();
+    private final StringBuilder bld = new StringBuilder();
 
     private final CloudQueueClient serviceClient;
 
+    private final ListingSink<? super CloudQueue> sink;
+
     private String queueName;
     private HashMap<String, String> metadata;
 
-    private QueueListHandler(CloudQueueClient serviceClient) {
+    private QueueListHandler(CloudQueueClient serviceClient, ListingSink<? super CloudQueue> sink) {
         this.serviceClient = serviceClient;
+        this.sink = sink;
     }
 
     /**
@@ -68,9 +71,34 @@ final class QueueListHandler extends DefaultHandler {
      */
     public static ListResponse<CloudQueue> getQueues(final InputStream stream, final CloudQueueClient serviceClient)
             throws SAXException, IOException, ParserConfigurationException {
-        SAXParser saxParser = Utility.getSAXParser();
-        QueueListHandler handler = new QueueListHandler(serviceClient);
-        saxParser.parse(stream, handler);
+        QueueListHandler handler = new QueueListHandler(serviceClient, null /* sink */);
+        Utility.parseXml(stream, handler);
+
+        return handler.response;
+    }
+
+    /**
+     * Parses the input stream containing the response body of the list queues request result, passing each queue to a
+     * sink rather than adding it to the response.
+     * 
+     * @param stream
+     *            The <code>InputStream</code> object to deserialize from.
+     * @param serviceClient
+     *            A {@link CloudQueueClient} object associated with the storage
+     *            service.
+     * @param sink
+     *            The sink which receives each queue.
+     * 
+     * @throws IOException
+     * @throws SAXException
+     * @throws ParserConfigurationException
+     * @throws StorageException
+     */
+    public static ListResponse<CloudQueue> getQueues(final InputStream stream, final CloudQueueClient serviceClient,
+            final ListingSink<? super CloudQueue> sink) throws SAXException, IOException, ParserConfigurationException,
+            StorageException {
+        QueueListHandler handler = new QueueListHandler(serviceClient, sink);
+        sink.parse(stream, handler);
 
         return handler.response;
     }
@@ -110,7 +138,7 @@ final class QueueListHandler extends DefaultHandler {
                 queue = this.serviceClient.getQueueReference(this.queueName);
                 queue.setMetadata(this.metadata);
 
-                this.response.getResults().add(queue);
+                this.add(queue);
             }
             catch (URISyntaxException e) {
                 throw new SAXException(e);
@@ -142,7 +170,16 @@ final class QueueListHandler extends DefaultHandler {
             }
         }
 
-        this.bld = new StringBuilder();
+        this.bld.setLength(0);
+    }
+
+    private void add(CloudQueue item) throws SAXException {
+        if (this.sink != null) {
+            this.sink.accept(item);
+        }
+        else {
+            this.response.getResults().add(item);
+        }
     }
 
     @Override
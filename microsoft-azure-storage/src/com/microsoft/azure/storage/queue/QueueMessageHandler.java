@@ -21,7 +21,6 @@ import java.util.ArrayList;
 import java.util.Stack;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -36,7 +35,7 @@ import com.microsoft.azure.storage.core.Utility;
 final class QueueMessageHandler extends DefaultHandler {
 
     private final Stack<String> elementStack = new Stack<String>();
-    private StringBuilder bld = new StringBuilder();
+    private final StringBuilder bld = new StringBuilder();
 
     private final ArrayList<CloudQueueMessage> messages = new ArrayList<CloudQueueMessage>();
 
@@ -66,9 +65,8 @@ final class QueueMessageHandler extends DefaultHandler {
      */
     public static ArrayList<CloudQueueMessage> readMessages(final InputStream stream, final boolean shouldEncodeMessage)
             throws SAXException, IOException, ParserConfigurationException {
-        SAXParser saxParser = Utility.getSAXParser();
         QueueMessageHandler handler = new QueueMessageHandler(shouldEncodeMessage);
-        saxParser.parse(stream, handler);
+        Utility.parseXml(stream, handler);
 
         return handler.messages;
     }
@@ -138,7 +136,7 @@ final class QueueMessageHandler extends DefaultHandler {
             this.message.messageContent = value;
         }
 
-        this.bld = new StringBuilder();
+        this.bld.setLength(0);
     }
 
     @Override
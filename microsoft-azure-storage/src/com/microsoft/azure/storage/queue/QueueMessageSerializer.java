@@ -16,10 +16,12 @@ package com.microsoft.azure.storage.queue;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
 
 import org.xmlpull.v1.XmlSerializer;
 
 import com.microsoft.azure.storage.Constants;
+import com.microsoft.azure.storage.core.Base64;
 import com.microsoft.azure.storage.core.Utility;
 
 /**
@@ -27,6 +29,58 @@ import com.microsoft.azure.storage.core.Utility;
  */
 final class QueueMessageSerializer {
 
+    /**
+     * The request body up to the message text.
+     */
+    private static final byte[] MESSAGE_PREFIX = encodeUTF8("<?xml version='1.0' encoding='utf-8' standalone='yes' ?><"
+            + QueueConstants.QUEUE_MESSAGE_ELEMENT + "><" + QueueConstants.MESSAGE_TEXT_ELEMENT + ">");
+
+    /**
+     * The request body after the message text.
+     */
+    private static final byte[] MESSAGE_SUFFIX = encodeUTF8("</" + QueueConstants.MESSAGE_TEXT_ELEMENT + "></"
+            + QueueConstants.QUEUE_MESSAGE_ELEMENT + ">");
+
+    /**
+     * Encodes a constant part of the request body as UTF-8, independently of the platform charset.
+     * 
+     * @param value
+     *            A <code>String</code> which represents the text to encode.
+     * 
+     * @return An array of <code>byte</code> containing the UTF-8 encoded text.
+     */
+    private static byte[] encodeUTF8(final String value) {
+        try {
+            return value.getBytes(Constants.UTF8_CHARSET);
+        }
+        catch (final UnsupportedEncodingException e) {
+            // this should never happen, UTF8 is a default charset
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Generates the message request body from binary message content, Base64-encoding the content directly into the
+     * body. The encoded text needs no XML escaping, so no serializer or intermediate string is involved.
+     * 
+     * @param content
+     *            A <code>byte</code> array containing the message content.
+     * @param offset
+     *            The offset of the message content.
+     * @param length
+     *            The length of the message content.
+     * 
+     * @return An array of <code>byte</code> containing the message request body encoded as UTF-8.
+     */
+    public static byte[] generateMessageRequestBody(final byte[] content, final int offset, final int length) {
+        final byte[] body = new byte[MESSAGE_PREFIX.length + Base64.encodedLength(length) + MESSAGE_SUFFIX.length];
+        System.arraycopy(MESSAGE_PREFIX, 0, body, 0, MESSAGE_PREFIX.length);
+        final int encodedLength = Base64.encode(content, offset, length, body, MESSAGE_PREFIX.length);
+        System.arraycopy(MESSAGE_SUFFIX, 0, body, MESSAGE_PREFIX.length + encodedLength, MESSAGE_SUFFIX.length);
+
+        return body;
+    }
+
     /**
      * Generates the message request body from a string containing the message.
      * The message must be encodable as UTF-8. To be included in a web request,
@@ -0,0 +1,113 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.azure.storage.table;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.microsoft.azure.storage.Constants;
+
+/**
+ * Reserved for internal use. A growable byte buffer used to encode batch requests and hold batch responses, which
+ * exposes its contents without copying them.
+ */
+final class MimeBuffer extends ByteArrayOutputStream {
+
+    /**
+     * Creates an instance of the <code>MimeBuffer</code> class.
+     * 
+     * @param size
+     *            The initial capacity in bytes.
+     */
+    MimeBuffer(final int size) {
+        super(size);
+    }
+
+    /**
+     * Gets the backing array. Only the first {@link #size()} bytes are valid.
+     * 
+     * @return The backing array.
+     */
+    byte[] getBuffer() {
+        return this.buf;
+    }
+
+    /**
+     * Returns a stream over the contents of the buffer which shares the backing array.
+     * 
+     * @return A <code>ByteArrayInputStream</code> over the written bytes.
+     */
+    ByteArrayInputStream toInputStream() {
+        return new ByteArrayInputStream(this.buf, 0, this.count);
+    }
+
+    /**
+     * Writes a string to the buffer. Headers and boundaries are ASCII, so characters are copied directly; any other
+     * text is encoded as UTF-8.
+     * 
+     * @param value
+     *            The <code>String</code> to write.
+     * @throws IOException
+     *             if UTF-8 encoding is not supported.
+     */
+    void writeString(final String value) throws IOException {
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                final byte[] bytes = value.getBytes(Constants.UTF8_CHARSET);
+                this.write(bytes, 0, bytes.length);
+                return;
+            }
+        }
+
+        final int start = this.count;
+        this.ensureCapacity(start + length);
+        for (int i = 0; i < length; i++) {
+            this.buf[start + i] = (byte) value.charAt(i);
+        }
+
+        this.count = start + length;
+    }
+
+    /**
+     * Reads the remainder of the stream into the buffer.
+     * 
+     * @param inStream
+     *            The <code>InputStream</code> to read.
+     * @throws IOException
+     *             if an error occurs reading the stream.
+     */
+    void readFrom(final InputStream inStream) throws IOException {
+        while (true) {
+            this.ensureCapacity(this.count + Constants.KB);
+            final int read = inStream.read(this.buf, this.count, this.buf.length - this.count);
+            if (read < 0) {
+                return;
+            }
+
+            this.count += read;
+        }
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > this.buf.length) {
+            final byte[] newBuffer = new byte[Math.max(capacity, this.buf.length << 1)];
+            System.arraycopy(this.buf, 0, newBuffer, 0, this.count);
+            this.buf = newBuffer;
+        }
+    }
+}
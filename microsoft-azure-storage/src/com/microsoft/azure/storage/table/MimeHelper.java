@@ -15,13 +15,8 @@
 
 package com.microsoft.azure.storage.table;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.StringWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -39,6 +34,69 @@ import com.microsoft.azure.storage.core.Utility;
  * Reserved for internal use. A class used to read and write MIME requests and responses.
  */
 final class MimeHelper {
+    /**
+     * Reserved for internal use. A cursor over the lines of a buffered batch response.
+     */
+    private static final class MimeReader {
+        private final byte[] buffer;
+        private final int end;
+        private int position;
+
+        MimeReader(final byte[] buffer, final int end) {
+            this.buffer = buffer;
+            this.end = end;
+        }
+
+        /**
+         * Returns the next line without its line terminator and advances past it, or <code>null</code> at the end of
+         * the response.
+         */
+        String readLine() throws IOException {
+            if (this.position >= this.end) {
+                return null;
+            }
+
+            final int start = this.position;
+            int lineEnd = this.skipLine();
+            if (lineEnd > start && this.buffer[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+
+            return new String(this.buffer, start, lineEnd - start, Constants.UTF8_CHARSET);
+        }
+
+        /**
+         * Advances past the current line and returns the index of its line feed, or the end of the response.
+         */
+        int skipLine() {
+            int lineEnd = this.position;
+            while (lineEnd < this.end && this.buffer[lineEnd] != '\n') {
+                lineEnd++;
+            }
+
+            this.position = Math.min(lineEnd + 1, this.end);
+            return lineEnd;
+        }
+
+        /**
+         * Returns whether the current line starts with the specified ASCII prefix, without advancing.
+         */
+        boolean lineStartsWith(final String prefix) {
+            final int length = prefix.length();
+            if (this.end - this.position < length) {
+                return false;
+            }
+
+            for (int i = 0; i < length; i++) {
+                if (this.buffer[this.position + i] != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
     /**
      * Reserved for internal use. Reads the response stream from a batch operation into an <code>ArrayList</code> of
      * {@link MimePart} objects.
@@ -62,8 +120,9 @@ final class MimeHelper {
     static ArrayList<MimePart> readBatchResponseStream(final InputStream inStream, final String expectedBundaryName,
             final OperationContext opContext, TablePayloadFormat format) throws IOException, StorageException {
         final ArrayList<MimePart> result = new ArrayList<MimePart>();
-        final InputStreamReader streamReader = new InputStreamReader(inStream, Constants.UTF8_CHARSET);
-        final BufferedReader reader = new BufferedReader(streamReader);
+        final MimeBuffer responseBuffer = new MimeBuffer(16 * Constants.KB);
+        responseBuffer.readFrom(inStream);
+        final MimeReader reader = new MimeReader(responseBuffer.getBuffer(), responseBuffer.size());
         final String mungedExpectedBoundaryName = "--".concat(expectedBundaryName);
 
         final MimeHeader docHeader = readMimeHeader(reader, opContext);
@@ -104,7 +163,7 @@ final class MimeHelper {
      * Transactions</a>.
      * 
      * @param outStream
-     *            The {@link OutputStream} to write the batch request to.
+     *            The {@link MimeBuffer} to write the batch request to.
      * @param tableName
      *            A <code>String</code> containing the name of the table to apply each operation to.
      * @param batch
@@ -124,11 +183,10 @@ final class MimeHelper {
      * @throws StorageException
      *             if an error occurs accessing the Storage service.
      */
-    static void writeBatchToStream(final OutputStream outStream, final TableRequestOptions options,
+    static void writeBatchToStream(final MimeBuffer outStream, final TableRequestOptions options,
             final String tableName, final URI baseUri, final TableBatchOperation batch, final String batchID,
             final String changeSet, final OperationContext opContext) throws IOException, URISyntaxException,
             StorageException {
-        final OutputStreamWriter outWriter = new OutputStreamWriter(outStream, Constants.UTF8_CHARSET);
 
         MimePart mimePart;
         int contentID = 0;
@@ -138,7 +196,7 @@ final class MimeHelper {
         if (isQuery) {
             final QueryTableOperation qOp = (QueryTableOperation) batch.get(0);
             // Write MIME batch Header
-            MimeHelper.writeMIMEBoundary(outWriter, batchID);
+            MimeHelper.writeMIMEBoundary(outStream, batchID);
 
             mimePart = new MimePart();
             mimePart.op = qOp.getOperationType();
@@ -152,18 +210,21 @@ final class MimeHelper {
             mimePart.headers.put(TableConstants.HeaderConstants.MAX_DATA_SERVICE_VERSION,
                     TableConstants.HeaderConstants.MAX_DATA_SERVICE_VERSION_VALUE);
 
-            outWriter.write(mimePart.toRequestString());
+            mimePart.writeRequest(outStream);
         }
         else {
             // Write MIME batch Header
-            MimeHelper.writeMIMEBoundary(outWriter, batchID);
-            MimeHelper.writeMIMEContentType(outWriter, changeSet);
-            outWriter.write("\r\n");
+            MimeHelper.writeMIMEBoundary(outStream, batchID);
+            MimeHelper.writeMIMEContentType(outStream, changeSet);
+            outStream.writeString("\r\n");
+
+            // Entities are serialized into a reused buffer since each part's length precedes its payload
+            final MimeBuffer entityBuffer = new MimeBuffer(Constants.KB);
 
             // Write each operation
             for (final TableOperation op : batch) {
                 // New mime part for changeset
-                MimeHelper.writeMIMEBoundary(outWriter, changeSet);
+                MimeHelper.writeMIMEBoundary(outStream, changeSet);
 
                 mimePart = new MimePart();
                 mimePart.op = op.getOperationType();
@@ -204,13 +265,15 @@ final class MimeHelper {
                 if (op.getOperationType() != TableOperationType.DELETE) {
                     mimePart.headers.put(Constants.HeaderConstants.CONTENT_TYPE,
                             TableConstants.HeaderConstants.JSON_CONTENT_TYPE);
-                    mimePart.payload = writeStringForOperation(op, options.getTablePayloadFormat(), opContext);
+                    writeEntityForOperation(entityBuffer, op, opContext);
+                    mimePart.payload = entityBuffer.getBuffer();
+                    mimePart.payloadLength = entityBuffer.size();
                     mimePart.headers.put(Constants.HeaderConstants.CONTENT_LENGTH,
-                            Integer.toString(mimePart.payload.getBytes(Constants.UTF8_CHARSET).length));
+                            Integer.toString(mimePart.payloadLength));
                 }
 
                 // write the request (no body)
-                outWriter.write(mimePart.toRequestString());
+                mimePart.writeRequest(outStream);
 
                 contentID = contentID + 1;
             }
@@ -218,43 +281,44 @@ final class MimeHelper {
 
         if (!isQuery) {
             // end changeset
-            MimeHelper.writeMIMEBoundaryClosure(outWriter, changeSet);
+            MimeHelper.writeMIMEBoundaryClosure(outStream, changeSet);
         }
         // end batch
-        MimeHelper.writeMIMEBoundaryClosure(outWriter, batchID);
-
-        outWriter.flush();
+        MimeHelper.writeMIMEBoundaryClosure(outStream, batchID);
     }
 
     /**
      * Reserved for internal use. A static factory method that constructs a {@link MimeHeader} by parsing the MIME
      * header
-     * data from a {@link BufferedReader}.
+     * data from a {@link MimeReader}.
      * 
      * @param reader
-     *            The {@link BufferedReader} containing the response stream to parse.
+     *            The {@link MimeReader} containing the response to parse.
      * @param opContext
      *            An {@link OperationContext} object for tracking the current operation. Specify <code>null</code> to
      *            safely ignore operation context.
      * @return
-     *         A {@link MimeHeader} constructed by parsing the MIME header data from the {@link BufferedReader}.
+     *         A {@link MimeHeader} constructed by parsing the MIME header data from the {@link MimeReader}.
      * @throws IOException
      *             if an error occurs accessing the input stream.
      * @throws StorageException
      *             if an error occurs parsing the input stream.
      */
-    private static MimeHeader readMimeHeader(final BufferedReader reader, final OperationContext opContext)
+    private static MimeHeader readMimeHeader(final MimeReader reader, final OperationContext opContext)
             throws IOException, StorageException {
         final MimeHeader retHeader = new MimeHeader();
-        reader.mark(1024 * 1024);
+        final int mark = reader.position;
 
         // First thing is separator
         retHeader.boundary = getNextLineSkippingBlankLines(reader);
+        if (retHeader.boundary == null) {
+            throw generateMimeParseException();
+        }
         if (retHeader.boundary.endsWith("--")) {
             return null;
         }
         if (!retHeader.boundary.startsWith("--")) {
-            reader.reset();
+            reader.position = mark;
             return null;
         }
 
@@ -309,155 +373,160 @@ final class MimeHelper {
     // Returns at start of next mime boundary header
     /**
      * Reserved for internal use. A static factory method that generates a {@link MimePart} containing the next MIME
-     * part read from the {@link BufferedReader}.
-     * The {@link BufferedReader} is left positioned at the start of the next MIME boundary header.
+     * part read from the {@link MimeReader}. The payload of the part references the response buffer rather than
+     * being copied.
+     * The {@link MimeReader} is left positioned at the start of the next MIME boundary header.
      * 
      * @param reader
-     *            The {@link BufferedReader} containing the response stream to parse.
+     *            The {@link MimeReader} containing the response to parse.
      * @param boundary
      *            A <code>String</code> containing the MIME part boundary string.
      *            An {@link OperationContext} object for tracking the current operation. Specify <code>null</code> to
      *            safely ignore operation context.
      * @return
-     *         A {@link MimePart} constructed by parsing the next MIME part data from the {@link BufferedReader}.
+     *         A {@link MimePart} constructed by parsing the next MIME part data from the {@link MimeReader}.
      * @throws IOException
      *             if an error occured accessing the input stream.
      * @throws StorageException
      *             if an error occured parsing the input stream.
      */
-    private static MimePart readMimePart(final BufferedReader reader, final String boundary,
+    private static MimePart readMimePart(final MimeReader reader, final String boundary,
             final OperationContext opContext) throws IOException, StorageException {
         final MimePart retPart = new MimePart();
         // Read HttpStatus code
         String tempStr = getNextLineSkippingBlankLines(reader);
-        if (!tempStr.startsWith("HTTP/1.1 ")) {
+        if (tempStr == null || !tempStr.startsWith("HTTP/1.1 ")) {
             throw generateMimeParseException();
         }
 
-        final String[] headerVals = tempStr.split(" ");
+        // "HTTP/1.1 XXX ".length() => 13
+        if (tempStr.length() < 13 || tempStr.charAt(12) != ' ') {
+            throw generateMimeParseException();
+        }
 
-        if (headerVals.length < 3) {
+        try {
+            retPart.httpStatusCode = Integer.parseInt(tempStr.substring(9, 12));
+        }
+        catch (final NumberFormatException e) {
             throw generateMimeParseException();
         }
 
-        retPart.httpStatusCode = Integer.parseInt(headerVals[1]);
-        // "HTTP/1.1 XXX ".length() => 13
         retPart.httpStatusMessage = tempStr.substring(13);
 
         // Read headers
         tempStr = reader.readLine();
         while (tempStr != null && tempStr.length() > 0) {
-            final String[] headerParts = tempStr.split(": ");
-            if (headerParts.length < 2) {
+            final int separator = tempStr.indexOf(": ");
+            if (separator < 0) {
                 throw generateMimeParseException();
             }
 
-            retPart.headers.put(headerParts[0], headerParts[1]);
+            retPart.headers.put(tempStr.substring(0, separator), tempStr.substring(separator + 2));
             tempStr = reader.readLine();
         }
 
-        // Store json payload
-        reader.mark(1024 * 1024);
-        tempStr = getNextLineSkippingBlankLines(reader);
-
-        if (tempStr == null) {
-            throw generateMimeParseException();
-        }
-
-        // empty body
-        if (tempStr.startsWith(boundary)) {
-            reader.reset();
-            retPart.payload = Constants.EMPTY_STRING;
-            return retPart;
-        }
-        final StringBuilder payloadBuilder = new StringBuilder();
-        // read until mime closure or end of file
-        while (!tempStr.startsWith(boundary)) {
-            payloadBuilder.append(tempStr);
-            reader.mark(1024 * 1024);
-            tempStr = getNextLineSkippingBlankLines(reader);
-            if (tempStr == null) {
+        // Locate the json payload, which ends at the next boundary
+        final byte[] buffer = reader.buffer;
+        int payloadStart = reader.position;
+        while (!reader.lineStartsWith(boundary)) {
+            if (reader.position >= reader.end) {
                 throw generateMimeParseException();
             }
+
+            reader.skipLine();
         }
 
         // positions stream at start of next MIME Header
-        reader.reset();
-
-        retPart.payload = payloadBuilder.toString();
+        int payloadEnd = reader.position;
+        while (payloadStart < payloadEnd && isLineWhitespace(buffer[payloadStart])) {
+            payloadStart++;
+        }
+        while (payloadEnd > payloadStart && isLineWhitespace(buffer[payloadEnd - 1])) {
+            payloadEnd--;
+        }
 
+        retPart.payload = buffer;
+        retPart.payloadOffset = payloadStart;
+        retPart.payloadLength = payloadEnd - payloadStart;
         return retPart;
     }
 
+    private static boolean isLineWhitespace(final byte b) {
+        return b == '\r' || b == '\n';
+    }
+
     /**
      * Reserved for internal use. Writes a MIME part boundary to the output stream.
      * 
-     * @param outWriter
-     *            The {@link OutputStreamWriter} to write the MIME part boundary to.
+     * @param outStream
+     *            The {@link MimeBuffer} to write the MIME part boundary to.
      * @param boundaryID
      *            The <code>String</code> containing the MIME part boundary string.
      * @throws IOException
      *             if an error occurs writing to the output stream.
      */
-    private static void writeMIMEBoundary(final OutputStreamWriter outWriter, final String boundaryID)
-            throws IOException {
-        outWriter.write(String.format("--%s\r\n", boundaryID));
+    private static void writeMIMEBoundary(final MimeBuffer outStream, final String boundaryID) throws IOException {
+        outStream.writeString("--");
+        outStream.writeString(boundaryID);
+        outStream.writeString("\r\n");
     }
 
     /**
      * Reserved for internal use. Writes a MIME part boundary closure to the output stream.
      * 
-     * @param outWriter
-     *            The {@link OutputStreamWriter} to write the MIME part boundary closure to.
+     * @param outStream
+     *            The {@link MimeBuffer} to write the MIME part boundary closure to.
      * @param boundaryID
      *            The <code>String</code> containing the MIME part boundary string.
      * @throws IOException
      *             if an error occurs writing to the output stream.
      */
-    private static void writeMIMEBoundaryClosure(final OutputStreamWriter outWriter, final String boundaryID)
+    private static void writeMIMEBoundaryClosure(final MimeBuffer outStream, final String boundaryID)
             throws IOException {
-        outWriter.write(String.format("--%s--\r\n", boundaryID));
+        outStream.writeString("--");
+        outStream.writeString(boundaryID);
+        outStream.writeString("--\r\n");
     }
 
     /**
      * Reserved for internal use. Writes a MIME content type string to the output stream.
      * 
-     * @param outWriter
-     *            The {@link OutputStreamWriter} to write the MIME content type string to.
+     * @param outStream
+     *            The {@link MimeBuffer} to write the MIME content type string to.
      * @param boundaryID
      *            The <code>String</code> containing the MIME part boundary string.
      * @throws IOException
      *             if an error occurs writing to the output stream.
      */
-    private static void writeMIMEContentType(final OutputStreamWriter outWriter, final String boundaryName)
+    private static void writeMIMEContentType(final MimeBuffer outStream, final String boundaryName)
             throws IOException {
-        outWriter.write(String.format("Content-Type: multipart/mixed; boundary=%s\r\n", boundaryName));
+        outStream.writeString("Content-Type: multipart/mixed; boundary=");
+        outStream.writeString(boundaryName);
+        outStream.writeString("\r\n");
     }
 
     /**
-     * Reserved for internal use. Generates a <code>String</code> containing the entity associated with an operation in
-     * Json format.
+     * Reserved for internal use. Writes the entity associated with an operation in Json format to the specified
+     * buffer, replacing its contents.
      * 
+     * @param entityBuffer
+     *            The {@link MimeBuffer} to write the entity to.
      * @param operation
-     *            A {@link TableOperation} containing the entity to write to the returned <code>String</code>.
+     *            A {@link TableOperation} containing the entity to write.
      * @param opContext
      *            An {@link OperationContext} object for tracking the current operation. Specify <code>null</code> to
      *            safely ignore operation context.
-     * @return
-     *         A <code>String</code> containing the entity associated with the operation in Json format
      * @throws StorageException
      *             if a Storage error occurs.
      * @throws IOException
      */
-    private static String writeStringForOperation(final TableOperation operation, TablePayloadFormat format,
+    private static void writeEntityForOperation(final MimeBuffer entityBuffer, final TableOperation operation,
             final OperationContext opContext) throws StorageException, IOException {
         Utility.assertNotNull("entity", operation.getEntity());
-        final StringWriter outWriter = new StringWriter();
-
-        TableEntitySerializer.writeSingleEntity(outWriter, operation.getEntity(), false, opContext);
-        outWriter.write("\r\n");
+        entityBuffer.reset();
 
-        return outWriter.toString();
+        TableEntitySerializer.writeSingleEntity(entityBuffer, operation.getEntity(), false, opContext);
+        entityBuffer.writeString("\r\n");
     }
 
     private static String generateAcceptHeaderValue(TablePayloadFormat payloadFormat) {
@@ -485,17 +554,17 @@ final class MimeHelper {
     }
 
     /**
-     * Reserved for internal use. Returns the next non-blank line from the {@link BufferedReader}.
+     * Reserved for internal use. Returns the next non-blank line from the {@link MimeReader}.
      * 
      * @param reader
-     *            The {@link BufferedReader} to read lines from.
+     *            The {@link MimeReader} to read lines from.
      * @return
-     *         A <code>String</code> containing the next non-blank line from the {@link BufferedReader}, or
+     *         A <code>String</code> containing the next non-blank line from the {@link MimeReader}, or
      *         <code>null</code>.
      * @throws IOException
-     *             if an error occurs reading from the {@link BufferedReader}.
+     *             if an error occurs reading from the {@link MimeReader}.
      */
-    private static String getNextLineSkippingBlankLines(final BufferedReader reader) throws IOException {
+    private static String getNextLineSkippingBlankLines(final MimeReader reader) throws IOException {
         String tString = null;
         do {
             tString = reader.readLine();
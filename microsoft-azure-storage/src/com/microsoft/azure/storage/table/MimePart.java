@@ -15,6 +15,8 @@
 
 package com.microsoft.azure.storage.table;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
@@ -28,35 +30,48 @@ final class MimePart {
     int httpStatusCode = -1;
     String httpStatusMessage;
     HashMap<String, String> headers = new HashMap<String, String>();
-    String payload;
+    byte[] payload;
+    int payloadOffset;
+    int payloadLength;
     TableOperationType op;
     URI requestIdentity;
 
-    String toRequestString() {
-        StringBuilder builder = new StringBuilder();
-
+    void writeRequest(MimeBuffer outStream) throws IOException {
         // append mime part header
-        appendHeader(builder);
+        writeHeader(outStream);
 
-        builder.append(String.format("%s %s HTTP/1.1\r\n", getHttpVerbForOperation(this.op),
-                this.requestIdentity.toString()));
+        outStream.writeString(getHttpVerbForOperation(this.op));
+        outStream.write(' ');
+        outStream.writeString(this.requestIdentity.toString());
+        outStream.writeString(" HTTP/1.1\r\n");
 
         for (Map.Entry<String, String> header : this.headers.entrySet()) {
-            builder.append(String.format("%s: %s\r\n", header.getKey(), header.getValue()));
+            outStream.writeString(header.getKey());
+            outStream.writeString(": ");
+            outStream.writeString(header.getValue());
+            outStream.writeString("\r\n");
         }
 
-        builder.append("\r\n");
+        outStream.writeString("\r\n");
 
         if (this.payload != null) {
-            builder.append(this.payload);
+            outStream.write(this.payload, this.payloadOffset, this.payloadLength);
         }
+    }
 
-        return builder.toString();
+    /**
+     * Reserved for internal use. Returns a stream over the payload of the part, which shares the response buffer.
+     * 
+     * @return
+     *         A <code>ByteArrayInputStream</code> containing the payload.
+     */
+    ByteArrayInputStream getPayloadStream() {
+        return new ByteArrayInputStream(this.payload, this.payloadOffset, this.payloadLength);
     }
 
-    static void appendHeader(StringBuilder builder) {
-        builder.append("Content-Type: application/http\r\n");
-        builder.append("Content-Transfer-Encoding: binary\r\n\r\n");
+    static void writeHeader(MimeBuffer outStream) throws IOException {
+        outStream.writeString("Content-Type: application/http\r\n");
+        outStream.writeString("Content-Transfer-Encoding: binary\r\n\r\n");
     }
 
     /**
@@ -244,6 +244,7 @@ public class QueryTableOperation extends TableOperation {
             }
         };
 
+        getRequest.setRateLimitPartitionKey(this.getPartitionKey());
         return getRequest;
     }
 
@@ -16,10 +16,9 @@
 package com.microsoft.azure.storage.table;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringReader;
+import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -424,11 +423,10 @@ public class TableBatchOperation extends ArrayList<TableOperation> {
             final OperationContext opContext) throws StorageException {
         final String batchID = String.format("batch_%s", UUID.randomUUID().toString());
         final String changeSet = String.format("changeset_%s", UUID.randomUUID().toString());
-        ByteArrayOutputStream sendStream = new ByteArrayOutputStream();
+        final MimeBuffer sendBuffer = new MimeBuffer(this.size() * Constants.KB);
         try {
-            MimeHelper.writeBatchToStream(sendStream, options, tableName, client.getTransformedEndPoint(opContext)
+            MimeHelper.writeBatchToStream(sendBuffer, options, tableName, client.getTransformedEndPoint(opContext)
                     .getPrimaryUri(), this, batchID, changeSet, opContext);
-            final byte[] batchBytes = sendStream.toByteArray();
             final StorageRequest<CloudTableClient, TableBatchOperation, ArrayList<TableResult>> batchRequest = new StorageRequest<CloudTableClient, TableBatchOperation, ArrayList<TableResult>>(
                     options, client.getStorageUri()) {
 
@@ -442,8 +440,8 @@ public class TableBatchOperation extends ArrayList<TableOperation> {
                 public HttpURLConnection buildRequest(CloudTableClient client, TableBatchOperation batch,
                         OperationContext context) throws Exception {
 
-                    this.setSendStream(new ByteArrayInputStream(batchBytes));
-                    this.setLength((long) batchBytes.length);
+                    this.setSendStream(sendBuffer.toInputStream());
+                    this.setLength((long) sendBuffer.size());
                     return TableRequest.batch(client.getTransformedEndPoint(context).getUri(this.getCurrentLocation()),
                             options, null, context, batchID);
                 }
@@ -523,7 +521,8 @@ public class TableBatchOperation extends ArrayList<TableOperation> {
 
                         if (failFlag) {
                             throw new TableServiceException(currMimePart.httpStatusCode,
-                                    currMimePart.httpStatusMessage, currOp, new StringReader(currMimePart.payload),
+                                    currMimePart.httpStatusMessage, currOp, new InputStreamReader(
+                                            currMimePart.getPayloadStream(), Constants.UTF8_CHARSET),
                                     options.getTablePayloadFormat());
                         }
 
@@ -531,7 +530,7 @@ public class TableBatchOperation extends ArrayList<TableOperation> {
 
                         if ((currOp.getOperationType() == TableOperationType.INSERT && currOp.getEchoContent())
                                 || currOp.getOperationType() == TableOperationType.RETRIEVE) {
-                            byteStream = new ByteArrayInputStream(currMimePart.payload.getBytes());
+                            byteStream = currMimePart.getPayloadStream();
                         }
 
                         result.add(currOp.parseResponse(byteStream, currMimePart.httpStatusCode,
@@ -547,6 +546,7 @@ public class TableBatchOperation extends ArrayList<TableOperation> {
                 }
             };
 
+            batchRequest.setRateLimitPartitionKey(this.partitionKey);
             return batchRequest;
         }
         catch (IOException e) {
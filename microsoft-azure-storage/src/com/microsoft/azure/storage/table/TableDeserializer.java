@@ -23,7 +23,6 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map.Entry;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
@@ -38,11 +37,10 @@ import com.microsoft.azure.storage.core.SR;
  * Reserved for internal use. A class used to read Table entities.
  */
 final class TableDeserializer {
-
     /**
-     * Used to create Json parsers and generators.
+     * The name of the etag metadata property, which is compared without building substrings of each name.
      */
-    private static JsonFactory jsonFactory = new JsonFactory();
+    private static final String ODATA_ETAG = ODataConstants.ODATA_PREFIX + ODataConstants.ETAG;
 
     /**
      * Reserved for internal use. Parses the operation response as a collection of entities. Reads entity data from the
@@ -86,7 +84,7 @@ final class TableDeserializer {
         ODataPayload<R> resolvedPayload = null;
         ODataPayload<?> commonPayload = null;
 
-        JsonParser parser = createJsonParserFromStream(inStream);
+        JsonParser parser = TableJsonCodec.createParser(inStream);
 
         try {
 
@@ -196,7 +194,7 @@ final class TableDeserializer {
             final TableRequestOptions options, final int httpStatusCode, final Class<T> clazzType,
             final EntityResolver<R> resolver, final OperationContext opContext) throws 
             InstantiationException, IllegalAccessException, StorageException, JsonParseException, IOException {
-        JsonParser parser = createJsonParserFromStream(inStream);
+        JsonParser parser = TableJsonCodec.createParser(inStream);
 
         try {
             final TableResult res = parseJsonEntity(parser, clazzType,
@@ -261,12 +259,12 @@ final class TableDeserializer {
 
         // get all metadata, if present
         while (parser.getCurrentName().startsWith(ODataConstants.ODATA_PREFIX)) {
-            final String name = parser.getCurrentName().substring(ODataConstants.ODATA_PREFIX.length());
+            final String name = parser.getCurrentName();
 
             // get the value token
             parser.nextToken();
 
-            if (name.equals(ODataConstants.ETAG)) {
+            if (name.equals(ODATA_ETAG)) {
                 String etag = parser.getValueAsString();
                 res.setEtag(etag);
             }
@@ -300,7 +298,7 @@ final class TableDeserializer {
 
                 parser.nextToken();
                 val = parser.getValueAsString();
-                edmType = evaluateEdmType(parser.getCurrentToken(), parser.getValueAsString());
+                edmType = evaluateEdmType(parser.getCurrentToken(), val);
             }
 
             final EntityProperty newProp = new EntityProperty(val, edmType);
@@ -431,16 +429,4 @@ final class TableDeserializer {
 
         return edmType;
     }
-
-    private static JsonParser createJsonParserFromStream(final InputStream streamRef) throws JsonParseException,
-            IOException {
-        JsonParser parser = jsonFactory.createParser(streamRef);
-        
-        return parser
-                // allows handling of infinity, -infinity, and NaN for Doubles
-                .enable(JsonParser.Feature.ALLOW_NON_NUMERIC_NUMBERS)
-                // don't close the stream and allow it to be drained completely
-                // in ExecutionEngine to improve socket reuse
-                .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
-    }
 }
@@ -16,11 +16,9 @@ package com.microsoft.azure.storage.table;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map.Entry;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.microsoft.azure.storage.OperationContext;
@@ -31,11 +29,6 @@ import com.microsoft.azure.storage.core.Utility;
  * RESERVED FOR INTERNAL USE. A class used to serialize table entities to a byte array.
  */
 final class TableEntitySerializer {
-    /**
-     * Used to create Json parsers and generators.
-     */
-    private static JsonFactory jsonFactory = new JsonFactory();
-
     /**
      * Reserved for internal use. Writes an entity to the stream as an JSON resource, leaving the stream open
      * for additional writing.
@@ -57,39 +50,7 @@ final class TableEntitySerializer {
      */
     static void writeSingleEntity(final OutputStream outStream, final TableEntity entity, final boolean isTableEntry,
             final OperationContext opContext) throws StorageException, IOException {
-        JsonGenerator generator = jsonFactory.createGenerator(outStream);
-
-        try {
-            // write to stream
-            writeJsonEntity(generator, entity, isTableEntry, opContext);
-        }
-        finally {
-            generator.close();
-        }
-    }
-
-    /**
-     * Reserved for internal use. Writes an entity to the stream as an JSON resource, leaving the stream open
-     * for additional writing.
-     * 
-     * @param strWriter
-     *            The <code>StringWriter</code> to write the entity to.
-     * @param entity
-     *            The instance implementing {@link TableEntity} to write to the output stream.
-     * @param isTableEntry
-     *            A flag indicating the entity is a reference to a table at the top level of the storage service when
-     *            <code>true<code> and a reference to an entity within a table when <code>false</code>.
-     * @param opContext
-     *            An {@link OperationContext} object used to track the execution of the operation.
-     * 
-     * @throws StorageException
-     *             if a Storage service error occurs.
-     * @throws IOException
-     *             if an error occurs while accessing the stream.
-     */
-    protected static void writeSingleEntity(final StringWriter strWriter, final TableEntity entity,
-            final boolean isTableEntry, final OperationContext opContext) throws StorageException, IOException {
-        JsonGenerator generator = jsonFactory.createGenerator(strWriter);
+        JsonGenerator generator = TableJsonCodec.createGenerator(outStream);
 
         try {
             // write to stream
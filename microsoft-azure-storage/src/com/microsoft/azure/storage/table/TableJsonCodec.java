@@ -0,0 +1,90 @@
+/**
+ * Copyright Microsoft Corporation
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microsoft.azure.storage.table;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * Reserved for internal use. Creates the Json parsers and generators for table payloads.
+ * <p>
+ * All parsers and generators come from one preconfigured factory, so no per-payload configuration is needed. Jackson
+ * recycles the read and write buffers of each thread once a parser or generator is closed, and property names read by
+ * closed parsers are merged into the factory's symbol table, so the names of a table's properties are decoded and
+ * interned once rather than once per entity.
+ */
+final class TableJsonCodec {
+    /**
+     * The factory shared by all table payloads.
+     */
+    private static final JsonFactory jsonFactory = new JsonFactory()
+            // allows handling of infinity, -infinity, and NaN for Doubles
+            .enable(JsonParser.Feature.ALLOW_NON_NUMERIC_NUMBERS)
+            // don't close the stream and allow it to be drained completely
+            // in ExecutionEngine to improve socket reuse
+            .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+            // leave request streams open for additional writing
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    /**
+     * Reserved for internal use. Creates a parser for a UTF-8 Json payload. The parser must be closed to release its
+     * buffers.
+     * 
+     * @param inStream
+     *            The <code>InputStream</code> containing the payload.
+     * @return The {@link JsonParser}.
+     * @throws IOException
+     *             if an error occurs while accessing the stream.
+     */
+    static JsonParser createParser(final InputStream inStream) throws IOException {
+        return jsonFactory.createParser(inStream);
+    }
+
+    /**
+     * Reserved for internal use. Creates a parser for a Json payload that has already been decoded. The parser must
+     * be closed to release its buffers.
+     * 
+     * @param reader
+     *            The <code>Reader</code> containing the payload.
+     * @return The {@link JsonParser}.
+     * @throws IOException
+     *             if an error occurs while accessing the reader.
+     */
+    static JsonParser createParser(final Reader reader) throws IOException {
+        return jsonFactory.createParser(reader);
+    }
+
+    /**
+     * Reserved for internal use. Creates a generator which writes UTF-8 bytes directly to the specified stream. The
+     * generator must be closed to flush its output and release its buffers; the stream is left open.
+     * 
+     * @param outStream
+     *            The <code>OutputStream</code> to write to.
+     * @return The {@link JsonGenerator}.
+     * @throws IOException
+     *             if an error occurs while accessing the stream.
+     */
+    static JsonGenerator createGenerator(final OutputStream outStream) throws IOException {
+        return jsonFactory.createGenerator(outStream, JsonEncoding.UTF8);
+    }
+}
@@ -329,6 +329,10 @@ public class TableOperation {
             }
         };
 
+        if (!isTableEntry) {
+            deleteRequest.setRateLimitPartitionKey(this.getEntity().getPartitionKey());
+        }
+
         return deleteRequest;
     }
 
@@ -450,6 +454,10 @@ public class TableOperation {
                 }
             };
 
+            if (!isTableEntry) {
+                putRequest.setRateLimitPartitionKey(this.getEntity().getPartitionKey());
+            }
+
             return putRequest;
         }
         catch (IOException e) {
@@ -543,6 +551,7 @@ public class TableOperation {
                 }
             };
 
+            putRequest.setRateLimitPartitionKey(this.getEntity().getPartitionKey());
             return putRequest;
         }
         catch (IOException e) {
@@ -635,6 +644,7 @@ public class TableOperation {
                 }
             };
 
+            putRequest.setRateLimitPartitionKey(this.getEntity().getPartitionKey());
             return putRequest;
         }
         catch (IOException e) {
@@ -20,7 +20,6 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.HashMap;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
@@ -49,8 +48,7 @@ final class TableStorageErrorDeserializer {
     public static StorageExtendedErrorInformation getExtendedErrorInformation(final Reader reader,
             final TablePayloadFormat format) throws JsonParseException, IOException {
 
-        JsonFactory jsonFactory = new JsonFactory();
-        JsonParser parser = jsonFactory.createParser(reader);
+        JsonParser parser = TableJsonCodec.createParser(reader);
         try {
             final StorageExtendedErrorInformation errorInfo = new StorageExtendedErrorInformation();
 